@@ -4,9 +4,14 @@ import android.app.Application;
 
 import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemPojo;
 import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemService;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemSource;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
 import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItem;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
 
 import org.mockito.ArgumentCaptor;
 
@@ -14,11 +19,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.callbacks.SuccessCallbackWithPayload;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.logging.SystemLogger;
-import co.early.fore.retrofit.CallProcessor;
+import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
 import retrofit2.Retrofit;
 
 import static org.mockito.Matchers.any;
@@ -72,7 +73,7 @@ public class TestAppModule extends AppModule {
      */
 
     @Override
-    public TaskItemDatabase provideTaskItemDatabase(WorkMode workMode) {
+    public TaskItemDatabase provideTaskItemDatabase(Logger logger, WorkMode workMode) {
         return TaskItemDatabase.getInstance(app, true, workMode);
     }
 
@@ -82,29 +83,27 @@ public class TestAppModule extends AppModule {
      */
 
     @Override
-    public CallProcessor<UserMessage> provideCallProcessor(Logger logger) {
-        logger.i(LOG_TAG, "provideCallProcessor()");
+    public TaskItemService provideTaskItemService(Retrofit retrofit) {
+        return mock(TaskItemService.class);
+    }
 
+    @Override
+    public TaskItemSource provideTaskItemSource(TaskItemService taskItemService, CallProcessorRetrofit2<UserMessage> callProcessor) {
         List<TaskItemPojo> TASK_POJOS_FROM_SERVER = Stream.of(
                 new TaskItemPojo("task title", "task description", false))
                 .collect(Collectors.toList());
 
-        CallProcessor<UserMessage> mockCallProcessor = mock(CallProcessor.class);
+        TaskItemSource mockTaskItemSource = mock(TaskItemSource.class);
 
         final ArgumentCaptor<SuccessCallbackWithPayload> callback = ArgumentCaptor.forClass(SuccessCallbackWithPayload.class);
         doAnswer(__ -> {
             callback.getValue().success(TASK_POJOS_FROM_SERVER);
             return null;
         })
-                .when(mockCallProcessor)
-                .processCall(any(), any(), any(), callback.capture(), any());
+                .when(mockTaskItemSource)
+                .fetchTaskItems(any(), callback.capture(), any());
 
-        return mockCallProcessor;
-    }
-
-    @Override
-    public TaskItemService provideTaskItemService(Retrofit retrofit) {
-        return mock(TaskItemService.class);
+        return mockTaskItemSource;
     }
 
 }
@@ -0,0 +1,137 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.android.architecture.blueprints.todoapp.db.migrations.MigrationProgress;
+import com.example.android.architecture.blueprints.todoapp.logging.AndroidLogger;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Read and write throughput of each StorageProfile on a file based db of 10k and 100k rows:
+ * a chunked import, a burst of single row updates (a transaction each), full reads and random
+ * lookups by id. Each run starts from a fresh file so that page_size takes effect. There's no
+ * target, the numbers are for choosing TaskStorage's STORAGE_PROFILE.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class StorageProfileBenchmark {
+
+    private static final String LOG_TAG = StorageProfileBenchmark.class.getSimpleName();
+    private static final String DB_NAME = "storage-profile-benchmark";
+    private static final int CHUNK_SIZE = 2000;
+    private static final int UPDATES = 1000;
+    private static final int FULL_READS = 3;
+    private static final int LOOKUPS = 5000;
+
+    private Application application;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void tenThousandRows() {
+        for (StorageProfile profile : StorageProfile.values()) {
+            run(profile, 10_000);
+        }
+    }
+
+    @Test
+    public void oneHundredThousandRows() {
+        for (StorageProfile profile : StorageProfile.values()) {
+            run(profile, 100_000);
+        }
+    }
+
+    private void run(StorageProfile profile, int rows) {
+
+        application.deleteDatabase(DB_NAME);
+        TaskItemDatabase database = TaskItemDatabase.build(application, DB_NAME, WorkMode.SYNCHRONOUS,
+                MigrationProgress.NONE, profile);
+
+        try {
+            TaskStore taskStore = new RoomTaskStore(database, new AndroidLogger("benchmark"));
+
+            long start = SystemClock.elapsedRealtime();
+            Iterator<TaskItemEntity> source = generate(rows);
+            while (source.hasNext()) {
+                taskStore.importTaskItems(source, CHUNK_SIZE);
+            }
+            long importMs = SystemClock.elapsedRealtime() - start;
+
+            List<TaskItemEntity> all = taskStore.getAllTaskItemsOldestFirst();
+            start = SystemClock.elapsedRealtime();
+            for (int ii = 0; ii < UPDATES; ii++) {
+                TaskItemEntity taskItemEntity = all.get(ii % all.size());
+                taskItemEntity.setCompleted(!taskItemEntity.isCompleted());
+                taskStore.updateTaskItem(taskItemEntity);
+            }
+            long updatesMs = SystemClock.elapsedRealtime() - start;
+
+            start = SystemClock.elapsedRealtime();
+            int read = 0;
+            for (int ii = 0; ii < FULL_READS; ii++) {
+                read += taskStore.getAllTaskItems().size();
+            }
+            long fullReadsMs = SystemClock.elapsedRealtime() - start;
+
+            Random random = new Random(rows);
+            start = SystemClock.elapsedRealtime();
+            int found = 0;
+            for (int ii = 0; ii < LOOKUPS; ii++) {
+                if (taskStore.getTaskItem(all.get(random.nextInt(all.size())).getId()) != null) {
+                    found++;
+                }
+            }
+            long lookupsMs = SystemClock.elapsedRealtime() - start;
+
+            Log.i(LOG_TAG, profile + " " + rows + " rows, import:" + perSecond(rows, importMs)
+                    + " rows/s, single row updates:" + perSecond(UPDATES, updatesMs)
+                    + "/s, full reads:" + perSecond(read, fullReadsMs)
+                    + " rows/s, lookups by id:" + perSecond(LOOKUPS, lookupsMs) + "/s");
+
+            Assert.assertEquals(rows, all.size());
+            Assert.assertEquals(rows * FULL_READS, read);
+            Assert.assertEquals(LOOKUPS, found);
+        } finally {
+            database.close();
+        }
+    }
+
+    private static long perSecond(int count, long ms) {
+        return count * 1000L / Math.max(1, ms);
+    }
+
+    private static Iterator<TaskItemEntity> generate(int rows) {
+        List<TaskItemEntity> taskItemEntities = new ArrayList<>(rows);
+        for (int ii = 0; ii < rows; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "description " + ii);
+            taskItemEntity.setCompleted(ii % 3 == 0);
+            taskItemEntities.add(taskItemEntity);
+        }
+        return taskItemEntities.iterator();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.arch.persistence.room.Room;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Iterator;
+
+/**
+ * A 1M row round trip through a backup file: export from one file based db, import into
+ * another. This is the same paging and chunking that TaskListModel does, without the threading.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class TaskArchiveBenchmark {
+
+    private static final String LOG_TAG = TaskArchiveBenchmark.class.getSimpleName();
+    private static final String SOURCE_DB_NAME = "archive-benchmark-source";
+    private static final String TARGET_DB_NAME = "archive-benchmark-target";
+    private static final int ROWS = 1_000_000;
+    private static final int CHUNK_SIZE = 2000;
+    private static final long TARGET_ROUND_TRIP_MS = 30_000;
+
+    private Application application;
+    private TaskItemDatabase sourceDatabase;
+    private TaskItemDatabase targetDatabase;
+    private File archiveFile;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(SOURCE_DB_NAME);
+        application.deleteDatabase(TARGET_DB_NAME);
+        sourceDatabase = Room.databaseBuilder(application, TaskItemDatabase.class, SOURCE_DB_NAME).build();
+        targetDatabase = Room.databaseBuilder(application, TaskItemDatabase.class, TARGET_DB_NAME).build();
+        archiveFile = new File(application.getCacheDir(), "archive-benchmark.tasks");
+    }
+
+    @After
+    public void tearDown() {
+        sourceDatabase.close();
+        targetDatabase.close();
+        application.deleteDatabase(SOURCE_DB_NAME);
+        application.deleteDatabase(TARGET_DB_NAME);
+        //noinspection ResultOfMethodCallIgnored
+        archiveFile.delete();
+    }
+
+    @Test
+    public void exportThenImport_1MRows() throws Exception {
+
+        //arrange
+        TaskItemDao sourceDao = sourceDatabase.taskItemDao();
+        Iterator<TaskItemEntity> source = generate(ROWS);
+        while (source.hasNext()) {
+            sourceDao.importTaskItems(source, CHUNK_SIZE);
+        }
+
+        //act
+        long start = SystemClock.elapsedRealtime();
+        TaskArchive.Writer writer = new TaskArchive.Writer(archiveFile);
+        int rows;
+        do {
+            Cursor cursor = sourceDao.getTaskItemsCursor(writer.getLastId(), CHUNK_SIZE);
+            try {
+                rows = RoomTaskStore.writeRows(writer, cursor);
+            } finally {
+                cursor.close();
+            }
+        } while (rows > 0);
+        writer.close();
+        long exportMs = SystemClock.elapsedRealtime() - start;
+
+        start = SystemClock.elapsedRealtime();
+        TaskItemDao targetDao = targetDatabase.taskItemDao();
+        TaskArchive.Reader reader = new TaskArchive.Reader(archiveFile);
+        int imported = 0;
+        while (reader.hasNext()) {
+            imported += targetDao.importTaskItems(reader, CHUNK_SIZE);
+        }
+        reader.close();
+        long importMs = SystemClock.elapsedRealtime() - start;
+
+        //assert
+        Log.i(LOG_TAG, "exported " + writer.getRowCount() + " rows (" + archiveFile.length() + " bytes) in "
+                + exportMs + "ms, imported " + imported + " rows in " + importMs + "ms");
+        Assert.assertEquals(ROWS, writer.getRowCount());
+        Assert.assertEquals(ROWS, imported);
+        Assert.assertEquals(ROWS, (int) targetDao.getRowCount());
+        Assert.assertEquals((int) sourceDao.getDoneRowCount(), (int) targetDao.getDoneRowCount());
+        Assert.assertTrue("round trip took " + (exportMs + importMs) + "ms", exportMs + importMs < TARGET_ROUND_TRIP_MS);
+    }
+
+    private static Iterator<TaskItemEntity> generate(final int count) {
+        return new Iterator<TaskItemEntity>() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public TaskItemEntity next() {
+                TaskItemEntity taskItemEntity = new TaskItemEntity(next, "archived task " + next, "description " + next);
+                taskItemEntity.setCompleted(next % 3 == 0);
+                next++;
+                return taskItemEntity;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
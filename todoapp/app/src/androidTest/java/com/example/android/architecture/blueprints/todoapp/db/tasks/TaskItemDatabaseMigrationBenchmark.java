@@ -0,0 +1,147 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.arch.persistence.db.SupportSQLiteStatement;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
+import android.arch.persistence.room.Room;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs each migration for real on a file based db holding 100k tasks, and logs how long it took.
+ * <p>
+ * The old versions are created by hand here (with the same SQL Room generated for them) because
+ * Room's schemas aren't exported. Opening the db with Room runs the migrations
+ * and then validates the result against the current entities, so a migration that leaves the
+ * schema slightly off fails here too.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class TaskItemDatabaseMigrationBenchmark {
+
+    private static final String LOG_TAG = TaskItemDatabaseMigrationBenchmark.class.getSimpleName();
+    private static final String DB_NAME = "migration-benchmark";
+    private static final int ROWS = 100_000;
+
+    private Application application;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void migrate1ToCurrent_100kRows() throws Exception {
+        benchmarkMigrationFrom(1);
+    }
+
+    @Test
+    public void migrate2ToCurrent_100kRows() throws Exception {
+        benchmarkMigrationFrom(2);
+    }
+
+    private void benchmarkMigrationFrom(int oldVersion) {
+
+        //arrange
+        createOldDatabase(oldVersion);
+        AtomicLong lastRowsDone = new AtomicLong(-1);
+        TaskItemDatabase database = Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME)
+                .addMigrations(TaskItemDatabase.createMigrationRegistry(
+                        (startVersion, endVersion, rowsDone, rowsTotal) -> lastRowsDone.set(rowsDone)).getMigrations())
+                .build();
+
+        //act
+        long start = SystemClock.elapsedRealtime();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        long durationMs = SystemClock.elapsedRealtime() - start;
+
+        //assert
+        Log.i(LOG_TAG, "migrated " + ROWS + " rows from version " + oldVersion + " to "
+                + TaskItemDatabase.VERSION + " in " + durationMs + "ms");
+        Assert.assertEquals(TaskItemDatabase.VERSION, db.getVersion());
+        Assert.assertEquals(ROWS, queryLong(db, "SELECT COUNT(*) FROM " + TaskItemEntity.TABLE_NAME));
+        Assert.assertEquals(ROWS, queryLong(db, "SELECT MAX(" + TaskItemEntity.COLUMN_ID + ") FROM " + TaskItemEntity.TABLE_NAME));
+        Assert.assertEquals(ROWS, lastRowsDone.get());
+        database.close();
+    }
+
+    private void createOldDatabase(int version) {
+
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(application)
+                        .name(DB_NAME)
+                        .callback(new SupportSQLiteOpenHelper.Callback(version) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase db) {
+                                createVersion1(db);
+                                if (version >= 2) {
+                                    TaskItemDatabase.MIGRATION_1_2.migrate(db);
+                                }
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SupportSQLiteStatement insert = db.compileStatement("INSERT INTO " + TaskItemEntity.TABLE_NAME + " ("
+                    + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + ", "
+                    + TaskItemEntity.COLUMN_TITLE + ", "
+                    + TaskItemEntity.COLUMN_DESCRIPTION + ", "
+                    + TaskItemEntity.COLUMN_COMPLETED + ") VALUES (?, ?, ?, ?)");
+            for (int ii = 0; ii < ROWS; ii++) {
+                insert.bindLong(1, ii);
+                insert.bindString(2, "task number " + ii);
+                insert.bindString(3, "description of task number " + ii);
+                insert.bindLong(4, ii % 3 == 0 ? 1 : 0);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        helper.close();
+    }
+
+    //as generated by Room for version 1
+    private static void createVersion1(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `TaskItemEntity` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`create_timestamp` INTEGER NOT NULL, `title` TEXT, `description` TEXT, `completed` INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX `index_TaskItemEntity_create_timestamp` ON `TaskItemEntity` (`create_timestamp`)");
+        db.execSQL("CREATE INDEX `index_TaskItemEntity_completed` ON `TaskItemEntity` (`completed`)");
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        Cursor cursor = db.query(sql, new Object[0]);
+        try {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
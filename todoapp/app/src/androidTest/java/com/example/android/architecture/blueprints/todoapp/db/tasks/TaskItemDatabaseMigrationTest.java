@@ -0,0 +1,130 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
+import android.arch.persistence.room.Room;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.SmallTest;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.example.android.architecture.blueprints.todoapp.db.migrations.MigrationProgress;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Checks that ids are never handed out twice across the 2->3 table rebuild, including when every
+ * row has been deleted before the upgrade (the new table then has no sqlite_sequence row of its
+ * own). Version 2 is created by hand, as in TaskItemDatabaseMigrationBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class TaskItemDatabaseMigrationTest {
+
+    private static final String DB_NAME = "migration-test";
+
+    private Application application;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void whenTableWasEmptied_idsCarryOnFromTheOldSequence() throws Exception {
+
+        //arrange
+        createVersion2Database(3, true);
+
+        //act
+        TaskItemDatabase database = openWithRoom();
+        long id = database.taskItemDao().insertTaskItem(new TaskItemEntity(4000, "walk dog", null));
+
+        //assert
+        Assert.assertEquals(4, id);
+        Assert.assertEquals(1, (int) database.taskItemDao().getRowCount());
+        database.close();
+    }
+
+    @Test
+    public void whenTableHasRows_idsCarryOnFromTheOldSequence() throws Exception {
+
+        //arrange
+        createVersion2Database(3, false);
+
+        //act
+        TaskItemDatabase database = openWithRoom();
+        long id = database.taskItemDao().insertTaskItem(new TaskItemEntity(4000, "walk dog", null));
+
+        //assert
+        Assert.assertEquals(4, id);
+        Assert.assertEquals(4, (int) database.taskItemDao().getRowCount());
+        database.close();
+    }
+
+    @Test
+    public void whenTableWasNeverUsed_idsStartAtOne() throws Exception {
+
+        //arrange
+        createVersion2Database(0, false);
+
+        //act
+        TaskItemDatabase database = openWithRoom();
+        long id = database.taskItemDao().insertTaskItem(new TaskItemEntity(4000, "walk dog", null));
+
+        //assert
+        Assert.assertEquals(1, id);
+        database.close();
+    }
+
+    private TaskItemDatabase openWithRoom() {
+        return Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME)
+                .addMigrations(TaskItemDatabase.createMigrationRegistry(MigrationProgress.NONE).getMigrations())
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    private void createVersion2Database(int rows, boolean deleteThemAll) {
+
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(application)
+                        .name(DB_NAME)
+                        .callback(new SupportSQLiteOpenHelper.Callback(2) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase db) {
+                                //as generated by Room for version 1
+                                db.execSQL("CREATE TABLE IF NOT EXISTS `TaskItemEntity` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                                        + "`create_timestamp` INTEGER NOT NULL, `title` TEXT, `description` TEXT, `completed` INTEGER NOT NULL)");
+                                db.execSQL("CREATE INDEX `index_TaskItemEntity_create_timestamp` ON `TaskItemEntity` (`create_timestamp`)");
+                                db.execSQL("CREATE INDEX `index_TaskItemEntity_completed` ON `TaskItemEntity` (`completed`)");
+                                TaskItemDatabase.MIGRATION_1_2.migrate(db);
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+        for (int ii = 0; ii < rows; ii++) {
+            db.execSQL("INSERT INTO `TaskItemEntity` (`create_timestamp`, `title`, `description`, `completed`) VALUES (?, ?, ?, 0)",
+                    new Object[]{ii, "task number " + ii, "description of task number " + ii});
+        }
+        if (deleteThemAll) {
+            db.execSQL("DELETE FROM `TaskItemEntity`");
+        }
+        helper.close();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.arch.persistence.room.Room;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Import throughput on a file based db (the real thing, not in memory), rows are generated as
+ * they are read so the source costs next to nothing. The target is 50k rows/sec.
+ * <p>
+ * Room's generated @Insert is timed too, for comparison.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class TaskItemImportBenchmark {
+
+    private static final String LOG_TAG = TaskItemImportBenchmark.class.getSimpleName();
+    private static final String DB_NAME = "import-benchmark";
+    private static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 2000;
+    private static final int TARGET_ROWS_PER_SEC = 50_000;
+
+    private Application application;
+    private TaskItemDatabase database;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME).build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void importTaskItems_100kRows() throws Exception {
+
+        //arrange
+        TaskItemDao dao = database.taskItemDao();
+        Iterator<TaskItemEntity> source = generate(ROWS);
+
+        //act
+        long start = SystemClock.elapsedRealtime();
+        int rows = 0;
+        while (source.hasNext()) {
+            rows += dao.importTaskItems(source, CHUNK_SIZE);
+        }
+        long durationMs = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+        //assert
+        long rowsPerSec = rows * 1000L / durationMs;
+        Log.i(LOG_TAG, "importTaskItems() " + rows + " rows in " + durationMs + "ms, " + rowsPerSec + " rows/sec");
+        Assert.assertEquals(ROWS, rows);
+        Assert.assertEquals(ROWS, (int) dao.getRowCount());
+        Assert.assertTrue("only " + rowsPerSec + " rows/sec", rowsPerSec > TARGET_ROWS_PER_SEC);
+    }
+
+    @Test
+    public void insertManyTaskItems_100kRows_forComparison() throws Exception {
+
+        //arrange
+        TaskItemDao dao = database.taskItemDao();
+        Iterator<TaskItemEntity> source = generate(ROWS);
+
+        //act
+        long start = SystemClock.elapsedRealtime();
+        List<TaskItemEntity> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (source.hasNext()) {
+            chunk.clear();
+            while (chunk.size() < CHUNK_SIZE && source.hasNext()) {
+                chunk.add(source.next());
+            }
+            dao.insertManyTaskItems(chunk);
+        }
+        long durationMs = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+        //assert
+        Log.i(LOG_TAG, "insertManyTaskItems() " + ROWS + " rows in " + durationMs + "ms, " + (ROWS * 1000L / durationMs) + " rows/sec");
+        Assert.assertEquals(ROWS, (int) dao.getRowCount());
+    }
+
+    private static Iterator<TaskItemEntity> generate(final int count) {
+        return new Iterator<TaskItemEntity>() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public TaskItemEntity next() {
+                TaskItemEntity taskItemEntity = new TaskItemEntity(next, "imported task " + next, "description " + next);
+                taskItemEntity.setCompleted(next % 3 == 0);
+                next++;
+                return taskItemEntity;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
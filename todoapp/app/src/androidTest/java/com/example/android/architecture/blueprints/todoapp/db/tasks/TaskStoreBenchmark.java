@@ -0,0 +1,131 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.app.Application;
+import android.arch.persistence.room.Room;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.android.architecture.blueprints.todoapp.logging.AndroidLogger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The same work on each TaskStore engine, on file based storage for the ones that have any:
+ * a chunked import, a burst of single row updates (a transaction each), a full read in each
+ * sort order, and a reopen. There's no target, the numbers are for choosing between engines,
+ * see StorageEngine.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class TaskStoreBenchmark {
+
+    private static final String LOG_TAG = TaskStoreBenchmark.class.getSimpleName();
+    private static final String DB_NAME = "task-store-benchmark";
+    private static final String LOG_FILE_NAME = "task-store-benchmark.log";
+    private static final int ROWS = 10_000;
+    private static final int CHUNK_SIZE = 2000;
+    private static final int UPDATES = 1000;
+
+    private Application application;
+    private File logFile;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+        logFile = new File(application.getFilesDir(), LOG_FILE_NAME);
+        logFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        application.deleteDatabase(DB_NAME);
+        logFile.delete();
+    }
+
+    @Test
+    public void room() throws Exception {
+        TaskItemDatabase database = Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME).build();
+        try {
+            run(StorageEngine.ROOM, new RoomTaskStore(database, new AndroidLogger("benchmark")));
+            long start = SystemClock.elapsedRealtime();
+            database.close();
+            database = Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME).build();
+            Assert.assertEquals(ROWS, (int) database.taskItemDao().getRowCount());
+            Log.i(LOG_TAG, StorageEngine.ROOM + " reopen and count:" + (SystemClock.elapsedRealtime() - start) + "ms");
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    public void inMemory() throws Exception {
+        run(StorageEngine.IN_MEMORY, new InMemoryTaskStore());
+    }
+
+    @Test
+    public void logStructured() throws Exception {
+        LogStructuredTaskStore taskStore = new LogStructuredTaskStore(logFile, new AndroidLogger("benchmark"));
+        run(StorageEngine.LOG_STRUCTURED, taskStore);
+        taskStore.close();
+
+        long start = SystemClock.elapsedRealtime();
+        LogStructuredTaskStore reopened = new LogStructuredTaskStore(logFile, new AndroidLogger("benchmark"));
+        Assert.assertEquals(ROWS, reopened.getRowCount());
+        Log.i(LOG_TAG, StorageEngine.LOG_STRUCTURED + " reopen and count:" + (SystemClock.elapsedRealtime() - start)
+                + "ms, log bytes:" + reopened.getLogBytes());
+        reopened.close();
+    }
+
+    private void run(StorageEngine engine, TaskStore taskStore) {
+
+        long start = SystemClock.elapsedRealtime();
+        Iterator<TaskItemEntity> source = generate(ROWS);
+        while (source.hasNext()) {
+            taskStore.importTaskItems(source, CHUNK_SIZE);
+        }
+        long importMs = SystemClock.elapsedRealtime() - start;
+
+        List<TaskItemEntity> rows = taskStore.getAllTaskItemsOldestFirst();
+        start = SystemClock.elapsedRealtime();
+        for (int ii = 0; ii < UPDATES; ii++) {
+            TaskItemEntity taskItemEntity = rows.get(ii % rows.size());
+            taskItemEntity.setCompleted(!taskItemEntity.isCompleted());
+            taskStore.updateTaskItem(taskItemEntity);
+        }
+        long updatesMs = SystemClock.elapsedRealtime() - start;
+
+        start = SystemClock.elapsedRealtime();
+        int read = taskStore.getAllTaskItems().size()
+                + taskStore.getAllTaskItemsOldestFirst().size()
+                + taskStore.getAllTaskItemsByTitle().size()
+                + taskStore.getAllTaskItemsActiveFirst().size();
+        long readsMs = SystemClock.elapsedRealtime() - start;
+
+        Log.i(LOG_TAG, engine + " import " + ROWS + " rows:" + importMs + "ms, " + UPDATES + " updates:" + updatesMs
+                + "ms, read every order:" + readsMs + "ms");
+        Assert.assertEquals(ROWS * 4, read);
+    }
+
+    private static Iterator<TaskItemEntity> generate(int rows) {
+        List<TaskItemEntity> taskItemEntities = new ArrayList<>(rows);
+        for (int ii = 0; ii < rows; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "description " + ii);
+            taskItemEntity.setCompleted(ii % 3 == 0);
+            taskItemEntities.add(taskItemEntity);
+        }
+        return taskItemEntities.iterator();
+    }
+}
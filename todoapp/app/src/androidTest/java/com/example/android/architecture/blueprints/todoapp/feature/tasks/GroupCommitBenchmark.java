@@ -0,0 +1,111 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.app.Application;
+import android.arch.persistence.room.Room;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDao;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.AndroidLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.AndroidUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of single row updates (like a user ticking off tasks as fast as they can) on a file
+ * based db: one transaction per write, which is what TaskListModel used to do, vs the same
+ * writes through a GroupCommitWriter. The target is a 5x improvement.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class GroupCommitBenchmark {
+
+    private static final String LOG_TAG = GroupCommitBenchmark.class.getSimpleName();
+    private static final String DB_NAME = "group-commit-benchmark";
+    private static final int ROWS = 100;
+    private static final int WRITES = 1000;
+    private static final int TARGET_SPEED_UP = 5;
+
+    private Application application;
+    private TaskItemDatabase database;
+    private List<TaskItemEntity> rows;
+
+    @Before
+    public void setup() {
+        application = (Application) InstrumentationRegistry.getTargetContext().getApplicationContext();
+        application.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(application, TaskItemDatabase.class, DB_NAME).build();
+        rows = new ArrayList<>();
+        for (int ii = 0; ii < ROWS; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "");
+            taskItemEntity.setId(database.taskItemDao().insertTaskItem(taskItemEntity));
+            rows.add(taskItemEntity);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        application.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void burstOfUpdates_oneTransactionEach_vsGroupCommit() throws Exception {
+
+        //arrange
+        TaskItemDao dao = database.taskItemDao();
+        LevelLogger logger = LevelLogger.wrap(new AndroidLogger("benchmark"));
+        MetricsRegistry metrics = new MetricsRegistry();
+        ModelScheduler scheduler = new ThreadPoolModelScheduler(new AndroidUiThread(), logger, metrics, WorkMode.ASYNCHRONOUS);
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(database, logger), new Object(), scheduler, logger, metrics,
+                WorkMode.ASYNCHRONOUS, GroupCommitWriter.DEFAULT_WINDOW_MS);
+        CountDownLatch latch = new CountDownLatch(WRITES);
+
+        //act
+        long start = SystemClock.elapsedRealtime();
+        for (int ii = 0; ii < WRITES; ii++) {
+            dao.updateTaskItem(toggled(ii));
+        }
+        long oneEachMs = SystemClock.elapsedRealtime() - start;
+
+        start = SystemClock.elapsedRealtime();
+        for (int ii = 0; ii < WRITES; ii++) {
+            TaskItemEntity taskItemEntity = toggled(ii);
+            writer.submit(taskStore -> taskStore.updateTaskItem(taskItemEntity), (succeeded, updated) -> latch.countDown());
+        }
+        Assert.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        long groupedMs = SystemClock.elapsedRealtime() - start;
+
+        //assert
+        Log.i(LOG_TAG, WRITES + " updates, one transaction each:" + oneEachMs + "ms, group commit:" + groupedMs
+                + "ms (" + metrics.values(GroupCommitWriter.METRIC_WRITES_PER_COMMIT).getCount() + " commits)");
+        Assert.assertTrue("one each:" + oneEachMs + "ms grouped:" + groupedMs + "ms",
+                groupedMs * TARGET_SPEED_UP <= oneEachMs);
+    }
+
+    private TaskItemEntity toggled(int write) {
+        TaskItemEntity taskItemEntity = new TaskItemEntity(rows.get(write % ROWS));
+        taskItemEntity.setCompleted(write % 2 == 0);
+        return taskItemEntity;
+    }
+}
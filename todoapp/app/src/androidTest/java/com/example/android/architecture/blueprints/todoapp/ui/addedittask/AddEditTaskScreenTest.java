@@ -48,7 +48,7 @@ import static android.support.test.espresso.action.ViewActions.click;
 import static android.support.test.espresso.assertion.ViewAssertions.matches;
 import static android.support.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static android.support.test.espresso.matcher.ViewMatchers.withId;
-import static co.early.fore.core.testhelpers.CountDownLatchWrapper.runInBatch;
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
 import static com.example.android.architecture.blueprints.todoapp.R.id.toolbar;
 
 /**
@@ -57,7 +57,7 @@ import static android.support.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static android.support.test.espresso.matcher.ViewMatchers.withContentDescription;
 import static android.support.test.espresso.matcher.ViewMatchers.withId;
 import static android.support.test.espresso.matcher.ViewMatchers.withText;
-import static co.early.fore.core.testhelpers.CountDownLatchWrapper.runInBatch;
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
 import static com.example.android.architecture.blueprints.todoapp.TestUtils.getCurrentActivity;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.core.IsNot.not;
@@ -2,6 +2,10 @@ package com.example.android.architecture.blueprints.todoapp;
 
 import android.app.Application;
 
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+
+import java.io.File;
+
 
 /**
  * Try not to fill your own version of this class with lots of code, if possible move
@@ -44,7 +48,10 @@ public class App extends Application {
         // run any initialisation code here
         if (!initialized) {
             initialized = true;
-            inst().appComponent.getTaskListModel().fetchLatestFromDb();
+            TaskListModel taskListModel = inst().appComponent.getTaskListModel();
+            //shows the list as it was last time while the db opens
+            taskListModel.restoreStartupSnapshot(new File(getFilesDir(), TaskListModel.STARTUP_SNAPSHOT_FILE_NAME));
+            taskListModel.fetchLatestFromDb();
         }
     }
 
@@ -3,10 +3,11 @@ package com.example.android.architecture.blueprints.todoapp;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
 
 import javax.inject.Singleton;
 
-import co.early.fore.core.logging.Logger;
 import dagger.Component;
 
 @Singleton
@@ -15,6 +16,7 @@ public interface AppComponent {
 
     //expose dependencies we want accessible from anywhere
     Logger getLogger();
+    MetricsRegistry getMetricsRegistry();
     CurrentTaskModel getCurrentTaskModel();
     TaskFetcher getTaskFetcher();
     TaskListModel getTaskListModel();
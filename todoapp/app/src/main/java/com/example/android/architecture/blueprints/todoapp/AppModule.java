@@ -5,17 +5,33 @@ import android.app.Application;
 import com.example.android.architecture.blueprints.todoapp.api.CustomGlobalErrorHandler;
 import com.example.android.architecture.blueprints.todoapp.api.CustomGlobalRequestInterceptor;
 import com.example.android.architecture.blueprints.todoapp.api.CustomRetrofitBuilder;
+import com.example.android.architecture.blueprints.todoapp.api.InterceptorMetrics;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.RetrofitTaskItemSource;
 import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemService;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemSource;
 import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiffer;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.DraftAutosaver;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItem;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItemDiffCallback;
+import com.example.android.architecture.blueprints.todoapp.logging.AndroidLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.ForeLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.AndroidUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.UiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
 import javax.inject.Singleton;
 
-import co.early.fore.core.Affirm;
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.logging.AndroidLogger;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.time.SystemTimeWrapper;
 import co.early.fore.net.InterceptorLogging;
 import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
 import dagger.Module;
@@ -56,9 +72,9 @@ public class AppModule {
     @Provides
     @Singleton
     public Logger provideLogger() {
-        AndroidLogger androidLogger = new AndroidLogger("todo-mvo_");
-        androidLogger.i(LOG_TAG, "created logger");
-        return androidLogger;
+        LevelLogger levelLogger = LevelLogger.forBuild(new AndroidLogger("todo-mvo_"), BuildConfig.DEBUG);
+        levelLogger.i(LOG_TAG, "created logger");
+        return levelLogger;
     }
 
     @Provides
@@ -67,15 +83,66 @@ public class AppModule {
         return new SystemTimeWrapper();
     }
 
+    @Provides
+    @Singleton
+    public MetricsRegistry provideMetricsRegistry() {
+        //cheap enough to leave on in release builds
+        return new MetricsRegistry(true);
+    }
+
+    @Provides
+    @Singleton
+    public UiThread provideUiThread() {
+        return new AndroidUiThread();
+    }
+
+    @Provides
+    @Singleton
+    public ModelScheduler provideModelScheduler(UiThread uiThread, Logger logger, MetricsRegistry metrics, WorkMode workMode) {
+        return new ThreadPoolModelScheduler(
+                ModelScheduler.DEFAULT_INTERACTIVE,
+                ModelScheduler.DEFAULT_REFRESH,
+                ModelScheduler.DEFAULT_BULK,
+                uiThread,
+                logger,
+                metrics,
+                workMode);
+    }
+
+    @Provides
+    @Singleton
+    public FrameBatcher provideFrameBatcher(UiThread uiThread, WorkMode workMode) {
+        //one for the whole app so that notifications are batched across models
+        return new FrameBatcher(uiThread, workMode);
+    }
+
+    @Provides
+    @Singleton
+    public ListDiffer<TaskItem> provideTaskItemDiffer() {
+        return TaskItemDiffCallback.DIFFER;
+    }
+
 
     /**
-     * Database
+     * Database, see TaskStorage (shared with ObjectGraph)
      */
 
     @Provides
     @Singleton
-    public TaskItemDatabase provideTaskItemDatabase(WorkMode workMode) {
-        return TaskItemDatabase.getInstance(app, false, workMode);
+    public TaskItemDatabase provideTaskItemDatabase(Logger logger, WorkMode workMode) {
+        return TaskStorage.createTaskItemDatabase(app, logger, workMode);
+    }
+
+    @Provides
+    @Singleton
+    public TaskStore provideTaskStore(TaskItemDatabase taskItemDatabase, Logger logger) {
+        return TaskStorage.createTaskStore(app, taskItemDatabase, logger);
+    }
+
+    @Provides
+    @Singleton
+    public DraftAutosaver provideDraftAutosaver(TaskItemDatabase taskItemDatabase, ModelScheduler modelScheduler, SystemTimeWrapper systemTimeWrapper, Logger logger, WorkMode workMode) {
+        return TaskStorage.createDraftAutosaver(taskItemDatabase, modelScheduler, systemTimeWrapper, logger, workMode);
     }
 
 
@@ -85,18 +152,19 @@ public class AppModule {
 
     @Provides
     @Singleton
-    public Retrofit provideRetrofit(Logger logger) {
+    public Retrofit provideRetrofit(Logger logger, MetricsRegistry metrics) {
         logger.i(LOG_TAG, "provideRetrofit()");
         return CustomRetrofitBuilder.create(
                 new CustomGlobalRequestInterceptor(logger),
-                new InterceptorLogging(logger));//logging interceptor should be the last one
+                new InterceptorMetrics(metrics),
+                new InterceptorLogging(new ForeLogger(logger)));//logging interceptor should be the last one
     }
 
     @Provides
     @Singleton
     public CallProcessorRetrofit2<UserMessage> provideCallProcessor(Logger logger) {
         logger.i(LOG_TAG, "provideCallProcessor()");
-        return new CallProcessorRetrofit2<>(new CustomGlobalErrorHandler(logger), logger);
+        return new CallProcessorRetrofit2<>(new CustomGlobalErrorHandler(logger), new ForeLogger(logger));
     }
 
     @Provides
@@ -105,4 +173,10 @@ public class AppModule {
         return retrofit.create(TaskItemService.class);
     }
 
+    @Provides
+    @Singleton
+    public TaskItemSource provideTaskItemSource(TaskItemService taskItemService, CallProcessorRetrofit2<UserMessage> callProcessor) {
+        return new RetrofitTaskItemSource(taskItemService, callProcessor);
+    }
+
 }
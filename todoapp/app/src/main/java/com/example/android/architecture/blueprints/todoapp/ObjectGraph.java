@@ -5,25 +5,38 @@ import android.app.Application;
 import com.example.android.architecture.blueprints.todoapp.api.CustomGlobalErrorHandler;
 import com.example.android.architecture.blueprints.todoapp.api.CustomGlobalRequestInterceptor;
 import com.example.android.architecture.blueprints.todoapp.api.CustomRetrofitBuilder;
+import com.example.android.architecture.blueprints.todoapp.api.InterceptorMetrics;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.RetrofitTaskItemSource;
 import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemService;
 import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.DraftAutosaver;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItemDiffCallback;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.logging.AndroidLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.ForeLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
-
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.AndroidUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.UiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.logging.AndroidLogger;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.time.SystemTimeWrapper;
 import co.early.fore.net.InterceptorLogging;
 import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
 import retrofit2.Retrofit;
 
-import static co.early.fore.core.Affirm.notNull;
+import static com.example.android.architecture.blueprints.todoapp.util.Affirm.notNull;
 
 /**
  * This is the non-Dagger way of setting up your object graph, it's just here so that you can see an
@@ -33,6 +46,7 @@ class ObjectGraph {
 
     private volatile boolean initialized = false;
     private final Map<Class<?>, Object> dependencies = new HashMap<>();
+    private File startupSnapshotFile;
 
 
     void setApplication(Application application) {
@@ -44,45 +58,75 @@ class ObjectGraph {
         notNull(application);
         notNull(workMode);
 
+        startupSnapshotFile = new File(application.getFilesDir(), TaskListModel.STARTUP_SNAPSHOT_FILE_NAME);
+
 
         // create dependency graph
         // this list can get long, formatting one parameter per line helps with merging
-        AndroidLogger logger = new AndroidLogger("todo-mvo");
+        LevelLogger logger = LevelLogger.forBuild(new AndroidLogger("todo-mvo"), BuildConfig.DEBUG);
         SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
-        TaskItemDatabase taskItemDatabase = TaskItemDatabase.getInstance(
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        UiThread uiThread = new AndroidUiThread();
+        ModelScheduler modelScheduler = new ThreadPoolModelScheduler(
+                ModelScheduler.DEFAULT_INTERACTIVE,
+                ModelScheduler.DEFAULT_REFRESH,
+                ModelScheduler.DEFAULT_BULK,
+                uiThread,
+                logger,
+                metrics,
+                workMode);
+        FrameBatcher frameBatcher = new FrameBatcher(uiThread, workMode);
+        // storage is set up by TaskStorage, as it is for AppModule
+        TaskItemDatabase taskItemDatabase = TaskStorage.createTaskItemDatabase(
                 application,
-                false,
+                logger,
                 workMode);
         TaskListModel taskListModel = new TaskListModel(
-                taskItemDatabase,
+                TaskStorage.createTaskStore(application, taskItemDatabase, logger),
                 logger,
+                metrics,
+                modelScheduler,
                 systemTimeWrapper,
+                frameBatcher,
+                TaskItemDiffCallback.DIFFER,
                 workMode);
         // networking classes common to all models
         Retrofit retrofit = CustomRetrofitBuilder.create(
                 new CustomGlobalRequestInterceptor(logger),
-                new InterceptorLogging(logger));//logging interceptor should be the last one
+                new InterceptorMetrics(metrics),
+                new InterceptorLogging(new ForeLogger(logger)));//logging interceptor should be the last one
         CallProcessorRetrofit2<UserMessage> callProcessor = new CallProcessorRetrofit2<UserMessage>(
                 new CustomGlobalErrorHandler(logger),
-                logger);
+                new ForeLogger(logger));
         TaskFetcher taskFetcher = new TaskFetcher(
                 taskListModel,
-                retrofit.create(TaskItemService.class),
-                callProcessor,
+                new RetrofitTaskItemSource(
+                        retrofit.create(TaskItemService.class),
+                        callProcessor),
+                systemTimeWrapper,
+                logger,
+                metrics,
+                frameBatcher,
+                workMode);
+        DraftAutosaver draftAutosaver = TaskStorage.createDraftAutosaver(
+                taskItemDatabase,
+                modelScheduler,
                 systemTimeWrapper,
                 logger,
                 workMode);
         CurrentTaskModel currentTaskModel = new CurrentTaskModel(
                 taskListModel,
+                draftAutosaver,
                 systemTimeWrapper,
                 logger,
-                workMode);
+                frameBatcher);
 
         // add models to the dependencies map if you will need them later
         dependencies.put(TaskFetcher.class, taskFetcher);
         dependencies.put(TaskListModel.class, taskListModel);
         dependencies.put(CurrentTaskModel.class, currentTaskModel);
         dependencies.put(Logger.class, logger);
+        dependencies.put(MetricsRegistry.class, metrics);
     }
 
     void init() {
@@ -91,6 +135,7 @@ class ObjectGraph {
 
             // run any necessary initialization code once object graph has been created here
 
+            get(TaskListModel.class).restoreStartupSnapshot(startupSnapshotFile);
             get(TaskListModel.class).fetchLatestFromDb();
 
         }
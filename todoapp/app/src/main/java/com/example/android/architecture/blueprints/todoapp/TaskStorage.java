@@ -0,0 +1,67 @@
+package com.example.android.architecture.blueprints.todoapp;
+
+import android.app.Application;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.InMemoryTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.LogStructuredTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.StorageEngine;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.StorageProfile;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.DraftAutosaver;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import java.io.File;
+
+/**
+ * How the app's storage is put together. Both AppModule and ObjectGraph build their storage
+ * from here, so whichever one is in use the app gets the same engine, profile and settings
+ */
+final class TaskStorage {
+
+    private static final String LOG_TAG = TaskStorage.class.getSimpleName();
+
+    static final long DRAFT_AUTOSAVE_INTERVAL_MS = 500;
+    //switch this to benchmark the engines against each other, see TaskStore
+    static final StorageEngine STORAGE_ENGINE = StorageEngine.ROOM;
+    //see StorageProfileBenchmark
+    static final StorageProfile STORAGE_PROFILE = TaskItemDatabase.DEFAULT_STORAGE_PROFILE;
+    private static final String TASK_LOG_FILE_NAME = "tasks.log";
+
+    private TaskStorage() {
+    }
+
+    static TaskItemDatabase createTaskItemDatabase(Application app, Logger logger, WorkMode workMode) {
+        LevelLogger levelLogger = LevelLogger.wrap(logger);
+        return TaskItemDatabase.getInstance(app, false, workMode,
+                (startVersion, endVersion, rowsDone, rowsTotal) -> levelLogger.i(TaskItemDatabase.class.getSimpleName(),
+                        "migrating to version:{} rows:{}/{}", endVersion, rowsDone, rowsTotal),
+                STORAGE_PROFILE);
+    }
+
+    /**
+     * @param taskItemDatabase only used by the ROOM engine, drafts stay in Room whichever engine
+     *                         the tasks are in
+     */
+    static TaskStore createTaskStore(Application app, TaskItemDatabase taskItemDatabase, Logger logger) {
+        LevelLogger.wrap(logger).i(LOG_TAG, "createTaskStore() engine:{} profile:{}", STORAGE_ENGINE, STORAGE_PROFILE);
+        switch (STORAGE_ENGINE) {
+            case IN_MEMORY:
+                return new InMemoryTaskStore();
+            case LOG_STRUCTURED:
+                //opened and replayed on first use, which is off the UI thread
+                return new LogStructuredTaskStore(new File(app.getFilesDir(), TASK_LOG_FILE_NAME), logger);
+            default:
+                return new RoomTaskStore(taskItemDatabase, logger);
+        }
+    }
+
+    static DraftAutosaver createDraftAutosaver(TaskItemDatabase taskItemDatabase, ModelScheduler modelScheduler, SystemTimeWrapper systemTimeWrapper, Logger logger, WorkMode workMode) {
+        return new DraftAutosaver(taskItemDatabase.taskDraftDao(), modelScheduler, systemTimeWrapper, logger, workMode, DRAFT_AUTOSAVE_INTERVAL_MS);
+    }
+}
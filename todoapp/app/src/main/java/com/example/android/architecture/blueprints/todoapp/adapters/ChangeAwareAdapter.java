@@ -0,0 +1,60 @@
+package com.example.android.architecture.blueprints.todoapp.adapters;
+
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+
+import com.example.android.architecture.blueprints.todoapp.diff.DiffSpec;
+import com.example.android.architecture.blueprints.todoapp.diff.Diffable;
+import com.example.android.architecture.blueprints.todoapp.diff.ListUpdateCallback;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Animates just the rows that changed when the model has a diff for them, and falls back to
+ * notifyDataSetChanged() when it doesn't. Does the job of fore's ChangeAwareAdapter for models
+ * that are {@link Diffable} in core
+ */
+public abstract class ChangeAwareAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+
+    //older than this and the diff may not match what the adapter last showed
+    private static final long MAX_DIFF_AGE_MS = 50;
+
+    private final Diffable diffable;
+
+    private final ListUpdateCallback updateCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            notifyItemRangeChanged(position, count, payload);
+        }
+    };
+
+    public ChangeAwareAdapter(Diffable diffable) {
+        this.diffable = Affirm.notNull(diffable);
+    }
+
+    /**
+     * UI thread only, call from syncView()
+     */
+    public void notifyDataSetChangedAuto() {
+        DiffSpec diffSpec = diffable.getAndClearLatestDiffSpec(MAX_DIFF_AGE_MS);
+        if (diffSpec.diff == null) {
+            notifyDataSetChanged();
+        } else {
+            diffSpec.diff.dispatchUpdatesTo(updateCallback);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.android.architecture.blueprints.todoapp.adapters;
+
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiff;
+import com.example.android.architecture.blueprints.todoapp.diff.ListUpdateCallback;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * A {@link ListDiff} worked out by RecyclerView's DiffUtil
+ */
+public class DiffUtilListDiff implements ListDiff {
+
+    private final DiffUtil.DiffResult diffResult;
+
+    public DiffUtilListDiff(DiffUtil.DiffResult diffResult) {
+        this.diffResult = Affirm.notNull(diffResult);
+    }
+
+    @Override
+    public void dispatchUpdatesTo(ListUpdateCallback callback) {
+        Affirm.notNull(callback);
+        diffResult.dispatchUpdatesTo(new android.support.v7.util.ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                callback.onInserted(position, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                callback.onRemoved(position, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                callback.onMoved(fromPosition, toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, @Nullable Object payload) {
+                callback.onChanged(position, count, payload);
+            }
+        });
+    }
+}
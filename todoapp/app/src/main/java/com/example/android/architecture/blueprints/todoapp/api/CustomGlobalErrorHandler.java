@@ -2,24 +2,24 @@ package com.example.android.architecture.blueprints.todoapp.api;
 
 import android.support.annotation.Nullable;
 
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
 import com.google.gson.Gson;
 
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
-import co.early.fore.core.logging.Logger;
 import co.early.fore.net.MessageProvider;
 import co.early.fore.net.retrofit2.ErrorHandler;
 import okhttp3.Request;
 import retrofit2.Response;
 
-import static co.early.fore.core.Affirm.notNull;
 import static com.example.android.architecture.blueprints.todoapp.message.UserMessage.ERROR_CLIENT;
 import static com.example.android.architecture.blueprints.todoapp.message.UserMessage.ERROR_MISC;
 import static com.example.android.architecture.blueprints.todoapp.message.UserMessage.ERROR_NETWORK;
 import static com.example.android.architecture.blueprints.todoapp.message.UserMessage.ERROR_SERVER;
 import static com.example.android.architecture.blueprints.todoapp.message.UserMessage.ERROR_SESSION_TIMED_OUT;
+import static com.example.android.architecture.blueprints.todoapp.util.Affirm.notNull;
 
 /**
  * You can probably use this class almost as it is for your own app, but you might want to
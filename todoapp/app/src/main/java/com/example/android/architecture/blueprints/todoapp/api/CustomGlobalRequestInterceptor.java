@@ -1,11 +1,11 @@
 package com.example.android.architecture.blueprints.todoapp.api;
 
 import com.example.android.architecture.blueprints.todoapp.BuildConfig;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
 import java.io.IOException;
 
-import co.early.fore.core.Affirm;
-import co.early.fore.core.logging.Logger;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
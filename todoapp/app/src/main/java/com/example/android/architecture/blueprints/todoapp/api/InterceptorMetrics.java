@@ -0,0 +1,48 @@
+package com.example.android.architecture.blueprints.todoapp.api;
+
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records the latency of every call that goes through the CallProcessor, keyed by the encoded
+ * path of the request, along with the number of calls in flight.
+ */
+public class InterceptorMetrics implements Interceptor {
+
+    public static final String METRIC_PREFIX = "http.";
+    public static final String METRIC_IN_FLIGHT = "http.inFlight";
+    public static final String METRIC_FAILED = "http.failed";
+
+    private final MetricsRegistry metrics;
+
+    public InterceptorMetrics(MetricsRegistry metrics) {
+        this.metrics = Affirm.notNull(metrics);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+
+        Request request = chain.request();
+
+        metrics.increment(METRIC_IN_FLIGHT);
+        long start = metrics.start();
+
+        try {
+            Response response = chain.proceed(request);
+            metrics.stop(METRIC_PREFIX + request.method() + " " + request.url().encodedPath(), start);
+            return response;
+        } catch (IOException e) {
+            metrics.stop(METRIC_FAILED, start);
+            throw e;
+        } finally {
+            metrics.decrement(METRIC_IN_FLIGHT);
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.android.architecture.blueprints.todoapp.api.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.List;
+
+import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
+
+/**
+ * Fetches the tasks over the network for TaskFetcher
+ */
+public class RetrofitTaskItemSource implements TaskItemSource {
+
+    private final TaskItemService service;
+    private final CallProcessorRetrofit2<UserMessage> callProcessor;
+
+    public RetrofitTaskItemSource(TaskItemService service, CallProcessorRetrofit2<UserMessage> callProcessor) {
+        this.service = Affirm.notNull(service);
+        this.callProcessor = Affirm.notNull(callProcessor);
+    }
+
+    @Override
+    public void fetchTaskItems(WorkMode workMode,
+                               SuccessCallbackWithPayload<List<TaskItemPojo>> successCallback,
+                               FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        Affirm.notNull(successCallback);
+        Affirm.notNull(failureCallback);
+
+        // if you want to parse custom errors here, please see the retrofit example in the fore docs
+        // for an easy way to support this
+        // https://github.com/erdo/android-fore/blob/master/example04retrofit/src/main/java/foo/bar/example/foreretrofit/api/fruits/FruitsCustomError.java
+        callProcessor.processCall(service.getTaskItems("5s"), co.early.fore.core.WorkMode.valueOf(workMode.name()),
+                successCallback::success,
+                failureCallback::fail);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.android.architecture.blueprints.todoapp.db.migrations;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.migration.Migration;
+import android.database.Cursor;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * For migrations which have to touch every row of a table that might be large (rebuilding a
+ * table to change a column's collation, back filling a new column etc).
+ * <p>
+ * Rather than one statement over the whole table, the rows are handed to
+ * {@link #migrateChunk(SupportSQLiteDatabase, long, long)} one rowid range at a time, which keeps
+ * each statement's work (and its temporary storage) bounded, and lets us report progress after
+ * each chunk.
+ * <p>
+ * Note that Room runs all the migrations for an upgrade inside one transaction, so the chunks
+ * are not committed separately - if anything fails the whole upgrade is rolled back and the db
+ * is left as it was.
+ */
+public abstract class ChunkedMigration extends Migration {
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final String sourceTable;
+    private final int chunkSize;
+    private final MigrationProgress progress;
+
+    protected ChunkedMigration(int startVersion, int endVersion, String sourceTable, int chunkSize, MigrationProgress progress) {
+        super(startVersion, endVersion);
+        this.sourceTable = Affirm.notNull(sourceTable);
+        this.progress = Affirm.notNull(progress);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, not:" + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public final void migrate(SupportSQLiteDatabase database) {
+
+        beforeChunks(database);
+
+        long rowsTotal = queryLong(database, "SELECT COUNT(*) FROM `" + sourceTable + "`");
+        long firstRowId = queryLong(database, "SELECT IFNULL(MIN(rowid), 0) FROM `" + sourceTable + "`");
+        long lastRowId = queryLong(database, "SELECT IFNULL(MAX(rowid), 0) FROM `" + sourceTable + "`");
+
+        progress.onProgress(startVersion, endVersion, 0, rowsTotal);
+
+        long rowsDone = 0;
+        if (rowsTotal > 0) {
+            for (long fromRowId = firstRowId - 1; fromRowId < lastRowId; fromRowId += chunkSize) {
+                long toRowId = Math.min(fromRowId + chunkSize, lastRowId);
+                migrateChunk(database, fromRowId, toRowId);
+                rowsDone += queryLong(database, "SELECT changes()");
+                progress.onProgress(startVersion, endVersion, Math.min(rowsDone, rowsTotal), rowsTotal);
+            }
+        }
+
+        afterChunks(database);
+    }
+
+    /**
+     * Create any new tables here, before the rows are migrated
+     */
+    protected abstract void beforeChunks(SupportSQLiteDatabase database);
+
+    /**
+     * Migrate the rows of the source table with fromRowIdExclusive &lt; rowid &lt;=
+     * toRowIdInclusive, using one statement (the rows it changes are what's reported as progress).
+     * Ranges may be sparse, so a chunk might contain far fewer rows than the chunk size, or none
+     */
+    protected abstract void migrateChunk(SupportSQLiteDatabase database, long fromRowIdExclusive, long toRowIdInclusive);
+
+    /**
+     * Drop, rename, and create indexes here - creating indexes once the rows are in is much
+     * quicker than maintaining them row by row
+     */
+    protected abstract void afterChunks(SupportSQLiteDatabase database);
+
+    private static long queryLong(SupportSQLiteDatabase database, String sql) {
+        Cursor cursor = database.query(sql, new Object[0]);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.android.architecture.blueprints.todoapp.db.migrations;
+
+/**
+ * Told about each chunk of rows as a {@link ChunkedMigration} works through a table. Called on
+ * whichever thread opens the database (that's the thread Room runs migrations on), so keep it
+ * quick and hop to the UI thread yourself if you want to show something.
+ */
+public interface MigrationProgress {
+
+    MigrationProgress NONE = (startVersion, endVersion, rowsDone, rowsTotal) -> {
+    };
+
+    void onProgress(int startVersion, int endVersion, long rowsDone, long rowsTotal);
+}
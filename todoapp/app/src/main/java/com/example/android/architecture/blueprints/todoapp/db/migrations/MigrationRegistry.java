@@ -0,0 +1,49 @@
+package com.example.android.architecture.blueprints.todoapp.db.migrations;
+
+import android.arch.persistence.room.migration.Migration;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every migration a database knows about, one per version step. Checking that there is an
+ * unbroken path up to the current version when the database is built means a forgotten
+ * migration fails straight away in development, rather than on a user's device some time later
+ * (where Room would fail to open the db, and there'd be no way forward except a destructive
+ * rebuild).
+ */
+public final class MigrationRegistry {
+
+    private final Map<Integer, Migration> migrationsByStartVersion = new TreeMap<>();
+
+    public MigrationRegistry register(Migration migration) {
+        Affirm.notNull(migration);
+        if (migration.endVersion != migration.startVersion + 1) {
+            throw new IllegalArgumentException("migrations must be one version step, not:"
+                    + migration.startVersion + "->" + migration.endVersion);
+        }
+        if (migrationsByStartVersion.containsKey(migration.startVersion)) {
+            throw new IllegalArgumentException("already have a migration from version:" + migration.startVersion);
+        }
+        migrationsByStartVersion.put(migration.startVersion, migration);
+        return this;
+    }
+
+    /**
+     * @throws IllegalStateException if any step between the two versions is missing
+     */
+    public MigrationRegistry checkPath(int fromVersion, int toVersion) {
+        for (int version = fromVersion; version < toVersion; version++) {
+            if (!migrationsByStartVersion.containsKey(version)) {
+                throw new IllegalStateException("no migration from version:" + version + " to version:" + (version + 1));
+            }
+        }
+        return this;
+    }
+
+    public Migration[] getMigrations() {
+        return migrationsByStartVersion.values().toArray(new Migration[migrationsByStartVersion.size()]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Wraps another open helper factory so that a subclass gets to configure each connection in
+ * onConfigure(), which comes before Room creates or migrates any tables. Everything else is
+ * passed straight through to Room's callback.
+ * <p>
+ * When these are nested, the innermost one's onConfigure() runs first.
+ */
+abstract class ConfiguringOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private final SupportSQLiteOpenHelper.Factory delegate;
+
+    ConfiguringOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate) {
+        this.delegate = Affirm.notNull(delegate);
+    }
+
+    /**
+     * Called every time the db is opened, before Room's own onConfigure()
+     */
+    protected abstract void onConfigure(SupportSQLiteDatabase db);
+
+    @Override
+    public SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Configuration configuration) {
+
+        final SupportSQLiteOpenHelper.Callback callback = configuration.callback;
+
+        return delegate.create(SupportSQLiteOpenHelper.Configuration.builder(configuration.context)
+                .name(configuration.name)
+                .callback(new SupportSQLiteOpenHelper.Callback(callback.version) {
+                    @Override
+                    public void onConfigure(SupportSQLiteDatabase db) {
+                        ConfiguringOpenHelperFactory.this.onConfigure(db);
+                        callback.onConfigure(db);
+                    }
+
+                    @Override
+                    public void onCreate(SupportSQLiteDatabase db) {
+                        callback.onCreate(db);
+                    }
+
+                    @Override
+                    public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                        callback.onUpgrade(db, oldVersion, newVersion);
+                    }
+
+                    @Override
+                    public void onDowngrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                        callback.onDowngrade(db, oldVersion, newVersion);
+                    }
+
+                    @Override
+                    public void onOpen(SupportSQLiteDatabase db) {
+                        callback.onOpen(db);
+                    }
+
+                    @Override
+                    public void onCorruption(SupportSQLiteDatabase db) {
+                        callback.onCorruption(db);
+                    }
+                })
+                .build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+
+/**
+ * Wraps the usual open helper factory so that newly created db files are set to
+ * auto_vacuum = INCREMENTAL, which has to happen before the first table is created (Room
+ * creates its tables in onCreate, onConfigure comes before that). It lets TaskCompactor hand
+ * free pages back a few at a time rather than with a full VACUUM. For existing files the pragma
+ * does nothing, TaskCompactor converts those itself.
+ */
+class IncrementalVacuumOpenHelperFactory extends ConfiguringOpenHelperFactory {
+
+    IncrementalVacuumOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected void onConfigure(SupportSQLiteDatabase db) {
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+    }
+}
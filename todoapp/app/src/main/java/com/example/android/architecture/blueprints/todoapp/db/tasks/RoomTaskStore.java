@@ -0,0 +1,264 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.InvalidationTracker;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.TABLE_NAME;
+
+/**
+ * The sqlite {@link TaskStore}, a thin layer over TaskItemDao. Change listeners are driven by
+ * Room's invalidation tracker, so they hear about writes made straight through the dao too.
+ */
+public class RoomTaskStore implements TaskStore {
+
+    public static final String LOG_TAG = RoomTaskStore.class.getSimpleName();
+
+    private static final int VACUUM_PAGES = 128;
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final TaskItemDatabase taskItemDatabase;
+    private final LevelLogger logger;
+
+    public RoomTaskStore(TaskItemDatabase taskItemDatabase, Logger logger) {
+        this.taskItemDatabase = Affirm.notNull(taskItemDatabase);
+        this.logger = LevelLogger.wrap(logger);
+    }
+
+    @Override
+    public void addChangeListener(final ChangeListener changeListener) {
+        Affirm.notNull(changeListener);
+        taskItemDatabase.getInvalidationTracker().addObserver(new InvalidationTracker.Observer(TABLE_NAME) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                changeListener.onChanged();
+            }
+        });
+    }
+
+    @Override
+    public void runInTransaction(Runnable work) {
+        Affirm.notNull(work);
+        //going through RoomDatabase so that the invalidation tracker hears about the commit
+        taskItemDatabase.beginTransaction();
+        try {
+            work.run();
+            taskItemDatabase.setTransactionSuccessful();
+        } finally {
+            taskItemDatabase.endTransaction();
+        }
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems() {
+        return dao().getAllTaskItems();
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst() {
+        return dao().getAllTaskItemsOldestFirst();
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle() {
+        return dao().getAllTaskItemsByTitle();
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsActiveFirst() {
+        return dao().getAllTaskItemsActiveFirst();
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems(int limit, int offset) {
+        return dao().getAllTaskItems(limit, offset);
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst(int limit, int offset) {
+        return dao().getAllTaskItemsOldestFirst(limit, offset);
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle(int limit, int offset) {
+        return dao().getAllTaskItemsByTitle(limit, offset);
+    }
+
+    @Override
+    public List<TaskItemEntity> getTaskItems(boolean completed, int limit, int offset) {
+        return dao().getTaskItems(completed, limit, offset);
+    }
+
+    @Override
+    public int getRowCount() {
+        return dao().getRowCount();
+    }
+
+    @Override
+    public int getDoneRowCount() {
+        return dao().getDoneRowCount();
+    }
+
+    @Nullable
+    @Override
+    public TaskItemEntity getTaskItem(long entityId) {
+        return dao().getTaskItem(entityId);
+    }
+
+    @Override
+    public int writeTaskItems(long afterId, int limit, TaskArchive.Writer writer) throws IOException {
+        Cursor cursor = dao().getTaskItemsCursor(afterId, limit);
+        try {
+            return writeRows(writer, cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public long insertTaskItem(TaskItemEntity taskItemEntity) {
+        return dao().insertTaskItem(taskItemEntity);
+    }
+
+    @Override
+    public void insertManyTaskItems(List<TaskItemEntity> taskItemEntities) {
+        dao().insertManyTaskItems(taskItemEntities);
+    }
+
+    @Override
+    public int importTaskItems(Iterator<TaskItemEntity> taskItemEntities, int maxRows) {
+        return dao().importTaskItems(taskItemEntities, maxRows);
+    }
+
+    @Override
+    public int updateTaskItem(TaskItemEntity taskItemEntity) {
+        return dao().updateTaskItem(taskItemEntity);
+    }
+
+    @Override
+    public int softDeleteTaskItem(long entityId, long deletedTimestamp) {
+        return dao().softDeleteTaskItem(entityId, deletedTimestamp);
+    }
+
+    @Override
+    public int clear(long deletedTimestamp) {
+        return dao().clear(deletedTimestamp);
+    }
+
+    @Override
+    public int clearCompleted(long deletedTimestamp) {
+        return dao().clearCompleted(deletedTimestamp);
+    }
+
+    @Override
+    public List<Long> getDeletedIdsSince(long since) {
+        return dao().getDeletedIdsSince(since);
+    }
+
+    @Override
+    public long getMaxId() {
+        return dao().getMaxId();
+    }
+
+    @Override
+    public int purgeTombstones(long fromIdExclusive, long toIdInclusive, long deletedBefore) {
+        return dao().purgeTombstones(fromIdExclusive, toIdInclusive, deletedBefore);
+    }
+
+    /**
+     * A few pages of incremental vacuum per call, see IncrementalVacuumOpenHelperFactory
+     */
+    @Override
+    public long reclaimSpaceStep() {
+
+        SupportSQLiteDatabase db = taskItemDatabase.getOpenHelper().getWritableDatabase();
+
+        long freePages = queryLong(db, "PRAGMA freelist_count");
+        if (freePages == 0) {
+            return 0;
+        }
+
+        if (queryLong(db, "PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+            //the pragma returns a row per page, stepping through them is what does the work
+            drain(db.query("PRAGMA incremental_vacuum(" + VACUUM_PAGES + ")", new Object[0]));
+            return Math.min(freePages, VACUUM_PAGES);
+        }
+
+        //a db file from before incremental vacuum was switched on, converting it needs one
+        //full VACUUM, which is only worth it once a good part of the file is free space. Once
+        //converted, the next call finds an empty free list
+        long pageCount = queryLong(db, "PRAGMA page_count");
+        if (freePages * 4 > pageCount) {
+            logger.i(LOG_TAG, "converting db to incremental vacuum, free pages:{} of:{}", freePages, pageCount);
+            try {
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+                return freePages;
+            } catch (RuntimeException e) {
+                //VACUUM fails if anything else is using the db right now, we'll try again next time
+                logger.w(LOG_TAG, "VACUUM failed", e);
+            }
+        }
+        return 0;
+    }
+
+    private TaskItemDao dao() {
+        return taskItemDatabase.taskItemDao();
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        Cursor cursor = db.query(sql, new Object[0]);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static void drain(Cursor cursor) {
+        try {
+            while (cursor.moveToNext()) {
+                //nothing to read
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Writes every row left in the cursor, which must come from a query on TaskItemEntity
+     * (see TaskItemDao.getTaskItemsCursor()). The cursor is not closed here.
+     *
+     * @return the number of rows written
+     */
+    static int writeRows(TaskArchive.Writer writer, Cursor cursor) throws IOException {
+
+        int idColumn = cursor.getColumnIndexOrThrow(TaskItemEntity.COLUMN_ID);
+        int createTimestampColumn = cursor.getColumnIndexOrThrow(TaskItemEntity.COLUMN_CREATE_TIMESTAMP);
+        int titleColumn = cursor.getColumnIndexOrThrow(TaskItemEntity.COLUMN_TITLE);
+        int descriptionColumn = cursor.getColumnIndexOrThrow(TaskItemEntity.COLUMN_DESCRIPTION);
+        int completedColumn = cursor.getColumnIndexOrThrow(TaskItemEntity.COLUMN_COMPLETED);
+
+        int rows = 0;
+        while (cursor.moveToNext()) {
+            writer.write(cursor.getLong(idColumn),
+                    cursor.getLong(createTimestampColumn),
+                    cursor.isNull(titleColumn) ? null : cursor.getString(titleColumn),
+                    cursor.isNull(descriptionColumn) ? null : cursor.getString(descriptionColumn),
+                    cursor.getInt(completedColumn) != 0);
+            rows++;
+        }
+        return rows;
+    }
+}
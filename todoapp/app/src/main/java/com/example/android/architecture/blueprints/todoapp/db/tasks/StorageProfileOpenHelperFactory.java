@@ -0,0 +1,55 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.database.Cursor;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Applies a {@link StorageProfile} each time the db is opened. Room is told to leave the journal
+ * mode alone (see TaskItemDatabase.build()) so that WAL is only switched on here, after
+ * page_size has had its chance on a new file.
+ * <p>
+ * cache_size and mmap_size are per connection, so they are set on the connection Room writes
+ * through. In WAL mode Android opens extra read connections with its own defaults.
+ */
+class StorageProfileOpenHelperFactory extends ConfiguringOpenHelperFactory {
+
+    private final StorageProfile profile;
+
+    StorageProfileOpenHelperFactory(StorageProfile profile, SupportSQLiteOpenHelper.Factory delegate) {
+        super(delegate);
+        this.profile = Affirm.notNull(profile);
+    }
+
+    @Override
+    protected void onConfigure(SupportSQLiteDatabase db) {
+
+        db.execSQL("PRAGMA page_size = " + profile.pageSizeBytes);
+
+        if (profile.writeAheadLogging) {
+            //does nothing for an in memory db
+            db.enableWriteAheadLogging();
+        } else {
+            db.disableWriteAheadLogging();
+            //these pragmas return a row, which execSQL() won't accept
+            query(db, "PRAGMA journal_mode = " + profile.journalMode);
+        }
+
+        //after the journal mode: switching WAL on or off resets synchronous to Android's default
+        db.execSQL("PRAGMA synchronous = " + profile.synchronous);
+        //negative means KiB rather than pages
+        db.execSQL("PRAGMA cache_size = -" + profile.cacheSizeKb);
+        query(db, "PRAGMA mmap_size = " + profile.mmapSizeBytes);
+    }
+
+    private static void query(SupportSQLiteDatabase db, String sql) {
+        Cursor cursor = db.query(sql, new Object[0]);
+        try {
+            cursor.moveToFirst();
+        } finally {
+            cursor.close();
+        }
+    }
+}
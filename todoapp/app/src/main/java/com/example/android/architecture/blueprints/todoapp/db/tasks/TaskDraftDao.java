@@ -0,0 +1,31 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.arch.persistence.room.Dao;
+import android.arch.persistence.room.Insert;
+import android.arch.persistence.room.OnConflictStrategy;
+import android.arch.persistence.room.Query;
+
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity.COLUMN_TASK_ID;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity.COLUMN_UPDATED_TIMESTAMP;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity.TABLE_NAME;
+
+/**
+ * Data Access class, the app shouldn't be accessing this class directly, its all wrapped up in
+ * the associated model class in the feature package which handles threading for you.
+ */
+@Dao
+public abstract class TaskDraftDao implements TaskDraftStore {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    @Override
+    public abstract void saveDraft(TaskDraftEntity taskDraftEntity);
+
+    @Query("SELECT * FROM " + TABLE_NAME + " ORDER BY " + COLUMN_UPDATED_TIMESTAMP + " DESC LIMIT 1")
+    @Override
+    public abstract TaskDraftEntity getLatestDraft();
+
+    @Query("DELETE FROM " + TABLE_NAME + " WHERE " + COLUMN_TASK_ID + " = :taskId")
+    @Override
+    public abstract int deleteDraft(long taskId);
+
+}
@@ -1,19 +1,29 @@
 package com.example.android.architecture.blueprints.todoapp.db.tasks;
 
+import android.arch.persistence.db.SupportSQLiteStatement;
 import android.arch.persistence.room.Dao;
 import android.arch.persistence.room.Delete;
 import android.arch.persistence.room.Insert;
 import android.arch.persistence.room.Query;
+import android.arch.persistence.room.RoomDatabase;
+import android.arch.persistence.room.Transaction;
 import android.arch.persistence.room.Update;
+import android.database.Cursor;
 
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.Iterator;
 import java.util.List;
 
 import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_COMPLETED;
 import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_CREATE_TIMESTAMP;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DELETED;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DELETED_TIMESTAMP;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DESCRIPTION;
 import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_ID;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_TITLE;
 import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.TABLE_NAME;
 
-
 /**
  * Data Access class, the app shouldn't be accessing this class directly, its all wrapped up in
  * the associated model class in the feature package which handles threading and notifications
@@ -22,37 +32,210 @@ import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskI
 @Dao
 public abstract class TaskItemDao {
 
+    //every query for the app's data has this in its WHERE clause
+    private static final String LIVE = COLUMN_DELETED + " = 0";
+
+    private static final String IMPORT_SQL = "INSERT INTO `" + TABLE_NAME + "` (`"
+            + COLUMN_CREATE_TIMESTAMP + "`, `" + COLUMN_TITLE + "`, `" + COLUMN_DESCRIPTION + "`, `" + COLUMN_COMPLETED + "`, `"
+            + COLUMN_DELETED + "`, `" + COLUMN_DELETED_TIMESTAMP + "`) "
+            + "VALUES (?, ?, ?, ?, 0, 0)";
+
+    private final RoomDatabase database;
+
+    //Room passes this in for us
+    public TaskItemDao(RoomDatabase database) {
+        this.database = Affirm.notNull(database);
+    }
+
     @Insert
     public abstract long insertTaskItem(TaskItemEntity taskItemEntity);
 
     @Insert
     public abstract void insertManyTaskItems(List<TaskItemEntity> taskItemEntities);
 
-    @Update
-    public abstract int updateTaskItem(TaskItemEntity taskItemEntity);
+    /**
+     * Fast path for large imports. Takes up to maxRows rows from the iterator (which is read on
+     * the calling thread, so it can stream rows from a file or the network rather than needing
+     * them all in memory first) and inserts them using one compiled statement in one
+     * transaction. The ids of the entities are ignored, new ones are generated.
+     * <p>
+     * Call this repeatedly until the iterator is empty: each call is one commit, so maxRows trades
+     * throughput (fewer, bigger commits) against how long the db is held up for each time.
+     *
+     * @return the number of rows inserted
+     */
+    public int importTaskItems(Iterator<TaskItemEntity> taskItemEntities, int maxRows) {
+
+        Affirm.notNull(taskItemEntities);
+
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows must be at least 1, not:" + maxRows);
+        }
+
+        if (!taskItemEntities.hasNext()) {
+            return 0;
+        }
+
+        int rows = 0;
+
+        //going through RoomDatabase rather than the SupportSQLiteDatabase so that the
+        //invalidation tracker hears about the commit
+        database.beginTransaction();
+        try {
+            SupportSQLiteStatement statement = database.compileStatement(IMPORT_SQL);
+            try {
+                while (rows < maxRows && taskItemEntities.hasNext()) {
+                    TaskItemEntity taskItemEntity = taskItemEntities.next();
+                    statement.bindLong(1, taskItemEntity.getCreationTimestamp());
+                    bindStringOrNull(statement, 2, taskItemEntity.getTitle());
+                    bindStringOrNull(statement, 3, taskItemEntity.getDescription());
+                    statement.bindLong(4, taskItemEntity.isCompleted() ? 1 : 0);
+                    statement.executeInsert();
+                    rows++;
+                }
+            } finally {
+                closeQuietly(statement);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+
+        return rows;
+    }
+
+    private static void closeQuietly(SupportSQLiteStatement statement) {
+        try {
+            statement.close();
+        } catch (Exception e) {
+            //nothing useful we can do
+        }
+    }
+
+    private static void bindStringOrNull(SupportSQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    /**
+     * Updates the content columns of a live row. Unlike an @Update this leaves the tombstone
+     * columns alone, so a late update of a row that has since been soft deleted changes nothing
+     * (rather than bringing the row back)
+     *
+     * @return 1 if the row was updated, 0 if it doesn't exist or has been deleted
+     */
+    public int updateTaskItem(TaskItemEntity taskItemEntity) {
+        Affirm.notNull(taskItemEntity);
+        return updateLiveTaskItem(
+                taskItemEntity.getId(),
+                taskItemEntity.getCreationTimestamp(),
+                taskItemEntity.getTitle(),
+                taskItemEntity.getDescription(),
+                taskItemEntity.isCompleted());
+    }
+
+    @Query("UPDATE " + TABLE_NAME + " SET " + COLUMN_CREATE_TIMESTAMP + " = :creationTimestamp, " + COLUMN_TITLE + " = :title, "
+            + COLUMN_DESCRIPTION + " = :description, " + COLUMN_COMPLETED + " = :completed"
+            + " WHERE " + COLUMN_ID + " = :entityId AND " + LIVE)
+    public abstract int updateLiveTaskItem(long entityId, long creationTimestamp, String title, String description, boolean completed);
 
     @Delete
     public abstract int deleteTaskItem(TaskItemEntity taskItemEntity);
 
-    @Query("SELECT * FROM " + TABLE_NAME + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, id")
+    //each of the queries below returns rows in index order, there is no sort step, see the
+    //indexes on TaskItemEntity and the matching comparators in SortOrder. Tombstones (soft
+    //deleted rows) are filtered out of everything except the sync and compaction queries
+
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC")
     public abstract List<TaskItemEntity> getAllTaskItems();
 
-    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = :completed " + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, id")
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + ", " + COLUMN_ID)
+    public abstract List<TaskItemEntity> getAllTaskItemsOldestFirst();
+
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_TITLE + ", " + COLUMN_ID)
+    public abstract List<TaskItemEntity> getAllTaskItemsByTitle();
+
+    /**
+     * Active items then completed items, each newest first. This is two range scans of the
+     * (completed, create_timestamp) index rather than one query, as a single ORDER BY
+     * completed, create_timestamp DESC mixes directions and would need a temporary b-tree
+     */
+    @Transaction
+    public List<TaskItemEntity> getAllTaskItemsActiveFirst() {
+        List<TaskItemEntity> taskItemEntities = getTaskItems(false);
+        taskItemEntities.addAll(getTaskItems(true));
+        return taskItemEntities;
+    }
+
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = :completed AND " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC")
     public abstract List<TaskItemEntity> getTaskItems(boolean completed);
 
-    @Query("SELECT COUNT(*) FROM " + TABLE_NAME)
-    public abstract Integer getRowCount();
+    //the same orders a page at a time, for the progressive first load. The OFFSET is a walk along
+    //the index so the pages should grow as they go, see TaskListModel.fetchLatestFromDb()
 
-    @Query("SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = 1")
-    public abstract Integer getDoneRowCount();
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT :limit OFFSET :offset")
+    public abstract List<TaskItemEntity> getAllTaskItems(int limit, int offset);
+
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + ", " + COLUMN_ID + " LIMIT :limit OFFSET :offset")
+    public abstract List<TaskItemEntity> getAllTaskItemsOldestFirst(int limit, int offset);
 
-    @Query("DELETE FROM " + TABLE_NAME)
-    public abstract int clear();
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE + " ORDER BY " + COLUMN_TITLE + ", " + COLUMN_ID + " LIMIT :limit OFFSET :offset")
+    public abstract List<TaskItemEntity> getAllTaskItemsByTitle(int limit, int offset);
 
-    @Query("DELETE FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = 1")
-    public abstract int clearCompleted();
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = :completed AND " + LIVE + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT :limit OFFSET :offset")
+    public abstract List<TaskItemEntity> getTaskItems(boolean completed, int limit, int offset);
+
+    @Query("SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE " + LIVE)
+    public abstract Integer getRowCount();
 
-    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " = :entityId ")
+    @Query("SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = 1 AND " + LIVE)
+    public abstract Integer getDoneRowCount();
+
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " = :entityId AND " + LIVE)
     public abstract TaskItemEntity getTaskItem(long entityId);
 
+    /**
+     * For export, see TaskArchive. One page of rows in id order starting after afterId, so an
+     * export can walk the whole table a page at a time without holding the db in between.
+     * The caller closes the cursor
+     */
+    @Query("SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " > :afterId AND " + LIVE + " ORDER BY " + COLUMN_ID + " LIMIT :limit")
+    public abstract Cursor getTaskItemsCursor(long afterId, int limit);
+
+    //soft deletes, the rows are only marked, TaskCompactor removes them later
+
+    @Query("UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = :deletedTimestamp"
+            + " WHERE " + COLUMN_ID + " = :entityId AND " + LIVE)
+    public abstract int softDeleteTaskItem(long entityId, long deletedTimestamp);
+
+    @Query("UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = :deletedTimestamp"
+            + " WHERE " + LIVE)
+    public abstract int clear(long deletedTimestamp);
+
+    @Query("UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = :deletedTimestamp"
+            + " WHERE " + COLUMN_COMPLETED + " = 1 AND " + LIVE)
+    public abstract int clearCompleted(long deletedTimestamp);
+
+    /**
+     * For delta sync: the ids of everything deleted after the given time (and not yet compacted)
+     */
+    @Query("SELECT " + COLUMN_ID + " FROM " + TABLE_NAME + " WHERE " + COLUMN_DELETED + " = 1 AND " + COLUMN_DELETED_TIMESTAMP + " > :since")
+    public abstract List<Long> getDeletedIdsSince(long since);
+
+    //compaction, see TaskCompactor
+
+    @Query("SELECT IFNULL(MAX(" + COLUMN_ID + "), 0) FROM " + TABLE_NAME)
+    public abstract long getMaxId();
+
+    /**
+     * Hard deletes the tombstones in one range of ids, a range rather than a LIMIT so that each
+     * call is one short walk along the primary key and no index on deleted is needed
+     */
+    @Query("DELETE FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " > :fromIdExclusive AND " + COLUMN_ID + " <= :toIdInclusive"
+            + " AND " + COLUMN_DELETED + " = 1 AND " + COLUMN_DELETED_TIMESTAMP + " <= :deletedBefore")
+    public abstract int purgeTombstones(long fromIdExclusive, long toIdInclusive, long deletedBefore);
+
 }
@@ -1,49 +1,204 @@
 package com.example.android.architecture.blueprints.todoapp.db.tasks;
 
 import android.app.Application;
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
 import android.arch.persistence.room.Database;
 import android.arch.persistence.room.Room;
 import android.arch.persistence.room.RoomDatabase;
+import android.arch.persistence.room.migration.Migration;
 
-import co.early.fore.core.Affirm;
-import co.early.fore.core.WorkMode;
-
+import com.example.android.architecture.blueprints.todoapp.db.migrations.ChunkedMigration;
+import com.example.android.architecture.blueprints.todoapp.db.migrations.MigrationProgress;
+import com.example.android.architecture.blueprints.todoapp.db.migrations.MigrationRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
 /**
  * Room Database class, the app shouldn't be accessing this class directly, its all wrapped up by
  * the associated model, see the feature package
  */
-@Database(entities = {TaskItemEntity.class}, exportSchema = false, version = 1)
+@Database(entities = {TaskItemEntity.class, TaskDraftEntity.class}, exportSchema = false, version = TaskItemDatabase.VERSION)
 public abstract class TaskItemDatabase extends RoomDatabase {
 
+    /**
+     * Bump this along with any schema change, and register a migration for it, see
+     * createMigrationRegistry(). Schemas aren't exported, the instrumented migration tests
+     * create each old version by hand (see TaskItemDatabaseMigrationTest)
+     */
+    public static final int VERSION = 4;
+
+    //the first version that was released, every user's db is at least this
+    public static final int FIRST_VERSION = 1;
+
+    /**
+     * Adds the drafts table, existing tasks are untouched
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `" + TaskDraftEntity.TABLE_NAME + "` ("
+                    + "`" + TaskDraftEntity.COLUMN_TASK_ID + "` INTEGER NOT NULL, "
+                    + "`" + TaskDraftEntity.COLUMN_TITLE + "` TEXT, "
+                    + "`" + TaskDraftEntity.COLUMN_DESCRIPTION + "` TEXT, "
+                    + "`" + TaskDraftEntity.COLUMN_CREATE_TIMESTAMP + "` INTEGER NOT NULL, "
+                    + "`" + TaskDraftEntity.COLUMN_UPDATED_TIMESTAMP + "` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`" + TaskDraftEntity.COLUMN_TASK_ID + "`))");
+        }
+    };
+
+
+    /**
+     * Adds NOCASE collation to the title column and swaps the single column index on completed
+     * for the composite indexes that back the sort orders. Sqlite can't change a column's
+     * collation in place so the table is rebuilt (ids are kept), a chunk of rows at a time
+     */
+    static Migration migration2To3(MigrationProgress progress) {
+        return new ChunkedMigration(2, 3, TaskItemEntity.TABLE_NAME, ChunkedMigration.DEFAULT_CHUNK_SIZE, progress) {
+
+            private final String table = TaskItemEntity.TABLE_NAME;
+            private final String newTable = table + "_new";
+            private final String columns = "`" + TaskItemEntity.COLUMN_ID + "`, "
+                    + "`" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "`, "
+                    + "`" + TaskItemEntity.COLUMN_TITLE + "`, "
+                    + "`" + TaskItemEntity.COLUMN_DESCRIPTION + "`, "
+                    + "`" + TaskItemEntity.COLUMN_COMPLETED + "`";
+
+            @Override
+            protected void beforeChunks(SupportSQLiteDatabase database) {
+                database.execSQL("DROP TABLE IF EXISTS `" + newTable + "`");
+                database.execSQL("CREATE TABLE `" + newTable + "` ("
+                        + "`" + TaskItemEntity.COLUMN_ID + "` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                        + "`" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "` INTEGER NOT NULL, "
+                        + "`" + TaskItemEntity.COLUMN_TITLE + "` TEXT COLLATE NOCASE, "
+                        + "`" + TaskItemEntity.COLUMN_DESCRIPTION + "` TEXT, "
+                        + "`" + TaskItemEntity.COLUMN_COMPLETED + "` INTEGER NOT NULL)");
+            }
+
+            @Override
+            protected void migrateChunk(SupportSQLiteDatabase database, long fromRowIdExclusive, long toRowIdInclusive) {
+                database.execSQL("INSERT INTO `" + newTable + "` (" + columns + ") SELECT " + columns
+                        + " FROM `" + table + "` WHERE `" + TaskItemEntity.COLUMN_ID + "` > ? AND `" + TaskItemEntity.COLUMN_ID + "` <= ?",
+                        new Object[]{fromRowIdExclusive, toRowIdInclusive});
+            }
+
+            @Override
+            protected void afterChunks(SupportSQLiteDatabase database) {
+                //keep the autoincrement sequence, so ids of deleted rows are never handed out again.
+                //The new table has no sqlite_sequence row yet if the old one was empty, so this
+                //inserts one rather than updating. sqlite_sequence has no unique key on name for
+                //INSERT OR REPLACE to work with, so any older row for the new table is deleted
+                database.execSQL("INSERT INTO sqlite_sequence (name, seq) SELECT '" + newTable + "', MAX(seq) "
+                        + "FROM sqlite_sequence WHERE name IN ('" + table + "', '" + newTable + "') HAVING COUNT(*) > 0");
+                database.execSQL("DELETE FROM sqlite_sequence WHERE name = '" + newTable + "' AND rowid <> "
+                        + "(SELECT MAX(rowid) FROM sqlite_sequence WHERE name = '" + newTable + "')");
+
+                //drops the old indexes along with it
+                database.execSQL("DROP TABLE `" + table + "`");
+                database.execSQL("ALTER TABLE `" + newTable + "` RENAME TO `" + table + "`");
+
+                //names as Room would generate them
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "` "
+                        + "ON `" + table + "` (`" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "`)");
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_" + TaskItemEntity.COLUMN_COMPLETED + "_" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "` "
+                        + "ON `" + table + "` (`" + TaskItemEntity.COLUMN_COMPLETED + "`, `" + TaskItemEntity.COLUMN_CREATE_TIMESTAMP + "`)");
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_" + TaskItemEntity.COLUMN_TITLE + "` "
+                        + "ON `" + table + "` (`" + TaskItemEntity.COLUMN_TITLE + "`)");
+            }
+        };
+    }
+
+    /**
+     * Adds the soft delete (tombstone) columns, all existing rows are live. Adding columns
+     * doesn't touch the existing rows so this is quick whatever the size of the table
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `" + TaskItemEntity.TABLE_NAME + "` ADD COLUMN `"
+                    + TaskItemEntity.COLUMN_DELETED + "` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `" + TaskItemEntity.TABLE_NAME + "` ADD COLUMN `"
+                    + TaskItemEntity.COLUMN_DELETED_TIMESTAMP + "` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Every version step from FIRST_VERSION up to VERSION must be registered here, this is
+     * checked each time the db is built. Migrations which touch every row of a table should be
+     * {@link ChunkedMigration}s
+     */
+    static MigrationRegistry createMigrationRegistry(MigrationProgress progress) {
+        return new MigrationRegistry()
+                .register(MIGRATION_1_2)
+                .register(migration2To3(progress))
+                .register(MIGRATION_3_4)
+                .checkPath(FIRST_VERSION, VERSION);
+    }
+
+
+    /**
+     * Used unless a profile is passed to getInstance(), see {@link StorageProfile}
+     */
+    public static final StorageProfile DEFAULT_STORAGE_PROFILE = StorageProfile.BALANCED;
+
 
     private static TaskItemDatabase instance;
 
 
     public static TaskItemDatabase getInstance(Application application, boolean inMemoryDb, WorkMode workMode) {
+        return getInstance(application, inMemoryDb, workMode, MigrationProgress.NONE);
+    }
+
+    public static TaskItemDatabase getInstance(Application application, boolean inMemoryDb, WorkMode workMode, MigrationProgress migrationProgress) {
+        return getInstance(application, inMemoryDb, workMode, migrationProgress, DEFAULT_STORAGE_PROFILE);
+    }
+
+    /**
+     * @param migrationProgress told how any large migrations are getting on, these run the
+     *                          first time the db is used after an upgrade
+     * @param storageProfile    how sqlite is tuned, applied every time the db is opened
+     */
+    public static TaskItemDatabase getInstance(Application application, boolean inMemoryDb, WorkMode workMode,
+                                               MigrationProgress migrationProgress, StorageProfile storageProfile) {
 
         Affirm.notNull(application);
         Affirm.notNull(workMode);
+        Affirm.notNull(migrationProgress);
+        Affirm.notNull(storageProfile);
 
         if (instance == null) {
-            instance = buildInstance(application, inMemoryDb, workMode);
+            instance = build(application, inMemoryDb ? null : TaskItemDatabase.class.getSimpleName() + "DB",
+                    workMode, migrationProgress, storageProfile);
         }
 
         return instance;
     }
 
-    private static TaskItemDatabase buildInstance(Application application, boolean inMemoryDb, WorkMode workMode) {
+    /**
+     * Not a singleton, for the benchmarks which compare profiles side by side
+     *
+     * @param name null for an in memory db
+     */
+    static TaskItemDatabase build(Application application, String name, WorkMode workMode,
+                                  MigrationProgress migrationProgress, StorageProfile storageProfile) {
 
         RoomDatabase.Builder<TaskItemDatabase> builder;
 
-        if (inMemoryDb) {
+        if (name == null) {
             builder = Room.inMemoryDatabaseBuilder(application, TaskItemDatabase.class);
         } else {
-            builder = Room.databaseBuilder(application, TaskItemDatabase.class,
-                    TaskItemDatabase.class.getSimpleName() + "DB");
+            builder = Room.databaseBuilder(application, TaskItemDatabase.class, name);
         }
 
-        // addMigrations(builder);
+        builder.addMigrations(createMigrationRegistry(migrationProgress).getMigrations());
+
+        //StorageProfileOpenHelperFactory decides on WAL, Room would otherwise switch it on before
+        //page_size has been set
+        builder.setJournalMode(RoomDatabase.JournalMode.TRUNCATE);
+
+        //incremental vacuum so that TaskCompactor can give space back to the file system a bit at a time
+        builder.openHelperFactory(new StorageProfileOpenHelperFactory(storageProfile,
+                new IncrementalVacuumOpenHelperFactory(new FrameworkSQLiteOpenHelperFactory())));
 
         if (workMode == WorkMode.SYNCHRONOUS) {
             builder.allowMainThreadQueries();
@@ -58,4 +213,6 @@ public abstract class TaskItemDatabase extends RoomDatabase {
 
     public abstract TaskItemDao taskItemDao();
 
+    public abstract TaskDraftDao taskDraftDao();
+
 }
@@ -0,0 +1,70 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+
+import com.example.android.architecture.blueprints.todoapp.adapters.DiffUtilListDiff;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiffer;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.List;
+
+/**
+ * How the app diffs the task list: the models in core are handed {@link #DIFFER}, which uses
+ * DiffUtil. Does the same job as fore's DiffCalculator, but also works out what changed about
+ * each item so that the adapter can rebind just the affected view rather than the whole row.
+ * <p>
+ * The payload handed to the adapter is an Integer made of the CHANGED_ flags below, RecyclerView
+ * may collect several of them for the same row before it's bound, so OR them all together.
+ * A null payload (the row changed in some way we don't track) means a full bind.
+ */
+public class TaskItemDiffCallback extends DiffUtil.Callback {
+
+    public static final int CHANGED_COMPLETED = TaskItem.CHANGED_COMPLETED;
+    public static final int CHANGED_TITLE = TaskItem.CHANGED_TITLE;
+
+    public static final ListDiffer<TaskItem> DIFFER =
+            (oldList, newList) -> new DiffUtilListDiff(createDiffResult(oldList, newList));
+
+    private final List<TaskItem> oldList;
+    private final List<TaskItem> newList;
+
+    TaskItemDiffCallback(List<TaskItem> oldList, List<TaskItem> newList) {
+        this.oldList = Affirm.notNull(oldList);
+        this.newList = Affirm.notNull(newList);
+    }
+
+    static DiffUtil.DiffResult createDiffResult(List<TaskItem> oldList, List<TaskItem> newList) {
+        return DiffUtil.calculateDiff(new TaskItemDiffCallback(oldList, newList), true);
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldList.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newList.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return oldList.get(oldItemPosition).itemsTheSame(newList.get(newItemPosition));
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        return oldList.get(oldItemPosition).contentsTheSame(newList.get(newItemPosition));
+    }
+
+    /**
+     * Only called when areContentsTheSame() has returned false
+     */
+    @Nullable
+    @Override
+    public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+        int changes = TaskItem.changesBetween(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        return changes == 0 ? null : changes;
+    }
+}
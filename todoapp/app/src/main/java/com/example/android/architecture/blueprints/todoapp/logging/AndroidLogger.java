@@ -0,0 +1,65 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+import android.util.Log;
+
+/**
+ * Logs to logcat, every tag is prefixed so that the app's logs are easy to filter for
+ */
+public class AndroidLogger implements Logger {
+
+    private final String tagPrefix;
+
+    public AndroidLogger(String tagPrefix) {
+        this.tagPrefix = tagPrefix == null ? "" : tagPrefix;
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        Log.e(tagPrefix + tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        Log.w(tagPrefix + tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        Log.i(tagPrefix + tag, message);
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        Log.d(tagPrefix + tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        Log.v(tagPrefix + tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message, Throwable throwable) {
+        Log.e(tagPrefix + tag, message, throwable);
+    }
+
+    @Override
+    public void w(String tag, String message, Throwable throwable) {
+        Log.w(tagPrefix + tag, message, throwable);
+    }
+
+    @Override
+    public void i(String tag, String message, Throwable throwable) {
+        Log.i(tagPrefix + tag, message, throwable);
+    }
+
+    @Override
+    public void d(String tag, String message, Throwable throwable) {
+        Log.d(tagPrefix + tag, message, throwable);
+    }
+
+    @Override
+    public void v(String tag, String message, Throwable throwable) {
+        Log.v(tagPrefix + tag, message, throwable);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * fore's networking classes (CallProcessorRetrofit2, InterceptorLogging) take fore's own Logger,
+ * this hands them the app's one so that everything goes through the same {@link LevelLogger}
+ */
+public class ForeLogger implements co.early.fore.core.logging.Logger {
+
+    private final Logger logger;
+
+    public ForeLogger(Logger logger) {
+        this.logger = Affirm.notNull(logger);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        logger.e(tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        logger.w(tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        logger.i(tag, message);
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        logger.d(tag, message);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        logger.v(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message, Throwable throwable) {
+        logger.e(tag, message, throwable);
+    }
+
+    @Override
+    public void w(String tag, String message, Throwable throwable) {
+        logger.w(tag, message, throwable);
+    }
+
+    @Override
+    public void i(String tag, String message, Throwable throwable) {
+        logger.i(tag, message, throwable);
+    }
+
+    @Override
+    public void d(String tag, String message, Throwable throwable) {
+        logger.d(tag, message, throwable);
+    }
+
+    @Override
+    public void v(String tag, String message, Throwable throwable) {
+        logger.v(tag, message, throwable);
+    }
+}
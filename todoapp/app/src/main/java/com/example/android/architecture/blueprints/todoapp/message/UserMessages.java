@@ -0,0 +1,38 @@
+package com.example.android.architecture.blueprints.todoapp.message;
+
+import android.content.res.Resources;
+
+import com.example.android.architecture.blueprints.todoapp.R;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The human readable text for each {@link UserMessage}, which lives in core and so knows
+ * nothing about the app's resources
+ */
+public final class UserMessages {
+
+    private static final Map<UserMessage, Integer> MESSAGE_RES_IDS = new EnumMap<>(UserMessage.class);
+
+    static {
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_MISC, R.string.msg_error_misc);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_NETWORK, R.string.msg_error_network);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_SERVER, R.string.msg_error_server);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_CLIENT, R.string.msg_error_client);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_SESSION_TIMED_OUT, R.string.msg_error_session_timeout);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_BUSY, R.string.msg_error_busy);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_NOT_FOUND, R.string.msg_error_not_found);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_CANCELLED, R.string.msg_error_cancelled);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_NOT_SAVED, R.string.msg_error_not_saved);
+        MESSAGE_RES_IDS.put(UserMessage.ERROR_FILE, R.string.msg_error_file);
+    }
+
+    private UserMessages() {
+    }
+
+    public static String getString(UserMessage userMessage, Resources resources) {
+        return resources.getString(MESSAGE_RES_IDS.get(Affirm.notNull(userMessage)));
+    }
+}
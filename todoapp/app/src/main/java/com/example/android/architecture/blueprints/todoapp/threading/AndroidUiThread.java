@@ -0,0 +1,37 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * The Android main thread as seen by the models in core
+ */
+public class AndroidUiThread implements UiThread {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public boolean isCurrentThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        handler.post(runnable);
+    }
+
+    @Override
+    public void postAtNextFrame(Runnable runnable) {
+        //the Choreographer belongs to the thread it's fetched on, so fetch it on the main thread
+        handler.post(() -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> runnable.run()));
+    }
+
+    @Override
+    public void postWhenIdle(Runnable runnable) {
+        handler.post(() -> Looper.myQueue().addIdleHandler(() -> {
+            runnable.run();
+            return false;//once only
+        }));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.android.architecture.blueprints.todoapp.ui;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.StringRes;
+import android.support.v4.content.ContextCompat;
+import android.util.SparseArray;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Strings and drawables a view keeps going back to, looked up once each. Create one per view
+ * hierarchy (so a configuration change gets a fresh one) and use it from the UI thread only.
+ * <p>
+ * A drawable is handed out as the same instance every time, so only give it to one view at once.
+ */
+public class ResourceCache {
+
+    private final Context context;
+    private final SparseArray<String> strings = new SparseArray<>();
+    private final SparseArray<Drawable> drawables = new SparseArray<>();
+
+    public ResourceCache(Context context) {
+        this.context = Affirm.notNull(context);
+    }
+
+    public String getString(@StringRes int resId) {
+        String string = strings.get(resId);
+        if (string == null) {
+            string = context.getString(resId);
+            strings.put(resId, string);
+        }
+        return string;
+    }
+
+    public Drawable getDrawable(@DrawableRes int resId) {
+        Drawable drawable = drawables.get(resId);
+        if (drawable == null) {
+            drawable = ContextCompat.getDrawable(context, resId);
+            drawables.put(resId, drawable);
+        }
+        return drawable;
+    }
+}
@@ -28,12 +28,11 @@ import android.view.ViewGroup;
 import com.example.android.architecture.blueprints.todoapp.App;
 import com.example.android.architecture.blueprints.todoapp.R;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
 import com.example.android.architecture.blueprints.todoapp.ui.widget.CustomEditText;
 
-import co.early.fore.core.observer.Observer;
 import co.early.fore.core.ui.SyncableView;
 
-
 /**
  * Main UI for the add task screen. Users can enter a task title and description.
  */
@@ -54,6 +53,8 @@ public class AddEditTaskFragment extends Fragment implements SyncableView {
     private Observer observer = this::syncView;
 
     private boolean editing;
+    //set while syncView() writes the model's text into the views, so that doesn't come back as an edit
+    private boolean syncing;
 
     public static AddEditTaskFragment newEditInstance() {
         return newInstance(true);
@@ -85,6 +86,12 @@ public class AddEditTaskFragment extends Fragment implements SyncableView {
 
         setupClickListeners();
 
+        // the process may have been killed while we were editing, in which case the model will
+        // be empty but there may be a draft for us to pick up
+        if (savedInstanceState != null && !currentTaskModel.itemLoaded()) {
+            currentTaskModel.restoreLatestDraft();
+        }
+
         return root;
     }
 
@@ -108,10 +115,16 @@ public class AddEditTaskFragment extends Fragment implements SyncableView {
 
     private void setupClickListeners(){
 
-        mTitle.addTextChangedListener(new SimpleTextWatcher(
-                newText -> currentTaskModel.setTitle(newText)));
-        mDescription.addTextChangedListener(new SimpleTextWatcher(
-                newText -> currentTaskModel.setDescription(newText)));
+        mTitle.addTextChangedListener(new SimpleTextWatcher(newText -> {
+            if (!syncing) {
+                currentTaskModel.setTitle(newText);
+            }
+        }));
+        mDescription.addTextChangedListener(new SimpleTextWatcher(newText -> {
+            if (!syncing) {
+                currentTaskModel.setDescription(newText);
+            }
+        }));
 
         fab.setOnClickListener(v -> {
             currentTaskModel.saveChanges();
@@ -138,13 +151,16 @@ public class AddEditTaskFragment extends Fragment implements SyncableView {
     public void onPause() {
         super.onPause();
         currentTaskModel.removeObserver(observer);
+        currentTaskModel.flushDraft();
     }
 
     @Override
     public void syncView() {
 
+        syncing = true;
         mTitle.setTextIfDifferent(currentTaskModel.getTitle());
         mDescription.setTextIfDifferent(currentTaskModel.getDescription());
+        syncing = false;
 
         fab.setImageResource(editing ? R.drawable.ic_save : R.drawable.ic_add);
         fabRevert.setVisibility(editing ? View.VISIBLE : View.INVISIBLE);
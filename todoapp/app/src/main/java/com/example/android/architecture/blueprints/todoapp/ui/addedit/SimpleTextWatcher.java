@@ -3,9 +3,7 @@ package com.example.android.architecture.blueprints.todoapp.ui.addedit;
 import android.text.Editable;
 import android.text.TextWatcher;
 
-import co.early.fore.core.Affirm;
-
-
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
 public class SimpleTextWatcher implements TextWatcher {
 
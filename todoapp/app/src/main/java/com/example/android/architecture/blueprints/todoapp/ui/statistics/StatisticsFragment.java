@@ -29,10 +29,12 @@ import com.example.android.architecture.blueprints.todoapp.App;
 import com.example.android.architecture.blueprints.todoapp.R;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessages;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
 import com.example.android.architecture.blueprints.todoapp.ui.BaseActivity;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
 import com.example.android.architecture.blueprints.todoapp.ui.widget.ScrollChildSwipeRefreshLayout;
 
-import co.early.fore.core.observer.Observer;
 import co.early.fore.core.ui.SyncableView;
 
 /**
@@ -48,7 +50,11 @@ public class StatisticsFragment extends Fragment implements SyncableView {
     private TextView mStatisticsTV;
     private ScrollChildSwipeRefreshLayout swipeRefreshLayout;
 
-    //single observer reference
+    //applies only what has changed since the last syncView()
+    private StatisticsViewState.Binder viewStateBinder;
+
+    //single observer reference, subscribed to just the channels this view uses, so list
+    //changes that don't move the counts cost nothing here
     private Observer observer = this::syncView;
 
 
@@ -85,6 +91,11 @@ public class StatisticsFragment extends Fragment implements SyncableView {
                 ContextCompat.getColor(getActivity(), R.color.colorPrimaryDark)
         );
 
+        viewStateBinder = new StatisticsViewState.Binder(
+                new ResourceCache(getActivity()),
+                mStatisticsTV,
+                swipeRefreshLayout);
+
         return root;
     }
 
@@ -94,7 +105,7 @@ public class StatisticsFragment extends Fragment implements SyncableView {
                 },//success is no op, but maybe you would want to move to another activity etc (observers handle UI updates)
                 failureMessage -> {
                     if (getContext() != null) {
-                        ((BaseActivity) getContext()).showMessage(failureMessage.getString(getResources()));
+                        ((BaseActivity) getContext()).showMessage(UserMessages.getString(failureMessage, getResources()));
                     }
                 }));
     }
@@ -102,26 +113,20 @@ public class StatisticsFragment extends Fragment implements SyncableView {
     @Override
     public void onResume() {
         super.onResume();
-        taskFetcher.addObserver(observer);
-        taskListModel.addObserver(observer);
+        taskFetcher.getBusyChannel().addObserver(observer);
+        taskListModel.getCountsChannel().addObserver(observer);
         syncView();
     }
 
     @Override
     public void onPause() {
         super.onPause();
-        taskFetcher.removeObserver(observer);
-        taskListModel.removeObserver(observer);
+        taskFetcher.getBusyChannel().removeObserver(observer);
+        taskListModel.getCountsChannel().removeObserver(observer);
     }
 
     @Override
     public void syncView() {
-        mStatisticsTV.setText(
-                taskListModel.getAllTasksCount() == 0 ?
-                    getResources().getString(R.string.statistics_no_tasks) :
-                    getResources().getString(R.string.statistics_active_tasks) + " "
-                    + taskListModel.getActiveTasksCount() + "\n" + getResources().getString(
-                    R.string.statistics_completed_tasks) + " " + taskListModel.getCompletedTasksCount());
-        swipeRefreshLayout.setRefreshing(taskFetcher.isBusy());
+        viewStateBinder.bind(StatisticsViewState.of(taskListModel, taskFetcher));
     }
 }
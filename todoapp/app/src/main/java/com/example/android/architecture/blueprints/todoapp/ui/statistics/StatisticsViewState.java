@@ -0,0 +1,79 @@
+package com.example.android.architecture.blueprints.todoapp.ui.statistics;
+
+import android.support.v4.widget.SwipeRefreshLayout;
+import android.widget.TextView;
+
+import com.example.android.architecture.blueprints.todoapp.R;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Everything StatisticsFragment shows, read from the models in one go. The {@link Binder} only
+ * rebuilds the statistics text when one of the counts has changed.
+ */
+final class StatisticsViewState {
+
+    final int allTasksCount;
+    final int activeTasksCount;
+    final int completedTasksCount;
+    final boolean refreshing;
+
+    StatisticsViewState(int allTasksCount, int activeTasksCount, int completedTasksCount, boolean refreshing) {
+        this.allTasksCount = allTasksCount;
+        this.activeTasksCount = activeTasksCount;
+        this.completedTasksCount = completedTasksCount;
+        this.refreshing = refreshing;
+    }
+
+    //UI thread
+    static StatisticsViewState of(TaskListModel taskListModel, TaskFetcher taskFetcher) {
+        return new StatisticsViewState(
+                taskListModel.getAllTasksCount(),
+                taskListModel.getActiveTasksCount(),
+                taskListModel.getCompletedTasksCount(),
+                taskFetcher.isBusy());
+    }
+
+    /**
+     * Holds the views for one inflation of the layout, so make a new one in onCreateView().
+     * UI thread only
+     */
+    static class Binder {
+
+        private final ResourceCache resourceCache;
+        private final TextView statisticsView;
+        private final SwipeRefreshLayout swipeRefreshLayout;
+
+        //null until the first bind()
+        private StatisticsViewState shown;
+
+        Binder(ResourceCache resourceCache, TextView statisticsView, SwipeRefreshLayout swipeRefreshLayout) {
+            this.resourceCache = Affirm.notNull(resourceCache);
+            this.statisticsView = Affirm.notNull(statisticsView);
+            this.swipeRefreshLayout = Affirm.notNull(swipeRefreshLayout);
+        }
+
+        void bind(StatisticsViewState state) {
+
+            StatisticsViewState old = shown;
+            shown = Affirm.notNull(state);
+
+            if (old == null
+                    || old.allTasksCount != state.allTasksCount
+                    || old.activeTasksCount != state.activeTasksCount
+                    || old.completedTasksCount != state.completedTasksCount) {
+                statisticsView.setText(state.allTasksCount == 0 ?
+                        resourceCache.getString(R.string.statistics_no_tasks) :
+                        resourceCache.getString(R.string.statistics_active_tasks) + " " + state.activeTasksCount + "\n"
+                                + resourceCache.getString(R.string.statistics_completed_tasks) + " " + state.completedTasksCount);
+            }
+
+            //the user can start the spinner themselves with a pull, so check the view not old
+            if (swipeRefreshLayout.isRefreshing() != state.refreshing) {
+                swipeRefreshLayout.setRefreshing(state.refreshing);
+            }
+        }
+    }
+}
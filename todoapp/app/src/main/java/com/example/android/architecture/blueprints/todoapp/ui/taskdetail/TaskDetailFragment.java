@@ -29,9 +29,10 @@ import android.widget.TextView;
 import com.example.android.architecture.blueprints.todoapp.App;
 import com.example.android.architecture.blueprints.todoapp.R;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
 import com.example.android.architecture.blueprints.todoapp.ui.addedit.AddEditTaskActivity;
 
-import co.early.fore.core.observer.Observer;
 import co.early.fore.core.ui.SyncableView;
 
 /**
@@ -48,6 +49,9 @@ public class TaskDetailFragment extends Fragment implements SyncableView {
     private CheckBox mDetailCompleteStatus;
     private FloatingActionButton fab;
 
+    //applies only what has changed since the last syncView()
+    private TaskDetailViewState.Binder viewStateBinder;
+
     //single observer reference
     private Observer observer = this::syncView;
 
@@ -86,6 +90,12 @@ public class TaskDetailFragment extends Fragment implements SyncableView {
         // Set up floating action button
         fab = getActivity().findViewById(R.id.fab_edit_task);
 
+        viewStateBinder = new TaskDetailViewState.Binder(
+                new ResourceCache(getActivity()),
+                mDetailTitle,
+                mDetailDescription,
+                mDetailCompleteStatus);
+
         return root;
     }
 
@@ -118,12 +128,6 @@ public class TaskDetailFragment extends Fragment implements SyncableView {
 
     @Override
     public void syncView() {
-
-        mDetailTitle.setVisibility(currentTaskModel.itemLoaded() ? View.VISIBLE : View.GONE);
-        mDetailCompleteStatus.setVisibility(currentTaskModel.itemLoaded() ? View.VISIBLE : View.GONE);
-
-        mDetailTitle.setText(currentTaskModel.getTitle());
-        mDetailDescription.setText(currentTaskModel.isLoading() ? getString(R.string.loading) : currentTaskModel.getDescription());
-        mDetailCompleteStatus.setChecked(currentTaskModel.isCompleted());
+        viewStateBinder.bind(TaskDetailViewState.of(currentTaskModel));
     }
 }
@@ -0,0 +1,88 @@
+package com.example.android.architecture.blueprints.todoapp.ui.taskdetail;
+
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.TextView;
+
+import com.example.android.architecture.blueprints.todoapp.R;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Everything TaskDetailFragment shows, read from the model in one go. The {@link Binder} only
+ * touches the views whose values have actually changed.
+ */
+final class TaskDetailViewState {
+
+    final boolean itemLoaded;
+    final boolean loading;
+    final String title;
+    final String description;
+    final boolean completed;
+
+    TaskDetailViewState(boolean itemLoaded, boolean loading, String title, String description, boolean completed) {
+        this.itemLoaded = itemLoaded;
+        this.loading = loading;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+    }
+
+    //UI thread
+    static TaskDetailViewState of(CurrentTaskModel currentTaskModel) {
+        return new TaskDetailViewState(
+                currentTaskModel.itemLoaded(),
+                currentTaskModel.isLoading(),
+                currentTaskModel.getTitle(),
+                currentTaskModel.getDescription(),
+                currentTaskModel.isCompleted());
+    }
+
+    /**
+     * Holds the views for one inflation of the layout, so make a new one in onCreateView().
+     * UI thread only
+     */
+    static class Binder {
+
+        private final ResourceCache resourceCache;
+        private final TextView titleView;
+        private final TextView descriptionView;
+        private final CheckBox completeStatusView;
+
+        //null until the first bind()
+        private TaskDetailViewState shown;
+
+        Binder(ResourceCache resourceCache, TextView titleView, TextView descriptionView, CheckBox completeStatusView) {
+            this.resourceCache = Affirm.notNull(resourceCache);
+            this.titleView = Affirm.notNull(titleView);
+            this.descriptionView = Affirm.notNull(descriptionView);
+            this.completeStatusView = Affirm.notNull(completeStatusView);
+        }
+
+        void bind(TaskDetailViewState state) {
+
+            TaskDetailViewState old = shown;
+            shown = Affirm.notNull(state);
+
+            if (old == null || old.itemLoaded != state.itemLoaded) {
+                titleView.setVisibility(state.itemLoaded ? View.VISIBLE : View.GONE);
+                completeStatusView.setVisibility(state.itemLoaded ? View.VISIBLE : View.GONE);
+            }
+
+            if (old == null || !TextUtils.equals(old.title, state.title)) {
+                titleView.setText(state.title);
+            }
+
+            if (old == null || old.loading != state.loading || !TextUtils.equals(old.description, state.description)) {
+                descriptionView.setText(state.loading ? resourceCache.getString(R.string.loading) : state.description);
+            }
+
+            //the user ticks this one directly, so check the view not old
+            if (completeStatusView.isChecked() != state.completed) {
+                completeStatusView.setChecked(state.completed);
+            }
+        }
+    }
+}
@@ -1,8 +1,13 @@
-package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+package com.example.android.architecture.blueprints.todoapp.ui.tasks;
 
 import com.example.android.architecture.blueprints.todoapp.R;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.Filter;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
-public enum Filter {
+/**
+ * The label and empty list message for each {@link Filter}
+ */
+public enum FilterResources {
 
     COMPLETED(R.string.label_completed, R.string.no_tasks_completed, R.drawable.ic_verified_user_24dp),
     ACTIVE(R.string.label_active, R.string.no_tasks_active, R.drawable.ic_check_circle_24dp),
@@ -12,9 +17,13 @@ public enum Filter {
     public final int noTasksStringResId;
     public final int noTasksDrawableResId;
 
-    Filter(int labelStringResId, int noTasksStringResId, int noTasksDrawableResId) {
+    FilterResources(int labelStringResId, int noTasksStringResId, int noTasksDrawableResId) {
         this.labelStringResId = labelStringResId;
         this.noTasksStringResId = noTasksStringResId;
         this.noTasksDrawableResId = noTasksDrawableResId;
     }
+
+    public static FilterResources of(Filter filter) {
+        return valueOf(Affirm.notNull(filter).name());
+    }
 }
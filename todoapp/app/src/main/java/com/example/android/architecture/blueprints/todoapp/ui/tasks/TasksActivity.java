@@ -34,6 +34,7 @@ import com.example.android.architecture.blueprints.todoapp.R;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.Filter;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessages;
 import com.example.android.architecture.blueprints.todoapp.ui.BaseActivity;
 import com.example.android.architecture.blueprints.todoapp.ui.addedit.AddEditTaskActivity;
 import com.example.android.architecture.blueprints.todoapp.ui.statistics.StatisticsActivity;
@@ -101,7 +102,8 @@ public class TasksActivity extends BaseActivity {
                 mDrawerLayout.openDrawer(GravityCompat.START);
                 return true;
             case R.id.menu_clear:
-                taskListModel.clearCompleted();
+                taskListModel.clearCompleted(
+                        failureMessage -> showMessage(UserMessages.getString(failureMessage, getResources())));
                 showMessage(getString(R.string.completed_tasks_cleared));
                 break;
             case R.id.menu_filter:
@@ -110,7 +112,7 @@ public class TasksActivity extends BaseActivity {
             case R.id.menu_refresh:
                 taskFetcher.fetchTaskItems(
                         () -> {},//success is no op, but maybe you would want to move to another activity etc (observers handle UI updates)
-                        failureMessage -> showMessage(failureMessage.getString(getResources())));
+                        failureMessage -> showMessage(UserMessages.getString(failureMessage, getResources())));
                 break;
         }
         return super.onOptionsItemSelected(item);
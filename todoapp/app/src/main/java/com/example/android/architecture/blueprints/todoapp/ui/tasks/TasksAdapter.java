@@ -1,5 +1,7 @@
 package com.example.android.architecture.blueprints.todoapp.ui.tasks;
 
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
 import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -9,12 +11,15 @@ import android.widget.TextView;
 
 import com.example.android.architecture.blueprints.todoapp.App;
 import com.example.android.architecture.blueprints.todoapp.R;
+import com.example.android.architecture.blueprints.todoapp.adapters.ChangeAwareAdapter;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.CurrentTaskModel;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItem;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItemDiffCallback;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
 import com.example.android.architecture.blueprints.todoapp.ui.taskdetail.TaskDetailActivity;
 
-import co.early.fore.adapters.ChangeAwareAdapter;
+import java.util.List;
 
 import static android.support.v7.widget.RecyclerView.NO_POSITION;
 
@@ -26,6 +31,11 @@ public class TasksAdapter extends ChangeAwareAdapter<TasksAdapter.ViewHolder> {
 
     private final TaskActionsCallBack taskActionsCallBack;
 
+    //background for each state, looked up once. Each row gets its own drawable made from these
+    //as the touch feedback keeps state per view
+    private Drawable.ConstantState activeBackground;
+    private Drawable.ConstantState completedBackground;
+
     public TasksAdapter(TaskListModel taskListModel, CurrentTaskModel currentTaskModel, TaskActionsCallBack taskActionsCallBack) {
         super(taskListModel);
         this.taskListModel = taskListModel;
@@ -47,16 +57,15 @@ public class TasksAdapter extends ChangeAwareAdapter<TasksAdapter.ViewHolder> {
         final TaskItem item = taskListModel.get(position);
 
         holder.title.setText(item.getTitleForList());
-        holder.completeCB.setChecked(item.isCompleted());
-
-        holder.itemView.setBackgroundDrawable(App.inst().getResources().getDrawable(
-                item.isCompleted() ? R.drawable.list_completed_touch_feedback : R.drawable.touch_feedback));
+        bindCompleted(holder, item.isCompleted());
 
         holder.completeCB.setOnClickListener(v -> {
             int betterPosition = holder.getAdapterPosition();
             if (betterPosition != NO_POSITION) {
-                taskListModel.toggleCompleted(betterPosition);
-                if (taskListModel.get(betterPosition).isCompleted()){
+                //the item may have moved or left the list by the time this returns, so don't look it up again
+                boolean completed = taskListModel.toggleCompleted(betterPosition,
+                        failureMessage -> taskActionsCallBack.taskUpdateFailed(failureMessage));
+                if (completed){
                     taskActionsCallBack.taskMarkedComplete();
                 } else{
                     taskActionsCallBack.taskMarkedActive();
@@ -73,6 +82,58 @@ public class TasksAdapter extends ChangeAwareAdapter<TasksAdapter.ViewHolder> {
         });
     }
 
+    /**
+     * Partial bind, the payloads come from {@link TaskItemDiffCallback}. The click listeners
+     * set by the full bind look the position up when they fire, so they don't need setting again
+     */
+    @Override
+    public void onBindViewHolder(final ViewHolder holder, int position, List<Object> payloads) {
+
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer) {
+                changes |= (Integer) payload;
+            } else {
+                changes = 0;
+                break;
+            }
+        }
+
+        if (changes == 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        final TaskItem item = taskListModel.get(position);
+
+        if ((changes & TaskItemDiffCallback.CHANGED_TITLE) != 0) {
+            holder.title.setText(item.getTitleForList());
+        }
+        if ((changes & TaskItemDiffCallback.CHANGED_COMPLETED) != 0) {
+            bindCompleted(holder, item.isCompleted());
+        }
+    }
+
+    private void bindCompleted(ViewHolder holder, boolean completed) {
+
+        holder.completeCB.setChecked(completed);
+
+        //the background only needs replacing when the state it shows is different
+        if (holder.boundCompleted == null || holder.boundCompleted != completed) {
+            holder.itemView.setBackgroundDrawable(getBackground(completed));
+            holder.boundCompleted = completed;
+        }
+    }
+
+    private Drawable getBackground(boolean completed) {
+        if (activeBackground == null) {
+            Resources resources = App.inst().getResources();
+            activeBackground = resources.getDrawable(R.drawable.touch_feedback).getConstantState();
+            completedBackground = resources.getDrawable(R.drawable.list_completed_touch_feedback).getConstantState();
+        }
+        return (completed ? completedBackground : activeBackground).newDrawable();
+    }
+
     @Override
     public int getItemCount() {
         return taskListModel.size();
@@ -83,6 +144,9 @@ public class TasksAdapter extends ChangeAwareAdapter<TasksAdapter.ViewHolder> {
         protected TextView title;
         protected CheckBox completeCB;
 
+        //state of the background currently set, null until the first bind
+        protected Boolean boundCompleted;
+
         public ViewHolder(View view) {
             super(view);
             title = view.findViewById(R.id.title);
@@ -93,5 +157,6 @@ public class TasksAdapter extends ChangeAwareAdapter<TasksAdapter.ViewHolder> {
     public interface TaskActionsCallBack{
         void taskMarkedComplete();
         void taskMarkedActive();
+        void taskUpdateFailed(UserMessage userMessage);
     }
 }
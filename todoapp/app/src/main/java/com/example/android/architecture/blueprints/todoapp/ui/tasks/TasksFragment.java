@@ -36,11 +36,14 @@ import com.example.android.architecture.blueprints.todoapp.feature.tasks.Current
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskItem;
 import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessages;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
 import com.example.android.architecture.blueprints.todoapp.ui.BaseActivity;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
 import com.example.android.architecture.blueprints.todoapp.ui.addedit.AddEditTaskActivity;
 import com.example.android.architecture.blueprints.todoapp.ui.widget.ScrollChildSwipeRefreshLayout;
 
-import co.early.fore.core.observer.Observer;
 import co.early.fore.core.ui.SyncableView;
 
 /**
@@ -65,7 +68,11 @@ public class TasksFragment extends Fragment implements SyncableView {
     private FloatingActionButton fab;
     private ScrollChildSwipeRefreshLayout swipeRefreshLayout;
 
-    //single observer reference
+    //applies only what has changed since the last syncView()
+    private TasksViewState.Binder viewStateBinder;
+
+    //single observer reference, subscribed to just the channels this view uses (when several
+    //change in the same frame it is still only called once)
     private Observer observer = this::syncView;
 
 
@@ -85,6 +92,8 @@ public class TasksFragment extends Fragment implements SyncableView {
 
         setupAdapter();
 
+        setupViewState();
+
         setupClickListeners();
 
         return root;
@@ -139,6 +148,13 @@ public class TasksFragment extends Fragment implements SyncableView {
             public void taskMarkedActive() {
                 ((TasksActivity)getContext()).showMessage(getString(R.string.task_marked_active));
             }
+
+            @Override
+            public void taskUpdateFailed(UserMessage userMessage) {
+                if (getContext() != null) {
+                    ((TasksActivity)getContext()).showMessage(UserMessages.getString(userMessage, getResources()));
+                }
+            }
         });
 
         LinearLayoutManager linearLayoutManager = new LinearLayoutManager(getContext());
@@ -147,6 +163,19 @@ public class TasksFragment extends Fragment implements SyncableView {
         listView.setAdapter(listAdapter);
     }
 
+    private void setupViewState(){
+        viewStateBinder = new TasksViewState.Binder(
+                new ResourceCache(getActivity()),
+                tasksView,
+                noTasksView,
+                noTaskAddView,
+                noTaskMsg,
+                noTaskIcon,
+                filteringLabelView,
+                swipeRefreshLayout,
+                listAdapter::notifyDataSetChangedAuto);
+    }
+
     private void setupClickListeners(){
 
         noTaskAddView.setOnClickListener(v -> {
@@ -163,7 +192,7 @@ public class TasksFragment extends Fragment implements SyncableView {
                 () -> {},//success is no op, but maybe you would want to move to another activity etc (observers handle UI updates)
                 failureMessage -> {
                     if (getContext() != null) {
-                        ((BaseActivity) getContext()).showMessage(failureMessage.getString(getResources()));
+                        ((BaseActivity) getContext()).showMessage(UserMessages.getString(failureMessage, getResources()));
                     }
                 }));
     }
@@ -173,31 +202,22 @@ public class TasksFragment extends Fragment implements SyncableView {
     @Override
     public void onResume() {
         super.onResume();
-        taskListModel.addObserver(observer);
-        taskFetcher.addObserver(observer);
+        taskListModel.getListChannel().addObserver(observer);
+        taskListModel.getFilterChannel().addObserver(observer);
+        taskFetcher.getBusyChannel().addObserver(observer);
         syncView();
     }
 
     @Override
     public void onPause() {
         super.onPause();
-        taskListModel.removeObserver(observer);
-        taskFetcher.removeObserver(observer);
+        taskListModel.getListChannel().removeObserver(observer);
+        taskListModel.getFilterChannel().removeObserver(observer);
+        taskFetcher.getBusyChannel().removeObserver(observer);
     }
 
     @Override
     public void syncView() {
-
-        tasksView.setVisibility(taskListModel.hasVisibleTasks() ? View.VISIBLE :View.GONE);
-
-        noTasksView.setVisibility(taskListModel.hasVisibleTasks() ? View.GONE :View.VISIBLE);
-        noTaskMsg.setText(taskListModel.getCurrentFilter().noTasksStringResId);
-        noTaskIcon.setImageDrawable(getResources().getDrawable(taskListModel.getCurrentFilter().noTasksDrawableResId));
-        noTaskAddView.setVisibility(taskListModel.hasVisibleTasks() ? View.GONE : View.VISIBLE);
-
-        filteringLabelView.setText(getResources().getString(taskListModel.getCurrentFilter().labelStringResId));
-        swipeRefreshLayout.setRefreshing(taskFetcher.isBusy());
-
-        listAdapter.notifyDataSetChangedAuto();
+        viewStateBinder.bind(TasksViewState.of(taskListModel, taskFetcher));
     }
 }
@@ -0,0 +1,102 @@
+package com.example.android.architecture.blueprints.todoapp.ui.tasks;
+
+import android.support.v4.widget.SwipeRefreshLayout;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.Filter;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Everything TasksFragment shows (apart from the rows themselves, which are the adapter's job)
+ * read from the models in one go. The {@link Binder} compares each new state with the last one
+ * it applied and only touches the views whose values have actually changed.
+ */
+final class TasksViewState {
+
+    final boolean hasVisibleTasks;
+    final Filter filter;
+    final boolean refreshing;
+    //the adapter only needs telling when there is a new snapshot
+    final long listVersion;
+
+    TasksViewState(boolean hasVisibleTasks, Filter filter, boolean refreshing, long listVersion) {
+        this.hasVisibleTasks = hasVisibleTasks;
+        this.filter = Affirm.notNull(filter);
+        this.refreshing = refreshing;
+        this.listVersion = listVersion;
+    }
+
+    //UI thread
+    static TasksViewState of(TaskListModel taskListModel, TaskFetcher taskFetcher) {
+        return new TasksViewState(
+                taskListModel.hasVisibleTasks(),
+                taskListModel.getCurrentFilter(),
+                taskFetcher.isBusy(),
+                taskListModel.getSnapshot().getVersion());
+    }
+
+    /**
+     * Holds the views for one inflation of the layout, so make a new one in onCreateView().
+     * UI thread only
+     */
+    static class Binder {
+
+        private final ResourceCache resourceCache;
+        private final View tasksView;
+        private final View noTasksView;
+        private final View noTaskAddView;
+        private final TextView noTaskMsg;
+        private final ImageView noTaskIcon;
+        private final TextView filteringLabelView;
+        private final SwipeRefreshLayout swipeRefreshLayout;
+        private final Runnable listChanged;
+
+        //null until the first bind()
+        private TasksViewState shown;
+
+        Binder(ResourceCache resourceCache, View tasksView, View noTasksView, View noTaskAddView, TextView noTaskMsg,
+               ImageView noTaskIcon, TextView filteringLabelView, SwipeRefreshLayout swipeRefreshLayout, Runnable listChanged) {
+            this.resourceCache = Affirm.notNull(resourceCache);
+            this.tasksView = Affirm.notNull(tasksView);
+            this.noTasksView = Affirm.notNull(noTasksView);
+            this.noTaskAddView = Affirm.notNull(noTaskAddView);
+            this.noTaskMsg = Affirm.notNull(noTaskMsg);
+            this.noTaskIcon = Affirm.notNull(noTaskIcon);
+            this.filteringLabelView = Affirm.notNull(filteringLabelView);
+            this.swipeRefreshLayout = Affirm.notNull(swipeRefreshLayout);
+            this.listChanged = Affirm.notNull(listChanged);
+        }
+
+        void bind(TasksViewState state) {
+
+            TasksViewState old = shown;
+            shown = Affirm.notNull(state);
+
+            if (old == null || old.hasVisibleTasks != state.hasVisibleTasks) {
+                tasksView.setVisibility(state.hasVisibleTasks ? View.VISIBLE : View.GONE);
+                noTasksView.setVisibility(state.hasVisibleTasks ? View.GONE : View.VISIBLE);
+                noTaskAddView.setVisibility(state.hasVisibleTasks ? View.GONE : View.VISIBLE);
+            }
+
+            if (old == null || old.filter != state.filter) {
+                noTaskMsg.setText(resourceCache.getString(FilterResources.of(state.filter).noTasksStringResId));
+                noTaskIcon.setImageDrawable(resourceCache.getDrawable(FilterResources.of(state.filter).noTasksDrawableResId));
+                filteringLabelView.setText(resourceCache.getString(FilterResources.of(state.filter).labelStringResId));
+            }
+
+            //the user can start the spinner themselves with a pull, so check the view not old
+            if (swipeRefreshLayout.isRefreshing() != state.refreshing) {
+                swipeRefreshLayout.setRefreshing(state.refreshing);
+            }
+
+            if (old == null || old.listVersion != state.listVersion) {
+                listChanged.run();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.android.architecture.blueprints.todoapp.ui.widget;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 
 /**
@@ -22,7 +23,8 @@ public class CustomEditText extends android.support.v7.widget.AppCompatEditText
 
 
     public void setTextIfDifferent(CharSequence newText) {
-        if (getText().toString().equals(newText)) {
+        //compares in place, rather than copying the whole text with toString() on every sync
+        if (TextUtils.equals(getText(), newText)) {
             return;
         } else {
             setText(newText);
@@ -21,7 +21,7 @@ import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentTransaction;
 
-import static co.early.fore.core.Affirm.notNull;
+import static com.example.android.architecture.blueprints.todoapp.util.Affirm.notNull;
 
 /**
  * This provides methods to help Activities load their UI.
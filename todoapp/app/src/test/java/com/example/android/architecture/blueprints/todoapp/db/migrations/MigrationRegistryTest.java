@@ -0,0 +1,63 @@
+package com.example.android.architecture.blueprints.todoapp.db.migrations;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.room.migration.Migration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Plain unit tests, the real migrations are run against a real db in the instrumented
+ * TaskItemDatabaseMigrationBenchmark
+ */
+public class MigrationRegistryTest {
+
+    @Test
+    public void whenEveryStepRegistered_migrationsComeBackInVersionOrder() throws Exception {
+
+        //arrange
+        MigrationRegistry registry = new MigrationRegistry()
+                .register(emptyMigration(2, 3))
+                .register(emptyMigration(1, 2));
+
+        //act
+        registry.checkPath(1, 3);
+        Migration[] migrations = registry.getMigrations();
+
+        //assert
+        Assert.assertEquals(2, migrations.length);
+        Assert.assertEquals(1, migrations[0].startVersion);
+        Assert.assertEquals(2, migrations[1].startVersion);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenStepMissing_checkPathFails() throws Exception {
+
+        //arrange
+        MigrationRegistry registry = new MigrationRegistry()
+                .register(emptyMigration(1, 2))
+                .register(emptyMigration(3, 4));
+
+        //act
+        registry.checkPath(1, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenStepRegisteredTwice_registerFails() throws Exception {
+
+        //arrange
+        MigrationRegistry registry = new MigrationRegistry()
+                .register(emptyMigration(1, 2));
+
+        //act
+        registry.register(emptyMigration(1, 2));
+    }
+
+    private static Migration emptyMigration(int startVersion, int endVersion) {
+        return new Migration(startVersion, endVersion) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+            }
+        };
+    }
+}
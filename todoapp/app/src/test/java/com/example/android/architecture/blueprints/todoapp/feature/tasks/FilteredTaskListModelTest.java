@@ -0,0 +1,124 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
+
+/**
+ * Two windows onto one TaskListModel, using a real in memory database
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FilteredTaskListModelTest {
+
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+
+    private TaskItemDatabase taskItemDatabase;
+    private WorkMode workMode = WorkMode.SYNCHRONOUS;
+    private Logger logger = new SystemLogger();
+    private MetricsRegistry metrics = new MetricsRegistry();
+    private ModelScheduler scheduler = new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, metrics, workMode);
+    private FrameBatcher frameBatcher = new FrameBatcher(new ExecutorUiThread(), workMode);
+
+    private static final TaskItem TASK_ITEM_0 = new TaskItem(0, "buy rice", "");
+    private static final TaskItem TASK_ITEM_1 = new TaskItem(1, "get hair cut", "");
+    private static final TaskItem TASK_ITEM_2 = new TaskItem(2, "invest in bitcoin", "before the price goes up");
+
+    @Before
+    public void setUp() throws Exception {
+
+        MockitoAnnotations.initMocks(this);
+
+        taskItemDatabase = TaskItemDatabase.getInstance(RuntimeEnvironment.application, true, workMode);
+    }
+
+    @After
+    public void tearDown() {
+        if (taskItemDatabase.isOpen()) {
+            taskItemDatabase.getOpenHelper().close();
+        }
+        taskItemDatabase.destroyInstance();
+    }
+
+    @Test
+    public void whenItemsAdded_derivedModelsShowTheirOwnWindow() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        FilteredTaskListModel activeModel = createFilteredModel(taskListModel, Filter.ACTIVE);
+        FilteredTaskListModel searchModel = createFilteredModel(taskListModel, Filter.ALL);
+        searchModel.setSearch("PRICE");
+
+        //act
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+        runInBatch(2, taskListModel, () -> taskListModel.toggleCompleted(1));
+
+        //assert
+        Assert.assertEquals(3, taskListModel.size());
+        Assert.assertEquals(2, activeModel.size());
+        Assert.assertEquals(2, activeModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(0, activeModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(1, activeModel.getCompletedTasksCount());
+        Assert.assertEquals(1, searchModel.size());
+        Assert.assertEquals(2, searchModel.get(0).getCreationTimestamp());
+    }
+
+    @Test
+    public void whenFilterChanged_derivedModelUpdatesWithoutChangingBaseModel() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        FilteredTaskListModel derivedModel = createFilteredModel(taskListModel, Filter.ALL);
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+        runInBatch(2, taskListModel, () -> taskListModel.toggleCompleted(0));
+
+        //act
+        derivedModel.setFilter(Filter.COMPLETED);
+
+        //assert
+        Assert.assertEquals(1, derivedModel.size());
+        Assert.assertEquals(2, derivedModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(Filter.ALL, taskListModel.getCurrentFilter());
+        Assert.assertEquals(3, taskListModel.size());
+    }
+
+    private TaskListModel createModel() {
+        return new TaskListModel(new RoomTaskStore(taskItemDatabase, logger), logger, metrics, scheduler,
+                mockSystemTimeWrapper, frameBatcher, TaskItemDiffCallback.DIFFER, workMode);
+    }
+
+    private FilteredTaskListModel createFilteredModel(TaskListModel taskListModel, Filter filter) {
+        return new FilteredTaskListModel(taskListModel, filter, scheduler, mockSystemTimeWrapper, logger,
+                frameBatcher, TaskItemDiffCallback.DIFFER);
+    }
+}
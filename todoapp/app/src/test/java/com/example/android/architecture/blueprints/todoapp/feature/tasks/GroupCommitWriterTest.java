@@ -0,0 +1,208 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler.Lane;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Uses a real in memory database. The scheduler is a mock which holds on to the drain instead of
+ * running it, so that we can line up several writes for it first
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class GroupCommitWriterTest {
+
+    @Mock
+    private ModelScheduler mockScheduler;
+
+    private TaskItemDatabase taskItemDatabase;
+    private WorkMode workMode = WorkMode.SYNCHRONOUS;
+    private LevelLogger logger = LevelLogger.wrap(new SystemLogger());
+    private MetricsRegistry metrics = new MetricsRegistry();
+
+    @Before
+    public void setUp() throws Exception {
+
+        MockitoAnnotations.initMocks(this);
+
+        when(mockScheduler.getUiExecutor()).thenReturn(Runnable::run);
+
+        taskItemDatabase = TaskItemDatabase.getInstance(RuntimeEnvironment.application, true, workMode);
+    }
+
+    @After
+    public void tearDown() {
+        if (taskItemDatabase.isOpen()) {
+            taskItemDatabase.getOpenHelper().close();
+        }
+        taskItemDatabase.destroyInstance();
+    }
+
+    @Test
+    public void whenWritesQueueUp_theyAreCommittedTogether() throws Exception {
+
+        //arrange
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(taskItemDatabase, logger), new Object(), mockScheduler, logger, metrics, workMode, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int ii = 0; ii < 3; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "");
+            writer.submit(taskStore -> taskStore.insertTaskItem(taskItemEntity), (succeeded, id) -> ids.add(id));
+        }
+        ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(1)).execute(eq(Lane.INTERACTIVE), drain.capture());
+
+        //act
+        drain.getValue().run();
+
+        //assert
+        Assert.assertEquals(3, ids.size());
+        Assert.assertEquals(3, (int) taskItemDatabase.taskItemDao().getRowCount());
+        Assert.assertEquals(1, metrics.values(GroupCommitWriter.METRIC_WRITES_PER_COMMIT).getCount());
+        Assert.assertEquals(3, metrics.values(GroupCommitWriter.METRIC_WRITES_PER_COMMIT).getMax());
+    }
+
+    @Test
+    public void whenOneWriteInACommitFails_theOthersAreStillSaved() throws Exception {
+
+        //arrange
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(taskItemDatabase, logger), new Object(), mockScheduler, logger, metrics, workMode, 0);
+        List<Boolean> results = new ArrayList<>();
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(0, "buy rice", "")),
+                (succeeded, id) -> results.add(succeeded));
+        writer.submit(taskStore -> {
+                    throw new IllegalStateException("bad write");
+                },
+                (succeeded, id) -> results.add(succeeded));
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(1, "get hair cut", "")),
+                (succeeded, id) -> results.add(succeeded));
+        ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(1)).execute(eq(Lane.INTERACTIVE), drain.capture());
+
+        //act
+        drain.getValue().run();
+
+        //assert
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(true, results.get(0));
+        Assert.assertEquals(false, results.get(1));
+        Assert.assertEquals(true, results.get(2));
+        Assert.assertEquals(2, (int) taskItemDatabase.taskItemDao().getRowCount());
+    }
+
+    @Test
+    public void whenACommitFailsAndIsRetried_eachWriteIsCountedOnce() throws Exception {
+
+        //arrange
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(taskItemDatabase, logger), new Object(), mockScheduler, logger, metrics, workMode, 0);
+        CountingHooks hooks = new CountingHooks();
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(0, "buy rice", "")), hooks, null);
+        writer.submit(taskStore -> {
+                    throw new IllegalStateException("bad write");
+                }, hooks, null);
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(1, "get hair cut", "")), hooks, null);
+        ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(1)).execute(eq(Lane.INTERACTIVE), drain.capture());
+
+        //act
+        drain.getValue().run();
+
+        //assert
+        Assert.assertEquals(3, hooks.started);
+        Assert.assertEquals(3, hooks.finished);
+        Assert.assertEquals(2, hooks.succeeded);
+    }
+
+    @Test
+    public void whenDrainIsRejected_nextWriteStartsANewDrain() throws Exception {
+
+        //arrange
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(taskItemDatabase, logger), new Object(), mockScheduler, logger, metrics, workMode, 0);
+        doThrow(new RejectedExecutionException("lane is shut down"))
+                .doNothing()
+                .when(mockScheduler).execute(eq(Lane.INTERACTIVE), any(Runnable.class));
+        try {
+            writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(0, "buy rice", "")), null);
+            Assert.fail("expected the rejection to reach the caller");
+        } catch (RejectedExecutionException e) {
+            //expected
+        }
+
+        //act
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(1, "get hair cut", "")), null);
+
+        //assert
+        ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(2)).execute(eq(Lane.INTERACTIVE), drain.capture());
+        drain.getValue().run();
+        //the rejected write isn't left behind to be committed later
+        Assert.assertEquals(1, (int) taskItemDatabase.taskItemDao().getRowCount());
+    }
+
+    @Test
+    public void whenDrained_nextWriteStartsANewDrain() throws Exception {
+
+        //arrange
+        GroupCommitWriter writer = new GroupCommitWriter(new RoomTaskStore(taskItemDatabase, logger), new Object(), mockScheduler, logger, metrics, workMode, 0);
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(0, "buy rice", "")), null);
+        ArgumentCaptor<Runnable> drain = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler, times(1)).execute(eq(Lane.INTERACTIVE), drain.capture());
+        drain.getValue().run();
+
+        //act
+        writer.submit(taskStore -> taskStore.insertTaskItem(new TaskItemEntity(1, "get hair cut", "")), null);
+
+        //assert
+        verify(mockScheduler, times(2)).execute(eq(Lane.INTERACTIVE), drain.capture());
+        drain.getValue().run();
+        Assert.assertEquals(2, (int) taskItemDatabase.taskItemDao().getRowCount());
+    }
+
+    private static class CountingHooks implements GroupCommitWriter.Hooks {
+
+        int started;
+        int finished;
+        int succeeded;
+
+        @Override
+        public void started() {
+            started++;
+        }
+
+        @Override
+        public void finished(boolean succeeded, long result) {
+            finished++;
+            if (succeeded) {
+                this.succeeded++;
+            }
+        }
+    }
+}
@@ -1,25 +1,16 @@
 package com.example.android.architecture.blueprints.todoapp.feature.tasks;
 
-import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemPojo;
-import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
 
-import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import co.early.fore.core.callbacks.FailureCallbackWithPayload;
-import co.early.fore.core.callbacks.SuccessCallbackWithPayload;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
-
-import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.doAnswer;
-
 /**
- *
+ * What the stubbed server responses in TaskFetcherIntegrationTest should turn into, see also the
+ * StateBuilder in core for stubbing a TaskItemSource
  */
 public class StateBuilder {
 
@@ -34,47 +25,6 @@ public class StateBuilder {
             new TaskItem(0, TITLE_02, TITLE_02 + DESCRIPTION)
     ).collect(Collectors.toList());
 
-    static final List<TaskItemPojo> TASK_POJOS = Stream.of(
-            new TaskItemPojo(TITLE_00, TITLE_00 + DESCRIPTION, false),
-            new TaskItemPojo(TITLE_01, TITLE_01 + DESCRIPTION, false),
-            new TaskItemPojo(TITLE_02, TITLE_02 + DESCRIPTION, false))
-            .collect(Collectors.toList());
-
-    private CallProcessorRetrofit2<UserMessage> mockCallProcessor;
-
-    StateBuilder(CallProcessorRetrofit2<UserMessage> mockCallProcessor) {
-        this.mockCallProcessor = mockCallProcessor;
-    }
-
-    StateBuilder getTasksSuccess(final List<TaskItemPojo> tasksPojo) {
-
-        final ArgumentCaptor<SuccessCallbackWithPayload> callback = ArgumentCaptor.forClass(SuccessCallbackWithPayload.class);
-
-        doAnswer(__ -> {
-            callback.getValue().success(tasksPojo);
-            return null;
-        })
-
-                .when(mockCallProcessor)
-                .processCall(any(), any(), callback.capture(), any());
-
-        return this;
-    }
-
-    StateBuilder getTasksFail(final UserMessage userMessage) {
-
-        final ArgumentCaptor<FailureCallbackWithPayload> callback = ArgumentCaptor.forClass(FailureCallbackWithPayload.class);
-
-        doAnswer(__ -> {
-            callback.getValue().fail(userMessage);
-            return null;
-        })
-                .when(mockCallProcessor)
-                .processCall(any(), any(), any(), callback.capture());
-
-        return this;
-    }
-
     static class MatchesTasksFromServer extends ArgumentMatcher<List<TaskItem>> {
 
         private final Logger logger;
@@ -0,0 +1,124 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.database.Cursor;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
+import static org.mockito.Mockito.when;
+
+/**
+ * Uses a real in memory database, in SYNCHRONOUS mode the compaction runs as soon as it's
+ * requested
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class TaskCompactorTest {
+
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+
+    private TaskItemDatabase taskItemDatabase;
+    private WorkMode workMode = WorkMode.SYNCHRONOUS;
+    private LevelLogger logger = LevelLogger.wrap(new SystemLogger());
+    private MetricsRegistry metrics = new MetricsRegistry();
+    private ModelScheduler scheduler = new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, metrics, workMode);
+    private FrameBatcher frameBatcher = new FrameBatcher(new ExecutorUiThread(), workMode);
+
+    @Before
+    public void setUp() throws Exception {
+
+        MockitoAnnotations.initMocks(this);
+
+        taskItemDatabase = TaskItemDatabase.getInstance(RuntimeEnvironment.application, true, workMode);
+    }
+
+    @After
+    public void tearDown() {
+        if (taskItemDatabase.isOpen()) {
+            taskItemDatabase.getOpenHelper().close();
+        }
+        taskItemDatabase.destroyInstance();
+    }
+
+    @Test
+    public void whenTombstonesOlderThanRetention_theyArePurged() throws Exception {
+
+        //arrange
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1000L);
+        TaskListModel taskListModel = new TaskListModel(new RoomTaskStore(taskItemDatabase, logger), logger, metrics, scheduler,
+                mockSystemTimeWrapper, frameBatcher, TaskItemDiffCallback.DIFFER, workMode);
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.add(new TaskItem(0, "buy rice", ""));
+            taskListModel.add(new TaskItem(1, "get hair cut", ""));
+        });
+        runInBatch(2, taskListModel, taskListModel::clear);
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1500L);
+        TaskCompactor compactor = new TaskCompactor(new RoomTaskStore(taskItemDatabase, logger), new Object(), scheduler,
+                mockSystemTimeWrapper, logger, metrics, 500);
+
+        //act
+        compactor.requestCompaction();
+
+        //assert
+        Assert.assertEquals(0, countAllRows());
+        Assert.assertEquals(2, metrics.values(TaskCompactor.METRIC_ROWS_PURGED).getMax());
+    }
+
+    @Test
+    public void whenTombstonesWithinRetention_theyAreKeptForSync() throws Exception {
+
+        //arrange
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1000L);
+        TaskListModel taskListModel = new TaskListModel(new RoomTaskStore(taskItemDatabase, logger), logger, metrics, scheduler,
+                mockSystemTimeWrapper, frameBatcher, TaskItemDiffCallback.DIFFER, workMode);
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.add(new TaskItem(0, "buy rice", ""));
+            taskListModel.add(new TaskItem(1, "get hair cut", ""));
+        });
+        runInBatch(2, taskListModel, taskListModel::clear);
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1499L);
+        TaskCompactor compactor = new TaskCompactor(new RoomTaskStore(taskItemDatabase, logger), new Object(), scheduler,
+                mockSystemTimeWrapper, logger, metrics, 500);
+
+        //act
+        compactor.requestCompaction();
+
+        //assert
+        Assert.assertEquals(2, countAllRows());
+        Assert.assertEquals(2, taskItemDatabase.taskItemDao().getDeletedIdsSince(999).size());
+    }
+
+    //tombstones included
+    private int countAllRows() {
+        Cursor cursor = taskItemDatabase.query("SELECT COUNT(*) FROM " + TaskItemEntity.TABLE_NAME, null);
+        try {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
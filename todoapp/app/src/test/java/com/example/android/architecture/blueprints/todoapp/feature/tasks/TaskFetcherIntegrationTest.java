@@ -2,8 +2,19 @@ package com.example.android.architecture.blueprints.todoapp.feature.tasks;
 
 import com.example.android.architecture.blueprints.todoapp.api.CustomGlobalErrorHandler;
 import com.example.android.architecture.blueprints.todoapp.api.CustomRetrofitBuilder;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.RetrofitTaskItemSource;
 import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemService;
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallback;
+import com.example.android.architecture.blueprints.todoapp.logging.ForeLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -13,12 +24,6 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.List;
 
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.callbacks.FailureCallbackWithPayload;
-import co.early.fore.core.callbacks.SuccessCallback;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.logging.SystemLogger;
-import co.early.fore.core.time.SystemTimeWrapper;
 import co.early.fore.net.InterceptorLogging;
 import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
 import co.early.fore.net.testhelpers.InterceptorStubbedService;
@@ -52,6 +57,7 @@ public class TaskFetcherIntegrationTest {
     public static final String LOG_TAG = TaskFetcherIntegrationTest.class.getSimpleName();
 
     private Logger logger = new SystemLogger();
+    private MetricsRegistry metrics = new MetricsRegistry();
     private InterceptorLogging interceptorLogging;
     private CallProcessorRetrofit2<UserMessage> callProcessor;
 
@@ -91,8 +97,8 @@ public class TaskFetcherIntegrationTest {
 
         MockitoAnnotations.initMocks(this);
 
-        interceptorLogging = new InterceptorLogging(logger);
-        callProcessor = new CallProcessorRetrofit2<>(new CustomGlobalErrorHandler(logger), logger);
+        interceptorLogging = new InterceptorLogging(new ForeLogger(logger));
+        callProcessor = new CallProcessorRetrofit2<>(new CustomGlobalErrorHandler(logger), new ForeLogger(logger));
     }
 
 
@@ -109,10 +115,11 @@ public class TaskFetcherIntegrationTest {
         Retrofit retrofit = stubbedRetrofit(stubbedSuccess);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                retrofit.create(TaskItemService.class),
-                callProcessor,
+                new RetrofitTaskItemSource(retrofit.create(TaskItemService.class), callProcessor),
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
         //act
@@ -121,7 +128,7 @@ public class TaskFetcherIntegrationTest {
         //assert
         verify(mockSuccessCallback, times(1)).success();
         verify(mockFailureCallbackWithPayload, never()).fail(any());
-        verify(mockTaskListModel, times(1)).addManyFilterOutDuplicates(argThat(new StateBuilder.MatchesTasksFromServer(logger, LOG_TAG)));
+        verify(mockTaskListModel, times(1)).addManyFilterOutDuplicates(argThat(new StateBuilder.MatchesTasksFromServer(logger, LOG_TAG)), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
@@ -138,10 +145,11 @@ public class TaskFetcherIntegrationTest {
         Retrofit retrofit = stubbedRetrofit(stubbedFailEmpty);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                retrofit.create(TaskItemService.class),
-                callProcessor,
+                new RetrofitTaskItemSource(retrofit.create(TaskItemService.class), callProcessor),
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
@@ -152,7 +160,7 @@ public class TaskFetcherIntegrationTest {
         //assert
         verify(mockSuccessCallback, never()).success();
         verify(mockFailureCallbackWithPayload, times(1)).fail(eq(stubbedFailEmpty.expectedResult));
-        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any());
+        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any(), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
@@ -169,10 +177,11 @@ public class TaskFetcherIntegrationTest {
         Retrofit retrofit = stubbedRetrofit(stubbedFailHtml);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                retrofit.create(TaskItemService.class),
-                callProcessor,
+                new RetrofitTaskItemSource(retrofit.create(TaskItemService.class), callProcessor),
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
@@ -183,7 +192,7 @@ public class TaskFetcherIntegrationTest {
         //assert
         verify(mockSuccessCallback, never()).success();
         verify(mockFailureCallbackWithPayload, times(1)).fail(eq(stubbedFailHtml.expectedResult));
-        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any());
+        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any(), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
@@ -201,10 +210,11 @@ public class TaskFetcherIntegrationTest {
         Retrofit retrofit = stubbedRetrofit(stubbedFailSessionTimeout);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                retrofit.create(TaskItemService.class),
-                callProcessor,
+                new RetrofitTaskItemSource(retrofit.create(TaskItemService.class), callProcessor),
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
@@ -215,7 +225,7 @@ public class TaskFetcherIntegrationTest {
         //assert
         verify(mockSuccessCallback, never()).success();
         verify(mockFailureCallbackWithPayload, times(1)).fail(eq(stubbedFailSessionTimeout.expectedResult));
-        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any());
+        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any(), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
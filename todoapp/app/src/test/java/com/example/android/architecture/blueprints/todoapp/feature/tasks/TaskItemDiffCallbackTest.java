@@ -0,0 +1,71 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Plain unit tests for the change payloads that let TasksAdapter rebind part of a row
+ */
+public class TaskItemDiffCallbackTest {
+
+    @Test
+    public void whenOnlyCompletedChanged_payloadIsCompletedOnly() throws Exception {
+
+        //arrange
+        TaskItem oldItem = createItem(1, "buy rice", false);
+        TaskItem newItem = createItem(1, "buy rice", true);
+        TaskItemDiffCallback callback = new TaskItemDiffCallback(Arrays.asList(oldItem), Arrays.asList(newItem));
+
+        //act
+        boolean contentsTheSame = callback.areContentsTheSame(0, 0);
+        Object payload = callback.getChangePayload(0, 0);
+
+        //assert
+        Assert.assertEquals(false, contentsTheSame);
+        Assert.assertEquals(TaskItemDiffCallback.CHANGED_COMPLETED, payload);
+    }
+
+    @Test
+    public void whenTitleAndCompletedChanged_payloadHasBothFlags() throws Exception {
+
+        //arrange
+        TaskItem oldItem = createItem(1, "buy rice", false);
+        TaskItem newItem = createItem(1, "buy more rice", true);
+        TaskItemDiffCallback callback = new TaskItemDiffCallback(Arrays.asList(oldItem), Arrays.asList(newItem));
+
+        //act
+        Object payload = callback.getChangePayload(0, 0);
+
+        //assert
+        Assert.assertEquals(TaskItemDiffCallback.CHANGED_COMPLETED | TaskItemDiffCallback.CHANGED_TITLE, payload);
+    }
+
+    @Test
+    public void whenDirtyButNothingVisibleChanged_payloadIsNullForAFullBind() throws Exception {
+
+        //arrange
+        TaskItem oldItem = createItem(1, "buy rice", false);
+        oldItem.setDescription("from the shop");
+        TaskItem newItem = createItem(1, "buy rice", false);
+        TaskItemDiffCallback callback = new TaskItemDiffCallback(Arrays.asList(oldItem), Arrays.asList(newItem));
+
+        //act
+        boolean contentsTheSame = callback.areContentsTheSame(0, 0);
+        Object payload = callback.getChangePayload(0, 0);
+
+        //assert
+        Assert.assertEquals(false, contentsTheSame);
+        Assert.assertNull(payload);
+    }
+
+    private TaskItem createItem(long id, String title, boolean completed) {
+        TaskItemEntity entity = new TaskItemEntity(id, title, "");
+        entity.setId(id);
+        entity.setCompleted(completed);
+        return new TaskItem(entity);
+    }
+}
@@ -1,11 +1,24 @@
 package com.example.android.architecture.blueprints.todoapp.feature.tasks;
 
+import com.example.android.architecture.blueprints.todoapp.db.tasks.RoomTaskStore;
 import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemDatabase;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -13,15 +26,14 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.logging.SystemLogger;
-import co.early.fore.core.time.SystemTimeWrapper;
-
-import static co.early.fore.core.testhelpers.CountDownLatchWrapper.runInBatch;
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
 
 /**
  * Integration test which demonstrates how to test db driven models
@@ -40,6 +52,9 @@ public class TaskListModelTest {
     private TaskItemDatabase taskItemDatabase;
     private WorkMode workMode = WorkMode.SYNCHRONOUS;
     private Logger logger = new SystemLogger();
+    private MetricsRegistry metrics = new MetricsRegistry();
+    private ModelScheduler scheduler = new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, metrics, workMode);
+    private FrameBatcher frameBatcher = new FrameBatcher(new ExecutorUiThread(), workMode);
 
     private static final TaskItem TASK_ITEM_0 = new TaskItem(0, "buy rice", "");
     private static final TaskItem TASK_ITEM_1 = new TaskItem(1, "get hair cut", "");
@@ -47,6 +62,9 @@ public class TaskListModelTest {
 
     private static final String NEW_TITLE = "learn to cook";
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Before
     public void setUp() throws Exception {
 
@@ -69,7 +87,7 @@ public class TaskListModelTest {
     public void whenInitialised_withNoData_stateIsCorrect() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
 
         //act
 
@@ -81,7 +99,7 @@ public class TaskListModelTest {
     public void whenQueryingTodoItems_withTodoItemsAdded_todoItemsAreCorrect() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
 
         //the Room invalidation tracker fires in a different thread
         CountDownLatch latchForRoomInvalidationTracker = new CountDownLatch(3);
@@ -111,7 +129,7 @@ public class TaskListModelTest {
     public void whenQueryingTodoItems_withTodoItemsAddedAndRemoved_todoItemsAreCorrect() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
 
 
         //act
@@ -135,7 +153,7 @@ public class TaskListModelTest {
     public void whenQueryingTodoItems_withTodoItemsAddedAndChanged_todoItemsAreCorrect() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
 
 
         //act
@@ -161,7 +179,7 @@ public class TaskListModelTest {
     public void whenQueryingTodoItems_withTodoItemsAddedAndCleared_todoItemsAreCorrect() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
 
 
         //act
@@ -185,7 +203,7 @@ public class TaskListModelTest {
     public void whenTodoItemIsMarkedAsDone__todoItemsIsRemovedFromList() throws Exception {
 
         //arrange
-        TaskListModel taskListModel = new TaskListModel(taskItemDatabase, logger, mockSystemTimeWrapper, workMode);
+        TaskListModel taskListModel = createModel();
         taskListModel.setFilter(Filter.ACTIVE);
 
         //act
@@ -208,4 +226,249 @@ public class TaskListModelTest {
         Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
         Assert.assertEquals(0, taskListModel.get(1).getCreationTimestamp());
     }
+
+    @Test
+    public void whenTodoItemIsToggled__listIsUpdatedBeforeDbWriteIsObserved() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        taskListModel.setFilter(Filter.ACTIVE);
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+
+        //act
+        runInBatch(2, taskListModel, () -> {
+            boolean completed = taskListModel.toggleCompleted(1, failureMessage -> Assert.fail("unexpected failure:" + failureMessage));
+
+            //assert - straight away, before the db refresh has come through
+            Assert.assertEquals(true, completed);
+            Assert.assertEquals(2, taskListModel.size());
+            Assert.assertEquals(1, taskListModel.getCompletedTasksCount());
+        });
+
+        //assert - after the db refresh
+        Assert.assertEquals(2, taskListModel.size());
+        Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(0, taskListModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(1, taskListModel.getCompletedTasksCount());
+    }
+
+    @Test
+    public void whenSortOrderChanged__listIsReorderedAndToggledItemsMoveGroup() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        runInBatch(4, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+            taskListModel.add(new TaskItem(3, "Apples", ""));
+        });
+
+        //act
+        runInBatch(1, taskListModel, () -> taskListModel.setSortOrder(SortOrder.TITLE));
+
+        //assert
+        Assert.assertEquals(SortOrder.TITLE, taskListModel.getSnapshot().getSortOrder());
+        Assert.assertEquals(3, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(0, taskListModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(1, taskListModel.get(2).getCreationTimestamp());
+        Assert.assertEquals(2, taskListModel.get(3).getCreationTimestamp());
+
+        //act
+        runInBatch(1, taskListModel, () -> taskListModel.setSortOrder(SortOrder.ACTIVE_FIRST));
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.toggleCompleted(0);
+
+            //assert - straight away, the completed item has already moved to the end
+            Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+            Assert.assertEquals(3, taskListModel.get(3).getCreationTimestamp());
+        });
+
+        //assert - after the db refresh
+        Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(1, taskListModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(0, taskListModel.get(2).getCreationTimestamp());
+        Assert.assertEquals(3, taskListModel.get(3).getCreationTimestamp());
+        Assert.assertEquals(true, taskListModel.get(3).isCompleted());
+    }
+
+    @Test
+    public void whenImportingFromIterator_everyRowIsInsertedInChunks() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        List<TaskItem> source = new ArrayList<>();
+        for (int ii = 0; ii < 5; ii++) {
+            source.add(new TaskItem(ii, "imported " + ii, ii % 2 == 0 ? null : "description"));
+        }
+
+        //act
+        taskListModel.importTaskItems(source.iterator(), 2);
+
+        //assert
+        Assert.assertEquals(5, (int) taskItemDatabase.taskItemDao().getRowCount());
+        Assert.assertEquals(3, metrics.timer(TaskListModel.METRIC_IMPORT_CHUNK).getCount());
+        List<TaskItemEntity> rows = taskItemDatabase.taskItemDao().getAllTaskItemsOldestFirst();
+        Assert.assertEquals("imported 0", rows.get(0).getTitle());
+        Assert.assertEquals(null, rows.get(0).getDescription());
+        Assert.assertEquals("description", rows.get(1).getDescription());
+        Assert.assertEquals(4, rows.get(4).getCreationTimestamp());
+    }
+
+    @Test
+    public void whenCompletedItemsCleared__listUpdatesStraightAwayAndRowsAreTombstoned() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+        runInBatch(2, taskListModel, () -> taskListModel.toggleCompleted(1));
+
+        //act
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.clearCompleted();
+
+            //assert - straight away, before the db refresh has come through
+            Assert.assertEquals(2, taskListModel.size());
+            Assert.assertEquals(0, taskListModel.getCompletedTasksCount());
+        });
+
+        //assert - after the db refresh
+        Assert.assertEquals(2, taskListModel.size());
+        Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(0, taskListModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(2, (int) taskItemDatabase.taskItemDao().getRowCount());
+        Assert.assertEquals(1, taskItemDatabase.taskItemDao().getDeletedIdsSince(-1).size());
+    }
+
+    @Test
+    public void whenRestartedWithStartupSnapshot_listShowsBeforeTheFirstRefresh() throws Exception {
+
+        //arrange
+        File file = new File(temporaryFolder.getRoot(), TaskListModel.STARTUP_SNAPSHOT_FILE_NAME);
+        TaskListModel previousSession = createModel();
+        previousSession.restoreStartupSnapshot(file);
+        runInBatch(3, previousSession, () -> {
+            previousSession.add(TASK_ITEM_0);
+            previousSession.add(TASK_ITEM_1);
+            previousSession.add(TASK_ITEM_2);
+        });
+        runInBatch(2, previousSession, () -> previousSession.toggleCompleted(1));
+        TaskListModel taskListModel = createModel();
+
+        //act
+        taskListModel.restoreStartupSnapshot(file);
+
+        //assert - no fetchLatestFromDb() yet
+        Assert.assertEquals(3, taskListModel.size());
+        Assert.assertEquals(1, taskListModel.getCompletedTasksCount());
+        Assert.assertEquals(previousSession.get(0).getEntityId(), taskListModel.get(0).getEntityId());
+        Assert.assertEquals("get hair cut", taskListModel.get(1).getTitle());
+        Assert.assertEquals(true, taskListModel.get(1).isCompleted());
+        Assert.assertEquals(0, taskListModel.get(2).getCreationTimestamp());
+    }
+
+    @Test
+    public void whenFirstLoadIsBig_firstPageIsPublishedBeforeTheRest() throws Exception {
+
+        //arrange
+        List<TaskItemEntity> rows = new ArrayList<>();
+        for (int ii = 0; ii < 120; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "");
+            taskItemEntity.setCompleted(ii % 3 == 0);
+            rows.add(taskItemEntity);
+        }
+        taskItemDatabase.taskItemDao().importTaskItems(rows.iterator(), rows.size());
+        TaskListModel taskListModel = createModel();
+        List<Integer> sizesSeen = new ArrayList<>();
+        taskListModel.addObserver(() -> sizesSeen.add(taskListModel.size()));
+
+        //act
+        taskListModel.setSortOrder(SortOrder.ACTIVE_FIRST);
+
+        //assert
+        Assert.assertEquals(50, (int) sizesSeen.get(0));
+        Assert.assertEquals(120, taskListModel.size());
+        Assert.assertEquals(40, taskListModel.getCompletedTasksCount());
+        Assert.assertEquals(false, taskListModel.get(79).isCompleted());
+        Assert.assertEquals(true, taskListModel.get(80).isCompleted());
+        Assert.assertEquals(119, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(117, taskListModel.get(80).getCreationTimestamp());
+    }
+
+    @Test
+    public void whenTitleChanged_countsChannelIsNotNotified_whenToggled_itIs() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+        });
+        AtomicInteger listNotifications = new AtomicInteger();
+        AtomicInteger countsNotifications = new AtomicInteger();
+        AtomicInteger filterNotifications = new AtomicInteger();
+        taskListModel.getListChannel().addObserver(listNotifications::incrementAndGet);
+        taskListModel.getCountsChannel().addObserver(countsNotifications::incrementAndGet);
+        taskListModel.getFilterChannel().addObserver(filterNotifications::incrementAndGet);
+
+        //act
+        runInBatch(1, taskListModel, () -> {
+            TaskItem taskItem = taskListModel.get(0);
+            taskItem.setTitle(NEW_TITLE);
+            taskListModel.update(taskItem);
+        });
+
+        //assert
+        Assert.assertTrue(listNotifications.get() > 0);
+        Assert.assertEquals(0, countsNotifications.get());
+        Assert.assertEquals(0, filterNotifications.get());
+
+        //act
+        runInBatch(2, taskListModel, () -> {
+            taskListModel.toggleCompleted(0, failureMessage -> Assert.fail("unexpected failure:" + failureMessage));
+        });
+
+        //assert
+        Assert.assertTrue(countsNotifications.get() > 0);
+        Assert.assertEquals(0, filterNotifications.get());
+        Assert.assertEquals(1, taskListModel.getCompletedTasksCount());
+    }
+
+    @Test
+    public void whenLookingUpById_positionsFollowTheList() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        taskListModel.setSortOrder(SortOrder.ACTIVE_FIRST);
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+        long newestId = taskListModel.get(0).getEntityId();
+        long oldestId = taskListModel.get(2).getEntityId();
+
+        //act
+        runInBatch(2, taskListModel, () -> taskListModel.toggleCompleted(0));
+
+        //assert
+        Assert.assertEquals(2, taskListModel.indexOfId(newestId));
+        Assert.assertEquals(1, taskListModel.indexOfId(oldestId));
+        Assert.assertEquals(0, taskListModel.getById(oldestId).getCreationTimestamp());
+        Assert.assertEquals(-1, taskListModel.indexOfId(newestId + 1000));
+        Assert.assertNull(taskListModel.getById(newestId + 1000));
+    }
+
+    private TaskListModel createModel() {
+        return new TaskListModel(new RoomTaskStore(taskItemDatabase, logger), logger, metrics, scheduler,
+                mockSystemTimeWrapper, frameBatcher, TaskItemDiffCallback.DIFFER, workMode);
+    }
 }
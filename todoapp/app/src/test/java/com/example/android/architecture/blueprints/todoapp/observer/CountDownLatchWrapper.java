@@ -0,0 +1,29 @@
+package com.example.android.architecture.blueprints.todoapp.observer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * For tests of models whose notifications arrive on another thread: runs some work and then
+ * waits for the observable to notify its observers a number of times (or for the timeout)
+ */
+public class CountDownLatchWrapper {
+
+    private static final long TIMEOUT_MS = 2000;
+
+    public static void runInBatch(int notifications, Observable observable, Runnable work) {
+
+        CountDownLatch latch = new CountDownLatch(notifications);
+        Observer observer = latch::countDown;
+
+        observable.addObserver(observer);
+        try {
+            work.run();
+            latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            observable.removeObserver(observer);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.android.architecture.blueprints.todoapp.ui.tasks;
+
+import android.app.Application;
+import android.support.v4.widget.SwipeRefreshLayout;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.example.android.architecture.blueprints.todoapp.BuildConfig;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.Filter;
+import com.example.android.architecture.blueprints.todoapp.ui.ResourceCache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Main thread time per notification for TasksFragment's views: applying everything every time
+ * (what syncView() used to do) vs applying only what changed. Each notification is a new list
+ * version with nothing else changing, which is what almost all of them are.
+ * <p>
+ * Real resources are needed here for the drawable / string lookups, hence the constants config
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class TasksViewStateBenchmark {
+
+    private static final int WARM_UP = 200;
+    private static final int NOTIFICATIONS = 2000;
+
+    private Application application;
+    private View tasksView;
+    private View noTasksView;
+    private View noTaskAddView;
+    private TextView noTaskMsg;
+    private ImageView noTaskIcon;
+    private TextView filteringLabelView;
+    private SwipeRefreshLayout swipeRefreshLayout;
+    private int listChangedCount;
+
+    @Before
+    public void setup() {
+        application = RuntimeEnvironment.application;
+        tasksView = new View(application);
+        noTasksView = new View(application);
+        noTaskAddView = new View(application);
+        noTaskMsg = new TextView(application);
+        noTaskIcon = new ImageView(application);
+        filteringLabelView = new TextView(application);
+        swipeRefreshLayout = new SwipeRefreshLayout(application);
+        listChangedCount = 0;
+    }
+
+    @Test
+    public void applyingOnlyChanges_isQuickerThanApplyingEverything() throws Exception {
+
+        //arrange
+        TasksViewState.Binder binder = new TasksViewState.Binder(new ResourceCache(application), tasksView, noTasksView,
+                noTaskAddView, noTaskMsg, noTaskIcon, filteringLabelView, swipeRefreshLayout, () -> listChangedCount++);
+        for (int ii = 0; ii < WARM_UP; ii++) {
+            applyEverything(new TasksViewState(true, Filter.ACTIVE, false, ii));
+            binder.bind(new TasksViewState(true, Filter.ACTIVE, false, ii));
+        }
+        listChangedCount = 0;
+
+        //act
+        long start = System.nanoTime();
+        for (int ii = 0; ii < NOTIFICATIONS; ii++) {
+            applyEverything(new TasksViewState(true, Filter.ACTIVE, false, WARM_UP + ii));
+        }
+        long everythingNs = System.nanoTime() - start;
+        int everythingListChanges = listChangedCount;
+
+        listChangedCount = 0;
+        start = System.nanoTime();
+        for (int ii = 0; ii < NOTIFICATIONS; ii++) {
+            binder.bind(new TasksViewState(true, Filter.ACTIVE, false, WARM_UP + ii));
+        }
+        long changesOnlyNs = System.nanoTime() - start;
+
+        //assert
+        System.out.println("per notification, applying everything:" + (everythingNs / NOTIFICATIONS)
+                + "ns, applying changes only:" + (changesOnlyNs / NOTIFICATIONS) + "ns");
+        Assert.assertEquals(NOTIFICATIONS, everythingListChanges);
+        Assert.assertEquals(NOTIFICATIONS, listChangedCount);
+        Assert.assertEquals(application.getString(FilterResources.ACTIVE.labelStringResId), filteringLabelView.getText().toString());
+        Assert.assertTrue("changes only:" + changesOnlyNs + "ns everything:" + everythingNs + "ns", changesOnlyNs < everythingNs);
+    }
+
+    /**
+     * The body of TasksFragment.syncView() before view state diffing
+     */
+    private void applyEverything(TasksViewState state) {
+        tasksView.setVisibility(state.hasVisibleTasks ? View.VISIBLE : View.GONE);
+        noTasksView.setVisibility(state.hasVisibleTasks ? View.GONE : View.VISIBLE);
+        noTaskMsg.setText(FilterResources.of(state.filter).noTasksStringResId);
+        noTaskIcon.setImageDrawable(application.getResources().getDrawable(FilterResources.of(state.filter).noTasksDrawableResId));
+        noTaskAddView.setVisibility(state.hasVisibleTasks ? View.GONE : View.VISIBLE);
+        filteringLabelView.setText(application.getResources().getString(FilterResources.of(state.filter).labelStringResId));
+        swipeRefreshLayout.setRefreshing(state.refreshing);
+        listChangedCount++;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.android.architecture.blueprints.todoapp.api.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+
+import java.util.List;
+
+/**
+ * Where TaskFetcher gets its tasks from. The app's comes over the network via Retrofit, see
+ * RetrofitTaskItemSource
+ */
+public interface TaskItemSource {
+
+    /**
+     * The callbacks are called on the UI thread (or straight away with
+     * {@link WorkMode#SYNCHRONOUS})
+     */
+    void fetchTaskItems(WorkMode workMode,
+                        SuccessCallbackWithPayload<List<TaskItemPojo>> successCallback,
+                        FailureCallbackWithPayload<UserMessage> failureCallback);
+}
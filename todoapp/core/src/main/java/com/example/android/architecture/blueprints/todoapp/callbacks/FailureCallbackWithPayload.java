@@ -0,0 +1,5 @@
+package com.example.android.architecture.blueprints.todoapp.callbacks;
+
+public interface FailureCallbackWithPayload<Payload> {
+    void fail(Payload payload);
+}
@@ -0,0 +1,574 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link TaskStore} that keeps everything in a map keyed (and so ordered) by id, nothing
+ * survives the process. Lookups by id and id ranges are a tree walk, the ordered queries sort
+ * the live rows on every call, which is fine for tests and as a baseline for benchmarks.
+ * <p>
+ * Transactions are real: each one keeps the previous value of every row it touches, and puts
+ * them all back if it fails. Subclasses can make the data durable by overriding
+ * {@link #onCommit(Collection, Collection)}, see {@link LogStructuredTaskStore}.
+ * <p>
+ * Thread safe, every call holds the store's lock for its duration.
+ */
+public class InMemoryTaskStore implements TaskStore {
+
+    //the same orders as the queries in TaskItemDao, see SortOrder
+
+    private static final Comparator<TaskItemEntity> NEWEST_FIRST = (a, b) -> {
+        int result = compare(b.getCreationTimestamp(), a.getCreationTimestamp());
+        return result != 0 ? result : compare(b.getId(), a.getId());
+    };
+
+    private static final Comparator<TaskItemEntity> OLDEST_FIRST = (a, b) -> {
+        int result = compare(a.getCreationTimestamp(), b.getCreationTimestamp());
+        return result != 0 ? result : compare(a.getId(), b.getId());
+    };
+
+    private static final Comparator<TaskItemEntity> TITLE = (a, b) -> {
+        int result = compareNoCase(a.getTitle(), b.getTitle());
+        return result != 0 ? result : compare(a.getId(), b.getId());
+    };
+
+    private static final Comparator<TaskItemEntity> ACTIVE_FIRST = (a, b) -> {
+        if (a.isCompleted() != b.isCompleted()) {
+            return a.isCompleted() ? 1 : -1;
+        }
+        return NEWEST_FIRST.compare(a, b);
+    };
+
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    //everything below is guarded by this
+
+    //the store's own copies, never handed out
+    private final TreeMap<Long, TaskItemEntity> rows = new TreeMap<>();
+    //like AUTOINCREMENT, ids are never reused even once the row has been purged
+    private long nextId = 1;
+
+    private int transactionDepth = 0;
+    //set if a nested transaction failed, the outermost one then can't commit
+    private boolean rollbackOnly = false;
+    //for the open transaction: each touched row as it was before (null if it didn't exist)
+    private final Map<Long, TaskItemEntity> undo = new HashMap<>();
+    private final Set<Long> touchedIds = new LinkedHashSet<>();
+    private long undoNextId;
+
+    @Override
+    public void addChangeListener(ChangeListener changeListener) {
+        changeListeners.add(Affirm.notNull(changeListener));
+    }
+
+    @Override
+    public void runInTransaction(Runnable work) {
+        Affirm.notNull(work);
+        write(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+
+    //reads
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems() {
+        return read(() -> sortedLive(NEWEST_FIRST, Integer.MAX_VALUE, 0));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst() {
+        return read(() -> sortedLive(OLDEST_FIRST, Integer.MAX_VALUE, 0));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle() {
+        return read(() -> sortedLive(TITLE, Integer.MAX_VALUE, 0));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsActiveFirst() {
+        return read(() -> sortedLive(ACTIVE_FIRST, Integer.MAX_VALUE, 0));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems(int limit, int offset) {
+        return read(() -> sortedLive(NEWEST_FIRST, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst(int limit, int offset) {
+        return read(() -> sortedLive(OLDEST_FIRST, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle(int limit, int offset) {
+        return read(() -> sortedLive(TITLE, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getTaskItems(boolean completed, int limit, int offset) {
+        return read(() -> {
+            List<TaskItemEntity> matching = new ArrayList<>();
+            for (TaskItemEntity taskItemEntity : rows.values()) {
+                if (!taskItemEntity.isDeleted() && taskItemEntity.isCompleted() == completed) {
+                    matching.add(taskItemEntity);
+                }
+            }
+            return page(matching, NEWEST_FIRST, limit, offset);
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return read(() -> {
+            int count = 0;
+            for (TaskItemEntity taskItemEntity : rows.values()) {
+                if (!taskItemEntity.isDeleted()) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public int getDoneRowCount() {
+        return read(() -> {
+            int count = 0;
+            for (TaskItemEntity taskItemEntity : rows.values()) {
+                if (!taskItemEntity.isDeleted() && taskItemEntity.isCompleted()) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Nullable
+    @Override
+    public TaskItemEntity getTaskItem(long entityId) {
+        return read(() -> {
+            TaskItemEntity taskItemEntity = rows.get(entityId);
+            return taskItemEntity == null || taskItemEntity.isDeleted() ? null : new TaskItemEntity(taskItemEntity);
+        });
+    }
+
+    @Override
+    public synchronized int writeTaskItems(long afterId, int limit, TaskArchive.Writer writer) throws IOException {
+        beforeAccess();
+        int written = 0;
+        for (TaskItemEntity taskItemEntity : rows.tailMap(afterId, false).values()) {
+            if (written >= limit) {
+                break;
+            }
+            if (!taskItemEntity.isDeleted()) {
+                writer.write(taskItemEntity);
+                written++;
+            }
+        }
+        return written;
+    }
+
+
+    //writes
+
+    @Override
+    public long insertTaskItem(TaskItemEntity taskItemEntity) {
+        Affirm.notNull(taskItemEntity);
+        return write(() -> insert(new TaskItemEntity(taskItemEntity)));
+    }
+
+    @Override
+    public void insertManyTaskItems(List<TaskItemEntity> taskItemEntities) {
+        Affirm.notNull(taskItemEntities);
+        write(() -> {
+            for (TaskItemEntity taskItemEntity : taskItemEntities) {
+                insert(new TaskItemEntity(taskItemEntity));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public int importTaskItems(Iterator<TaskItemEntity> taskItemEntities, int maxRows) {
+
+        Affirm.notNull(taskItemEntities);
+
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows must be at least 1, not:" + maxRows);
+        }
+
+        if (!taskItemEntities.hasNext()) {
+            return 0;
+        }
+
+        return write(() -> {
+            int imported = 0;
+            while (imported < maxRows && taskItemEntities.hasNext()) {
+                TaskItemEntity source = taskItemEntities.next();
+                TaskItemEntity taskItemEntity = new TaskItemEntity(source.getCreationTimestamp(), source.getTitle(), source.getDescription());
+                taskItemEntity.setCompleted(source.isCompleted());
+                insert(taskItemEntity);
+                imported++;
+            }
+            return imported;
+        });
+    }
+
+    @Override
+    public int updateTaskItem(TaskItemEntity taskItemEntity) {
+        Affirm.notNull(taskItemEntity);
+        return write(() -> {
+            TaskItemEntity stored = rows.get(taskItemEntity.getId());
+            if (stored == null || stored.isDeleted()) {
+                return 0;
+            }
+            //only the content columns, as with TaskItemDao.updateTaskItem()
+            TaskItemEntity updated = new TaskItemEntity(stored);
+            updated.setCreationTimestamp(taskItemEntity.getCreationTimestamp());
+            updated.setTitle(taskItemEntity.getTitle());
+            updated.setDescription(taskItemEntity.getDescription());
+            updated.setCompleted(taskItemEntity.isCompleted());
+            put(updated);
+            return 1;
+        });
+    }
+
+    @Override
+    public int softDeleteTaskItem(long entityId, long deletedTimestamp) {
+        return write(() -> {
+            TaskItemEntity taskItemEntity = rows.get(entityId);
+            if (taskItemEntity == null || taskItemEntity.isDeleted()) {
+                return 0;
+            }
+            put(tombstone(taskItemEntity, deletedTimestamp));
+            return 1;
+        });
+    }
+
+    @Override
+    public int clear(long deletedTimestamp) {
+        return write(() -> softDeleteWhere(false, deletedTimestamp));
+    }
+
+    @Override
+    public int clearCompleted(long deletedTimestamp) {
+        return write(() -> softDeleteWhere(true, deletedTimestamp));
+    }
+
+
+    //sync and compaction
+
+    @Override
+    public List<Long> getDeletedIdsSince(long since) {
+        return read(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (TaskItemEntity taskItemEntity : rows.values()) {
+                if (taskItemEntity.isDeleted() && taskItemEntity.getDeletedTimestamp() > since) {
+                    ids.add(taskItemEntity.getId());
+                }
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public long getMaxId() {
+        return read(() -> rows.isEmpty() ? 0L : rows.lastKey());
+    }
+
+    @Override
+    public int purgeTombstones(long fromIdExclusive, long toIdInclusive, long deletedBefore) {
+        return write(() -> {
+            List<Long> purgeable = new ArrayList<>();
+            for (TaskItemEntity taskItemEntity : rows.subMap(fromIdExclusive, false, toIdInclusive, true).values()) {
+                if (taskItemEntity.isDeleted() && taskItemEntity.getDeletedTimestamp() <= deletedBefore) {
+                    purgeable.add(taskItemEntity.getId());
+                }
+            }
+            for (Long id : purgeable) {
+                remove(id);
+            }
+            return purgeable.size();
+        });
+    }
+
+    /**
+     * Nothing to hand back, purged rows are gone as soon as they're removed from the map
+     */
+    @Override
+    public long reclaimSpaceStep() {
+        return 0;
+    }
+
+
+    //for subclasses
+
+    /**
+     * Called with the store locked before every read or write, the first call is a good place
+     * to load the rows, see {@link #restoreRow(TaskItemEntity)}
+     */
+    protected void beforeAccess() {
+    }
+
+    /**
+     * Called with the store locked when the outermost transaction is about to commit, the rows
+     * are the store's own (don't change them). Throwing here rolls the transaction back
+     *
+     * @param putRows   rows inserted or changed in this transaction
+     * @param removedIds ids of rows purged in this transaction
+     */
+    protected void onCommit(Collection<TaskItemEntity> putRows, Collection<Long> removedIds) {
+    }
+
+    /**
+     * For loading (outside of any transaction): adds or replaces a row without it counting as a
+     * change. The store keeps the entity passed in
+     */
+    protected void restoreRow(TaskItemEntity taskItemEntity) {
+        rows.put(taskItemEntity.getId(), taskItemEntity);
+        nextId = Math.max(nextId, taskItemEntity.getId() + 1);
+    }
+
+    //for loading, see restoreRow()
+    protected void forgetRow(long entityId) {
+        rows.remove(entityId);
+    }
+
+    //for loading, see restoreRow()
+    protected void restoreNextId(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    protected long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * @return every row including tombstones, in id order, the store's own (don't change them)
+     */
+    protected Collection<TaskItemEntity> allRows() {
+        return Collections.unmodifiableCollection(rows.values());
+    }
+
+
+    //everything from here on is called with the store locked
+
+    private long insert(TaskItemEntity taskItemEntity) {
+        long id = taskItemEntity.getId();
+        if (id == 0) {
+            id = nextId;
+            taskItemEntity.setId(id);
+        } else if (rows.containsKey(id)) {
+            throw new IllegalStateException("UNIQUE constraint failed, id:" + id + " already exists");
+        }
+        nextId = Math.max(nextId, id + 1);
+        put(taskItemEntity);
+        return id;
+    }
+
+    private int softDeleteWhere(boolean completedOnly, long deletedTimestamp) {
+        List<TaskItemEntity> deleting = new ArrayList<>();
+        for (TaskItemEntity taskItemEntity : rows.values()) {
+            if (!taskItemEntity.isDeleted() && (!completedOnly || taskItemEntity.isCompleted())) {
+                deleting.add(taskItemEntity);
+            }
+        }
+        for (TaskItemEntity taskItemEntity : deleting) {
+            put(tombstone(taskItemEntity, deletedTimestamp));
+        }
+        return deleting.size();
+    }
+
+    private static TaskItemEntity tombstone(TaskItemEntity taskItemEntity, long deletedTimestamp) {
+        TaskItemEntity tombstone = new TaskItemEntity(taskItemEntity);
+        tombstone.setDeleted(true);
+        tombstone.setDeletedTimestamp(deletedTimestamp);
+        return tombstone;
+    }
+
+    private void put(TaskItemEntity taskItemEntity) {
+        touch(taskItemEntity.getId());
+        rows.put(taskItemEntity.getId(), taskItemEntity);
+    }
+
+    private void remove(long entityId) {
+        touch(entityId);
+        rows.remove(entityId);
+    }
+
+    private void touch(long entityId) {
+        if (!undo.containsKey(entityId)) {
+            undo.put(entityId, rows.get(entityId));
+        }
+        touchedIds.add(entityId);
+    }
+
+    private List<TaskItemEntity> sortedLive(Comparator<TaskItemEntity> comparator, int limit, int offset) {
+        List<TaskItemEntity> live = new ArrayList<>(rows.size());
+        for (TaskItemEntity taskItemEntity : rows.values()) {
+            if (!taskItemEntity.isDeleted()) {
+                live.add(taskItemEntity);
+            }
+        }
+        return page(live, comparator, limit, offset);
+    }
+
+    private static List<TaskItemEntity> page(List<TaskItemEntity> matching, Comparator<TaskItemEntity> comparator, int limit, int offset) {
+        Collections.sort(matching, comparator);
+        int from = Math.min(Math.max(offset, 0), matching.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), matching.size());
+        List<TaskItemEntity> copies = new ArrayList<>(to - from);
+        for (int ii = from; ii < to; ii++) {
+            copies.add(new TaskItemEntity(matching.get(ii)));
+        }
+        return copies;
+    }
+
+
+    //transactions
+
+    private interface Op<T> {
+        T run();
+    }
+
+    private synchronized <T> T read(Op<T> op) {
+        beforeAccess();
+        return op.run();
+    }
+
+    private <T> T write(Op<T> op) {
+
+        T result;
+        boolean changed;
+
+        synchronized (this) {
+            beforeAccess();
+            if (transactionDepth == 0) {
+                undoNextId = nextId;
+            }
+            transactionDepth++;
+            boolean succeeded = false;
+            try {
+                result = op.run();
+                succeeded = true;
+            } finally {
+                changed = endTransaction(succeeded);
+            }
+        }
+
+        //outside the lock, and only once the outermost transaction has committed
+        if (changed) {
+            for (ChangeListener changeListener : changeListeners) {
+                changeListener.onChanged();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return true if the outermost transaction committed a change
+     */
+    private boolean endTransaction(boolean succeeded) {
+
+        transactionDepth--;
+        if (!succeeded) {
+            rollbackOnly = true;
+        }
+        if (transactionDepth > 0) {
+            return false;
+        }
+
+        try {
+            if (rollbackOnly) {
+                rollback();
+                if (succeeded) {
+                    //the failure was caught further in, but it still can't be committed
+                    throw new IllegalStateException("transaction rolled back, a nested write failed");
+                }
+                return false;
+            }
+
+            if (touchedIds.isEmpty()) {
+                return false;
+            }
+
+            List<TaskItemEntity> putRows = new ArrayList<>();
+            List<Long> removedIds = new ArrayList<>();
+            for (Long id : touchedIds) {
+                TaskItemEntity taskItemEntity = rows.get(id);
+                if (taskItemEntity != null) {
+                    putRows.add(taskItemEntity);
+                } else if (undo.get(id) != null) {
+                    removedIds.add(id);
+                }
+            }
+            try {
+                onCommit(putRows, removedIds);
+            } catch (RuntimeException e) {
+                rollback();
+                throw e;
+            }
+            return true;
+        } finally {
+            undo.clear();
+            touchedIds.clear();
+            rollbackOnly = false;
+        }
+    }
+
+    private void rollback() {
+        for (Map.Entry<Long, TaskItemEntity> entry : undo.entrySet()) {
+            if (entry.getValue() == null) {
+                rows.remove(entry.getKey());
+            } else {
+                rows.put(entry.getKey(), entry.getValue());
+            }
+        }
+        nextId = undoNextId;
+    }
+
+    private static int compare(long a, long b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    //sqlite's NOCASE only folds ASCII
+    private static int compareNoCase(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        int length = Math.min(a.length(), b.length());
+        for (int ii = 0; ii < length; ii++) {
+            char ca = foldAscii(a.charAt(ii));
+            char cb = foldAscii(b.charAt(ii));
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static char foldAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
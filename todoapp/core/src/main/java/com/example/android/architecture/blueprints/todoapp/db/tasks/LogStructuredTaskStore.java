@@ -0,0 +1,442 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An {@link InMemoryTaskStore} made durable by an append only log: each committed transaction
+ * is appended to the file as one write followed by one fsync, and the whole log is replayed
+ * into memory the first time the store is used. Reads never touch the file.
+ * <p>
+ * Layout (big endian): a header of magic (int) and format version (int), then records, each of
+ * which is a payload length (int), the CRC32 of the payload (int) and the payload, starting with
+ * a type byte. PUT carries a whole row: id, creation timestamp, deleted timestamp (longs), flags
+ * (byte, bit 0 = completed, bit 1 = deleted), title and description as in TaskArchive. REMOVE
+ * carries an id, NEXT_ID the next id to hand out. Every transaction ends with a COMMIT record.
+ * <p>
+ * A crash part way through an append leaves a torn tail: replay stops at the first record that
+ * is short or fails its CRC, drops anything after the last COMMIT, and truncates the file there.
+ * <p>
+ * Every change appends a whole row, so the log grows with writes rather than with rows. Once it
+ * holds COMPACT_RATIO records for every live one it's rewritten with just the current rows
+ * (written to a temporary file and renamed over the old one), which keeps the cost of
+ * compaction at a constant amount per write. reclaimSpaceStep() does the same at a lower ratio,
+ * see TaskCompactor.
+ */
+public class LogStructuredTaskStore extends InMemoryTaskStore {
+
+    public static final String LOG_TAG = LogStructuredTaskStore.class.getSimpleName();
+
+    //"TLOG"
+    static final int MAGIC = 0x544C4F47;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4;
+    private static final int RECORD_HEADER_SIZE = 4 + 4;
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final byte RECORD_NEXT_ID = 3;
+    private static final byte RECORD_COMMIT = 4;
+
+    private static final byte FLAG_COMPLETED = 1;
+    private static final byte FLAG_DELETED = 2;
+    private static final int NULL_STRING = -1;
+
+    //records in the log per row, before a commit compacts it inline / before reclaimSpaceStep() does
+    static final int COMPACT_RATIO = 4;
+    static final int IDLE_COMPACT_RATIO = 2;
+    //not worth rewriting anything smaller than this
+    static final int MIN_COMPACT_RECORDS = 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final LevelLogger logger;
+
+    //guarded by this, null until the first access
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private long logBytes;
+    //PUT and REMOVE records in the log, compared with the row count to decide on compaction
+    private long logRecords;
+    private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+    public LogStructuredTaskStore(File file, Logger logger) {
+        this.file = Affirm.notNull(file);
+        this.logger = LevelLogger.wrap(logger);
+    }
+
+    @Override
+    protected void beforeAccess() {
+        if (channel != null) {
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new IllegalStateException("couldn't open task log: " + file, e);
+        }
+    }
+
+    @Override
+    protected void onCommit(Collection<TaskItemEntity> putRows, Collection<Long> removedIds) {
+
+        buffer.clear();
+        for (TaskItemEntity taskItemEntity : putRows) {
+            putRecord(RECORD_PUT, taskItemEntity, 0);
+        }
+        for (Long id : removedIds) {
+            putRecord(RECORD_REMOVE, null, id);
+        }
+        putRecord(RECORD_COMMIT, null, 0);
+        buffer.flip();
+
+        try {
+            int length = buffer.remaining();
+            writeFully(channel, buffer, logBytes);
+            channel.force(false);
+            logBytes += length;
+            logRecords += putRows.size() + removedIds.size();
+        } catch (IOException e) {
+            //whatever made it to the file has no COMMIT after it, cut it off so the next
+            //transaction doesn't end up committing it
+            try {
+                channel.truncate(logBytes);
+            } catch (IOException e2) {
+                logger.e(LOG_TAG, "couldn't truncate task log after a failed write", e2);
+            }
+            throw new IllegalStateException("couldn't write task log: " + file, e);
+        }
+
+        if (logRecords >= MIN_COMPACT_RECORDS && logRecords > (long) COMPACT_RATIO * allRows().size()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                //the commit itself is safely in the log, we'll try again on a later one
+                logger.w(LOG_TAG, "compaction failed", e);
+            }
+        }
+    }
+
+    /**
+     * Compacts the log if it holds IDLE_COMPACT_RATIO or more records per row
+     *
+     * @return the bytes freed
+     */
+    @Override
+    public synchronized long reclaimSpaceStep() {
+
+        beforeAccess();
+
+        if (logRecords < MIN_COMPACT_RECORDS || logRecords <= (long) IDLE_COMPACT_RATIO * allRows().size()) {
+            return 0;
+        }
+
+        try {
+            return compact();
+        } catch (IOException e) {
+            logger.w(LOG_TAG, "compaction failed", e);
+            return 0;
+        }
+    }
+
+    public synchronized long getLogBytes() {
+        beforeAccess();
+        return logBytes;
+    }
+
+    /**
+     * Closes the file, the next call to the store opens and replays it again
+     */
+    public synchronized void close() throws IOException {
+        if (randomAccessFile != null) {
+            randomAccessFile.close();
+            randomAccessFile = null;
+            channel = null;
+        }
+    }
+
+
+    //everything below is called with the store locked
+
+    private void open() throws IOException {
+
+        long validLength = file.exists() ? replay() : 0;
+
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        if (validLength < HEADER_SIZE) {
+            //new or unreadable, start again
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            channel.truncate(0);
+            writeFully(channel, header, 0);
+            channel.force(false);
+            validLength = HEADER_SIZE;
+        } else if (channel.size() > validLength) {
+            logger.w(LOG_TAG, "dropping torn tail of task log, bytes:" + (channel.size() - validLength));
+            channel.truncate(validLength);
+            channel.force(false);
+        }
+
+        logBytes = validLength;
+        logger.i(LOG_TAG, "opened task log, rows:" + allRows().size() + " records:" + logRecords + " bytes:" + logBytes);
+    }
+
+    /**
+     * @return the length of the file up to the end of the last complete transaction, 0 if the
+     * file isn't a log this version can read
+     */
+    private long replay() throws IOException {
+
+        DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+
+            try {
+                if (inputStream.readInt() != MAGIC) {
+                    logger.e(LOG_TAG, "not a task log, starting a new one: " + file);
+                    return 0;
+                }
+                int version = inputStream.readInt();
+                if (version > FORMAT_VERSION) {
+                    throw new IOException("task log format:" + version + " is newer than this app understands:" + FORMAT_VERSION);
+                }
+            } catch (EOFException e) {
+                return 0;
+            }
+
+            long position = HEADER_SIZE;
+            long validLength = HEADER_SIZE;
+            List<TaskItemEntity> pendingPuts = new ArrayList<>();
+            List<Long> pendingRemoves = new ArrayList<>();
+            long pendingNextId = 0;
+            long records = 0;
+            long pendingRecords = 0;
+            byte[] payload = new byte[256];
+            CRC32 crc32 = new CRC32();
+
+            while (true) {
+
+                int length;
+                int crc;
+                try {
+                    length = inputStream.readInt();
+                    crc = inputStream.readInt();
+                    if (length < 1) {
+                        break;
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    inputStream.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                crc32.reset();
+                crc32.update(payload, 0, length);
+                if ((int) crc32.getValue() != crc) {
+                    break;
+                }
+                position += RECORD_HEADER_SIZE + length;
+
+                ByteBuffer record = ByteBuffer.wrap(payload, 0, length);
+                byte type = record.get();
+                if (type == RECORD_PUT) {
+                    pendingPuts.add(getRow(record));
+                    pendingRecords++;
+                } else if (type == RECORD_REMOVE) {
+                    pendingRemoves.add(record.getLong());
+                    pendingRecords++;
+                } else if (type == RECORD_NEXT_ID) {
+                    pendingNextId = record.getLong();
+                } else if (type == RECORD_COMMIT) {
+                    for (TaskItemEntity taskItemEntity : pendingPuts) {
+                        restoreRow(taskItemEntity);
+                    }
+                    for (Long id : pendingRemoves) {
+                        forgetRow(id);
+                    }
+                    restoreNextId(pendingNextId);
+                    records += pendingRecords;
+                    pendingPuts.clear();
+                    pendingRemoves.clear();
+                    pendingRecords = 0;
+                    validLength = position;
+                } else {
+                    throw new IOException("unknown record type:" + type + " at:" + (position - length));
+                }
+            }
+
+            logRecords = records;
+            return validLength;
+
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Rewrites the log with just the current rows
+     *
+     * @return the bytes freed
+     */
+    private long compact() throws IOException {
+
+        long start = System.nanoTime();
+        File temp = new File(file.getPath() + ".compacting");
+
+        RandomAccessFile tempFile = new RandomAccessFile(temp, "rw");
+        long newLength;
+        try {
+            FileChannel tempChannel = tempFile.getChannel();
+            tempChannel.truncate(0);
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+            putRecord(RECORD_NEXT_ID, null, getNextId());
+            newLength = 0;
+            for (TaskItemEntity taskItemEntity : allRows()) {
+                if (buffer.remaining() < buffer.capacity() / 2) {
+                    buffer.flip();
+                    newLength += writeFully(tempChannel, buffer, newLength);
+                    buffer.clear();
+                }
+                putRecord(RECORD_PUT, taskItemEntity, 0);
+            }
+            putRecord(RECORD_COMMIT, null, 0);
+            buffer.flip();
+            newLength += writeFully(tempChannel, buffer, newLength);
+            tempChannel.force(false);
+        } finally {
+            tempFile.close();
+        }
+
+        close();
+        boolean renamed = temp.renameTo(file);
+        //either way the file matches what's in memory, so no need to replay it
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        if (!renamed) {
+            throw new IOException("couldn't rename " + temp + " to " + file);
+        }
+
+        long freed = logBytes - newLength;
+        logger.i(LOG_TAG, "compacted task log, records:" + logRecords + " -> " + allRows().size()
+                + " bytes:" + logBytes + " -> " + newLength + " in ms:" + (System.nanoTime() - start) / 1000000);
+        logBytes = newLength;
+        logRecords = allRows().size();
+        return Math.max(freed, 0);
+    }
+
+    private void putRecord(byte type, TaskItemEntity taskItemEntity, long id) {
+
+        byte[] title = null;
+        byte[] description = null;
+        int length = 1;
+        if (type == RECORD_PUT) {
+            title = encode(taskItemEntity.getTitle());
+            description = encode(taskItemEntity.getDescription());
+            length += 8 + 8 + 8 + 1 + stringSize(title) + stringSize(description);
+        } else if (type == RECORD_REMOVE || type == RECORD_NEXT_ID) {
+            length += 8;
+        }
+
+        ensureSpace(RECORD_HEADER_SIZE + length);
+        int start = buffer.position();
+        buffer.putInt(length);
+        buffer.putInt(0); //crc, filled in below
+        buffer.put(type);
+        if (type == RECORD_PUT) {
+            buffer.putLong(taskItemEntity.getId());
+            buffer.putLong(taskItemEntity.getCreationTimestamp());
+            buffer.putLong(taskItemEntity.getDeletedTimestamp());
+            buffer.put((byte) ((taskItemEntity.isCompleted() ? FLAG_COMPLETED : 0) | (taskItemEntity.isDeleted() ? FLAG_DELETED : 0)));
+            putString(title);
+            putString(description);
+        } else if (type == RECORD_REMOVE || type == RECORD_NEXT_ID) {
+            buffer.putLong(id);
+        }
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), buffer.arrayOffset() + start + RECORD_HEADER_SIZE, length);
+        buffer.putInt(start + 4, (int) crc32.getValue());
+    }
+
+    private static TaskItemEntity getRow(ByteBuffer record) throws IOException {
+        TaskItemEntity taskItemEntity = new TaskItemEntity();
+        taskItemEntity.setId(record.getLong());
+        taskItemEntity.setCreationTimestamp(record.getLong());
+        taskItemEntity.setDeletedTimestamp(record.getLong());
+        byte flags = record.get();
+        taskItemEntity.setCompleted((flags & FLAG_COMPLETED) != 0);
+        taskItemEntity.setDeleted((flags & FLAG_DELETED) != 0);
+        taskItemEntity.setTitle(getString(record));
+        taskItemEntity.setDescription(getString(record));
+        return taskItemEntity;
+    }
+
+    private static String getString(ByteBuffer record) throws IOException {
+        int length = record.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        } else if (length < 0 || length > record.remaining()) {
+            throw new IOException("bad string length:" + length);
+        }
+        String value = new String(record.array(), record.arrayOffset() + record.position(), length, UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(UTF_8);
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_STRING);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    //the whole transaction goes out in one write, so grow rather than flush
+    private void ensureSpace(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        int written = 0;
+        while (source.hasRemaining()) {
+            written += channel.write(source, position + written);
+        }
+        return written;
+    }
+}
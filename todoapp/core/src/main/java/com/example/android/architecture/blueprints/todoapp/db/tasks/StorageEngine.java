@@ -0,0 +1,22 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+/**
+ * The {@link TaskStore} implementations, see the app's TaskStorage for which one it uses
+ */
+public enum StorageEngine {
+
+    /**
+     * sqlite via Room, what ships
+     */
+    ROOM,
+
+    /**
+     * Nothing is saved, for tests and as a baseline for benchmarks
+     */
+    IN_MEMORY,
+
+    /**
+     * An append only file replayed into memory on start up
+     */
+    LOG_STRUCTURED
+}
@@ -0,0 +1,50 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+/**
+ * How sqlite is tuned for TaskItemDatabase, applied every time the db is opened (see
+ * StorageProfileOpenHelperFactory in the app, and JdbcTaskStore off device). The profiles trade what a crash or power cut can cost
+ * against how quickly rows can be read and written:
+ * <ul>
+ * <li>DURABLE: rollback journal and synchronous = FULL, every commit is on disk before it
+ * returns. The slowest writes</li>
+ * <li>BALANCED: WAL and synchronous = NORMAL, the db can't be corrupted but a power cut can
+ * lose the last few commits. Readers no longer wait for writers</li>
+ * <li>THROUGHPUT: WAL and synchronous = OFF with a bigger cache and mmap window, for bulk
+ * work. A power cut (not an app crash) can corrupt the db</li>
+ * </ul>
+ * page_size only takes effect on a new db file, existing files keep the size they were created
+ * with (changing it needs a VACUUM, and isn't possible at all in WAL mode). mmap_size is an upper
+ * limit, some Android builds of sqlite have memory mapping switched off, in which case it's
+ * ignored.
+ * <p>
+ * See StorageProfileBenchmark for how they compare.
+ */
+public enum StorageProfile {
+
+    DURABLE(false, "TRUNCATE", "FULL", 2 * 1024, 0, 4096),
+
+    BALANCED(true, "WAL", "NORMAL", 4 * 1024, 32L * 1024 * 1024, 4096),
+
+    THROUGHPUT(true, "WAL", "OFF", 16 * 1024, 128L * 1024 * 1024, 8192);
+
+    /**
+     * Android manages WAL itself (enableWriteAheadLogging()), journalMode is only set with a
+     * pragma when this is false
+     */
+    public final boolean writeAheadLogging;
+    public final String journalMode;
+    public final String synchronous;
+    public final int cacheSizeKb;
+    public final long mmapSizeBytes;
+    public final int pageSizeBytes;
+
+    StorageProfile(boolean writeAheadLogging, String journalMode, String synchronous, int cacheSizeKb,
+                   long mmapSizeBytes, int pageSizeBytes) {
+        this.writeAheadLogging = writeAheadLogging;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.pageSizeBytes = pageSizeBytes;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Backup file format for tasks, written and read a row at a time so that neither side ever
+ * needs more than a buffer's worth of rows in memory.
+ * <p>
+ * Layout (big endian): a header of magic (int), format version (int) and row count (long),
+ * then for each row: creation timestamp (long), flags (byte, bit 0 = completed), title and
+ * description. Strings are a byte length (int, -1 for null) followed by that many bytes of UTF-8.
+ * <p>
+ * Ids and tombstones are not part of the format, a restore appends the rows as new tasks.
+ */
+public final class TaskArchive {
+
+    //"TASK"
+    static final int MAGIC = 0x5441534B;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final int ROW_COUNT_OFFSET = 8;
+
+    private static final byte FLAG_COMPLETED = 1;
+    private static final int NULL_STRING = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private TaskArchive() {
+    }
+
+    /**
+     * Not thread safe, use from one thread at a time
+     */
+    public static class Writer implements Closeable {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final FileOutputStream outputStream;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private long rowCount = 0;
+        private long lastId = 0;
+        private boolean closed = false;
+
+        public Writer(File file) throws IOException {
+            outputStream = new FileOutputStream(Affirm.notNull(file));
+            channel = outputStream.getChannel();
+            //the row count is filled in by close()
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(0);
+        }
+
+        /**
+         * For TaskStore.writeTaskItems(), rows must come in id order
+         */
+        public void write(TaskItemEntity taskItemEntity) throws IOException {
+            write(taskItemEntity.getId(), taskItemEntity.getCreationTimestamp(), taskItemEntity.getTitle(),
+                    taskItemEntity.getDescription(), taskItemEntity.isCompleted());
+        }
+
+        /**
+         * Same as write(TaskItemEntity) for stores reading straight from a cursor, without
+         * making an entity for each row (see RoomTaskStore.writeRows())
+         */
+        public void write(long id, long creationTimestamp, String title, String description, boolean completed) throws IOException {
+            write(creationTimestamp, title, description, completed);
+            lastId = id;
+        }
+
+        public void write(long creationTimestamp, String title, String description, boolean completed) throws IOException {
+            ensureSpace(8 + 1);
+            buffer.putLong(creationTimestamp);
+            buffer.put(completed ? FLAG_COMPLETED : 0);
+            putString(title);
+            putString(description);
+            rowCount++;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return the id of the last row written with its id, 0 if
+         * there hasn't been one
+         */
+        public long getLastId() {
+            return lastId;
+        }
+
+        /**
+         * Completes the header and syncs the file, the archive isn't readable until this is done
+         */
+        @Override
+        public void close() throws IOException {
+
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                flush();
+                ByteBuffer count = ByteBuffer.allocate(8);
+                count.putLong(rowCount).flip();
+                channel.write(count, ROW_COUNT_OFFSET);
+                channel.force(false);
+            } finally {
+                outputStream.close();
+            }
+        }
+
+        private void putString(String value) throws IOException {
+
+            if (value == null) {
+                ensureSpace(4);
+                buffer.putInt(NULL_STRING);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(UTF_8);
+            ensureSpace(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            if (bytes.length <= buffer.remaining()) {
+                buffer.put(bytes);
+            } else {
+                //bigger than the whole buffer, skip it
+                flush();
+                writeFully(ByteBuffer.wrap(bytes));
+            }
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Reads the file through a memory mapped window which slides along as the rows are read, so
+     * the file can be any size. The entities are new instances with no id, ready for
+     * TaskItemDao.importTaskItems().
+     * <p>
+     * A truncated or corrupt file shows up part way through as an IllegalStateException from
+     * next() (the Iterator interface has no room for an IOException). Not thread safe.
+     */
+    public static class Reader implements Iterator<TaskItemEntity>, Closeable {
+
+        private static final int WINDOW_SIZE = 32 * 1024 * 1024;
+
+        private final FileInputStream inputStream;
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long rowCount;
+
+        private ByteBuffer window;
+        private long windowStart;
+        private byte[] scratch = new byte[256];
+        private long rowsRead = 0;
+
+        public Reader(File file) throws IOException {
+            inputStream = new FileInputStream(Affirm.notNull(file));
+            try {
+                channel = inputStream.getChannel();
+                fileSize = channel.size();
+                mapWindow(0, HEADER_SIZE);
+                if (window.getInt() != MAGIC) {
+                    throw new IOException("not a task archive: " + file);
+                }
+                int version = window.getInt();
+                if (version > FORMAT_VERSION) {
+                    throw new IOException("task archive format:" + version + " is newer than this app understands:" + FORMAT_VERSION);
+                }
+                rowCount = window.getLong();
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
+            }
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rowsRead < rowCount;
+        }
+
+        @Override
+        public TaskItemEntity next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                ensureAvailable(8 + 1);
+                long creationTimestamp = window.getLong();
+                boolean completed = (window.get() & FLAG_COMPLETED) != 0;
+                String title = getString();
+                String description = getString();
+
+                TaskItemEntity taskItemEntity = new TaskItemEntity(creationTimestamp, title, description);
+                taskItemEntity.setCompleted(completed);
+                rowsRead++;
+                return taskItemEntity;
+            } catch (IOException e) {
+                throw new IllegalStateException("task archive unreadable at row:" + rowsRead, e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+
+        private String getString() throws IOException {
+
+            ensureAvailable(4);
+            int length = window.getInt();
+            if (length == NULL_STRING) {
+                return null;
+            } else if (length < 0) {
+                throw new IOException("bad string length:" + length);
+            }
+
+            ensureAvailable(length);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            window.get(scratch, 0, length);
+            return new String(scratch, 0, length, UTF_8);
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                mapWindow(windowStart + window.position(), bytes);
+            }
+        }
+
+        private void mapWindow(long position, int minBytes) throws IOException {
+            long size = Math.min(Math.max(WINDOW_SIZE, minBytes), fileSize - position);
+            if (size < minBytes) {
+                throw new EOFException("task archive ends early, needed:" + minBytes + " bytes at:" + position + " file size:" + fileSize);
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            windowStart = position;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+
+import android.arch.persistence.room.ColumnInfo;
+import android.arch.persistence.room.Entity;
+import android.arch.persistence.room.Ignore;
+import android.arch.persistence.room.PrimaryKey;
+
+/**
+ * Room Entity, holds the unsaved edits for a task so that they survive process death. There is
+ * at most one draft per task, a task that hasn't been added to the database yet uses
+ * {@link #NEW_TASK_ID}. Managed by the associated model, see the feature package
+ */
+@Entity
+public class TaskDraftEntity {
+
+    public static final String TABLE_NAME = "TaskDraftEntity";//must be the name of the Entity class
+    public static final String COLUMN_TASK_ID = "task_id";
+    public static final String COLUMN_TITLE = "title";
+    public static final String COLUMN_DESCRIPTION = "description";
+    public static final String COLUMN_CREATE_TIMESTAMP = "create_timestamp";
+    public static final String COLUMN_UPDATED_TIMESTAMP = "updated_timestamp";
+
+    public static final long NEW_TASK_ID = 0;
+
+
+    @PrimaryKey
+    @ColumnInfo(name = COLUMN_TASK_ID)
+    private long taskId;
+
+    @ColumnInfo(name = COLUMN_TITLE)
+    private String title;
+
+    @ColumnInfo(name = COLUMN_DESCRIPTION)
+    private String description;
+
+    //only meaningful for new tasks, so that a restored draft keeps its place in the list
+    @ColumnInfo(name = COLUMN_CREATE_TIMESTAMP)
+    private long creationTimestamp;
+
+    @ColumnInfo(name = COLUMN_UPDATED_TIMESTAMP)
+    private long updatedTimestamp;
+
+
+    //for Room to use
+    public TaskDraftEntity() {
+    }
+
+    @Ignore
+    public TaskDraftEntity(long taskId, String title, String description, long creationTimestamp, long updatedTimestamp) {
+        this.taskId = taskId;
+        this.title = title;
+        this.description = description;
+        this.creationTimestamp = creationTimestamp;
+        this.updatedTimestamp = updatedTimestamp;
+    }
+
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public long getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    public void setCreationTimestamp(long creationTimestamp) {
+        this.creationTimestamp = creationTimestamp;
+    }
+
+    public long getUpdatedTimestamp() {
+        return updatedTimestamp;
+    }
+
+    public void setUpdatedTimestamp(long updatedTimestamp) {
+        this.updatedTimestamp = updatedTimestamp;
+    }
+}
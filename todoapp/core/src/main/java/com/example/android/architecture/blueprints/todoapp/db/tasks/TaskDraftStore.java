@@ -0,0 +1,27 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Where DraftAutosaver keeps its drafts, the app's is TaskDraftDao.
+ * <p>
+ * Calls block, so keep them off the UI thread.
+ */
+public interface TaskDraftStore {
+
+    /**
+     * replaces any draft already stored for the same task
+     */
+    void saveDraft(TaskDraftEntity taskDraftEntity);
+
+    /**
+     * @return the most recently edited draft, or null if there isn't one
+     */
+    @Nullable
+    TaskDraftEntity getLatestDraft();
+
+    /**
+     * @return the number of drafts deleted
+     */
+    int deleteDraft(long taskId);
+}
@@ -4,13 +4,22 @@ package com.example.android.architecture.blueprints.todoapp.db.tasks;
 import android.arch.persistence.room.ColumnInfo;
 import android.arch.persistence.room.Entity;
 import android.arch.persistence.room.Ignore;
+import android.arch.persistence.room.Index;
 import android.arch.persistence.room.PrimaryKey;
 
 /**
  * Room Entity, the database functionality is all managed by the
  * associated model, see the feature package
+ * <p>
+ * The indexes are there to serve the queries in TaskItemDao in index order, one per sort order
+ * (sqlite can walk an index backwards, and every index ends with the id implicitly, which is
+ * why the tie breaks on id run in the same direction as the main column). Any change here needs
+ * a migration in TaskItemDatabase which creates exactly the same indexes.
  */
-@Entity
+@Entity(indices = {
+        @Index(value = {TaskItemEntity.COLUMN_COMPLETED, TaskItemEntity.COLUMN_CREATE_TIMESTAMP}),
+        @Index(value = {TaskItemEntity.COLUMN_TITLE})
+})
 public class TaskItemEntity {
 
     public static final String TABLE_NAME = "TaskItemEntity";//must be the name of the Entity class
@@ -19,6 +28,8 @@ public class TaskItemEntity {
     public static final String COLUMN_TITLE = "title";
     public static final String COLUMN_DESCRIPTION = "description";
     public static final String COLUMN_COMPLETED = "completed";
+    public static final String COLUMN_DELETED = "deleted";
+    public static final String COLUMN_DELETED_TIMESTAMP = "deleted_timestamp";
 
 
     @PrimaryKey(autoGenerate = true)
@@ -27,15 +38,26 @@ public class TaskItemEntity {
     @ColumnInfo(name = COLUMN_CREATE_TIMESTAMP, index = true)
     private long creationTimestamp;
 
-    @ColumnInfo(name = COLUMN_TITLE)
+    //NOCASE so that the title index can serve case insensitive ordering
+    @ColumnInfo(name = COLUMN_TITLE, collate = ColumnInfo.NOCASE)
     private String title;
 
     @ColumnInfo(name = COLUMN_DESCRIPTION)
     private String description;
 
-    @ColumnInfo(name = COLUMN_COMPLETED, index = true)
+    //indexed along with the create_timestamp, see above
+    @ColumnInfo(name = COLUMN_COMPLETED)
     private boolean completed;
 
+    //soft deleted rows (tombstones) stay in the table until they're compacted away, see
+    //TaskCompactor. Not indexed on purpose: an index here would tempt sqlite away from the sort
+    //order indexes for the "WHERE deleted = 0" every query has
+    @ColumnInfo(name = COLUMN_DELETED)
+    private boolean deleted;
+
+    @ColumnInfo(name = COLUMN_DELETED_TIMESTAMP)
+    private long deletedTimestamp;
+
 
     //for Room to use
     public TaskItemEntity() {
@@ -49,6 +71,17 @@ public class TaskItemEntity {
         this.completed = false;
     }
 
+    @Ignore
+    public TaskItemEntity(TaskItemEntity other) {
+        this.id = other.id;
+        this.creationTimestamp = other.creationTimestamp;
+        this.title = other.title;
+        this.description = other.description;
+        this.completed = other.completed;
+        this.deleted = other.deleted;
+        this.deletedTimestamp = other.deletedTimestamp;
+    }
+
 
     public long getId() {
         return id;
@@ -89,4 +122,20 @@ public class TaskItemEntity {
     public void setCompleted(boolean completed) {
         this.completed = completed;
     }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getDeletedTimestamp() {
+        return deletedTimestamp;
+    }
+
+    public void setDeletedTimestamp(long deletedTimestamp) {
+        this.deletedTimestamp = deletedTimestamp;
+    }
 }
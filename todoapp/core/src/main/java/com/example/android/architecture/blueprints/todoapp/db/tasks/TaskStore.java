@@ -0,0 +1,122 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Everything TaskListModel (and its helpers) need from storage. The app runs on
+ * RoomTaskStore; {@link InMemoryTaskStore} and {@link LogStructuredTaskStore} are
+ * there for tests and for benchmarking the engines against each other, see StorageEngine.
+ * <p>
+ * Implementations behave exactly like the sqlite schema in TaskItemEntity / TaskItemDao: the
+ * same orders (see SortOrder), ids that are never reused, deletes that are soft (tombstones
+ * are only visible to the sync and compaction methods) and updates that only change the content
+ * of live rows, leaving the tombstone columns alone.
+ * Entities passed in and handed out are never kept hold of, so callers can change them freely.
+ * <p>
+ * Calls block, so keep them off the UI thread. Each write is a transaction of its own unless
+ * it's made inside runInTransaction().
+ */
+public interface TaskStore {
+
+    interface ChangeListener {
+        //any thread, once per committed transaction that changed something
+        void onChanged();
+    }
+
+    void addChangeListener(ChangeListener changeListener);
+
+    /**
+     * Runs all the work as one transaction: if it throws, none of it happens, and the change
+     * listeners only hear about it once at the end
+     */
+    void runInTransaction(Runnable work);
+
+
+    //reads, live rows only
+
+    List<TaskItemEntity> getAllTaskItems();
+
+    List<TaskItemEntity> getAllTaskItemsOldestFirst();
+
+    List<TaskItemEntity> getAllTaskItemsByTitle();
+
+    List<TaskItemEntity> getAllTaskItemsActiveFirst();
+
+    List<TaskItemEntity> getAllTaskItems(int limit, int offset);
+
+    List<TaskItemEntity> getAllTaskItemsOldestFirst(int limit, int offset);
+
+    List<TaskItemEntity> getAllTaskItemsByTitle(int limit, int offset);
+
+    /**
+     * newest first
+     */
+    List<TaskItemEntity> getTaskItems(boolean completed, int limit, int offset);
+
+    int getRowCount();
+
+    int getDoneRowCount();
+
+    @Nullable
+    TaskItemEntity getTaskItem(long entityId);
+
+    /**
+     * For export: up to limit rows, in id order, starting after afterId
+     *
+     * @return the number of rows written
+     */
+    int writeTaskItems(long afterId, int limit, TaskArchive.Writer writer) throws IOException;
+
+
+    //writes
+
+    /**
+     * @return the new row's id (generated unless the entity already has one)
+     */
+    long insertTaskItem(TaskItemEntity taskItemEntity);
+
+    void insertManyTaskItems(List<TaskItemEntity> taskItemEntities);
+
+    /**
+     * See TaskItemDao.importTaskItems(), one transaction per call
+     *
+     * @return the number of rows inserted
+     */
+    int importTaskItems(Iterator<TaskItemEntity> taskItemEntities, int maxRows);
+
+    /**
+     * Updates the content of a live row (the tombstone columns are left alone), see
+     * TaskItemDao.updateTaskItem()
+     *
+     * @return 1 if the row was updated, 0 if it doesn't exist or has been deleted
+     */
+    int updateTaskItem(TaskItemEntity taskItemEntity);
+
+    int softDeleteTaskItem(long entityId, long deletedTimestamp);
+
+    int clear(long deletedTimestamp);
+
+    int clearCompleted(long deletedTimestamp);
+
+
+    //sync and compaction, see TaskCompactor
+
+    List<Long> getDeletedIdsSince(long since);
+
+    long getMaxId();
+
+    int purgeTombstones(long fromIdExclusive, long toIdInclusive, long deletedBefore);
+
+    /**
+     * Hands space left behind by purged or overwritten rows back to the file system, doing a
+     * bounded amount of work per call
+     *
+     * @return how much was freed by this call (in the engine's own units: pages for sqlite,
+     * bytes for the log), 0 once there is nothing left to do
+     */
+    long reclaimSpaceStep();
+}
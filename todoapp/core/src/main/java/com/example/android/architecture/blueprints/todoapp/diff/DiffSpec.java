@@ -0,0 +1,21 @@
+package com.example.android.architecture.blueprints.todoapp.diff;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * A {@link ListDiff} and when it was made. A null diff means the whole list needs redrawing
+ */
+public class DiffSpec {
+
+    @Nullable
+    public final ListDiff diff;
+    public final long timeStamp;
+
+    public DiffSpec(@Nullable ListDiff diff, SystemTimeWrapper systemTimeWrapper) {
+        this.diff = diff;
+        this.timeStamp = Affirm.notNull(systemTimeWrapper).currentTimeMillis();
+    }
+}
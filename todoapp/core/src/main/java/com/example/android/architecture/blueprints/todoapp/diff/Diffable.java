@@ -0,0 +1,15 @@
+package com.example.android.architecture.blueprints.todoapp.diff;
+
+/**
+ * A model whose list can drive an adapter with animated changes rather than full redraws
+ */
+public interface Diffable {
+
+    /**
+     * UI thread only. Each diff is only handed out once, after that (or once it is older than
+     * maxAgeMs and so may not match what's on screen any more) a full redraw is asked for
+     *
+     * @return the changes since the last call, never null
+     */
+    DiffSpec getAndClearLatestDiffSpec(long maxAgeMs);
+}
@@ -0,0 +1,10 @@
+package com.example.android.architecture.blueprints.todoapp.diff;
+
+/**
+ * The changes that turn one version of a list into the next, as worked out by a
+ * {@link ListDiffer}
+ */
+public interface ListDiff {
+
+    void dispatchUpdatesTo(ListUpdateCallback callback);
+}
@@ -0,0 +1,21 @@
+package com.example.android.architecture.blueprints.todoapp.diff;
+
+import android.support.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Works out what changed between two versions of a list, so that the UI can animate just the
+ * rows that moved or changed. The app does this with RecyclerView's DiffUtil (see
+ * TaskItemDiffCallback), which is Android only, so the models are handed one of these instead.
+ * <p>
+ * Called on background threads, with lists that nothing else is changing.
+ */
+public interface ListDiffer<T> {
+
+    /**
+     * @return the changes, or null to have the whole list redrawn instead
+     */
+    @Nullable
+    ListDiff calculateDiff(List<T> oldList, List<T> newList);
+}
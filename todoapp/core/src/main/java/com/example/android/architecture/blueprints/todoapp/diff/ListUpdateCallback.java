@@ -0,0 +1,21 @@
+package com.example.android.architecture.blueprints.todoapp.diff;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Receives the changes described by a {@link ListDiff}, i.e. an adapter's notifyItemRange...()
+ * methods. Positions are as the list stood after the changes already dispatched.
+ */
+public interface ListUpdateCallback {
+
+    void onInserted(int position, int count);
+
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    /**
+     * @param payload what changed about the items, see {@link ListDiffer}
+     */
+    void onChanged(int position, int count, @Nullable Object payload);
+}
@@ -0,0 +1,217 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.observer.ObservableImp;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ *  Holds the current task for things like editing, viewing the detail
+ *  <p>
+ *  Edits made via {@link #setTitle(String)} and {@link #setDescription(String)} arrive on every
+ *  keystroke, like all of this model's notifications they reach observers at most once per
+ *  frame (via the {@link FrameBatcher}), and the unsaved changes are autosaved as a draft in
+ *  the background by the {@link DraftAutosaver}
+ */
+@Singleton
+public class CurrentTaskModel extends ObservableImp {
+
+    private static final String TAG = CurrentTaskModel.class.getSimpleName();
+
+    private final TaskListModel taskListModel;
+    private final DraftAutosaver draftAutosaver;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final LevelLogger logger;
+
+    @Nullable
+    private TaskItem currentItem;
+    private boolean loading = false;
+
+    @Inject
+    public CurrentTaskModel(TaskListModel taskListModel, DraftAutosaver draftAutosaver, SystemTimeWrapper systemTimeWrapper, Logger logger,
+                            FrameBatcher frameBatcher) {
+        super(frameBatcher);
+        this.taskListModel = Affirm.notNull(taskListModel);
+        this.draftAutosaver = Affirm.notNull(draftAutosaver);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.logger = LevelLogger.wrap(logger);
+    }
+
+    public void loadTask(long entityId){
+
+        if (loading){
+            return;
+        }
+
+        //most of the time the item is already in memory, so there's no need to show a loading state
+        TaskItem cachedItem = taskListModel.getCachedItemById(entityId);
+        if (cachedItem != null) {
+            updateCurrentItemFromDb(cachedItem);
+            return;
+        }
+
+        loading = true;
+        notifyObservers();
+
+        taskListModel.getItemById(
+                entityId,
+                successResponse -> updateCurrentItemFromDb(successResponse),
+                failResponse -> updateCurrentItemFromDb(null));
+    }
+
+    /**
+     * Picks up where the user left off editing, if the process was killed while the edit screen
+     * was open for example
+     */
+    public void restoreLatestDraft(){
+
+        if (loading){
+            return;
+        }
+
+        loading = true;
+        notifyObservers();
+
+        draftAutosaver.loadLatestDraft(draft -> {
+            if (draft == null) {
+                updateCurrentItemFromDb(null);
+            } else if (draft.getTaskId() == TaskDraftEntity.NEW_TASK_ID) {
+                updateCurrentItemFromDb(applyDraft(new TaskItem(draft.getCreationTimestamp(), "", ""), draft));
+            } else {
+                taskListModel.getItemById(
+                        draft.getTaskId(),
+                        successResponse -> updateCurrentItemFromDb(applyDraft(successResponse, draft)),
+                        failResponse -> updateCurrentItemFromDb(null));
+            }
+        });
+    }
+
+    private TaskItem applyDraft(TaskItem taskItem, TaskDraftEntity draft){
+        taskItem.setTitle(draft.getTitle() == null ? "" : draft.getTitle());
+        taskItem.setDescription(draft.getDescription() == null ? "" : draft.getDescription());
+        return taskItem;
+    }
+
+    private void updateCurrentItemFromDb(TaskItem taskItem){
+        currentItem = taskItem;
+        loading = false;
+        notifyObservers();
+    }
+
+    /**
+     * For edits as they're typed: only call this when the title has actually changed (a
+     * TextWatcher only fires for changes, as long as the view ignores the ones it makes itself
+     * when it syncs). There's no comparison with the current title here, with a long text that
+     * would cost a full string compare per keystroke
+     */
+    public void setTitle(String title){
+
+        logger.d(TAG, () -> "setTitle() title:" + title);
+
+        Affirm.notNull(title);
+
+        if (itemLoaded()){
+            currentItem.setTitle(title);
+            draftAutosaver.saveLater(currentItem);
+            notifyObservers();
+        }
+    }
+
+    /**
+     * See {@link #setTitle(String)}
+     */
+    public void setDescription(String desc){
+
+        logger.d(TAG, () -> "setDescription() desc:" + desc);
+
+        Affirm.notNull(desc);
+
+        if (itemLoaded()){
+            currentItem.setDescription(desc);
+            draftAutosaver.saveLater(currentItem);
+            notifyObservers();
+        }
+    }
+
+    public boolean setCompleted(boolean completed){
+        if (itemLoaded() && currentItem.isCompleted() != completed){
+            currentItem.setCompleted(completed);
+            saveChanges();
+            notifyObservers();
+            return true;
+        }
+        return false;
+    }
+
+    public String getTitle(){
+        return itemLoaded() ? currentItem.getTitle() : "";
+    }
+
+    public String getDescription(){
+        return itemLoaded() ? currentItem.getDescription() : "";
+    }
+
+    public boolean isCompleted(){
+        return itemLoaded() ? currentItem.isCompleted() : false;
+    }
+
+    public void revertUnsavedChanges(){
+        if (itemLoaded()) {
+            draftAutosaver.discard(currentItem.getEntityId());
+            loadTask(currentItem.getEntity().getId());
+        }
+    }
+
+    public void saveChanges(){
+        if (itemLoaded()) {
+            draftAutosaver.discard(currentItem.getEntityId());
+            taskListModel.update(currentItem);
+        }
+    }
+
+    /**
+     * Writes any pending draft straight away, call this when the edit screen is paused
+     */
+    public void flushDraft(){
+        draftAutosaver.flush();
+    }
+
+    public void deleteCurrentTaskFromDb(){
+        if (itemLoaded()) {
+            draftAutosaver.discard(currentItem.getEntityId());
+            taskListModel.remove(currentItem);
+            currentItem = null;
+            notifyObservers();
+        }
+    }
+
+    public void createNewEmptyTask(){
+        draftAutosaver.discard(TaskDraftEntity.NEW_TASK_ID);
+        currentItem = new TaskItem(systemTimeWrapper.currentTimeMillis(), "", "");
+        notifyObservers();
+    }
+
+    public boolean isValid(){
+        return itemLoaded() && currentItem.getTitle().length()>0;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean itemLoaded(){
+        return currentItem != null;
+    }
+
+    public boolean hasUnsavedChanges(){
+        return (itemLoaded() && currentItem.isDirty());
+    }
+}
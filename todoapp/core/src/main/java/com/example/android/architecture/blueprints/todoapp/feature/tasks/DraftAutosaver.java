@@ -0,0 +1,136 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftStore;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persists unsaved edits to the drafts table in the background, so that they survive process death.
+ * <p>
+ * Keystrokes are coalesced: only the latest draft is kept in memory and it is written at most
+ * once every intervalMs, on a single background thread, so typing is never blocked by the db.
+ * Use {@link #flush()} when the edit screen goes into the background to write anything pending
+ * straight away.
+ * <p>
+ * With {@link WorkMode#SYNCHRONOUS} (i.e. in tests) drafts are written immediately.
+ */
+public class DraftAutosaver {
+
+    private static final String LOG_TAG = DraftAutosaver.class.getSimpleName();
+
+    private final TaskDraftStore taskDraftStore;
+    private final ModelScheduler modelScheduler;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final LevelLogger logger;
+    private final WorkMode workMode;
+    private final long intervalMs;
+
+    private final AtomicReference<TaskDraftEntity> pendingDraft = new AtomicReference<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService executor;
+
+    public DraftAutosaver(TaskDraftStore taskDraftStore, ModelScheduler modelScheduler, SystemTimeWrapper systemTimeWrapper, Logger logger, WorkMode workMode, long intervalMs) {
+        this.taskDraftStore = Affirm.notNull(taskDraftStore);
+        this.modelScheduler = Affirm.notNull(modelScheduler);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.logger = LevelLogger.wrap(logger);
+        this.workMode = Affirm.notNull(workMode);
+        this.intervalMs = intervalMs;
+
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, LOG_TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Call as often as you like (every keystroke for example), only the latest draft gets written
+     */
+    public void saveLater(TaskItem taskItem) {
+
+        Affirm.notNull(taskItem);
+
+        pendingDraft.set(new TaskDraftEntity(
+                taskItem.getEntityId(),
+                taskItem.getTitle(),
+                taskItem.getDescription(),
+                taskItem.getCreationTimestamp(),
+                systemTimeWrapper.currentTimeMillis()));
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            writePendingDraft();
+        } else if (writeScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::writePendingDraft, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes any pending draft now (in the background), rather than waiting for the interval
+     */
+    public void flush() {
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            writePendingDraft();
+        } else {
+            executor.execute(this::writePendingDraft);
+        }
+    }
+
+    /**
+     * Forgets about any draft for this task, e.g. once it's been saved or reverted
+     */
+    public void discard(long taskId) {
+
+        logger.d(LOG_TAG, "discard() taskId:{}", taskId);
+
+        TaskDraftEntity pending = pendingDraft.get();
+        if (pending != null && pending.getTaskId() == taskId) {
+            pendingDraft.compareAndSet(pending, null);
+        }
+
+        //single thread, so this is ordered after any draft write already in progress
+        Runnable delete = () -> taskDraftStore.deleteDraft(taskId);
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            delete.run();
+        } else {
+            executor.execute(delete);
+        }
+    }
+
+    /**
+     * @param successCallback called on the UI thread with the most recently edited draft, or null
+     *                        if there isn't one
+     */
+    public void loadLatestDraft(final SuccessCallbackWithPayload<TaskDraftEntity> successCallback) {
+
+        Affirm.notNull(successCallback);
+
+        modelScheduler.execute(ModelScheduler.Lane.INTERACTIVE, () -> {
+            TaskDraftEntity pending = pendingDraft.get();
+            return pending != null ? pending : taskDraftStore.getLatestDraft();
+        }, successCallback);
+    }
+
+    private void writePendingDraft() {
+
+        writeScheduled.set(false);
+
+        TaskDraftEntity draft = pendingDraft.getAndSet(null);
+        if (draft != null) {
+            logger.d(LOG_TAG, "writing draft taskId:{}", draft.getTaskId());
+            taskDraftStore.saveDraft(draft);
+        }
+    }
+}
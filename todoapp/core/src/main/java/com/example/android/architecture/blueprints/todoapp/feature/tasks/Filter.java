@@ -0,0 +1,25 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+/**
+ * The labels and empty list messages for each of these are in the app, see FilterResources
+ */
+public enum Filter {
+
+    COMPLETED,
+    ACTIVE,
+    ALL;
+
+    /**
+     * @return true if an item with this completed state belongs in a list with this filter
+     */
+    public boolean includes(boolean completed) {
+        switch (this) {
+            case COMPLETED:
+                return completed;
+            case ACTIVE:
+                return !completed;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.diff.DiffSpec;
+import com.example.android.architecture.blueprints.todoapp.diff.Diffable;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiff;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiffer;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.observer.ObservableImp;
+import com.example.android.architecture.blueprints.todoapp.threading.ConflatingPublisher;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler.Lane;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A lightweight window into the data held by a {@link TaskListModel}, with its own filter,
+ * search term and order, and its own DiffSpec so it can drive its own RecyclerView.
+ * <p>
+ * It never touches the db: it subscribes to the base model's snapshots and patches its own list
+ * using each snapshot's {@link TaskChangeSet}, only re-filtering the whole list when the change
+ * set is missing or too big, or when its own criteria change. So any number of these can share
+ * one TaskListModel for the cost of one db query per change.
+ * <p>
+ * All the list work happens on the {@link Lane#DERIVED} lane, the result is swapped in on the
+ * UI thread and observers notified. Call {@link #release()} when the screen that owns this goes
+ * away.
+ */
+public class FilteredTaskListModel extends ObservableImp implements Diffable {
+
+    public static final String LOG_TAG = FilteredTaskListModel.class.getSimpleName();
+
+    //more changes than this and we just re-filter the whole list
+    private static final int MAX_PATCH_SIZE = 64;
+
+    private final TaskListModel baseModel;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final LevelLogger logger;
+    private final ListDiffer<TaskItem> differ;
+    private final Executor derivedExecutor;
+    private final Executor uiExecutor;
+    private final ConflatingPublisher.Subscription subscription;
+
+    //written on the UI thread, read on the derived lane
+    private volatile Criteria criteria;
+
+    //derived lane only
+    private TaskListSnapshot latestBase;
+    private Criteria appliedCriteria;
+    private TaskItem[] items = new TaskItem[0];
+    private long version = 0;
+
+    //UI thread only
+    private volatile TaskListSnapshot snapshot;
+    private long diffSpecConsumedVersion = -1;
+
+    public FilteredTaskListModel(TaskListModel baseModel, Filter filter, ModelScheduler scheduler,
+                                 SystemTimeWrapper systemTimeWrapper, Logger logger, FrameBatcher frameBatcher,
+                                 ListDiffer<TaskItem> differ) {
+        super(frameBatcher);
+
+        this.baseModel = Affirm.notNull(baseModel);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.logger = LevelLogger.wrap(logger);
+        this.differ = Affirm.notNull(differ);
+        this.derivedExecutor = Affirm.notNull(scheduler).getExecutor(Lane.DERIVED);
+        this.uiExecutor = scheduler.getUiExecutor();
+        this.criteria = new Criteria(Affirm.notNull(filter), null, baseModel.getSortOrder());
+
+        this.snapshot = baseModel.getSnapshot().derive(new TaskItem[0], filter, criteria.order, new DiffSpec(null, systemTimeWrapper), 0);
+
+        //the current base snapshot arrives straight away
+        this.subscription = baseModel.subscribe(derivedExecutor, this::onBaseChanged);
+    }
+
+    public void setFilter(Filter filter) {
+        Criteria current = criteria;
+        updateCriteria(new Criteria(Affirm.notNull(filter), current.search, current.order));
+    }
+
+    /**
+     * @param search matched case insensitively against the title and the description, null or
+     *               empty to match everything
+     */
+    public void setSearch(@Nullable String search) {
+        Criteria current = criteria;
+        updateCriteria(new Criteria(current.filter, search == null || search.length() == 0 ? null : search, current.order));
+    }
+
+    /**
+     * Independent of the base model's sort order, when they're the same no sorting is needed
+     */
+    public void setSortOrder(SortOrder sortOrder) {
+        Criteria current = criteria;
+        updateCriteria(new Criteria(current.filter, current.search, Affirm.notNull(sortOrder)));
+    }
+
+    public Filter getCurrentFilter() {
+        return criteria.filter;
+    }
+
+    public SortOrder getSortOrder() {
+        return criteria.order;
+    }
+
+    /**
+     * Stops listening to the base model, this model won't change after this
+     */
+    public void release() {
+        subscription.cancel();
+    }
+
+    public TaskListSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public TaskItem get(int index) {
+        return snapshot.get(index);
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public boolean hasVisibleTasks() {
+        return size() > 0;
+    }
+
+    public int getAllTasksCount() {
+        return snapshot.getAllTasksCount();
+    }
+
+    public int getCompletedTasksCount() {
+        return snapshot.getCompletedTasksCount();
+    }
+
+    public int getActiveTasksCount() {
+        return snapshot.getActiveTasksCount();
+    }
+
+    /**
+     * Changes to the items themselves go through the base model as usual, they'll arrive back
+     * here with the next snapshot
+     */
+    public TaskListModel getBaseModel() {
+        return baseModel;
+    }
+
+    private void updateCriteria(Criteria newCriteria) {
+        criteria = newCriteria;
+        derivedExecutor.execute(() -> {
+            if (latestBase != null) {
+                update(latestBase, true);
+            }
+        });
+    }
+
+    //derived lane
+    private void onBaseChanged(TaskListSnapshot base, boolean missedUpdates) {
+        latestBase = base;
+        update(base, missedUpdates);
+    }
+
+    //derived lane
+    private void update(TaskListSnapshot base, boolean refilter) {
+
+        Criteria currentCriteria = criteria;
+        TaskChangeSet changeSet = base.getChangeSet();
+
+        TaskItem[] newItems;
+        if (refilter || currentCriteria != appliedCriteria || changeSet == null
+                || changeSet.getRemovedCount() + changeSet.getUpsertedCount() > MAX_PATCH_SIZE) {
+            newItems = filterAndSort(base.getAllItems(), base.getSortOrder(), currentCriteria);
+        } else if (changeSet.isEmpty()) {
+            newItems = items;
+        } else {
+            newItems = patch(items, changeSet, currentCriteria);
+        }
+
+        logger.d(LOG_TAG, "update() old size:{} new size:{}", items.length, newItems.length);
+
+        ListDiff diff = null;
+        if (items.length < 1000 && newItems.length < 1000) {
+            diff = differ.calculateDiff(Arrays.asList(items), Arrays.asList(newItems));
+        }
+
+        items = newItems;
+        appliedCriteria = currentCriteria;
+
+        final TaskListSnapshot newSnapshot = base.derive(newItems, currentCriteria.filter, currentCriteria.order, new DiffSpec(diff, systemTimeWrapper), ++version);
+
+        uiExecutor.execute(() -> {
+            snapshot = newSnapshot;
+            notifyObservers();
+        });
+    }
+
+    private static TaskItem[] filterAndSort(List<TaskItem> allItems, SortOrder allItemsOrder, Criteria criteria) {
+
+        List<TaskItem> list = new ArrayList<>();
+        for (TaskItem taskItem : allItems) {
+            if (criteria.matches(taskItem)) {
+                list.add(taskItem);
+            }
+        }
+
+        //the comparators agree with the db, so if the orders match the list is already sorted
+        if (criteria.order != allItemsOrder) {
+            Collections.sort(list, criteria.order.comparator);
+        }
+
+        return list.toArray(new TaskItem[list.size()]);
+    }
+
+    private static TaskItem[] patch(TaskItem[] oldItems, TaskChangeSet changeSet, Criteria criteria) {
+
+        Set<Long> touchedIds = new HashSet<>();
+        for (int ii = 0; ii < changeSet.getRemovedCount(); ii++) {
+            touchedIds.add(changeSet.getRemovedId(ii));
+        }
+        for (int ii = 0; ii < changeSet.getUpsertedCount(); ii++) {
+            touchedIds.add(changeSet.getUpserted(ii).getEntityId());
+        }
+
+        List<TaskItem> list = new ArrayList<>(oldItems.length + changeSet.getUpsertedCount());
+        for (TaskItem taskItem : oldItems) {
+            if (!touchedIds.contains(taskItem.getEntityId())) {
+                list.add(taskItem);
+            }
+        }
+
+        for (int ii = 0; ii < changeSet.getUpsertedCount(); ii++) {
+            TaskItem taskItem = changeSet.getUpserted(ii);
+            if (criteria.matches(taskItem)) {
+                int position = Collections.binarySearch(list, taskItem, criteria.order.comparator);
+                list.add(position < 0 ? -position - 1 : position, taskItem);
+            }
+        }
+
+        return list.toArray(new TaskItem[list.size()]);
+    }
+
+    @Override
+    public DiffSpec getAndClearLatestDiffSpec(long maxAgeMs) {
+
+        TaskListSnapshot currentSnapshot = snapshot;
+
+        //each snapshot's DiffSpec is only handed out once, and only to whoever saw the one before,
+        //see TaskListModel.getAndClearLatestDiffSpec()
+        long consumedVersion = diffSpecConsumedVersion;
+        diffSpecConsumedVersion = currentSnapshot.getVersion();
+        if (currentSnapshot.getVersion() != consumedVersion + 1) {
+            return new DiffSpec(null, systemTimeWrapper);
+        }
+
+        DiffSpec latestDiffSpecAvailable = currentSnapshot.getDiffSpec();
+        if (systemTimeWrapper.currentTimeMillis() - latestDiffSpecAvailable.timeStamp < maxAgeMs) {
+            return latestDiffSpecAvailable;
+        } else {
+            return new DiffSpec(null, systemTimeWrapper);
+        }
+    }
+
+    private static class Criteria {
+
+        final Filter filter;
+        final String search;
+        final SortOrder order;
+
+        Criteria(Filter filter, @Nullable String search, SortOrder order) {
+            this.filter = filter;
+            this.search = search;
+            this.order = order;
+        }
+
+        boolean matches(TaskItem taskItem) {
+            return filter.includes(taskItem.isCompleted())
+                    && (search == null
+                    || containsIgnoreCase(taskItem.getTitle(), search)
+                    || containsIgnoreCase(taskItem.getDescription(), search));
+        }
+
+        private static boolean containsIgnoreCase(@Nullable String text, String search) {
+            if (text == null) {
+                return false;
+            }
+            for (int ii = 0; ii <= text.length() - search.length(); ii++) {
+                if (text.regionMatches(true, ii, search, 0, search.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
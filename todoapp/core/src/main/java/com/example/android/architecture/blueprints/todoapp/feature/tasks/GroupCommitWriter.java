@@ -0,0 +1,245 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler.Lane;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Funnels TaskListModel's single item writes (add, update, remove, setCompleted, clear,
+ * clearCompleted) through one writer, so they reach the db in the order they were submitted,
+ * and commits everything that has queued up in a single transaction. The store syncs once per
+ * commit (sqlite's journal, or the log's fsync), so a burst of writes pays for one sync rather
+ * than one each (and the change listeners hear about it once, so the list only refreshes once).
+ * <p>
+ * Writes that arrive within windowMs of the first one, or while a commit is in progress, go in
+ * the same commit as it or the next one. If a commit fails, its writes are retried in a
+ * transaction each so that one bad write doesn't take the others down with it. That means a
+ * {@link Write} can be applied more than once, so anything that has to happen exactly once per
+ * write (taking it off a queue depth gauge for example) goes in its {@link Hooks}.
+ * <p>
+ * Commits run on the INTERACTIVE lane, one at a time. Each write's callback is called on the UI
+ * thread with that write's own result.
+ */
+final class GroupCommitWriter {
+
+    public static final String LOG_TAG = GroupCommitWriter.class.getSimpleName();
+
+    //long enough to catch writes fired off together, short enough not to be noticed
+    static final long DEFAULT_WINDOW_MS = 2;
+
+    //metric names, see MetricsRegistry
+    static final String METRIC_COMMIT = "taskList.groupCommit";
+    static final String METRIC_WRITES_PER_COMMIT = "taskList.groupCommit.writes";
+    static final String METRIC_COMMIT_FAILED = "taskList.groupCommit.failed";
+
+    interface Write {
+        /**
+         * Called with the db locked and inside the transaction, don't call back into the writer.
+         * Can be called a second time if the first commit it was part of failed, see Hooks
+         *
+         * @return whatever should be passed to the callback (a row id, a row count...)
+         */
+        long apply(TaskStore taskStore);
+    }
+
+    /**
+     * Each of these is called exactly once per write, on the writer's thread
+     */
+    interface Hooks {
+        //as the write is taken off the queue, before it's first applied
+        void started();
+
+        //once the write has been committed, or has failed for good
+        void finished(boolean succeeded, long result);
+    }
+
+    interface Callback {
+        //UI thread
+        void done(boolean succeeded, long result);
+    }
+
+    private final TaskStore taskStore;
+    private final Object dbMonitor;
+    private final ModelScheduler scheduler;
+    private final LevelLogger logger;
+    private final MetricsRegistry metrics;
+    private final WorkMode workMode;
+    private final long windowMs;
+
+    private final Object lock = new Object();
+    //guarded by lock
+    private List<PendingWrite> pending = new ArrayList<>();
+    //guarded by lock, true from the first submit() until the queue has been drained
+    private boolean draining = false;
+
+    /**
+     * @param dbMonitor the lock that the owning model uses around all its store calls
+     */
+    GroupCommitWriter(TaskStore taskStore, Object dbMonitor, ModelScheduler scheduler,
+                      LevelLogger logger, MetricsRegistry metrics, WorkMode workMode, long windowMs) {
+        this.taskStore = Affirm.notNull(taskStore);
+        this.dbMonitor = Affirm.notNull(dbMonitor);
+        this.scheduler = Affirm.notNull(scheduler);
+        this.logger = Affirm.notNull(logger);
+        this.metrics = Affirm.notNull(metrics);
+        this.workMode = Affirm.notNull(workMode);
+        if (windowMs < 0) {
+            throw new IllegalArgumentException("windowMs can't be negative, not:" + windowMs);
+        }
+        this.windowMs = windowMs;
+    }
+
+    //any thread
+    void submit(Write write, @Nullable Callback callback) {
+        submit(write, null, callback);
+    }
+
+    /**
+     * @throws RuntimeException if the INTERACTIVE lane won't take the drain (e.g. it's been shut
+     * down), in which case this write won't happen
+     */
+    //any thread
+    void submit(Write write, @Nullable Hooks hooks, @Nullable Callback callback) {
+
+        PendingWrite pendingWrite = new PendingWrite(Affirm.notNull(write), hooks, callback);
+
+        synchronized (lock) {
+            pending.add(pendingWrite);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+
+        try {
+            scheduler.execute(Lane.INTERACTIVE, this::drain);
+        } catch (RuntimeException e) {
+            //otherwise draining stays true and every later write just queues up behind it
+            synchronized (lock) {
+                pending.remove(pendingWrite);
+                draining = false;
+            }
+            throw e;
+        }
+    }
+
+    //INTERACTIVE lane, only ever one of these running (see draining)
+    private void drain() {
+
+        if (windowMs > 0 && workMode == WorkMode.ASYNCHRONOUS) {
+            try {
+                Thread.sleep(windowMs);
+            } catch (InterruptedException e) {
+                //commit what there is now, and leave the flag for whoever interrupted us
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        boolean drained = false;
+        try {
+            while (true) {
+                List<PendingWrite> batch;
+                synchronized (lock) {
+                    if (pending.isEmpty()) {
+                        draining = false;
+                        drained = true;
+                        return;
+                    }
+                    batch = pending;
+                    pending = new ArrayList<>();
+                }
+                commit(batch);
+            }
+        } finally {
+            if (!drained) {
+                //something unexpected went wrong, let the next submit() start again
+                synchronized (lock) {
+                    draining = false;
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+
+        long start = metrics.start();
+
+        for (PendingWrite pendingWrite : batch) {
+            if (pendingWrite.hooks != null) {
+                pendingWrite.hooks.started();
+            }
+        }
+
+        try {
+            runInTransaction(batch);
+        } catch (RuntimeException e) {
+            metrics.increment(METRIC_COMMIT_FAILED);
+            if (batch.size() == 1) {
+                logger.e(LOG_TAG, "commit failed", e);
+                batch.get(0).succeeded = false;
+            } else {
+                logger.e(LOG_TAG, "commit of " + batch.size() + " writes failed, retrying them one at a time", e);
+                for (PendingWrite pendingWrite : batch) {
+                    try {
+                        runInTransaction(Collections.singletonList(pendingWrite));
+                    } catch (RuntimeException e2) {
+                        logger.e(LOG_TAG, "commit failed", e2);
+                        pendingWrite.succeeded = false;
+                    }
+                }
+            }
+        }
+
+        metrics.stop(METRIC_COMMIT, start);
+        metrics.recordValue(METRIC_WRITES_PER_COMMIT, batch.size());
+
+        for (PendingWrite pendingWrite : batch) {
+            if (pendingWrite.hooks != null) {
+                pendingWrite.hooks.finished(pendingWrite.succeeded, pendingWrite.result);
+            }
+            if (pendingWrite.callback != null) {
+                final boolean succeeded = pendingWrite.succeeded;
+                final long result = pendingWrite.result;
+                final Callback callback = pendingWrite.callback;
+                scheduler.getUiExecutor().execute(() -> callback.done(succeeded, result));
+            }
+        }
+    }
+
+    private void runInTransaction(List<PendingWrite> writes) {
+        synchronized (dbMonitor) {
+            taskStore.runInTransaction(() -> {
+                for (PendingWrite pendingWrite : writes) {
+                    pendingWrite.succeeded = true;
+                    pendingWrite.result = pendingWrite.write.apply(taskStore);
+                }
+            });
+        }
+    }
+
+    //only touched by the thread running drain()
+    private static class PendingWrite {
+
+        final Write write;
+        final Hooks hooks;
+        final Callback callback;
+        boolean succeeded = false;
+        long result = 0;
+
+        PendingWrite(Write write, @Nullable Hooks hooks, @Nullable Callback callback) {
+            this.write = write;
+            this.hooks = hooks;
+            this.callback = callback;
+        }
+    }
+}
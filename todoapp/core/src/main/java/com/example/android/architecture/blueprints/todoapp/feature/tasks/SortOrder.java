@@ -0,0 +1,79 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import java.util.Comparator;
+
+/**
+ * Orders that the TaskListModel can ask the db for. Each one has a matching query in TaskItemDao
+ * which is served straight from an index (no sorting step in sqlite), and a comparator which gives
+ * exactly the same order, so that derived views can sort or insert items in memory and agree
+ * with the db.
+ */
+public enum SortOrder {
+
+    /**
+     * ORDER BY create_timestamp DESC, id DESC
+     */
+    NEWEST_FIRST((a, b) -> {
+        int result = compare(b.getCreationTimestamp(), a.getCreationTimestamp());
+        return result != 0 ? result : compare(b.getEntityId(), a.getEntityId());
+    }),
+
+    /**
+     * ORDER BY create_timestamp, id
+     */
+    OLDEST_FIRST((a, b) -> {
+        int result = compare(a.getCreationTimestamp(), b.getCreationTimestamp());
+        return result != 0 ? result : compare(a.getEntityId(), b.getEntityId());
+    }),
+
+    /**
+     * ORDER BY title COLLATE NOCASE, id
+     */
+    TITLE((a, b) -> {
+        int result = compareNoCase(a.getTitle(), b.getTitle());
+        return result != 0 ? result : compare(a.getEntityId(), b.getEntityId());
+    }),
+
+    /**
+     * Active items then completed items, each newest first
+     */
+    ACTIVE_FIRST((a, b) -> {
+        if (a.isCompleted() != b.isCompleted()) {
+            return a.isCompleted() ? 1 : -1;
+        }
+        return NEWEST_FIRST.comparator.compare(a, b);
+    });
+
+    public final Comparator<TaskItem> comparator;
+
+    SortOrder(Comparator<TaskItem> comparator) {
+        this.comparator = comparator;
+    }
+
+    private static int compare(long a, long b) {
+        return a == b ? 0 : (a < b ? -1 : 1);
+    }
+
+    /**
+     * Same as sqlite's NOCASE collation: nulls first, and only ASCII letters are folded
+     * (String.CASE_INSENSITIVE_ORDER folds everything, which would disagree with the db)
+     */
+    private static int compareNoCase(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        int length = Math.min(a.length(), b.length());
+        for (int ii = 0; ii < length; ii++) {
+            char ca = foldAscii(a.charAt(ii));
+            char cb = foldAscii(b.charAt(ii));
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static char foldAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The top of the task list as it was last shown, saved to a small file so that the next cold
+ * start can show it before the db has even been opened, see TaskListModel.restoreStartupSnapshot().
+ * <p>
+ * Layout (big endian): magic (int), format version (int), filter and sort order ordinals (byte
+ * each), all tasks count and completed tasks count (int each), item count (int), then for each
+ * item: id (long), creation timestamp (long), completed (byte), title and description as a byte
+ * length (int, -1 for null) followed by UTF-8.
+ * <p>
+ * The file is small (see MAX_ITEMS) and is read with one sequential read. Writes go to a temp
+ * file first and are renamed over the old one, so a crash part way through never leaves a
+ * half written snapshot. Anything unexpected when reading just means there's no snapshot.
+ */
+final class StartupSnapshot {
+
+    //comfortably more than a screenful on any device
+    static final int MAX_ITEMS = 50;
+
+    //"TSNP"
+    private static final int MAGIC = 0x54534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_FILE_SIZE = 1024 * 1024;
+    private static final int NULL_STRING = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    final TaskItem[] items;
+    final int allTasksCount;
+    final int completedTasksCount;
+    final Filter filter;
+    final SortOrder sortOrder;
+
+    StartupSnapshot(TaskItem[] items, int allTasksCount, int completedTasksCount, Filter filter, SortOrder sortOrder) {
+        this.items = Affirm.notNull(items);
+        this.allTasksCount = allTasksCount;
+        this.completedTasksCount = completedTasksCount;
+        this.filter = Affirm.notNull(filter);
+        this.sortOrder = Affirm.notNull(sortOrder);
+    }
+
+    /**
+     * Only the first MAX_ITEMS of the visible items are kept
+     */
+    static StartupSnapshot of(TaskListSnapshot taskListSnapshot) {
+        int size = Math.min(taskListSnapshot.size(), MAX_ITEMS);
+        TaskItem[] head = new TaskItem[size];
+        for (int ii = 0; ii < size; ii++) {
+            head[ii] = taskListSnapshot.get(ii);
+        }
+        return new StartupSnapshot(head, taskListSnapshot.getAllTasksCount(), taskListSnapshot.getCompletedTasksCount(),
+                taskListSnapshot.getFilter(), taskListSnapshot.getSortOrder());
+    }
+
+    /**
+     * @return true if showing other would look exactly the same as showing this
+     */
+    boolean looksTheSameAs(@Nullable StartupSnapshot other) {
+
+        if (other == null
+                || other.items.length != items.length
+                || other.allTasksCount != allTasksCount
+                || other.completedTasksCount != completedTasksCount
+                || other.filter != filter
+                || other.sortOrder != sortOrder) {
+            return false;
+        }
+
+        for (int ii = 0; ii < items.length; ii++) {
+            if (!items[ii].itemsTheSame(other.items[ii])
+                    || TaskItem.changesBetween(items[ii], other.items[ii]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void write(File file) throws IOException {
+
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeByte(filter.ordinal());
+            out.writeByte(sortOrder.ordinal());
+            out.writeInt(allTasksCount);
+            out.writeInt(completedTasksCount);
+            out.writeInt(items.length);
+            for (TaskItem taskItem : items) {
+                out.writeLong(taskItem.getEntityId());
+                out.writeLong(taskItem.getCreationTimestamp());
+                out.writeByte(taskItem.isCompleted() ? 1 : 0);
+                writeString(out, taskItem.getTitle());
+                writeString(out, taskItem.getDescription());
+            }
+            out.flush();
+            fileOutputStream.getFD().sync();
+        } finally {
+            fileOutputStream.close();
+        }
+
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("couldn't rename " + tempFile + " to " + file);
+        }
+    }
+
+    /**
+     * @return null if there is no usable snapshot in the file
+     */
+    @Nullable
+    static StartupSnapshot read(File file) throws IOException {
+
+        long length = file.length();
+        if (length == 0 || length > MAX_FILE_SIZE) {
+            return null;
+        }
+
+        byte[] bytes = new byte[(int) length];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int filterOrdinal = buffer.get();
+            int sortOrderOrdinal = buffer.get();
+            if (filterOrdinal < 0 || filterOrdinal >= Filter.values().length
+                    || sortOrderOrdinal < 0 || sortOrderOrdinal >= SortOrder.values().length) {
+                return null;
+            }
+
+            int allTasksCount = buffer.getInt();
+            int completedTasksCount = buffer.getInt();
+            int size = buffer.getInt();
+            if (size < 0 || size > MAX_ITEMS) {
+                return null;
+            }
+
+            TaskItem[] items = new TaskItem[size];
+            for (int ii = 0; ii < size; ii++) {
+                long id = buffer.getLong();
+                long creationTimestamp = buffer.getLong();
+                boolean completed = buffer.get() != 0;
+                TaskItemEntity taskItemEntity = new TaskItemEntity(creationTimestamp, getString(buffer), getString(buffer));
+                taskItemEntity.setId(id);
+                taskItemEntity.setCompleted(completed);
+                items[ii] = new TaskItem(taskItemEntity);
+            }
+
+            return new StartupSnapshot(items, allTasksCount, completedTasksCount,
+                    Filter.values()[filterOrdinal], SortOrder.values()[sortOrderOrdinal]);
+
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            //truncated or corrupt
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+        } else {
+            byte[] bytes = value.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("bad string length:" + length);
+        }
+        String value = new String(buffer.array(), buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
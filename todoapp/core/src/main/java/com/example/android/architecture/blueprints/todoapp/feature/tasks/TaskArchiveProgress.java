@@ -0,0 +1,76 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.observer.ObservableImp;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Progress of TaskListModel's export / import of a backup file. Observe this rather than the
+ * list model itself so that a progress bar isn't woken up by every list change (and vice versa).
+ * <p>
+ * Only one export or import runs at a time. Updated from the BULK lane once per chunk, the
+ * getters can be called from any thread.
+ */
+public class TaskArchiveProgress extends ObservableImp {
+
+    public enum Operation {
+        NONE,
+        EXPORT,
+        IMPORT
+    }
+
+    private final AtomicReference<Operation> operation = new AtomicReference<>(Operation.NONE);
+    private volatile long rowsDone = 0;
+    private volatile long rowsTotal = 0;
+
+    TaskArchiveProgress(FrameBatcher frameBatcher) {
+        super(frameBatcher);
+    }
+
+    /**
+     * @return false if something is already running
+     */
+    boolean start(Operation newOperation) {
+        Affirm.notNull(newOperation);
+        if (!operation.compareAndSet(Operation.NONE, newOperation)) {
+            return false;
+        }
+        rowsDone = 0;
+        rowsTotal = 0;
+        notifyObservers();
+        return true;
+    }
+
+    void update(long rowsDone, long rowsTotal) {
+        this.rowsTotal = rowsTotal;
+        this.rowsDone = rowsDone;
+        notifyObservers();
+    }
+
+    void finish() {
+        operation.set(Operation.NONE);
+        notifyObservers();
+    }
+
+    public boolean isBusy() {
+        return operation.get() != Operation.NONE;
+    }
+
+    public Operation getOperation() {
+        return operation.get();
+    }
+
+    public long getRowsDone() {
+        return rowsDone;
+    }
+
+    /**
+     * @return the number of rows expected, an estimate for an export as rows can come and go
+     * while it's running
+     */
+    public long getRowsTotal() {
+        return rowsTotal;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What changed between two versions of the full (unfiltered) task list, by id: the items that
+ * were removed, and the items that were added or changed in any way. Derived views use this to
+ * patch their own lists rather than re-filtering everything.
+ * <p>
+ * Unlike a DiffResult this says nothing about positions, so it applies to any filtered or
+ * sorted view of the list.
+ */
+public final class TaskChangeSet {
+
+    //beyond this fraction of the list changing, patching isn't worth it
+    private static final int MAX_CHANGED_DIVISOR = 4;
+
+    private final long[] removedIds;
+    private final TaskItem[] upserted;
+
+    TaskChangeSet(long[] removedIds, TaskItem[] upserted) {
+        this.removedIds = Affirm.notNull(removedIds);
+        this.upserted = Affirm.notNull(upserted);
+    }
+
+    static TaskChangeSet upsert(TaskItem taskItem) {
+        return new TaskChangeSet(new long[0], new TaskItem[]{Affirm.notNull(taskItem)});
+    }
+
+    /**
+     * @return the changes, or null if so much has changed that a derived view might as well start
+     * again from the full list
+     */
+    @Nullable
+    static TaskChangeSet between(List<TaskItem> oldItems, List<TaskItem> newItems) {
+
+        int maxChanges = Math.max(16, Math.max(oldItems.size(), newItems.size()) / MAX_CHANGED_DIVISOR);
+
+        Map<Long, TaskItem> oldById = new HashMap<>(oldItems.size() * 2);
+        for (TaskItem oldItem : oldItems) {
+            oldById.put(oldItem.getEntityId(), oldItem);
+        }
+
+        List<TaskItem> upserted = new ArrayList<>();
+        for (TaskItem newItem : newItems) {
+            TaskItem oldItem = oldById.remove(newItem.getEntityId());
+            if (oldItem == null || !sameContent(oldItem, newItem)) {
+                upserted.add(newItem);
+                if (upserted.size() > maxChanges) {
+                    return null;
+                }
+            }
+        }
+
+        //anything left wasn't in the new list
+        if (upserted.size() + oldById.size() > maxChanges) {
+            return null;
+        }
+        long[] removedIds = new long[oldById.size()];
+        int ii = 0;
+        for (Long id : oldById.keySet()) {
+            removedIds[ii++] = id;
+        }
+
+        return new TaskChangeSet(removedIds, upserted.toArray(new TaskItem[upserted.size()]));
+    }
+
+    public int getRemovedCount() {
+        return removedIds.length;
+    }
+
+    public long getRemovedId(int index) {
+        return removedIds[index];
+    }
+
+    /**
+     * @return items which are new or have changed
+     */
+    public List<TaskItem> getUpserted() {
+        return Collections.unmodifiableList(Arrays.asList(upserted));
+    }
+
+    public int getUpsertedCount() {
+        return upserted.length;
+    }
+
+    public TaskItem getUpserted(int index) {
+        return upserted[index];
+    }
+
+    public boolean isEmpty() {
+        return removedIds.length == 0 && upserted.length == 0;
+    }
+
+    private static boolean sameContent(TaskItem a, TaskItem b) {
+        return a.isCompleted() == b.isCompleted()
+                && a.getCreationTimestamp() == b.getCreationTimestamp()
+                && equals(a.getTitle(), b.getTitle())
+                && equals(a.getDescription(), b.getDescription());
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler.Lane;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes tombstones (rows soft deleted by TaskListModel) for good, and then hands the free
+ * space back to the file system (see TaskStore.reclaimSpaceStep()).
+ * <p>
+ * This only starts once the UI thread is idle, and does its work on the BULK lane in small
+ * steps (one short range of ids, or one reclaim step, per hold of the store), giving up and
+ * waiting for the next idle moment as soon as there is any interactive or refresh work queued.
+ * <p>
+ * Tombstones are kept for tombstoneRetentionMs after they were deleted so that a delta sync can
+ * still find out about them, see TaskStore.getDeletedIdsSince().
+ */
+public class TaskCompactor {
+
+    public static final String LOG_TAG = TaskCompactor.class.getSimpleName();
+
+    public static final long DEFAULT_TOMBSTONE_RETENTION_MS = 24 * 60 * 60 * 1000L;
+
+    //metric names, see MetricsRegistry
+    public static final String METRIC_STEP = "taskCompactor.step";
+    public static final String METRIC_ROWS_PURGED = "taskCompactor.rowsPurged";
+    //in the store's own units, see TaskStore.reclaimSpaceStep()
+    public static final String METRIC_PAGES_FREED = "taskCompactor.pagesFreed";
+
+    private static final int PURGE_ID_SPAN = 500;
+
+    private final TaskStore taskStore;
+    private final Object dbMonitor;
+    private final ModelScheduler scheduler;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final LevelLogger logger;
+    private final MetricsRegistry metrics;
+    private final long tombstoneRetentionMs;
+
+    //set from the first request until the work is all done, requests in between are no-ops
+    private final AtomicBoolean requested = new AtomicBoolean(false);
+
+    //BULK lane only, how far through the ids the current purge pass has got, 0 when not started
+    private long purgedUpToId = 0;
+    private long purgeMaxId = 0;
+    private boolean purgeFinished = false;
+
+    /**
+     * @param dbMonitor the lock that the owning model uses around all its store calls
+     */
+    TaskCompactor(TaskStore taskStore, Object dbMonitor, ModelScheduler scheduler,
+                  SystemTimeWrapper systemTimeWrapper, LevelLogger logger, MetricsRegistry metrics,
+                  long tombstoneRetentionMs) {
+        this.taskStore = Affirm.notNull(taskStore);
+        this.dbMonitor = Affirm.notNull(dbMonitor);
+        this.scheduler = Affirm.notNull(scheduler);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.logger = Affirm.notNull(logger);
+        this.metrics = Affirm.notNull(metrics);
+        if (tombstoneRetentionMs < 0) {
+            throw new IllegalArgumentException("tombstoneRetentionMs can't be negative, not:" + tombstoneRetentionMs);
+        }
+        this.tombstoneRetentionMs = tombstoneRetentionMs;
+    }
+
+    /**
+     * Can be called from any thread, as often as you like
+     */
+    public void requestCompaction() {
+        if (requested.compareAndSet(false, true)) {
+            logger.d(LOG_TAG, "requestCompaction()");
+            scheduler.executeWhenIdle(Lane.BULK, this::compact);
+        }
+    }
+
+    //BULK lane
+    private void compact() {
+
+        long deletedBefore = systemTimeWrapper.currentTimeMillis() - tombstoneRetentionMs;
+
+        while (true) {
+
+            if (isBusy()) {
+                //pick up where we left off next time things are quiet
+                logger.d(LOG_TAG, "compact() giving way");
+                scheduler.executeWhenIdle(Lane.BULK, this::compact);
+                return;
+            }
+
+            long start = metrics.start();
+            boolean moreToDo;
+            if (!purgeFinished) {
+                purgeFinished = !purgeStep(deletedBefore);
+                moreToDo = true;
+            } else {
+                moreToDo = reclaimStep();
+            }
+            metrics.stop(METRIC_STEP, start);
+
+            if (!moreToDo) {
+                break;
+            }
+        }
+
+        logger.d(LOG_TAG, "compact() done");
+        purgeFinished = false;
+        requested.set(false);
+    }
+
+    /**
+     * @return true if there are more ids to look at in this pass
+     */
+    private boolean purgeStep(long deletedBefore) {
+
+        if (purgedUpToId == 0) {
+            synchronized (dbMonitor) {
+                purgeMaxId = taskStore.getMaxId();
+            }
+        }
+
+        if (purgedUpToId >= purgeMaxId) {
+            purgedUpToId = 0;
+            return false;
+        }
+
+        long toId = Math.min(purgedUpToId + PURGE_ID_SPAN, purgeMaxId);
+        int rows;
+        synchronized (dbMonitor) {
+            rows = taskStore.purgeTombstones(purgedUpToId, toId, deletedBefore);
+        }
+        purgedUpToId = toId;
+
+        if (rows > 0) {
+            metrics.recordValue(METRIC_ROWS_PURGED, rows);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if there is more space to hand back
+     */
+    private boolean reclaimStep() {
+
+        long freed;
+        synchronized (dbMonitor) {
+            freed = taskStore.reclaimSpaceStep();
+        }
+
+        if (freed > 0) {
+            metrics.recordValue(METRIC_PAGES_FREED, freed);
+        }
+
+        return freed > 0;
+    }
+
+    private boolean isBusy() {
+        return scheduler.getQueueSize(Lane.INTERACTIVE) > 0 || scheduler.getQueueSize(Lane.REFRESH) > 0;
+    }
+}
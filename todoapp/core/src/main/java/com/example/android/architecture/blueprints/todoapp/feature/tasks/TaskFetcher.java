@@ -0,0 +1,144 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemPojo;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemSource;
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallback;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.observer.ObservableImp;
+import com.example.android.architecture.blueprints.todoapp.threading.ChangeChannel;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Gets a list of tasks from the network, checks for duplicates and adds them to the database
+ *
+ * This app doesn't handle full synchronization with data on a server, local
+ * changes are not pushed to the internet for example.
+ */
+@Singleton
+public class TaskFetcher extends ObservableImp {
+
+    public static final String LOG_TAG = TaskFetcher.class.getSimpleName();
+
+    //metric names, see MetricsRegistry
+    public static final String METRIC_NETWORK = "taskFetcher.network";
+    public static final String METRIC_NETWORK_FAILED = "taskFetcher.networkFailed";
+    public static final String METRIC_INGEST = "taskFetcher.ingest";
+    public static final String METRIC_ITEMS_RECEIVED = "taskFetcher.itemsReceived";
+
+    //notice how we use the TaskListModel, we don't go directly to the db layer
+    private final TaskListModel taskListModel;
+    private final TaskItemSource taskItemSource;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final WorkMode workMode;
+    private final LevelLogger logger;
+    private final MetricsRegistry metrics;
+
+    //for views that only care about isBusy()
+    private final ChangeChannel busyChannel;
+
+    private boolean busy;
+
+    @Inject
+    public TaskFetcher(TaskListModel taskListModel, TaskItemSource taskItemSource,
+                       SystemTimeWrapper systemTimeWrapper, Logger logger, MetricsRegistry metrics, FrameBatcher frameBatcher, WorkMode workMode) {
+        super(frameBatcher);
+        this.taskListModel = Affirm.notNull(taskListModel);
+        this.taskItemSource = Affirm.notNull(taskItemSource);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.logger = LevelLogger.wrap(logger);
+        this.metrics = Affirm.notNull(metrics);
+        this.workMode = Affirm.notNull(workMode);
+        this.busyChannel = new ChangeChannel(frameBatcher);
+    }
+
+    public void fetchTaskItems(final SuccessCallback successCallback, final FailureCallbackWithPayload<UserMessage> failureCallbackWithPayload){
+
+        logger.i(LOG_TAG, "fetchTaskItems()");
+
+        Affirm.notNull(successCallback);
+        Affirm.notNull(failureCallbackWithPayload);
+
+        if (busy){
+            failureCallbackWithPayload.fail(UserMessage.ERROR_BUSY);
+            return;
+        }
+
+        busy = true;
+        busyChannel.notifyObservers();
+        notifyObservers();
+
+        final long start = metrics.start();
+
+        taskItemSource.fetchTaskItems(workMode,
+                successResponse -> {
+                    metrics.stop(METRIC_NETWORK, start);
+                    handleNetworkSuccess(successCallback, successResponse);
+                },
+                failureMessage -> {
+                    metrics.stop(METRIC_NETWORK_FAILED, start);
+                    handleNetworkFailure(failureCallbackWithPayload, failureMessage);
+                });
+
+    }
+
+    private void handleNetworkSuccess(SuccessCallback successCallBack, List<TaskItemPojo> taskItemPojos){
+        addTaskItemsToDatabase(taskItemPojos);
+        successCallBack.success();
+        complete();
+    }
+
+    private void handleNetworkFailure(FailureCallbackWithPayload<UserMessage> failureCallbackWithPayload, UserMessage failureMessage){
+        failureCallbackWithPayload.fail(failureMessage);
+        complete();
+    }
+
+    private void addTaskItemsToDatabase(List<TaskItemPojo> taskItemPojos){
+
+        logger.d(LOG_TAG, "addTaskItemsToDatabase() received:{}", taskItemPojos.size());
+
+        metrics.recordValue(METRIC_ITEMS_RECEIVED, taskItemPojos.size());
+        final long start = metrics.start();
+
+        List<TaskItem> taskItems = new ArrayList<>(taskItemPojos.size());
+
+        for (TaskItemPojo taskItemPojo : taskItemPojos){
+            taskItems.add(new TaskItem(systemTimeWrapper.currentTimeMillis(), taskItemPojo.title, taskItemPojo.description));
+        }
+
+        //timed until the rows are in the db, the db work on its own is timed by the TaskListModel
+        taskListModel.addManyFilterOutDuplicates(taskItems, rowsInserted -> metrics.stop(METRIC_INGEST, start));
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    /**
+     * Fires when isBusy() changes
+     */
+    public ChangeChannel getBusyChannel() {
+        return busyChannel;
+    }
+
+    private void complete(){
+
+        logger.i(LOG_TAG, "complete()");
+
+        busy = false;
+        busyChannel.notifyObservers();
+        notifyObservers();
+    }
+}
@@ -3,9 +3,7 @@ package com.example.android.architecture.blueprints.todoapp.feature.tasks;
 import android.support.annotation.Nullable;
 
 import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
-
-import co.early.fore.adapters.DiffComparator;
-import co.early.fore.core.Affirm;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
 
 /**
  * Encapsulates a TaskItem, holds a reference to its equivalent in the database layer {@link TaskItemEntity}
@@ -17,7 +15,11 @@ import co.early.fore.core.Affirm;
  * it with a fresh instance taken from the database. Once an item becomes dirty it remains that way
  * until it is replaced by a db copy.
  */
-public class TaskItem implements DiffComparator<TaskItem> {
+public class TaskItem {
+
+    //what changesBetween() reports, TaskItemDiffCallback hands these to the adapter as payloads
+    public static final int CHANGED_COMPLETED = 1;
+    public static final int CHANGED_TITLE = 1 << 1;
 
     private final TaskItemEntity taskItemEntity;
     private boolean dirty = false;
@@ -94,7 +96,6 @@ public class TaskItem implements DiffComparator<TaskItem> {
      * @param other
      * @return true if the items represent the same real world / conceptual item
      */
-    @Override
     public boolean itemsTheSame(TaskItem other) {
         return other != null
                // && getCreationTimestamp() == other.getCreationTimestamp()
@@ -107,20 +108,40 @@ public class TaskItem implements DiffComparator<TaskItem> {
      * Note this really means: do they look the same in a list on the display. As such is usually
      * related to a particular view.
      * <p>
-     * This only gets called if {@link#itemsTheSame()} already returns true
+     * This only gets called if {@link#itemsTheSame()} already returns true. Anything compared
+     * here should also be reported by {@link #changesBetween(TaskItem, TaskItem)}
      *
      * @param other
      * @return
      */
-    @Override
     public boolean contentsTheSame(TaskItem other) {
         if (isDirty()){
             return false;
-        } else if (isCompleted() != other.isCompleted()){
+        } else if (changesBetween(this, other) != 0){
             return false;
         } else {
             return true;
         }
     }
 
+    /**
+     * @return the CHANGED_ flags for whatever differs between the two as far as a row in the
+     * list is concerned, 0 if nothing does
+     */
+    public static int changesBetween(TaskItem oldItem, TaskItem newItem) {
+
+        int changes = 0;
+
+        if (oldItem.isCompleted() != newItem.isCompleted()) {
+            changes |= CHANGED_COMPLETED;
+        }
+
+        String oldTitle = oldItem.getTitleForList();
+        String newTitle = newItem.getTitleForList();
+        if (oldTitle == null ? newTitle != null : !oldTitle.equals(newTitle)) {
+            changes |= CHANGED_TITLE;
+        }
+
+        return changes;
+    }
 }
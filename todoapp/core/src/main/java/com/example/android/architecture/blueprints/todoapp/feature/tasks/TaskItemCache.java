@@ -0,0 +1,96 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, least recently used cache of task entities keyed by entity id, so that things like
+ * opening the detail screen for an item that's already in the list don't need a db round trip.
+ * <p>
+ * The cache is filled from refresh results and has entries invalidated whenever something is
+ * written. Every invalidation bumps a generation number, a refresh that started before a write
+ * passes in the generation it saw and its (possibly stale) results are ignored.
+ * <p>
+ * Entities handed out are always copies, because TaskItems are edited in place (see
+ * {@link CurrentTaskModel}) and we don't want those edits to leak back into the cache.
+ * <p>
+ * Thread safe, all methods are synchronized.
+ */
+public class TaskItemCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<Long, TaskItemEntity> entities;
+    private long generation = 0;
+
+    public TaskItemCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entities = new LinkedHashMap<Long, TaskItemEntity>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TaskItemEntity> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the cached item, or null if we don't have it
+     */
+    @Nullable
+    public synchronized TaskItem get(long entityId) {
+        TaskItemEntity entity = entities.get(entityId);
+        return entity == null ? null : new TaskItem(new TaskItemEntity(entity));
+    }
+
+    /**
+     * @param entity freshly read from the db, a copy is cached
+     */
+    public synchronized void put(TaskItemEntity entity) {
+        entities.put(entity.getId(), new TaskItemEntity(entity));
+    }
+
+    /**
+     * Caches the first maxSize items of a refreshed list (the ones at the top of the list are the
+     * ones most likely to be tapped on). The list items are not copied here, so this must only be
+     * passed items that are not going to be edited without a call to {@link #invalidate(long)}
+     *
+     * @param taskItems fresh from the db
+     * @param generationAtQueryTime as returned by {@link #getGeneration()} before the query was run
+     */
+    public synchronized void fill(List<TaskItem> taskItems, long generationAtQueryTime) {
+
+        if (generationAtQueryTime != generation) {
+            return; //something was written while we were querying, this data might be stale
+        }
+
+        int limit = Math.min(maxSize, taskItems.size());
+
+        //insert in reverse so that the top of the list ends up most recently used
+        for (int ii = limit - 1; ii >= 0; ii--) {
+            TaskItemEntity entity = taskItems.get(ii).getEntity();
+            entities.put(entity.getId(), entity);
+        }
+    }
+
+    public synchronized void invalidate(long entityId) {
+        generation++;
+        entities.remove(entityId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entities.clear();
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized int size() {
+        return entities.size();
+    }
+}
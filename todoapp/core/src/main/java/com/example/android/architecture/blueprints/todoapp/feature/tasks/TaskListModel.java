@@ -0,0 +1,1504 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskArchive;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.diff.DiffSpec;
+import com.example.android.architecture.blueprints.todoapp.diff.Diffable;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiff;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiffer;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.observer.ObservableImp;
+import com.example.android.architecture.blueprints.todoapp.threading.ChangeChannel;
+import com.example.android.architecture.blueprints.todoapp.threading.ConflatingPublisher;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler.Lane;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * This model wraps the database and all access to the db should go through here. It's setup to
+ * maintain an in-memory list that can drive a view adapter on the UI thread. (In this case we are
+ * not using a cursor directly).
+ * <p>
+ * The only changes that are made to the in memory list are done via a refresh with the latest db
+ * data so that nothing gets out of sync. i.e. any changes go directly to the database and come
+ * back later on the UI thread as a result of a db refresh. (The exceptions are toggling an item's
+ * completed state and clearing items, which are shown straight away, see setCompleted() and
+ * clear()).
+ * <p>
+ * Deletes are soft: rows are marked with a tombstone and removed for good later on by a
+ * {@link TaskCompactor}, the tombstones are also what a delta sync would need.
+ * <p>
+ * The db itself is whichever {@link TaskStore} is passed in (Room in the app, see TaskStorage),
+ * the model only relies on what that interface promises.
+ * <p>
+ * The in memory list is held as an immutable {@link TaskListSnapshot} which is swapped in whole,
+ * so it can be read from any thread, see getSnapshot().
+ * <p>
+ * Observing the model itself means hearing about every change. Views which only use some of
+ * the model's state should observe the matching {@link ChangeChannel} instead (see
+ * getListChannel(), getCountsChannel() and getFilterChannel()), those only fire when that state
+ * has actually changed. Both are batched per frame.
+ * <p>
+ * As we may be getting updates here from the network or other threads, we need to synchronize access
+ * to the db via the store for total robustness - again if we didn't bother synchronizing here
+ * you would only see issues occasionally or in extreme situations, but we do it here for completeness
+ * anyway.
+ * <p>
+ */
+@Singleton
+public class TaskListModel extends ObservableImp implements Diffable {
+
+    public static final String LOG_TAG = TaskListModel.class.getSimpleName();
+
+    private static final int ITEM_CACHE_SIZE = 200;
+
+    //bulk inserts release the db between chunks so that interactive work can get a look in
+    private static final int BULK_CHUNK_SIZE = 250;
+
+    //rows per commit for importTaskItems(), bigger is quicker but holds the db for longer
+    public static final int DEFAULT_IMPORT_CHUNK_SIZE = 2000;
+
+    //the first load publishes this many rows straight away (a screenful, and then some), then
+    //pages that grow by PAGE_GROWTH each time, see loadProgressively()
+    private static final int FIRST_PAGE_SIZE = StartupSnapshot.MAX_ITEMS;
+    private static final int PAGE_GROWTH = 4;
+
+    //see restoreStartupSnapshot()
+    public static final String STARTUP_SNAPSHOT_FILE_NAME = "task-list-startup.snapshot";
+
+    //rows per hold of the db for exportTaskItems()
+    private static final int EXPORT_PAGE_SIZE = 2000;
+
+    //metric names, see MetricsRegistry
+    public static final String METRIC_FETCH = "taskList.fetchLatestFromDb";
+    public static final String METRIC_LIST_QUERY = "taskList.fetchLatestFromDb.listQuery";
+    public static final String METRIC_DIFF = "taskList.fetchLatestFromDb.diff";
+    public static final String METRIC_FIRST_PAGE = "taskList.fetchLatestFromDb.firstPage";
+    public static final String METRIC_ADD = "taskList.add";
+    public static final String METRIC_REMOVE = "taskList.remove";
+    public static final String METRIC_UPDATE = "taskList.update";
+    public static final String METRIC_ADD_MANY = "taskList.addMany";
+    public static final String METRIC_ADD_MANY_NO_DUPLICATES = "taskList.addManyFilterOutDuplicates";
+    public static final String METRIC_IMPORT = "taskList.importTaskItems";
+    public static final String METRIC_IMPORT_CHUNK = "taskList.importTaskItems.chunk";
+    public static final String METRIC_EXPORT = "taskList.exportTaskItems";
+    public static final String METRIC_STARTUP_SNAPSHOT_READ = "taskList.startupSnapshot.read";
+    public static final String METRIC_STARTUP_SNAPSHOT_WRITE = "taskList.startupSnapshot.write";
+    public static final String METRIC_CLEAR = "taskList.clear";
+    public static final String METRIC_CLEAR_COMPLETED = "taskList.clearCompleted";
+    public static final String METRIC_GET_BY_ID = "taskList.getItemById";
+    public static final String METRIC_ROWS_FETCHED = "taskList.rowsFetched";
+    public static final String METRIC_ROWS_INSERTED = "taskList.rowsInserted";
+    public static final String METRIC_QUEUE_DEPTH = "taskList.queueDepth";
+    public static final String METRIC_QUEUE_WAIT = "taskList.queueWait";
+
+    private final TaskStore taskStore;
+    private final LevelLogger logger;
+    private final MetricsRegistry metrics;
+    private final ModelScheduler scheduler;
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final FrameBatcher frameBatcher;
+    private final ListDiffer<TaskItem> differ;
+
+    //we use this to synchronize access to the store
+    private final Object dbMonitor = new Object();
+
+    //set while a refresh is waiting to start, any more requests until then get the same refresh
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+
+    //REFRESH lane only, false until the first load (which is done progressively) has finished
+    private boolean loadedFromDb = false;
+
+    //lets us answer getItemById() from memory most of the time
+    private final TaskItemCache taskItemCache = new TaskItemCache(ITEM_CACHE_SIZE);
+
+    //we don't use a cursor here, so we do maintain an in memory copy of the entire db, it is
+    //only ever replaced as a whole (on the UI thread) so any thread can read it without locking
+    private volatile TaskListSnapshot snapshot;
+
+    //version of the snapshot whose DiffSpec has been handed out already, UI thread only
+    private long diffSpecConsumedVersion = -1;
+
+    //finer grained alternatives to observing this model as a whole
+    private final ChangeChannel listChannel;
+    private final ChangeChannel countsChannel;
+    private final ChangeChannel filterChannel;
+
+    //opt in alternative to observing this model, see subscribe()
+    private final ConflatingPublisher<TaskListSnapshot> snapshotPublisher = new ConflatingPublisher<>();
+
+    //completed state changes which are showing in the list but might not have hit the db yet
+    private final ConcurrentMap<Long, Boolean> pendingCompletedChanges = new ConcurrentHashMap<>();
+
+    //clears which are showing in the list but might not have hit the db yet
+    private final AtomicInteger pendingClears = new AtomicInteger(0);
+    private final AtomicInteger pendingCompletedClears = new AtomicInteger(0);
+
+    //add(), update(), remove(), setCompleted(), clear() and clearCompleted() share transactions
+    //and are committed in the order they were made, see GroupCommitWriter
+    private final GroupCommitWriter writer;
+
+    //removes soft deleted rows for good, when the app is idle
+    private final TaskCompactor compactor;
+
+    //export / import of backup files, see exportTaskItems()
+    private final TaskArchiveProgress archiveProgress;
+
+    //see restoreStartupSnapshot(), null until that's called
+    private volatile File startupSnapshotFile;
+
+    //what's in the startup snapshot file right now, REFRESH lane only (once restored)
+    private StartupSnapshot savedStartupSnapshot;
+
+    /**
+     * This <strong>filter</strong> flag drives the "main" window into the data (the list that
+     * size() and get() expose).
+     * <p>
+     * Every refresh loads all the rows once and the filter is applied in memory, so the snapshot
+     * always has the full list too. Any other windows into the data (an "admin" page which shows
+     * everything no matter what this flag says, a search screen etc) should be a
+     * {@link FilteredTaskListModel} which derives its list from this class's snapshots without
+     * going anywhere near the db.
+     */
+    private volatile Filter filter = Filter.ALL;
+
+    /**
+     * The order the db returns the rows in, see {@link SortOrder}. Changing it is just another
+     * refresh: the items are keyed by id, so the DiffSpec describes the change as moves and the
+     * views that are already bound are moved rather than rebound
+     */
+    private volatile SortOrder sortOrder = SortOrder.NEWEST_FIRST;
+
+    @Inject
+    public TaskListModel(TaskStore taskStore, Logger logger, MetricsRegistry metrics, ModelScheduler scheduler, SystemTimeWrapper systemTimeWrapper,
+                         FrameBatcher frameBatcher, ListDiffer<TaskItem> differ, WorkMode workMode) {
+        super(frameBatcher);
+
+        this.taskStore = Affirm.notNull(taskStore);
+        this.logger = LevelLogger.wrap(logger);
+        this.metrics = Affirm.notNull(metrics);
+        this.scheduler = Affirm.notNull(scheduler);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.frameBatcher = Affirm.notNull(frameBatcher);
+        this.differ = Affirm.notNull(differ);
+        this.compactor = new TaskCompactor(taskStore, dbMonitor, scheduler, systemTimeWrapper,
+                this.logger, metrics, TaskCompactor.DEFAULT_TOMBSTONE_RETENTION_MS);
+        this.writer = new GroupCommitWriter(taskStore, dbMonitor, scheduler, this.logger, metrics, workMode,
+                GroupCommitWriter.DEFAULT_WINDOW_MS);
+        this.archiveProgress = new TaskArchiveProgress(frameBatcher);
+        this.listChannel = new ChangeChannel(frameBatcher);
+        this.countsChannel = new ChangeChannel(frameBatcher);
+        this.filterChannel = new ChangeChannel(frameBatcher);
+
+        publishSnapshot(new TaskListSnapshot(new TaskItem[0], new TaskItem[0], 0, 0, filter, sortOrder, null, createFullDiffSpec(systemTimeWrapper), 0));
+
+        //hook into the store's change notifications and forward the updates to our own observers
+        taskStore.addChangeListener(this::fetchLatestFromDb);
+    }
+
+    /**
+     * Call once at startup, before the first fetchLatestFromDb(). Shows the top of the list as it
+     * was at the end of the last session straight away: the file is small and is read with one
+     * sequential read on the calling thread, so the first frame can have the list in it well
+     * before the db has been opened. The first refresh then replaces it with what the db says,
+     * which normally looks identical.
+     * <p>
+     * From then on the file is rewritten (on the REFRESH lane) after any refresh that changes
+     * the top of the list. A snapshot saved with a different filter or sort order to the one the
+     * model has now is ignored.
+     */
+    public void restoreStartupSnapshot(File file) {
+
+        logger.i(LOG_TAG, "restoreStartupSnapshot()");
+
+        Affirm.notNull(file);
+
+        long start = metrics.start();
+        StartupSnapshot startupSnapshot;
+        try {
+            startupSnapshot = StartupSnapshot.read(file);
+        } catch (IOException e) {
+            logger.w(LOG_TAG, "couldn't read startup snapshot", e);
+            startupSnapshot = null;
+        }
+        metrics.stop(METRIC_STARTUP_SNAPSHOT_READ, start);
+
+        savedStartupSnapshot = startupSnapshot;
+        startupSnapshotFile = file;
+
+        TaskListSnapshot currentSnapshot = snapshot;
+        if (startupSnapshot == null
+                || currentSnapshot.getVersion() != 0
+                || startupSnapshot.filter != filter
+                || startupSnapshot.sortOrder != sortOrder) {
+            return;
+        }
+
+        logger.i(LOG_TAG, "restoreStartupSnapshot() showing {} items", startupSnapshot.items.length);
+
+        //only the top of the list, the counts are for the whole list though
+        publishSnapshot(new TaskListSnapshot(
+                startupSnapshot.items,
+                startupSnapshot.items,
+                startupSnapshot.allTasksCount,
+                startupSnapshot.completedTasksCount,
+                startupSnapshot.filter,
+                startupSnapshot.sortOrder,
+                null,
+                createFullDiffSpec(systemTimeWrapper),
+                currentSnapshot.getVersion() + 1));
+
+        notifyObservers();
+    }
+
+    public void fetchLatestFromDb() {
+
+        logger.i(LOG_TAG, "1 fetchLatestFromDb()");
+
+        if (!refreshQueued.compareAndSet(false, true)) {
+            logger.d(LOG_TAG, "refresh already queued");
+            return;
+        }
+
+        final long queuedAt = enqueue();
+
+        final TaskListSnapshot queuedSnapshot = snapshot;
+
+        scheduler.execute(Lane.REFRESH, () -> {
+
+            //anything that changes after this point needs another refresh
+            refreshQueued.set(false);
+
+            dequeue(queuedAt);
+
+            logger.i(LOG_TAG, "2 asking for latest data");
+
+            long cacheGeneration = taskItemCache.getGeneration();
+
+            SortOrder currentSortOrder = sortOrder;
+            Filter currentFilter = filter;
+
+            //read before the query: once these drop to zero the clear is already in the db
+            RefreshedList refreshedList = new RefreshedList(currentFilter,
+                    pendingClears.get() > 0, pendingCompletedClears.get() > 0);
+
+            TaskListSnapshot oldSnapshot = queuedSnapshot;
+
+            long start = metrics.start();
+
+            if (loadedFromDb) {
+                List<TaskItemEntity> dbList;
+                synchronized (dbMonitor) {
+                    dbList = queryAll(currentSortOrder);
+                }
+                refreshedList.addAll(dbList);
+            } else {
+                oldSnapshot = loadProgressively(refreshedList, currentSortOrder, oldSnapshot, queuedAt);
+                loadedFromDb = true;
+                //tombstones from earlier sessions will have aged out by now, whereas the ones a
+                //delete or clear in this session makes won't have, so this is where most get purged
+                compactor.requestCompaction();
+            }
+
+            metrics.stop(METRIC_LIST_QUERY, start);
+            metrics.recordValue(METRIC_ROWS_FETCHED, refreshedList.rowsRead);
+
+            List<TaskItem> allList = refreshedList.allList;
+            List<TaskItem> newList = refreshedList.visibleList;
+            int completedCount = refreshedList.completedCount;
+
+            //the db put that item in with the wrong group
+            if (refreshedList.pendingApplied && currentSortOrder == SortOrder.ACTIVE_FIRST) {
+                Collections.sort(allList, currentSortOrder.comparator);
+                if (newList != allList) {
+                    Collections.sort(newList, currentSortOrder.comparator);
+                }
+            }
+
+            taskItemCache.fill(allList, cacheGeneration);
+
+            logger.i(LOG_TAG, "3 old list size ({}) new list size:({})", oldSnapshot.size(), newList.size());
+
+            start = metrics.start();
+
+            // after about 1000 rows, diffing begins to get way too slow, so we forget
+            // about animating changes to the list after that
+            ListDiff diff;
+            if (oldSnapshot.size() < 1000 && newList.size() < 1000) {
+                diff = differ.calculateDiff(oldSnapshot.getItems(), newList);
+            } else {
+                diff = null;
+            }
+
+            //only derived models need this
+            TaskChangeSet changeSet = snapshotPublisher.hasSubscribers()
+                    ? TaskChangeSet.between(oldSnapshot.getAllItems(), allList)
+                    : null;
+
+            metrics.stop(METRIC_DIFF, start);
+
+            TaskItem[] allItems = allList.toArray(new TaskItem[allList.size()]);
+
+            TaskListSnapshot newSnapshot = new TaskListSnapshot(
+                    currentFilter == Filter.ALL ? allItems : newList.toArray(new TaskItem[newList.size()]),
+                    allItems,
+                    allItems.length,
+                    completedCount,
+                    currentFilter,
+                    currentSortOrder,
+                    changeSet,
+                    new DiffSpec(diff, systemTimeWrapper),
+                    oldSnapshot.getVersion() + 1);
+
+            //so that indexOfId() is never the first to need it on the UI thread
+            newSnapshot.positionsById();
+
+            saveStartupSnapshot(newSnapshot);
+
+            //hop back to the UI thread to update the UI
+            return newSnapshot;
+        }, newSnapshot -> {
+
+            logger.i(LOG_TAG, "4 updating in memory copy");
+
+            //we defer to whatever the db says here so that we don't get out of sync, but if
+            //the list was changed while we were in the background (an optimistic toggle) the
+            //diff was made against an old list and can't be used
+            TaskListSnapshot currentSnapshot = snapshot;
+            if (newSnapshot.getVersion() == currentSnapshot.getVersion() + 1) {
+                publishSnapshot(newSnapshot);
+            } else {
+                publishSnapshot(newSnapshot.rebase(createFullDiffSpec(systemTimeWrapper), currentSnapshot.getVersion() + 1));
+            }
+
+            //notify immediately so that the changes are picked up
+            notifyObservers();
+
+            metrics.stop(METRIC_FETCH, queuedAt);
+        });
+    }
+
+    /**
+     * The first load only. Publishes the first page as soon as it has been read, so the time to
+     * the first rows doesn't depend on the size of the table, then reads the rest in pages that
+     * grow each time (so the OFFSET walks add up to a little more than one pass of the index),
+     * publishing each page as it goes with a DiffSpec against the one before.
+     * <p>
+     * The db is held throughout, as it would be for one big query, so the pages are consistent
+     * with each other. Later refreshes always load the whole list in one go: publishing part of
+     * a list the user has already seen in full would look like most of it had been deleted.
+     *
+     * @return the last snapshot published, the complete list gets diffed against this
+     */
+    //REFRESH lane
+    private TaskListSnapshot loadProgressively(RefreshedList refreshedList, SortOrder sortOrder,
+                                               TaskListSnapshot oldSnapshot, long queuedAt) {
+
+        PagedQuery pagedQuery = new PagedQuery(taskStore, sortOrder);
+        TaskListSnapshot published = oldSnapshot;
+        int pageSize = FIRST_PAGE_SIZE;
+
+        synchronized (dbMonitor) {
+            while (true) {
+
+                refreshedList.addAll(pagedQuery.next(pageSize));
+
+                //the last page goes out with the complete list as usual
+                if (pagedQuery.isFinished()) {
+                    break;
+                }
+
+                if (published == oldSnapshot) {
+                    metrics.stop(METRIC_FIRST_PAGE, queuedAt);
+                }
+
+                published = publishPartial(published, refreshedList, sortOrder);
+                pageSize *= PAGE_GROWTH;
+            }
+        }
+
+        return published;
+    }
+
+    //REFRESH lane
+    private TaskListSnapshot publishPartial(TaskListSnapshot previous, RefreshedList refreshedList, SortOrder sortOrder) {
+
+        TaskItem[] allItems = refreshedList.allList.toArray(new TaskItem[refreshedList.allList.size()]);
+        TaskItem[] items = refreshedList.filter == Filter.ALL
+                ? allItems
+                : refreshedList.visibleList.toArray(new TaskItem[refreshedList.visibleList.size()]);
+
+        ListDiff diff = previous.size() < 1000 && items.length < 1000
+                ? differ.calculateDiff(previous.getItems(), Arrays.asList(items))
+                : null;
+
+        logger.d(LOG_TAG, "publishPartial() {} rows so far", allItems.length);
+
+        //the real counts aren't known until the end, the restored startup snapshot's counts (if
+        //there was one) are probably right, so those are kept until they are overtaken
+        TaskListSnapshot partial = new TaskListSnapshot(
+                items,
+                allItems,
+                Math.max(allItems.length, previous.getAllTasksCount()),
+                Math.max(refreshedList.completedCount, previous.getCompletedTasksCount()),
+                refreshedList.filter,
+                sortOrder,
+                null,
+                new DiffSpec(diff, systemTimeWrapper),
+                previous.getVersion() + 1);
+
+        scheduler.getUiExecutor().execute(() -> {
+            TaskListSnapshot currentSnapshot = snapshot;
+            if (partial.getVersion() == currentSnapshot.getVersion() + 1) {
+                publishSnapshot(partial);
+            } else {
+                publishSnapshot(partial.rebase(createFullDiffSpec(systemTimeWrapper), currentSnapshot.getVersion() + 1));
+            }
+            notifyObservers();
+        });
+
+        return partial;
+    }
+
+    //REFRESH lane
+    private void saveStartupSnapshot(TaskListSnapshot newSnapshot) {
+
+        File file = startupSnapshotFile;
+        if (file == null) {
+            return;
+        }
+
+        //most refreshes don't change the top of the list
+        StartupSnapshot startupSnapshot = StartupSnapshot.of(newSnapshot);
+        if (startupSnapshot.looksTheSameAs(savedStartupSnapshot)) {
+            return;
+        }
+
+        long start = metrics.start();
+        try {
+            startupSnapshot.write(file);
+            savedStartupSnapshot = startupSnapshot;
+        } catch (IOException e) {
+            logger.w(LOG_TAG, "couldn't save startup snapshot", e);
+        }
+        metrics.stop(METRIC_STARTUP_SNAPSHOT_WRITE, start);
+    }
+
+    //common db operations
+
+    public void add(TaskItem taskItem) {
+
+        logger.i(LOG_TAG, "add()");
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        writer.submit(taskStore -> taskStore.insertTaskItem(taskItem.getEntity()),
+                new QueuedWrite(queuedAt, METRIC_ADD), null);
+    }
+
+    public void remove(TaskItem taskItem) {
+
+        logger.i(LOG_TAG, "remove()");
+
+        taskItemCache.invalidate(taskItem.getEntityId());
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        writer.submit(taskStore -> taskStore.softDeleteTaskItem(taskItem.getEntityId(), systemTimeWrapper.currentTimeMillis()),
+                new QueuedWrite(queuedAt, METRIC_REMOVE), (succeeded, rows) -> compactor.requestCompaction());
+    }
+
+    public void update(TaskItem taskItem) {
+
+        logger.i(LOG_TAG, "update()");
+
+        if (taskItem.getEntity().getId() == 0){ //this isn't in the database yet, lets add it instead
+            add(taskItem);
+            return;
+        }
+
+        taskItemCache.invalidate(taskItem.getEntityId());
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        writer.submit(taskStore -> taskStore.updateTaskItem(taskItem.getEntity()),
+                new QueuedWrite(queuedAt, METRIC_UPDATE), null);
+    }
+
+    public void addMany(List<TaskItem> taskItems) {
+
+        logger.i(LOG_TAG, "addMany()");
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        scheduler.execute(Lane.BULK, () -> {
+
+            dequeue(queuedAt);
+
+            List<TaskItemEntity> taskItemEntities = new ArrayList<>(taskItems.size());
+
+            for (TaskItem taskItem : taskItems) {
+                taskItemEntities.add(taskItem.getEntity());
+            }
+
+            long start = metrics.start();
+            insertInChunks(taskItemEntities);
+            metrics.stop(METRIC_ADD_MANY, start);
+            metrics.recordValue(METRIC_ROWS_INSERTED, taskItemEntities.size());
+        });
+    }
+
+    public void addManyFilterOutDuplicates(List<TaskItem> taskItems) {
+        addManyFilterOutDuplicates(taskItems, rowsInserted -> {
+        });
+    }
+
+    /**
+     * @param successCallback called on the UI thread once the items are in the db, with the
+     *                        number that weren't duplicates
+     */
+    public void addManyFilterOutDuplicates(List<TaskItem> taskItems, final SuccessCallbackWithPayload<Integer> successCallback) {
+
+        logger.i(LOG_TAG, "addManyFilterOutDuplicates()");
+
+        Affirm.notNull(successCallback);
+
+        final long queuedAt = enqueue();
+
+        //the store will keep us informed of changes
+        scheduler.execute(Lane.BULK, () -> {
+
+            dequeue(queuedAt);
+
+            List<TaskItemEntity> taskItemEntities = new ArrayList<>(taskItems.size());
+
+            long start = metrics.start();
+
+            List<TaskItemEntity> dbItems;
+            synchronized (dbMonitor) {
+                dbItems = taskStore.getAllTaskItems();
+            }
+
+            for (TaskItem newItem : taskItems) {
+
+                boolean duplicate = false;
+
+                for (TaskItemEntity dbItem : dbItems) {
+                    //naive method to decide if we have a duplicate or not
+                    if (newItem.getTitle().equals(dbItem.getTitle())) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+
+                if (!duplicate) {
+                    taskItemEntities.add(newItem.getEntity());
+                }
+            }
+
+            insertInChunks(taskItemEntities);
+
+            metrics.stop(METRIC_ADD_MANY_NO_DUPLICATES, start);
+            metrics.recordValue(METRIC_ROWS_INSERTED, taskItemEntities.size());
+            return taskItemEntities.size();
+        }, successCallback::success);
+    }
+
+    /**
+     * For large imports. Unlike addMany() the items don't need to be in a list first: the iterator
+     * is read on the BULK lane as the rows are written, so it can stream them from a file or a
+     * network response. The rows go in using one compiled statement per chunk, with one commit
+     * (and one hold of the db) per chunkSize rows, see TaskStore.importTaskItems().
+     * <p>
+     * The iterator must not be touched by anything else until the import is finished. The
+     * list refreshes once per chunk committed, as usual via the store's change notifications.
+     */
+    public void importTaskItems(Iterator<TaskItem> taskItems, int chunkSize) {
+
+        logger.i(LOG_TAG, "importTaskItems()");
+
+        Affirm.notNull(taskItems);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, not:" + chunkSize);
+        }
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        scheduler.execute(Lane.BULK, () -> {
+
+            dequeue(queuedAt);
+
+            Iterator<TaskItemEntity> entities = new Iterator<TaskItemEntity>() {
+                @Override
+                public boolean hasNext() {
+                    return taskItems.hasNext();
+                }
+
+                @Override
+                public TaskItemEntity next() {
+                    return taskItems.next().getEntity();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+            long start = metrics.start();
+            int total = importEntities(entities, chunkSize, null, 0);
+            metrics.stop(METRIC_IMPORT, start);
+            logger.i(LOG_TAG, "importTaskItems() imported {} rows", total);
+        });
+    }
+
+    /**
+     * Writes all the tasks to a backup file, see {@link TaskArchive} for the format. The rows are
+     * read a page at a time in id order (one hold of the db per page) and streamed straight out
+     * to the file, so memory use doesn't grow with the table.
+     * <p>
+     * Progress is published by {@link #getArchiveProgress()}, the callbacks are called on the UI
+     * thread with the number of rows written. If the export fails the file is deleted.
+     */
+    public void exportTaskItems(final File file,
+                                final SuccessCallbackWithPayload<Long> successCallback,
+                                final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        logger.i(LOG_TAG, "exportTaskItems()");
+
+        Affirm.notNull(file);
+        Affirm.notNull(successCallback);
+        Affirm.notNull(failureCallback);
+
+        if (!archiveProgress.start(TaskArchiveProgress.Operation.EXPORT)) {
+            failureCallback.fail(UserMessage.ERROR_BUSY);
+            return;
+        }
+
+        final long queuedAt = enqueue();
+
+        scheduler.execute(Lane.BULK, () -> {
+            dequeue(queuedAt);
+            long start = metrics.start();
+            try {
+                long rows = exportTo(file);
+                metrics.stop(METRIC_EXPORT, start);
+                logger.i(LOG_TAG, "exportTaskItems() exported {} rows", rows);
+                return rows;
+            } catch (IOException | RuntimeException e) {
+                logger.e(LOG_TAG, "exportTaskItems() failed", e);
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return null;
+            } finally {
+                archiveProgress.finish();
+            }
+        }, payload -> {
+            if (payload == null) {
+                failureCallback.fail(UserMessage.ERROR_FILE);
+            } else {
+                successCallback.success(payload);
+            }
+        });
+    }
+
+    /**
+     * Restores tasks from a file written by {@link #exportTaskItems(File, SuccessCallbackWithPayload, FailureCallbackWithPayload)},
+     * they are added as new tasks alongside any that are already there. The file is read through
+     * a memory mapped window and the rows go through the same chunked insert as
+     * {@link #importTaskItems(Iterator, int)}, so memory use doesn't grow with the file.
+     * <p>
+     * Progress is published by {@link #getArchiveProgress()}, the callbacks are called on the UI
+     * thread with the number of rows imported. If the file turns out to be damaged part way
+     * through, the chunks committed up to that point are kept.
+     */
+    public void importTaskItems(final File file, int chunkSize,
+                                final SuccessCallbackWithPayload<Long> successCallback,
+                                final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        logger.i(LOG_TAG, "importTaskItems() from file");
+
+        Affirm.notNull(file);
+        Affirm.notNull(successCallback);
+        Affirm.notNull(failureCallback);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, not:" + chunkSize);
+        }
+
+        if (!archiveProgress.start(TaskArchiveProgress.Operation.IMPORT)) {
+            failureCallback.fail(UserMessage.ERROR_BUSY);
+            return;
+        }
+
+        final long queuedAt = enqueue();
+
+        //fire to the db - the store will keep us informed of changes
+        scheduler.execute(Lane.BULK, () -> {
+            dequeue(queuedAt);
+            long start = metrics.start();
+            try {
+                TaskArchive.Reader reader = new TaskArchive.Reader(file);
+                try {
+                    archiveProgress.update(0, reader.getRowCount());
+                    long rows = importEntities(reader, chunkSize, archiveProgress, reader.getRowCount());
+                    metrics.stop(METRIC_IMPORT, start);
+                    logger.i(LOG_TAG, "importTaskItems() imported {} rows from file", rows);
+                    return rows;
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.e(LOG_TAG, "importTaskItems() from file failed", e);
+                return null;
+            } finally {
+                archiveProgress.finish();
+            }
+        }, payload -> {
+            if (payload == null) {
+                failureCallback.fail(UserMessage.ERROR_FILE);
+            } else {
+                successCallback.success(payload);
+            }
+        });
+    }
+
+    public TaskArchiveProgress getArchiveProgress() {
+        return archiveProgress;
+    }
+
+    //BULK lane
+    private int importEntities(Iterator<TaskItemEntity> entities, int chunkSize,
+                               @Nullable TaskArchiveProgress progress, long rowsTotal) {
+        int total = 0;
+        while (entities.hasNext()) {
+            long chunkStart = metrics.start();
+            synchronized (dbMonitor) {
+                total += taskStore.importTaskItems(entities, chunkSize);
+            }
+            metrics.stop(METRIC_IMPORT_CHUNK, chunkStart);
+            if (progress != null) {
+                progress.update(total, rowsTotal);
+            }
+        }
+        metrics.recordValue(METRIC_ROWS_INSERTED, total);
+        return total;
+    }
+
+    //BULK lane
+    private long exportTo(File file) throws IOException {
+
+        long rowsTotal;
+        synchronized (dbMonitor) {
+            rowsTotal = taskStore.getRowCount();
+        }
+        archiveProgress.update(0, rowsTotal);
+
+        TaskArchive.Writer writer = new TaskArchive.Writer(file);
+        try {
+            int rows;
+            do {
+                synchronized (dbMonitor) {
+                    rows = taskStore.writeTaskItems(writer.getLastId(), EXPORT_PAGE_SIZE, writer);
+                }
+                archiveProgress.update(writer.getRowCount(), Math.max(rowsTotal, writer.getRowCount()));
+            } while (rows > 0);
+        } finally {
+            writer.close();
+        }
+
+        return writer.getRowCount();
+    }
+
+    /**
+     * The list empties straight away (like setCompleted() this doesn't wait for the round trip via
+     * the db). In the db the rows are only marked as deleted, which is one quick UPDATE, the
+     * TaskCompactor removes them for good later when nothing else is going on
+     */
+    public void clear() {
+        clear(failureMessage -> logger.w(LOG_TAG, "clear() failed:" + failureMessage));
+    }
+
+    /**
+     * @param failureCallback called on the UI thread if the rows couldn't be cleared, the list
+     *                        will have gone back to whatever the db says
+     */
+    public void clear(final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        logger.i(LOG_TAG, "clear()");
+
+        Affirm.notNull(failureCallback);
+
+        taskItemCache.invalidateAll();
+
+        //refreshes skip everything until the db has caught up
+        pendingClears.incrementAndGet();
+        removeOptimistically(false);
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        writer.submit(taskStore -> taskStore.clear(systemTimeWrapper.currentTimeMillis()),
+                new QueuedWrite(queuedAt, METRIC_CLEAR) {
+                    @Override
+                    public void finished(boolean succeeded, long rows) {
+                        super.finished(succeeded, rows);
+                        pendingClears.decrementAndGet();
+                        //the refresh the store's listener queued for this commit may already have
+                        //skipped everything, including rows added in the same commit
+                        fetchLatestFromDb();
+                        compactor.requestCompaction();
+                    }
+                }, (succeeded, rows) -> {
+                    if (!succeeded) {
+                        failureCallback.fail(UserMessage.ERROR_NOT_SAVED);
+                    }
+                });
+    }
+
+    /**
+     * As for {@link #clear()}, but only the completed items
+     */
+    public void clearCompleted() {
+        clearCompleted(failureMessage -> logger.w(LOG_TAG, "clearCompleted() failed:" + failureMessage));
+    }
+
+    /**
+     * As for {@link #clear(FailureCallbackWithPayload)}, but only the completed items
+     */
+    public void clearCompleted(final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        logger.i(LOG_TAG, "clearCompleted()");
+
+        Affirm.notNull(failureCallback);
+
+        taskItemCache.invalidateAll();
+
+        //refreshes skip completed items until the db has caught up
+        pendingCompletedClears.incrementAndGet();
+        removeOptimistically(true);
+
+        final long queuedAt = enqueue();
+
+        //fire to the db and forget - the store will keep us informed of changes
+        writer.submit(taskStore -> taskStore.clearCompleted(systemTimeWrapper.currentTimeMillis()),
+                new QueuedWrite(queuedAt, METRIC_CLEAR_COMPLETED) {
+                    @Override
+                    public void finished(boolean succeeded, long rows) {
+                        super.finished(succeeded, rows);
+                        pendingCompletedClears.decrementAndGet();
+                        //as for clear()
+                        fetchLatestFromDb();
+                        compactor.requestCompaction();
+                    }
+                }, (succeeded, rows) -> {
+                    if (!succeeded) {
+                        failureCallback.fail(UserMessage.ERROR_NOT_SAVED);
+                    }
+                });
+    }
+
+    public void add(String title, String description) {
+
+        Affirm.notNull(title);
+        Affirm.notNull(description);
+
+        add(new TaskItem(systemTimeWrapper.currentTimeMillis(), title, description));
+    }
+
+
+    //other getters/setters for our model
+
+    public void setFilter(Filter filter) {
+        Affirm.notNull(filter);
+        if (this.filter != filter) {
+            this.filter = filter;
+            filterChannel.notifyObservers();
+        }
+        fetchLatestFromDb(); //notifyObservers() will get called at the end of the db fetch
+    }
+
+    public Filter getCurrentFilter() {
+        return filter;
+    }
+
+    public void setSortOrder(SortOrder sortOrder) {
+        this.sortOrder = Affirm.notNull(sortOrder);
+        fetchLatestFromDb(); //notifyObservers() will get called at the end of the db fetch
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    // methods that let us drive a view adapter easily
+
+    public TaskItem get(int index) {
+        TaskListSnapshot currentSnapshot = snapshot;
+        checkIndex(currentSnapshot, index);
+        return currentSnapshot.get(index);
+    }
+
+    /**
+     * @return the current state of the list, this never changes once you have it so it's safe to
+     * hold on to and read from any thread
+     */
+    public TaskListSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return the position of the item with this entity id in the list that size() and get()
+     * expose, or -1 if it isn't there (it might be filtered out, or not loaded yet). A hash
+     * lookup, not a scan
+     */
+    public int indexOfId(long entityId) {
+        return snapshot.indexOfId(entityId);
+    }
+
+    /**
+     * @return the item with this entity id if it's in the list that size() and get() expose,
+     * otherwise null. Unlike {@link #getCachedItemById(long)} this is the item in the list, not
+     * a copy, treat it as read only
+     */
+    @Nullable
+    public TaskItem getById(long entityId) {
+        return snapshot.getById(entityId);
+    }
+
+    /**
+     * @return a copy of the item if we have it in memory, otherwise null, in which case use
+     * {@link #getItemById(long, SuccessCallbackWithPayload, FailureCallbackWithPayload)}
+     */
+    @Nullable
+    public TaskItem getCachedItemById(long entityId) {
+        return taskItemCache.get(entityId);
+    }
+
+    /**
+     * The callbacks are called straight away, before this method returns, if the item is in
+     * memory. Otherwise the item is fetched from the db and the callbacks are called on the UI thread
+     */
+    public void getItemById(long entityId,
+                            final SuccessCallbackWithPayload<TaskItem> successCallback,
+                            final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        TaskItem cachedItem = taskItemCache.get(entityId);
+        if (cachedItem != null) {
+            successCallback.success(cachedItem);
+            return;
+        }
+
+        final long queuedAt = enqueue();
+
+        scheduler.execute(Lane.INTERACTIVE, () -> {
+            dequeue(queuedAt);
+            long start = metrics.start();
+            TaskItemEntity taskItemEntity;
+            synchronized (dbMonitor) {
+                taskItemEntity = taskStore.getTaskItem(entityId);
+            }
+            metrics.stop(METRIC_GET_BY_ID, start);
+            if (taskItemEntity == null) {
+                return null;
+            }
+            taskItemCache.put(taskItemEntity);
+            return new TaskItem(taskItemEntity);
+        }, payload -> {
+            if (payload == null) {
+                failureCallback.fail(UserMessage.ERROR_NOT_FOUND);
+            } else {
+                successCallback.success(payload);
+            }
+        });
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public boolean hasVisibleTasks() {
+        return size() > 0;
+    }
+
+    public int getAllTasksCount() {
+        return snapshot.getAllTasksCount();
+    }
+
+    public int getCompletedTasksCount() {
+        return snapshot.getCompletedTasksCount();
+    }
+
+    public int getActiveTasksCount() {
+        return snapshot.getActiveTasksCount();
+    }
+
+    public void setCompleted(boolean completed, int index) {
+        setCompleted(completed, index, failureMessage -> logger.w(LOG_TAG, "setCompleted() failed:" + failureMessage));
+    }
+
+    public void toggleCompleted(int index) {
+        toggleCompleted(index, failureMessage -> logger.w(LOG_TAG, "toggleCompleted() failed:" + failureMessage));
+    }
+
+    /**
+     * See {@link #setCompleted(boolean, int, FailureCallbackWithPayload)}
+     *
+     * @return the new completed state of the item
+     */
+    public boolean toggleCompleted(int index, FailureCallbackWithPayload<UserMessage> failureCallback) {
+        boolean completed = !get(index).isCompleted();
+        setCompleted(completed, index, failureCallback);
+        return completed;
+    }
+
+    /**
+     * Unlike other changes, this one is applied to the in memory list (and the DiffSpec) straight
+     * away, rather than waiting for the round trip via the db and the invalidation tracker, so
+     * that the user gets instant feedback even if the db is busy.
+     * <p>
+     * The change is recorded as pending until the write completes, any refresh that arrives
+     * before then has the change re-applied so that the item doesn't flicker back. If the write
+     * fails, the change is rolled back by re-fetching from the db and the failureCallback is called
+     * on the UI thread with {@link UserMessage#ERROR_NOT_SAVED}
+     */
+    public void setCompleted(boolean completed, int index, final FailureCallbackWithPayload<UserMessage> failureCallback) {
+
+        logger.i(LOG_TAG, "setCompleted()");
+
+        Affirm.notNull(failureCallback);
+
+        TaskListSnapshot oldSnapshot = snapshot;
+        checkIndex(oldSnapshot, index);
+
+        TaskItem oldItem = oldSnapshot.get(index);
+        if (oldItem.isCompleted() == completed) {
+            return;
+        }
+
+        final long entityId = oldItem.getEntityId();
+        final TaskItem newItem = withCompleted(oldItem, completed);
+
+        //update the in memory copy first, the item may move (ACTIVE_FIRST) or leave the list (filter)
+        Comparator<TaskItem> order = oldSnapshot.getSortOrder().comparator;
+        TaskItem[] newAllItems = replaceSorted(oldSnapshot.getAllItems(), entityId, newItem, order);
+        TaskItem[] newItems;
+        if (oldSnapshot.getFilter() == Filter.ALL) {
+            newItems = newAllItems;
+        } else {
+            newItems = replaceSorted(oldSnapshot.getItems(), entityId,
+                    oldSnapshot.getFilter().includes(completed) ? newItem : null, order);
+        }
+        ListDiff diff = oldSnapshot.size() < 1000
+                ? differ.calculateDiff(oldSnapshot.getItems(), Arrays.asList(newItems))
+                : null;
+        //if the item didn't move or leave the list, nothing else did either
+        boolean samePositions = newItems.length == oldSnapshot.size() && newItems[index].getEntityId() == entityId;
+        publishSnapshot(new TaskListSnapshot(
+                newItems,
+                newAllItems,
+                oldSnapshot.getAllTasksCount(),
+                oldSnapshot.getCompletedTasksCount() + (completed ? 1 : -1),
+                oldSnapshot.getFilter(),
+                oldSnapshot.getSortOrder(),
+                TaskChangeSet.upsert(newItem),
+                new DiffSpec(diff, systemTimeWrapper),
+                oldSnapshot.getVersion() + 1,
+                samePositions ? oldSnapshot.positionsByIdIfBuilt() : null));
+        pendingCompletedChanges.put(entityId, completed);
+        taskItemCache.invalidate(entityId);
+
+        notifyObservers();
+
+        //then write to the db
+        final long queuedAt = enqueue();
+
+        final TaskItemEntity taskItemEntity = new TaskItemEntity(newItem.getEntity());
+
+        writer.submit(taskStore -> taskStore.updateTaskItem(taskItemEntity),
+                new QueuedWrite(queuedAt, METRIC_UPDATE), (succeeded, rows) -> {
+            //only if there hasn't been another change to this item since
+            pendingCompletedChanges.remove(entityId, completed);
+            if (!succeeded || rows != 1) {
+                fetchLatestFromDb(); //roll back to whatever the db says
+                failureCallback.fail(UserMessage.ERROR_NOT_SAVED);
+            }
+        });
+    }
+
+    /**
+     * Push based alternative to observing this model and then pulling state with size(),
+     * get() and the count getters on the UI thread.
+     * <p>
+     * The subscriber is called on the executor passed in (which can be a background thread) with
+     * an immutable {@link TaskListSnapshot} each time the list changes, starting with the current
+     * one. Slow subscribers only ever get the latest snapshot, any they were too slow for are
+     * dropped, in which case missedUpdates will be true and the snapshot's change set should be
+     * ignored.
+     * <p>
+     * Remember to cancel the subscription when you're done with it.
+     */
+    public ConflatingPublisher.Subscription subscribe(Executor executor, ConflatingPublisher.Subscriber<TaskListSnapshot> subscriber) {
+        return snapshotPublisher.subscribe(executor, subscriber);
+    }
+
+    /**
+     * @return a new window into this model's data with its own filter, search and order, see
+     * {@link FilteredTaskListModel}. Call release() on it when you're done with it
+     */
+    public FilteredTaskListModel createFilteredView(Filter filter) {
+        return new FilteredTaskListModel(this, filter, scheduler, systemTimeWrapper, logger, frameBatcher, differ);
+    }
+
+    /**
+     * Fires when the visible list changes in any way: items added, removed, moved or changed
+     */
+    public ChangeChannel getListChannel() {
+        return listChannel;
+    }
+
+    /**
+     * Fires when any of getAllTasksCount(), getCompletedTasksCount() or getActiveTasksCount()
+     * change, and not otherwise (editing a task's title doesn't move the counts for example)
+     */
+    public ChangeChannel getCountsChannel() {
+        return countsChannel;
+    }
+
+    /**
+     * Fires when getCurrentFilter() changes, which is straight away, before the refreshed list
+     * arrives on the list channel
+     */
+    public ChangeChannel getFilterChannel() {
+        return filterChannel;
+    }
+
+    //UI thread only, this is the only place the snapshot changes
+    private void publishSnapshot(TaskListSnapshot newSnapshot) {
+
+        TaskListSnapshot oldSnapshot = snapshot;
+        snapshot = newSnapshot;
+        snapshotPublisher.publish(newSnapshot);
+
+        //the very first snapshot (from the constructor) is nothing to tell anyone about
+        if (oldSnapshot == null) {
+            return;
+        }
+        listChannel.notifyObservers();
+        if (oldSnapshot.getAllTasksCount() != newSnapshot.getAllTasksCount()
+                || oldSnapshot.getCompletedTasksCount() != newSnapshot.getCompletedTasksCount()) {
+            countsChannel.notifyObservers();
+        }
+    }
+
+    //UI thread
+    private void removeOptimistically(boolean completedOnly) {
+
+        TaskListSnapshot oldSnapshot = snapshot;
+
+        List<TaskItem> remaining = new ArrayList<>();
+        if (completedOnly) {
+            for (TaskItem taskItem : oldSnapshot.getAllItems()) {
+                if (!taskItem.isCompleted()) {
+                    remaining.add(taskItem);
+                }
+            }
+        }
+        TaskItem[] newAllItems = remaining.toArray(new TaskItem[remaining.size()]);
+
+        //whatever is left is active, so it's all or nothing for the filtered list
+        TaskItem[] newItems = oldSnapshot.getFilter().includes(false) ? newAllItems : new TaskItem[0];
+
+        ListDiff diff = oldSnapshot.size() < 1000
+                ? differ.calculateDiff(oldSnapshot.getItems(), Arrays.asList(newItems))
+                : null;
+        publishSnapshot(new TaskListSnapshot(
+                newItems,
+                newAllItems,
+                newAllItems.length,
+                0,
+                oldSnapshot.getFilter(),
+                oldSnapshot.getSortOrder(),
+                snapshotPublisher.hasSubscribers() ? TaskChangeSet.between(oldSnapshot.getAllItems(), remaining) : null,
+                new DiffSpec(diff, systemTimeWrapper),
+                oldSnapshot.getVersion() + 1));
+
+        notifyObservers();
+    }
+
+    /**
+     * @return a copy of the sorted list without the item with this id, and with newItem (if
+     * there is one) at its sorted position
+     */
+    private static TaskItem[] replaceSorted(List<TaskItem> sortedItems, long entityId, @Nullable TaskItem newItem, Comparator<TaskItem> order) {
+        List<TaskItem> list = new ArrayList<>(sortedItems.size());
+        for (TaskItem taskItem : sortedItems) {
+            if (taskItem.getEntityId() != entityId) {
+                list.add(taskItem);
+            }
+        }
+        if (newItem != null) {
+            int position = Collections.binarySearch(list, newItem, order);
+            list.add(position < 0 ? -position - 1 : position, newItem);
+        }
+        return list.toArray(new TaskItem[list.size()]);
+    }
+
+    //the store has one query per sort order, in sqlite each one is served straight from an index
+    private List<TaskItemEntity> queryAll(SortOrder sortOrder) {
+        switch (sortOrder) {
+            case OLDEST_FIRST:
+                return taskStore.getAllTaskItemsOldestFirst();
+            case TITLE:
+                return taskStore.getAllTaskItemsByTitle();
+            case ACTIVE_FIRST:
+                return taskStore.getAllTaskItemsActiveFirst();
+            default:
+                return taskStore.getAllTaskItems();
+        }
+    }
+
+    /**
+     * The rows of one refresh as they are read from the db, with the changes that are showing
+     * but haven't hit the db yet applied, see setCompleted() and clear()
+     */
+    private class RefreshedList {
+
+        final Filter filter;
+        final List<TaskItem> allList = new ArrayList<>();
+        final List<TaskItem> visibleList;
+        int completedCount = 0;
+        int rowsRead = 0;
+        boolean pendingApplied = false;
+
+        private final boolean skipAll;
+        private final boolean skipCompleted;
+
+        RefreshedList(Filter filter, boolean skipAll, boolean skipCompleted) {
+            this.filter = filter;
+            this.visibleList = filter == Filter.ALL ? allList : new ArrayList<>();
+            this.skipAll = skipAll;
+            this.skipCompleted = skipCompleted;
+        }
+
+        void addAll(List<TaskItemEntity> dbList) {
+
+            rowsRead += dbList.size();
+
+            for (TaskItemEntity taskItemEntity : dbList) {
+
+                TaskItem taskItem = new TaskItem(taskItemEntity);
+
+                Boolean pendingCompleted = pendingCompletedChanges.get(taskItemEntity.getId());
+                if (pendingCompleted != null && pendingCompleted != taskItemEntity.isCompleted()) {
+                    //the db hasn't caught up with a change that's already showing, keep showing it
+                    taskItem = withCompleted(taskItem, pendingCompleted);
+                    pendingApplied = true;
+                }
+
+                //the db hasn't caught up with a clear that's already showing
+                if (skipAll || (skipCompleted && taskItem.isCompleted())) {
+                    continue;
+                }
+
+                allList.add(taskItem);
+                if (taskItem.isCompleted()) {
+                    completedCount++;
+                }
+                if (filter != Filter.ALL && filter.includes(taskItem.isCompleted())) {
+                    visibleList.add(taskItem);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks a whole sort order a page at a time, ACTIVE_FIRST walks the active rows and then
+     * the completed ones (see TaskItemDao.getAllTaskItemsActiveFirst())
+     */
+    private static class PagedQuery {
+
+        private final TaskStore taskStore;
+        private final SortOrder sortOrder;
+        private int offset = 0;
+        private boolean completedGroup = false;
+        private boolean finished = false;
+
+        PagedQuery(TaskStore taskStore, SortOrder sortOrder) {
+            this.taskStore = Affirm.notNull(taskStore);
+            this.sortOrder = Affirm.notNull(sortOrder);
+        }
+
+        List<TaskItemEntity> next(int limit) {
+
+            List<TaskItemEntity> page;
+            switch (sortOrder) {
+                case OLDEST_FIRST:
+                    page = taskStore.getAllTaskItemsOldestFirst(limit, offset);
+                    break;
+                case TITLE:
+                    page = taskStore.getAllTaskItemsByTitle(limit, offset);
+                    break;
+                case ACTIVE_FIRST:
+                    page = taskStore.getTaskItems(completedGroup, limit, offset);
+                    if (page.size() < limit && !completedGroup) {
+                        //run straight on into the completed rows
+                        completedGroup = true;
+                        offset = -page.size();
+                        page.addAll(taskStore.getTaskItems(true, limit - page.size(), 0));
+                    }
+                    break;
+                default:
+                    page = taskStore.getAllTaskItems(limit, offset);
+                    break;
+            }
+
+            offset += page.size();
+            finished = page.size() < limit;
+            return page;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private static TaskItem withCompleted(TaskItem taskItem, boolean completed) {
+        TaskItemEntity taskItemEntity = new TaskItemEntity(taskItem.getEntity());
+        taskItemEntity.setCompleted(completed);
+        return new TaskItem(taskItemEntity);
+    }
+
+    /**
+     * Only holds the dbMonitor for one chunk at a time, so a large import doesn't hold up the
+     * INTERACTIVE lane for the whole of its duration
+     */
+    private void insertInChunks(List<TaskItemEntity> taskItemEntities) {
+        for (int start = 0; start < taskItemEntities.size(); start += BULK_CHUNK_SIZE) {
+            List<TaskItemEntity> chunk = taskItemEntities.subList(start, Math.min(start + BULK_CHUNK_SIZE, taskItemEntities.size()));
+            synchronized (dbMonitor) {
+                taskStore.insertManyTaskItems(chunk);
+            }
+        }
+    }
+
+    private long enqueue() {
+        metrics.increment(METRIC_QUEUE_DEPTH);
+        return metrics.start();
+    }
+
+    private void dequeue(long queuedAt) {
+        metrics.decrement(METRIC_QUEUE_DEPTH);
+        metrics.stop(METRIC_QUEUE_WAIT, queuedAt);
+    }
+
+    /**
+     * Counts a write submitted to the GroupCommitWriter once, however many attempts it takes:
+     * dequeued when the writer takes it and timed until it's committed
+     */
+    private class QueuedWrite implements GroupCommitWriter.Hooks {
+
+        private final long queuedAt;
+        private final String timerName;
+        private long start;
+
+        QueuedWrite(long queuedAt, String timerName) {
+            this.queuedAt = queuedAt;
+            this.timerName = timerName;
+        }
+
+        @Override
+        public void started() {
+            dequeue(queuedAt);
+            start = metrics.start();
+        }
+
+        @Override
+        public void finished(boolean succeeded, long result) {
+            metrics.stop(timerName, start);
+        }
+    }
+
+    private void checkIndex(TaskListSnapshot currentSnapshot, int index) {
+        if (currentSnapshot.size() == 0) {
+            throw new IndexOutOfBoundsException("taskItems has no items in it, can not get index:" + index);
+        } else if (index < 0 || index > currentSnapshot.size() - 1) {
+            throw new IndexOutOfBoundsException("taskItems index needs to be between 0 and " + (currentSnapshot.size() - 1) + " not:" + index);
+        }
+    }
+
+
+    /**
+     * If the DiffResult is old, then we assume that whatever changes
+     * were made to the list last time were never picked up by a
+     * recyclerView (maybe because the list was not visible at the time).
+     * In this case we clear the DiffResult and create a fresh one with a
+     * full diff spec.
+     * <p>
+     * Each snapshot's DiffResult only takes the list on from the version
+     * before it. FrameBatcher can merge the notifications for several
+     * snapshots into one, so unless the caller last saw the version just
+     * before this one it gets a full diff spec too.
+     *
+     * @return the latest DiffResult for the list
+     */
+    @Override
+    public DiffSpec getAndClearLatestDiffSpec(long maxAgeMs) {
+
+        TaskListSnapshot currentSnapshot = snapshot;
+
+        //each snapshot's DiffSpec is only handed out once, and only to whoever saw the one before
+        long consumedVersion = diffSpecConsumedVersion;
+        diffSpecConsumedVersion = currentSnapshot.getVersion();
+        if (currentSnapshot.getVersion() != consumedVersion + 1) {
+            return createFullDiffSpec(systemTimeWrapper);
+        }
+
+        DiffSpec latestDiffSpecAvailable = currentSnapshot.getDiffSpec();
+
+        logger.d(LOG_TAG, () -> "maxAge:" + maxAgeMs + " latest timestamp:" + latestDiffSpecAvailable.timeStamp + " current:" + systemTimeWrapper.currentTimeMillis());
+
+        if (systemTimeWrapper.currentTimeMillis() - latestDiffSpecAvailable.timeStamp < maxAgeMs) {
+            return latestDiffSpecAvailable;
+        } else {
+            return createFullDiffSpec(systemTimeWrapper);
+        }
+    }
+
+    private DiffSpec createFullDiffSpec(SystemTimeWrapper stw) {
+        return new DiffSpec(null, stw);
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.diff.DiffSpec;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiff;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+import com.example.android.architecture.blueprints.todoapp.util.LongIntHashMap;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Point in time view of the TaskListModel: the visible items, all the items (before the filter
+ * was applied), the counts, the filter, the sort order and the changes since the previous snapshot - both as a
+ * DiffSpec for the visible items and as a {@link TaskChangeSet} for all the items.
+ * <p>
+ * Snapshots are never modified once published, so they can be read from any thread without
+ * locking. (The TaskItems themselves are mutable objects, treat them as read only here, call
+ * TaskListModel.update() with a copy if you want to change one.)
+ * <p>
+ * indexOfId() and getById() are answered from an id to position index of the visible items.
+ * TaskListModel builds it in the background for each refreshed list and hands it on when the
+ * positions haven't changed, any other snapshot builds it the first time it's asked.
+ */
+public final class TaskListSnapshot {
+
+    private final TaskItem[] items;
+    private final TaskItem[] allItems;
+    private final int allCount;
+    private final int completedCount;
+    private final Filter filter;
+    private final SortOrder sortOrder;
+    private final TaskChangeSet changeSet;
+    private final DiffSpec diffSpec;
+    private final long version;
+
+    //see indexOfId(), null until it's needed. Building it twice in a race is harmless
+    private volatile LongIntHashMap positionsById;
+
+    TaskListSnapshot(TaskItem[] items, TaskItem[] allItems, int allCount, int completedCount, Filter filter,
+                     SortOrder sortOrder, @Nullable TaskChangeSet changeSet, DiffSpec diffSpec, long version) {
+        this(items, allItems, allCount, completedCount, filter, sortOrder, changeSet, diffSpec, version, null);
+    }
+
+    /**
+     * @param positionsById only if it's right for these items, see positionsById()
+     */
+    TaskListSnapshot(TaskItem[] items, TaskItem[] allItems, int allCount, int completedCount, Filter filter,
+                     SortOrder sortOrder, @Nullable TaskChangeSet changeSet, DiffSpec diffSpec, long version,
+                     @Nullable LongIntHashMap positionsById) {
+        this.items = Affirm.notNull(items);
+        this.allItems = Affirm.notNull(allItems);
+        this.allCount = allCount;
+        this.completedCount = completedCount;
+        this.filter = Affirm.notNull(filter);
+        this.sortOrder = Affirm.notNull(sortOrder);
+        this.changeSet = changeSet;
+        this.diffSpec = Affirm.notNull(diffSpec);
+        this.version = version;
+        this.positionsById = positionsById;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public TaskItem get(int index) {
+        return items[index];
+    }
+
+    /**
+     * @return the position of the item with this entity id in the visible items, or -1 if it
+     * isn't one of them
+     */
+    public int indexOfId(long entityId) {
+        return positionsById().get(entityId);
+    }
+
+    /**
+     * @return the visible item with this entity id, or null if it isn't one of them
+     */
+    @Nullable
+    public TaskItem getById(long entityId) {
+        int index = indexOfId(entityId);
+        return index == LongIntHashMap.NO_VALUE ? null : items[index];
+    }
+
+    /**
+     * @return read only view, no copying involved
+     */
+    public List<TaskItem> getItems() {
+        return asList(items);
+    }
+
+    /**
+     * @return read only view of every item regardless of the filter, in the base model's sort
+     * order (derived snapshots may have their items in a different order)
+     */
+    public List<TaskItem> getAllItems() {
+        return asList(allItems);
+    }
+
+    public int getAllTasksCount() {
+        return allCount;
+    }
+
+    public int getCompletedTasksCount() {
+        return completedCount;
+    }
+
+    public int getActiveTasksCount() {
+        return allCount - completedCount;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return the order of the visible items
+     */
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * @return what changed in the full list since the snapshot with the previous version, or null
+     * if that isn't known (or so much changed that it's not worth knowing)
+     */
+    @Nullable
+    public TaskChangeSet getChangeSet() {
+        return changeSet;
+    }
+
+    public DiffSpec getDiffSpec() {
+        return diffSpec;
+    }
+
+    /**
+     * @return the changes since the snapshot with the previous version, or null if the change
+     * set was too expensive to calculate (very large lists) or doesn't apply
+     */
+    @Nullable
+    public ListDiff getChanges() {
+        return diffSpec.diff;
+    }
+
+    /**
+     * @return increases by one with each snapshot published
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Builds the index if it hasn't been built yet, call this off the UI thread for a big list
+     */
+    LongIntHashMap positionsById() {
+        LongIntHashMap index = positionsById;
+        if (index == null) {
+            index = new LongIntHashMap(items.length);
+            for (int ii = 0; ii < items.length; ii++) {
+                index.put(items[ii].getEntityId(), ii);
+            }
+            positionsById = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index if it has been built already, otherwise null
+     */
+    @Nullable
+    LongIntHashMap positionsByIdIfBuilt() {
+        return positionsById;
+    }
+
+    /**
+     * Same items and counts (no copying) with a different DiffSpec and version and no change set,
+     * for when the snapshot this one was compared with is no longer the previous one
+     */
+    TaskListSnapshot rebase(DiffSpec diffSpec, long version) {
+        return new TaskListSnapshot(items, allItems, allCount, completedCount, filter, sortOrder, null, diffSpec, version, positionsById);
+    }
+
+    /**
+     * Shares everything but the visible items (no copying), for models derived from this one
+     */
+    TaskListSnapshot derive(TaskItem[] items, Filter filter, SortOrder sortOrder, DiffSpec diffSpec, long version) {
+        return new TaskListSnapshot(items, allItems, allCount, completedCount, filter, sortOrder, null, diffSpec, version);
+    }
+
+    private static List<TaskItem> asList(final TaskItem[] array) {
+        return new AbstractList<TaskItem>() {
+            @Override
+            public TaskItem get(int index) {
+                return array[index];
+            }
+
+            @Override
+            public int size() {
+                return array.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+/**
+ * Level aware wrapper around a {@link Logger}.
+ * <p>
+ * Anything below the minimum level is dropped before it reaches the wrapped logger. On top of the
+ * standard Logger methods there are two cheaper styles for use on hot paths (things that run on
+ * every db refresh or every keystroke for example):
+ * <p>
+ * <strong>Lazy messages</strong>, the lambda is only invoked if the level is enabled:
+ * <code>
+ * logger.d(TAG, () -> "setTitle() title:" + title);
+ * </code>
+ * <p>
+ * <strong>Parameterized messages</strong>, the {} placeholders are only filled in if the level is
+ * enabled (primitive arguments still get boxed at the call site, so on the very hottest paths
+ * prefer the lazy version):
+ * <code>
+ * logger.i(TAG, "old list size:{} new list size:{}", oldSize, newSize);
+ * </code>
+ */
+public class LevelLogger implements Logger {
+
+    public enum Level {
+        VERBOSE,
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        NONE
+    }
+
+    private static final String PLACEHOLDER = "{}";
+
+    private final Logger logger;
+    private volatile Level minLevel;
+
+    public LevelLogger(Logger logger, Level minLevel) {
+        this.logger = Affirm.notNull(logger);
+        this.minLevel = Affirm.notNull(minLevel);
+    }
+
+    /**
+     * Models accept any Logger so that they can be constructed with a plain SystemLogger in
+     * tests, this makes sure they always end up with the level aware version.
+     *
+     * @param logger any logger
+     * @return the same logger if it is already a LevelLogger, otherwise a LevelLogger which lets
+     * everything through to the logger passed in
+     */
+    public static LevelLogger wrap(Logger logger) {
+        Affirm.notNull(logger);
+        if (logger instanceof LevelLogger) {
+            return (LevelLogger) logger;
+        } else {
+            return new LevelLogger(logger, Level.VERBOSE);
+        }
+    }
+
+    /**
+     * How the app logs: everything in debug builds, only warnings and errors in release builds
+     *
+     * @param logger     the logger to write to
+     * @param debugBuild BuildConfig.DEBUG
+     */
+    public static LevelLogger forBuild(Logger logger, boolean debugBuild) {
+        return new LevelLogger(logger, debugBuild ? Level.VERBOSE : Level.WARN);
+    }
+
+    public void setMinLevel(Level minLevel) {
+        this.minLevel = Affirm.notNull(minLevel);
+    }
+
+    public Level getMinLevel() {
+        return minLevel;
+    }
+
+    public boolean isLoggable(Level level) {
+        return level.ordinal() >= minLevel.ordinal();
+    }
+
+
+    //standard Logger methods
+
+    @Override
+    public void e(String tag, String message) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, message);
+        }
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, message);
+        }
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, message);
+        }
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, message);
+        }
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, message);
+        }
+    }
+
+    @Override
+    public void e(String tag, String message, Throwable throwable) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, message, throwable);
+        }
+    }
+
+    @Override
+    public void w(String tag, String message, Throwable throwable) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, message, throwable);
+        }
+    }
+
+    @Override
+    public void i(String tag, String message, Throwable throwable) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, message, throwable);
+        }
+    }
+
+    @Override
+    public void d(String tag, String message, Throwable throwable) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, message, throwable);
+        }
+    }
+
+    @Override
+    public void v(String tag, String message, Throwable throwable) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, message, throwable);
+        }
+    }
+
+
+    //lazy messages
+
+    public void e(String tag, Message message) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, message.build());
+        }
+    }
+
+    public void w(String tag, Message message) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, message.build());
+        }
+    }
+
+    public void i(String tag, Message message) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, message.build());
+        }
+    }
+
+    public void d(String tag, Message message) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, message.build());
+        }
+    }
+
+    public void v(String tag, Message message) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, message.build());
+        }
+    }
+
+
+    //parameterized messages, the same three arities for every level
+
+    public void e(String tag, String pattern, Object arg1) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, format(pattern, arg1));
+        }
+    }
+
+    public void e(String tag, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public void e(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Level.ERROR)) {
+            logger.e(tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    public void w(String tag, String pattern, Object arg1) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, format(pattern, arg1));
+        }
+    }
+
+    public void w(String tag, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public void w(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Level.WARN)) {
+            logger.w(tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    public void i(String tag, String pattern, Object arg1) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, format(pattern, arg1));
+        }
+    }
+
+    public void i(String tag, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public void i(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Level.INFO)) {
+            logger.i(tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    public void d(String tag, String pattern, Object arg1) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, format(pattern, arg1));
+        }
+    }
+
+    public void d(String tag, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public void d(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Level.DEBUG)) {
+            logger.d(tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    public void v(String tag, String pattern, Object arg1) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, format(pattern, arg1));
+        }
+    }
+
+    public void v(String tag, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public void v(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(Level.VERBOSE)) {
+            logger.v(tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Replaces each {} in the pattern with the next argument, in order (a null argument comes
+     * out as "null"). Any left over placeholders are left as they are, any left over arguments
+     * are ignored.
+     */
+    static String format(String pattern, Object... args) {
+
+        StringBuilder sb = new StringBuilder(pattern.length() + 16 * args.length);
+
+        int start = 0;
+        for (Object arg : args) {
+            int index = pattern.indexOf(PLACEHOLDER, start);
+            if (index == -1) {
+                break;
+            }
+            sb.append(pattern, start, index).append(arg);
+            start = index + PLACEHOLDER.length();
+        }
+        sb.append(pattern, start, pattern.length());
+
+        return sb.toString();
+    }
+
+    public interface Message {
+        String build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+/**
+ * What the models log to. The app logs to logcat (see the app's AndroidLogger), tests and
+ * benchmarks on a plain JVM use {@link SystemLogger}. Wrap it in a {@link LevelLogger} for the
+ * cheaper lazy and parameterized styles.
+ */
+public interface Logger {
+
+    void e(String tag, String message);
+
+    void w(String tag, String message);
+
+    void i(String tag, String message);
+
+    void d(String tag, String message);
+
+    void v(String tag, String message);
+
+    void e(String tag, String message, Throwable throwable);
+
+    void w(String tag, String message, Throwable throwable);
+
+    void i(String tag, String message, Throwable throwable);
+
+    void d(String tag, String message, Throwable throwable);
+
+    void v(String tag, String message, Throwable throwable);
+}
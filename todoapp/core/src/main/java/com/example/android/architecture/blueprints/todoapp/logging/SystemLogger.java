@@ -0,0 +1,67 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Logs to System.out (errors and warnings to System.err), for tests and anything else running
+ * on a plain JVM.
+ */
+public class SystemLogger implements Logger {
+
+    @Override
+    public void e(String tag, String message) {
+        log(System.err, "E", tag, message, null);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        log(System.err, "W", tag, message, null);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        log(System.out, "I", tag, message, null);
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        log(System.out, "D", tag, message, null);
+    }
+
+    @Override
+    public void v(String tag, String message) {
+        log(System.out, "V", tag, message, null);
+    }
+
+    @Override
+    public void e(String tag, String message, Throwable throwable) {
+        log(System.err, "E", tag, message, throwable);
+    }
+
+    @Override
+    public void w(String tag, String message, Throwable throwable) {
+        log(System.err, "W", tag, message, throwable);
+    }
+
+    @Override
+    public void i(String tag, String message, Throwable throwable) {
+        log(System.out, "I", tag, message, throwable);
+    }
+
+    @Override
+    public void d(String tag, String message, Throwable throwable) {
+        log(System.out, "D", tag, message, throwable);
+    }
+
+    @Override
+    public void v(String tag, String message, Throwable throwable) {
+        log(System.out, "V", tag, message, throwable);
+    }
+
+    private static void log(PrintStream stream, String level, String tag, String message, Throwable throwable) {
+        stream.println(level + "/" + tag + ": " + message);
+        if (throwable != null) {
+            throwable.printStackTrace(stream);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.android.architecture.blueprints.todoapp.message;
+
+
+/**
+ * As an enum, this value can be passed around the app to indicate various states.
+ * If you want to display it to the user call UserMessages.getString() (in the app) for the
+ * human readable text.
+ */
+public enum UserMessage {
+
+    ERROR_MISC,
+    ERROR_NETWORK,
+    ERROR_SERVER,
+    ERROR_CLIENT,
+    ERROR_SESSION_TIMED_OUT,
+    ERROR_BUSY,
+    ERROR_NOT_FOUND,
+    ERROR_CANCELLED,
+    ERROR_NOT_SAVED,
+    ERROR_FILE
+
+}
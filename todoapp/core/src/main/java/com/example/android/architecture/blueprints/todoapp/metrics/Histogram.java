@@ -0,0 +1,114 @@
+package com.example.android.architecture.blueprints.todoapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, lock free histogram for non negative long values (latencies in microseconds,
+ * row counts etc).
+ * <p>
+ * Values below 16 get a bucket each, above that each power of two is split into 8 linear sub
+ * buckets, so any reported percentile is within about 12% of the real value. Recording a value
+ * is a handful of atomic increments and never allocates, which is what makes it cheap enough to
+ * leave switched on in production.
+ */
+public class Histogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (64 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+
+        if (value < 0) {
+            value = 0;
+        }
+
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long currentCount = count.get();
+        return currentCount == 0 ? 0 : sum.get() / currentCount;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 95 for p95
+     * @return approximate value at that percentile, 0 if nothing has been recorded yet
+     */
+    public long getPercentile(double percentile) {
+
+        long currentCount = count.get();
+        if (currentCount == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(currentCount * percentile / 100D));
+        if (target >= currentCount) {
+            //the highest value is known exactly, no need to estimate it from its bucket
+            return max.get();
+        }
+        long cumulative = 0;
+
+        for (int ii = 0; ii < BUCKET_COUNT; ii++) {
+            cumulative += buckets.get(ii);
+            if (cumulative >= target) {
+                return Math.min(bucketMidpoint(ii), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    public void reset() {
+        for (int ii = 0; ii < BUCKET_COUNT; ii++) {
+            buckets.set(ii, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketMidpoint(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowerBound = (SUB_BUCKETS + subBucket) * width;
+        return lowerBound + width / 2;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.android.architecture.blueprints.todoapp.metrics;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds named latency timers, value distributions (row counts etc) and gauges (queue depths)
+ * for the model layer.
+ * <p>
+ * Typical use on a hot path:
+ * <code>
+ * long start = metrics.start();
+ * ...do the work...
+ * metrics.stop(METRIC_QUERY, start);
+ * </code>
+ * <p>
+ * Timings are recorded in microseconds. Everything here is thread safe and lock free once a
+ * metric has been created, so it can be called from any background thread. The current state
+ * can be rendered with {@link #report()} (for a debug screen or logcat) or written to a file
+ * with {@link #exportTo(File)}.
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, Histogram> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> values = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    public MetricsRegistry() {
+        this(true);
+    }
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    //timers
+
+    /**
+     * @return a start time to pass to {@link #stop(String, long)}, or 0 if metrics are disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(String name, long startNanos) {
+        if (enabled && startNanos != 0) {
+            timer(name).record((System.nanoTime() - startNanos) / 1000);
+        }
+    }
+
+    public Histogram timer(String name) {
+        return getOrCreate(timers, name);
+    }
+
+
+    //value distributions
+
+    public void recordValue(String name, long value) {
+        if (enabled) {
+            getOrCreate(values, name).record(value);
+        }
+    }
+
+    public Histogram values(String name) {
+        return getOrCreate(values, name);
+    }
+
+
+    //gauges
+
+    public void increment(String name) {
+        if (enabled) {
+            gauge(name).increment();
+        }
+    }
+
+    public void decrement(String name) {
+        if (enabled) {
+            gauge(name).decrement();
+        }
+    }
+
+    public Gauge gauge(String name) {
+        Affirm.notNull(name);
+        Gauge gauge = gauges.get(name);
+        if (gauge == null) {
+            gauge = new Gauge();
+            Gauge existing = gauges.putIfAbsent(name, gauge);
+            if (existing != null) {
+                gauge = existing;
+            }
+        }
+        return gauge;
+    }
+
+
+    //reporting
+
+    public void reset() {
+        for (Histogram histogram : timers.values()) {
+            histogram.reset();
+        }
+        for (Histogram histogram : values.values()) {
+            histogram.reset();
+        }
+        for (Gauge gauge : gauges.values()) {
+            gauge.resetMax();
+        }
+    }
+
+    /**
+     * @return human readable, one line per metric, sorted by name
+     */
+    public String report() {
+
+        StringBuilder sb = new StringBuilder();
+
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+            appendHistogram(sb, "timer", entry.getKey(), entry.getValue(), "us");
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(values).entrySet()) {
+            appendHistogram(sb, "value", entry.getKey(), entry.getValue(), "");
+        }
+        for (Map.Entry<String, Gauge> entry : new TreeMap<>(gauges).entrySet()) {
+            sb.append("gauge ").append(entry.getKey())
+                    .append(" current:").append(entry.getValue().get())
+                    .append(" max:").append(entry.getValue().getMax())
+                    .append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    public void exportTo(File file) throws IOException {
+        Affirm.notNull(file);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            writer.write(report());
+        }
+    }
+
+    private void appendHistogram(StringBuilder sb, String type, String name, Histogram histogram, String units) {
+        sb.append(type).append(' ').append(name)
+                .append(" count:").append(histogram.getCount())
+                .append(" mean:").append(histogram.getMean()).append(units)
+                .append(" p50:").append(histogram.getPercentile(50)).append(units)
+                .append(" p95:").append(histogram.getPercentile(95)).append(units)
+                .append(" p99:").append(histogram.getPercentile(99)).append(units)
+                .append(" max:").append(histogram.getMax()).append(units)
+                .append('\n');
+    }
+
+    private static Histogram getOrCreate(ConcurrentMap<String, Histogram> map, String name) {
+        Affirm.notNull(name);
+        Histogram histogram = map.get(name);
+        if (histogram == null) {
+            histogram = new Histogram();
+            Histogram existing = map.putIfAbsent(name, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+
+    public static class Gauge {
+
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        void increment() {
+            int value = current.incrementAndGet();
+            int currentMax;
+            while (value > (currentMax = max.get())) {
+                if (max.compareAndSet(currentMax, value)) {
+                    break;
+                }
+            }
+        }
+
+        void decrement() {
+            current.decrementAndGet();
+        }
+
+        void resetMax() {
+            max.set(current.get());
+        }
+
+        public int get() {
+            return current.get();
+        }
+
+        public int getMax() {
+            return max.get();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.android.architecture.blueprints.todoapp.observer;
+
+/**
+ * Observers are added / removed on the UI thread, notifyObservers() can be called from any thread
+ */
+public interface Observable {
+
+    void addObserver(Observer observer);
+
+    void removeObserver(Observer observer);
+
+    boolean hasObservers();
+
+    void notifyObservers();
+}
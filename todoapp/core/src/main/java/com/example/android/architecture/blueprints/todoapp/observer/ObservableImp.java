@@ -0,0 +1,38 @@
+package com.example.android.architecture.blueprints.todoapp.observer;
+
+import com.example.android.architecture.blueprints.todoapp.threading.ChangeChannel;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+
+/**
+ * For models to extend. The model as a whole is one more {@link ChangeChannel}, so its
+ * notifications are batched per frame along with those of every other channel on the same
+ * {@link FrameBatcher}.
+ */
+public class ObservableImp implements Observable {
+
+    private final ChangeChannel channel;
+
+    public ObservableImp(FrameBatcher frameBatcher) {
+        this.channel = new ChangeChannel(frameBatcher);
+    }
+
+    @Override
+    public void addObserver(Observer observer) {
+        channel.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(Observer observer) {
+        channel.removeObserver(observer);
+    }
+
+    @Override
+    public boolean hasObservers() {
+        return channel.hasObservers();
+    }
+
+    @Override
+    public void notifyObservers() {
+        channel.notifyObservers();
+    }
+}
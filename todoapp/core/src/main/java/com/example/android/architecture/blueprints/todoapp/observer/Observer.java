@@ -0,0 +1,9 @@
+package com.example.android.architecture.blueprints.todoapp.observer;
+
+/**
+ * Called on the UI thread when something about the model it's observing has changed, it's then
+ * up to the observer to read whatever it needs from the model (usually in syncView())
+ */
+public interface Observer {
+    void somethingChanged();
+}
@@ -0,0 +1,57 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.observer.Observable;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One kind of change on a model (its list contents, its counts, whether it's busy...) that can
+ * be observed on its own, so that a view only does the work for the inputs it actually uses.
+ * A model only notifies a channel when that particular input has changed.
+ * <p>
+ * Notifications are batched per frame by the {@link FrameBatcher} the channel was created with.
+ * Observers are added / removed on the UI thread, notifyObservers() can be called from any thread.
+ */
+public class ChangeChannel implements Observable {
+
+    private final FrameBatcher frameBatcher;
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    public ChangeChannel(FrameBatcher frameBatcher) {
+        this.frameBatcher = Affirm.notNull(frameBatcher);
+    }
+
+    @Override
+    public void addObserver(Observer observer) {
+        Affirm.notNull(observer);
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    @Override
+    public void removeObserver(Observer observer) {
+        observers.remove(Affirm.notNull(observer));
+    }
+
+    @Override
+    public boolean hasObservers() {
+        return !observers.isEmpty();
+    }
+
+    @Override
+    public void notifyObservers() {
+        //nobody to tell, and anyone who subscribes later syncs their view when they do
+        if (!observers.isEmpty()) {
+            frameBatcher.post(this);
+        }
+    }
+
+    void collectObservers(Collection<Observer> into) {
+        into.addAll(observers);
+    }
+}
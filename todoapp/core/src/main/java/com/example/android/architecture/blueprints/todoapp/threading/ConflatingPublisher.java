@@ -0,0 +1,157 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Small push based publisher with built in backpressure: each subscriber only ever has one
+ * value waiting for it. If a new value is published before a slow subscriber has got round to
+ * the previous one, the previous one is replaced (conflated) and the subscriber is told how many
+ * values it missed.
+ * <p>
+ * Each subscriber receives values on its own Executor, so a widget or an exporter can consume
+ * on a background thread while the UI consumes on the main thread, and neither can hold up the
+ * publisher or each other.
+ * <p>
+ * New subscribers immediately receive the latest value, if there is one.
+ */
+public class ConflatingPublisher<T> {
+
+    private final CopyOnWriteArrayList<SubscriptionImp> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile T latest;
+
+    public interface Subscriber<T> {
+        /**
+         * @param value         the latest value
+         * @param missedUpdates true if there were values published since the previous call that
+         *                      this subscriber never saw (always true for the first call) i.e.
+         *                      any change set carried by the value does not apply to what the
+         *                      subscriber saw last
+         */
+        void onNext(T value, boolean missedUpdates);
+    }
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    public Subscription subscribe(Executor executor, Subscriber<T> subscriber) {
+
+        SubscriptionImp subscription = new SubscriptionImp(Affirm.notNull(executor), Affirm.notNull(subscriber));
+        subscriptions.add(subscription);
+
+        T current = latest;
+        if (current != null) {
+            subscription.offer(current, true);
+        }
+
+        return subscription;
+    }
+
+    public void publish(T value) {
+
+        latest = Affirm.notNull(value);
+
+        for (SubscriptionImp subscription : subscriptions) {
+            subscription.offer(value, false);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    private static class Pending<T> {
+
+        final T value;
+        final boolean missedUpdates;
+
+        Pending(T value, boolean missedUpdates) {
+            this.value = value;
+            this.missedUpdates = missedUpdates;
+        }
+    }
+
+    private class SubscriptionImp implements Subscription {
+
+        private final Executor executor;
+        private final Subscriber<T> subscriber;
+        private final AtomicReference<Pending<T>> pending = new AtomicReference<>();
+        //set from when a drain is handed to the executor until that drain has finished, so only
+        //one drain for this subscription ever runs at a time, even on a pooled executor
+        private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+        private final DroppableRunnable drainTask = new DroppableRunnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+
+            @Override
+            public void onDropped() {
+                //the value stays pending, the next offer schedules another drain for it
+                drainScheduled.set(false);
+            }
+        };
+        private volatile boolean cancelled;
+
+        SubscriptionImp(Executor executor, Subscriber<T> subscriber) {
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        void offer(T value, boolean missedUpdates) {
+
+            Pending<T> previous;
+            Pending<T> next;
+            do {
+                previous = pending.get();
+                //replacing a value nobody has seen yet means the subscriber misses it
+                next = new Pending<>(value, missedUpdates || previous != null);
+            } while (!pending.compareAndSet(previous, next));
+
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (drainScheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(drainTask);
+                } catch (RuntimeException e) {
+                    //e.g. RejectedExecutionException, otherwise no drain would ever be scheduled again
+                    drainScheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void drain() {
+
+            try {
+                Pending<T> next;
+                while ((next = pending.getAndSet(null)) != null) {
+                    if (!cancelled) {
+                        subscriber.onNext(next.value, next.missedUpdates);
+                    }
+                }
+            } finally {
+                drainScheduled.set(false);
+            }
+
+            //offered after the last getAndSet() but before the flag was cleared, so that offer
+            //didn't schedule a drain of its own
+            if (pending.get() != null) {
+                scheduleDrain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+    }
+}
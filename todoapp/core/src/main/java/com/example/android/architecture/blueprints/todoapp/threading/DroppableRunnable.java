@@ -0,0 +1,12 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+/**
+ * Work that needs to find out if a lane drops it instead of running it, so that it can undo
+ * whatever it set up in expectation of running (see ConflatingPublisher). Lanes that never drop
+ * work never call onDropped().
+ */
+public interface DroppableRunnable extends Runnable {
+
+    //called instead of run(), on the thread that submitted the work
+    void onDropped();
+}
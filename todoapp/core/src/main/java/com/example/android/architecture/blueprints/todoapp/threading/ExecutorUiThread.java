@@ -0,0 +1,43 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link UiThread} for running the models off device (benchmarks, tools, tests in
+ * {@link WorkMode#ASYNCHRONOUS}): a single daemon thread, started on first use. There are no
+ * display frames or idle moments to wait for, so those runnables are just queued like any other.
+ */
+public class ExecutorUiThread implements UiThread {
+
+    private static final String THREAD_NAME = "ui";
+
+    private volatile Thread thread;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread newThread = new Thread(runnable, THREAD_NAME);
+        newThread.setDaemon(true);
+        thread = newThread;
+        return newThread;
+    });
+
+    @Override
+    public boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    @Override
+    public void postAtNextFrame(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    @Override
+    public void postWhenIdle(Runnable runnable) {
+        executor.execute(runnable);
+    }
+}
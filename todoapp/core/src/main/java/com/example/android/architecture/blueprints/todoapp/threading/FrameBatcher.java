@@ -0,0 +1,80 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Delivers the notifications of any number of {@link ChangeChannel}s at most once per display
+ * frame. An observer which is subscribed to several channels (on one model or across models)
+ * that all change during the same frame is called once, not once per channel.
+ * <p>
+ * Channels can be notified from any thread, observers are always called on the UI thread at
+ * the start of the next frame (see {@link UiThread#postAtNextFrame(Runnable)}). With
+ * {@link WorkMode#SYNCHRONOUS} (i.e. in tests) observers are called straight away on the
+ * notifying thread instead.
+ * <p>
+ * Use one instance for the whole app, otherwise there is nothing to batch across.
+ */
+public class FrameBatcher {
+
+    private final UiThread uiThread;
+    private final WorkMode workMode;
+    private final Runnable dispatch = this::dispatch;
+
+    private final Object lock = new Object();
+    //guarded by lock
+    private Set<ChangeChannel> pending = new LinkedHashSet<>();
+    private boolean scheduled = false;
+
+    public FrameBatcher(UiThread uiThread, WorkMode workMode) {
+        this.uiThread = Affirm.notNull(uiThread);
+        this.workMode = Affirm.notNull(workMode);
+    }
+
+    //any thread
+    void post(ChangeChannel channel) {
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            Set<Observer> observers = new LinkedHashSet<>();
+            channel.collectObservers(observers);
+            for (Observer observer : observers) {
+                observer.somethingChanged();
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            pending.add(channel);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+
+        uiThread.postAtNextFrame(dispatch);
+    }
+
+    //UI thread
+    private void dispatch() {
+
+        Set<ChangeChannel> channels;
+        synchronized (lock) {
+            channels = pending;
+            pending = new LinkedHashSet<>();
+            scheduled = false;
+        }
+
+        //observers are collected now rather than at post() time, so anything removed in the
+        //meantime (a fragment that has been paused say) isn't called
+        Set<Observer> observers = new LinkedHashSet<>();
+        for (ChangeChannel channel : channels) {
+            channel.collectObservers(observers);
+        }
+        for (Observer observer : observers) {
+            observer.somethingChanged();
+        }
+    }
+}
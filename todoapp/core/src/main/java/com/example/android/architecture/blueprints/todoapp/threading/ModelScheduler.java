@@ -0,0 +1,100 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the background part of model operations on one of a few dedicated, bounded thread pools
+ * (lanes) rather than on one shared executor, so that work the user is waiting for never queues
+ * up behind a large network sync. See {@link ThreadPoolModelScheduler}.
+ * <p>
+ * <strong>INTERACTIVE</strong> single item reads and writes triggered directly by the user,
+ * e.g. getItemById(), update(), remove()
+ * <p>
+ * <strong>REFRESH</strong> re-reading the list after a db change. Only the latest refresh
+ * matters, so when this lane's queue is full the oldest waiting refresh is dropped
+ * <p>
+ * <strong>BULK</strong> large background writes such as the TaskFetcher ingest
+ * <p>
+ * <strong>DERIVED</strong> in memory work for models which are derived from other models
+ * (see FilteredTaskListModel). This is a single thread so derived models never need to lock
+ * their own state. Its queue only ever holds one entry per derived model (see
+ * ConflatingPublisher) so it's sized by the number of derived models rather than load
+ * <p>
+ * Writes must never be lost, so when the INTERACTIVE or BULK lanes are full the work runs on
+ * the thread that submitted it instead (which slows the caller down until the lane catches up)
+ * and their callbacks still fire. That's logged and counted in the metrics, size the queues so
+ * that it never happens in practice. Only the REFRESH and DERIVED lanes drop work; work that
+ * needs to know when it's been dropped implements {@link DroppableRunnable}.
+ * <p>
+ * With {@link WorkMode#SYNCHRONOUS} (i.e. in tests) everything runs immediately on the calling
+ * thread, UI thread callbacks included.
+ */
+public interface ModelScheduler {
+
+    //metric names, see MetricsRegistry
+    String METRIC_REJECTED_PREFIX = "scheduler.rejected.";
+    String METRIC_CALLER_RAN_PREFIX = "scheduler.callerran.";
+    String METRIC_DISCARDED_PREFIX = "scheduler.discarded.";
+
+    enum Lane {
+        INTERACTIVE,
+        REFRESH,
+        BULK,
+        DERIVED
+    }
+
+    class LaneConfig {
+
+        public final int poolSize;
+        public final int queueCapacity;
+
+        public LaneConfig(int poolSize, int queueCapacity) {
+            if (poolSize < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("poolSize and queueCapacity need to be at least 1, poolSize:" + poolSize + " queueCapacity:" + queueCapacity);
+            }
+            this.poolSize = poolSize;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    LaneConfig DEFAULT_INTERACTIVE = new LaneConfig(2, 128);
+    LaneConfig DEFAULT_REFRESH = new LaneConfig(1, 2);
+    LaneConfig DEFAULT_BULK = new LaneConfig(1, 32);
+
+    interface BackgroundWork<Output> {
+        Output doInBackground();
+    }
+
+    /**
+     * Runs the work on the lane, then hands whatever it returned to onUiThread on the UI thread
+     */
+    <Output> void execute(Lane lane, BackgroundWork<Output> work, SuccessCallbackWithPayload<Output> onUiThread);
+
+    /**
+     * For plain background work with no UI thread part to it
+     */
+    void execute(Lane lane, Runnable runnable);
+
+    /**
+     * For work that can wait: runs it on the lane the next time the UI thread has nothing else
+     * to do
+     */
+    void executeWhenIdle(Lane lane, Runnable runnable);
+
+    /**
+     * @return an executor for the lane, for things which need an Executor (e.g. a
+     * ConflatingPublisher subscription). Runs work immediately on the calling thread with
+     * {@link WorkMode#SYNCHRONOUS}
+     */
+    Executor getExecutor(Lane lane);
+
+    /**
+     * @return an executor which runs work on the UI thread (or immediately with
+     * {@link WorkMode#SYNCHRONOUS})
+     */
+    Executor getUiExecutor();
+
+    int getQueueSize(Lane lane);
+}
@@ -0,0 +1,199 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ModelScheduler} with a bounded ThreadPoolExecutor per lane. Results of background
+ * work are handed back on the {@link UiThread}.
+ */
+public class ThreadPoolModelScheduler implements ModelScheduler {
+
+    private static final String LOG_TAG = ThreadPoolModelScheduler.class.getSimpleName();
+
+    private static final LaneConfig DERIVED = new LaneConfig(1, 64);
+
+    private final UiThread uiThread;
+    private final LevelLogger logger;
+    private final MetricsRegistry metrics;
+    private final WorkMode workMode;
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+    private final Executor uiExecutor;
+
+    public ThreadPoolModelScheduler(UiThread uiThread, Logger logger, MetricsRegistry metrics, WorkMode workMode) {
+        this(DEFAULT_INTERACTIVE, DEFAULT_REFRESH, DEFAULT_BULK, uiThread, logger, metrics, workMode);
+    }
+
+    public ThreadPoolModelScheduler(LaneConfig interactive, LaneConfig refresh, LaneConfig bulk,
+                                    UiThread uiThread, Logger logger, MetricsRegistry metrics, WorkMode workMode) {
+
+        this.uiThread = Affirm.notNull(uiThread);
+        this.logger = LevelLogger.wrap(logger);
+        this.metrics = Affirm.notNull(metrics);
+        this.workMode = Affirm.notNull(workMode);
+
+        executors.put(Lane.INTERACTIVE, createExecutor(Lane.INTERACTIVE, Affirm.notNull(interactive), new RunOnCaller(Lane.INTERACTIVE)));
+        executors.put(Lane.REFRESH, createExecutor(Lane.REFRESH, Affirm.notNull(refresh), new DropOldest(Lane.REFRESH)));
+        executors.put(Lane.BULK, createExecutor(Lane.BULK, Affirm.notNull(bulk), new RunOnCaller(Lane.BULK)));
+        executors.put(Lane.DERIVED, createExecutor(Lane.DERIVED, DERIVED, new LogAndDrop(Lane.DERIVED)));
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            uiExecutor = Runnable::run;
+        } else {
+            uiExecutor = uiThread::post;
+        }
+    }
+
+    @Override
+    public <Output> void execute(Lane lane, BackgroundWork<Output> work, SuccessCallbackWithPayload<Output> onUiThread) {
+
+        Affirm.notNull(lane);
+        Affirm.notNull(work);
+        Affirm.notNull(onUiThread);
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            onUiThread.success(work.doInBackground());
+        } else {
+            executors.get(lane).execute(() -> {
+                Output output = work.doInBackground();
+                uiThread.post(() -> onUiThread.success(output));
+            });
+        }
+    }
+
+    @Override
+    public void execute(Lane lane, Runnable runnable) {
+
+        Affirm.notNull(lane);
+        Affirm.notNull(runnable);
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            runnable.run();
+        } else {
+            executors.get(lane).execute(runnable);
+        }
+    }
+
+    @Override
+    public void executeWhenIdle(Lane lane, Runnable runnable) {
+
+        Affirm.notNull(lane);
+        Affirm.notNull(runnable);
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            runnable.run();
+        } else {
+            uiThread.postWhenIdle(() -> executors.get(lane).execute(runnable));
+        }
+    }
+
+    @Override
+    public Executor getExecutor(Lane lane) {
+        Affirm.notNull(lane);
+        return workMode == WorkMode.SYNCHRONOUS ? Runnable::run : executors.get(lane);
+    }
+
+    @Override
+    public Executor getUiExecutor() {
+        return uiExecutor;
+    }
+
+    @Override
+    public int getQueueSize(Lane lane) {
+        return executors.get(Affirm.notNull(lane)).getQueue().size();
+    }
+
+    private ThreadPoolExecutor createExecutor(Lane lane, LaneConfig laneConfig, RejectedExecutionHandler rejectedExecutionHandler) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                laneConfig.poolSize,
+                laneConfig.poolSize,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(laneConfig.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, LOG_TAG + "-" + lane + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectedExecutionHandler);
+
+        //idle lanes (bulk for most of the time) shouldn't keep threads around
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    private class LogAndDrop implements RejectedExecutionHandler {
+
+        private final Lane lane;
+
+        LogAndDrop(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            logger.e(LOG_TAG, "lane:" + lane + " is full (queue size:" + executor.getQueue().size() + "), work dropped");
+            metrics.recordValue(METRIC_REJECTED_PREFIX + lane, executor.getQueue().size());
+            if (runnable instanceof DroppableRunnable) {
+                ((DroppableRunnable) runnable).onDropped();
+            }
+        }
+    }
+
+    private class RunOnCaller implements RejectedExecutionHandler {
+
+        private final Lane lane;
+
+        RunOnCaller(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                metrics.recordValue(METRIC_REJECTED_PREFIX + lane, executor.getQueue().size());
+                //the caller finds out, rather than the write silently not happening
+                throw new RejectedExecutionException("lane:" + lane + " is shut down");
+            }
+            logger.w(LOG_TAG, "lane:{} is full (queue size:{}), running on the caller's thread", lane, executor.getQueue().size());
+            metrics.recordValue(METRIC_CALLER_RAN_PREFIX + lane, executor.getQueue().size());
+            runnable.run();
+        }
+    }
+
+    private class DropOldest implements RejectedExecutionHandler {
+
+        private final Lane lane;
+
+        DropOldest(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            logger.d(LOG_TAG, "lane:{} is full, dropping the oldest waiting work", lane);
+            metrics.recordValue(METRIC_DISCARDED_PREFIX + lane, executor.getQueue().size());
+            executor.getQueue().poll();
+            executor.execute(runnable);
+        }
+    }
+}
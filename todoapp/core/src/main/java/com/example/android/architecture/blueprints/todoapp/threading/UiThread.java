@@ -0,0 +1,25 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+/**
+ * The thread that observers are notified on and UI callbacks are delivered to. In the app this is
+ * the Android main thread (see AndroidUiThread), which keeps Handler, Looper and Choreographer out
+ * of the models. Off device use {@link ExecutorUiThread}.
+ * <p>
+ * Everything here can be called from any thread.
+ */
+public interface UiThread {
+
+    boolean isCurrentThread();
+
+    void post(Runnable runnable);
+
+    /**
+     * Runs the runnable at the start of the next display frame
+     */
+    void postAtNextFrame(Runnable runnable);
+
+    /**
+     * Runs the runnable the next time the thread has nothing else to do
+     */
+    void postWhenIdle(Runnable runnable);
+}
@@ -0,0 +1,10 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+/**
+ * ASYNCHRONOUS in the app. SYNCHRONOUS (i.e. in tests) runs all background work, UI callbacks
+ * and observer notifications immediately on the calling thread.
+ */
+public enum WorkMode {
+    SYNCHRONOUS,
+    ASYNCHRONOUS
+}
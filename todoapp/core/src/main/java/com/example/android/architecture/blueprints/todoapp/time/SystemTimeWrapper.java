@@ -0,0 +1,11 @@
+package com.example.android.architecture.blueprints.todoapp.time;
+
+/**
+ * So that tests can control the time a model sees
+ */
+public class SystemTimeWrapper {
+
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.android.architecture.blueprints.todoapp.util;
+
+/**
+ * Argument checks for constructors and public methods, so that a bad argument fails where it's
+ * passed in rather than later on some other thread.
+ */
+public final class Affirm {
+
+    private Affirm() {
+    }
+
+    /**
+     * @return the same object, so that a constructor can check and assign in one go
+     */
+    public static <T> T notNull(T object) {
+        if (object == null) {
+            throw new NullPointerException("Parameter must not be null");
+        }
+        return object;
+    }
+}
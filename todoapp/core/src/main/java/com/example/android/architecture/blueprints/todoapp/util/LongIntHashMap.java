@@ -0,0 +1,120 @@
+package com.example.android.architecture.blueprints.todoapp.util;
+
+import java.util.Arrays;
+
+/**
+ * long to int map with no boxing, for indexing things like db ids to list positions. Open
+ * addressing with linear probing in two parallel arrays, so a lookup is a hash and (usually)
+ * one or two array reads.
+ * <p>
+ * Values must not be negative, {@link #get(long)} returns {@link #NO_VALUE} for a missing key.
+ * There's no remove(), build a new one instead. Not thread safe, but once it has been filled
+ * in it can be read from any number of threads as long as it was safely published (e.g. via a
+ * final or volatile field).
+ */
+public final class LongIntHashMap {
+
+    public static final int NO_VALUE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    //NO_VALUE marks an empty slot
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative, not:" + expectedSize);
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the previous value, or NO_VALUE if there wasn't one
+     */
+    public int put(long key, int value) {
+
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative, not:" + value);
+        }
+
+        int slot = slot(key);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+
+        //at most half full, so probe sequences stay short
+        if (size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        int value;
+        while ((value = values[slot]) != NO_VALUE) {
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        //spread the bits, ids are mostly sequential
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int ii = 0; ii < oldValues.length; ii++) {
+            if (oldValues[ii] != NO_VALUE) {
+                int slot = slot(oldKeys[ii]);
+                while (values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[ii];
+                values[slot] = oldValues[ii];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
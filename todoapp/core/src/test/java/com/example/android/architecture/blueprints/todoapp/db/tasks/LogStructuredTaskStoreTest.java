@@ -0,0 +1,124 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plain unit tests against a real file, the engines are compared in the instrumented
+ * TaskStoreBenchmark
+ */
+public class LogStructuredTaskStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void whenReopened_committedChangesAreReplayed() throws Exception {
+
+        //arrange
+        File file = new File(temporaryFolder.getRoot(), "tasks.log");
+        LogStructuredTaskStore taskStore = new LogStructuredTaskStore(file, new SystemLogger());
+        long riceId = taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        long hairId = taskStore.insertTaskItem(new TaskItemEntity(2000, "get hair cut", "gr\u00f6\u00dfer"));
+        TaskItemEntity rice = taskStore.getTaskItem(riceId);
+        rice.setCompleted(true);
+        taskStore.updateTaskItem(rice);
+        taskStore.softDeleteTaskItem(hairId, 3000);
+        taskStore.close();
+
+        //act
+        LogStructuredTaskStore reopened = new LogStructuredTaskStore(file, new SystemLogger());
+        long nextId = reopened.insertTaskItem(new TaskItemEntity(4000, "walk dog", null));
+
+        //assert
+        Assert.assertEquals(2, reopened.getRowCount());
+        Assert.assertEquals(true, reopened.getTaskItem(riceId).isCompleted());
+        Assert.assertNull(reopened.getTaskItem(hairId));
+        Assert.assertEquals(1, reopened.getDeletedIdsSince(2999).size());
+        Assert.assertEquals(3, nextId);
+    }
+
+    @Test
+    public void whenTransactionFails_nothingIsWrittenOrNotified() throws Exception {
+
+        //arrange
+        File file = new File(temporaryFolder.getRoot(), "tasks.log");
+        LogStructuredTaskStore taskStore = new LogStructuredTaskStore(file, new SystemLogger());
+        AtomicInteger changes = new AtomicInteger();
+        taskStore.addChangeListener(changes::incrementAndGet);
+
+        //act
+        try {
+            taskStore.runInTransaction(() -> {
+                taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+                throw new IllegalStateException("fail on purpose");
+            });
+            Assert.fail("expected the transaction to throw");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        long bytes = taskStore.getLogBytes();
+        taskStore.close();
+        LogStructuredTaskStore reopened = new LogStructuredTaskStore(file, new SystemLogger());
+
+        //assert
+        Assert.assertEquals(0, changes.get());
+        Assert.assertEquals(LogStructuredTaskStore.HEADER_SIZE, bytes);
+        Assert.assertEquals(0, reopened.getRowCount());
+    }
+
+    @Test
+    public void whenTailIsTorn_itIsDroppedAndTheRestSurvives() throws Exception {
+
+        //arrange
+        File file = new File(temporaryFolder.getRoot(), "tasks.log");
+        LogStructuredTaskStore taskStore = new LogStructuredTaskStore(file, new SystemLogger());
+        taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        long goodLength = taskStore.getLogBytes();
+        taskStore.close();
+        FileOutputStream outputStream = new FileOutputStream(file, true);
+        outputStream.write(new byte[]{0, 0, 0, 60, 1, 2, 3, 4, 1, 9});
+        outputStream.close();
+
+        //act
+        LogStructuredTaskStore reopened = new LogStructuredTaskStore(file, new SystemLogger());
+        int rows = reopened.getRowCount();
+
+        //assert
+        Assert.assertEquals(1, rows);
+        Assert.assertEquals(goodLength, file.length());
+    }
+
+    @Test
+    public void whenLogIsMostlyOverwrittenRows_itIsCompacted() throws Exception {
+
+        //arrange
+        File file = new File(temporaryFolder.getRoot(), "tasks.log");
+        LogStructuredTaskStore taskStore = new LogStructuredTaskStore(file, new SystemLogger());
+        long id = taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        long oneRowBytes = taskStore.getLogBytes();
+
+        //act
+        for (int ii = 0; ii < LogStructuredTaskStore.MIN_COMPACT_RECORDS * 2; ii++) {
+            TaskItemEntity taskItemEntity = taskStore.getTaskItem(id);
+            taskItemEntity.setCompleted(ii % 2 == 0);
+            taskStore.updateTaskItem(taskItemEntity);
+        }
+        long churnedBytes = taskStore.getLogBytes();
+        taskStore.close();
+        LogStructuredTaskStore reopened = new LogStructuredTaskStore(file, new SystemLogger());
+
+        //assert
+        Assert.assertTrue("log bytes:" + churnedBytes, churnedBytes < oneRowBytes * LogStructuredTaskStore.MIN_COMPACT_RECORDS);
+        Assert.assertEquals(1, reopened.getRowCount());
+        Assert.assertEquals(false, reopened.getTaskItem(id).isCompleted());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Plain unit tests for the backup file format, the export / import against a real db is timed
+ * in the instrumented TaskArchiveBenchmark
+ */
+public class TaskArchiveTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void whenRowsWritten_theyAreReadBackTheSame() throws Exception {
+
+        //arrange
+        File file = temporaryFolder.newFile();
+        TaskArchive.Writer writer = new TaskArchive.Writer(file);
+        writer.write(1000, "buy rice", null, true);
+        writer.write(2000, null, "gr\u00f6\u00dfer als das", false);
+        writer.close();
+
+        //act
+        TaskArchive.Reader reader = new TaskArchive.Reader(file);
+        TaskItemEntity first = reader.next();
+        TaskItemEntity second = reader.next();
+        boolean hasNext = reader.hasNext();
+        reader.close();
+
+        //assert
+        Assert.assertEquals(2, reader.getRowCount());
+        Assert.assertEquals(false, hasNext);
+        Assert.assertEquals(1000, first.getCreationTimestamp());
+        Assert.assertEquals("buy rice", first.getTitle());
+        Assert.assertNull(first.getDescription());
+        Assert.assertEquals(true, first.isCompleted());
+        Assert.assertEquals(2000, second.getCreationTimestamp());
+        Assert.assertNull(second.getTitle());
+        Assert.assertEquals("gr\u00f6\u00dfer als das", second.getDescription());
+        Assert.assertEquals(false, second.isCompleted());
+    }
+
+    @Test
+    public void whenStringBiggerThanTheWriteBuffer_itIsReadBackTheSame() throws Exception {
+
+        //arrange
+        File file = temporaryFolder.newFile();
+        StringBuilder description = new StringBuilder();
+        for (int ii = 0; ii < 100_000; ii++) {
+            description.append("task ");
+        }
+        TaskArchive.Writer writer = new TaskArchive.Writer(file);
+        writer.write(1, "long one", description.toString(), false);
+        writer.write(2, "short one", "", false);
+        writer.close();
+
+        //act
+        TaskArchive.Reader reader = new TaskArchive.Reader(file);
+        TaskItemEntity first = reader.next();
+        TaskItemEntity second = reader.next();
+        reader.close();
+
+        //assert
+        Assert.assertEquals(description.toString(), first.getDescription());
+        Assert.assertEquals("short one", second.getTitle());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenFileTruncated_readFailsPartWayThrough() throws Exception {
+
+        //arrange
+        File file = temporaryFolder.newFile();
+        TaskArchive.Writer writer = new TaskArchive.Writer(file);
+        writer.write(1, "one", "", false);
+        writer.write(2, "two", "", false);
+        writer.close();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(file.length() - 3);
+        randomAccessFile.close();
+        TaskArchive.Reader reader = new TaskArchive.Reader(file);
+
+        //act
+        try {
+            reader.next();
+            reader.next();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void whenNotAnArchive_openFails() throws Exception {
+
+        //arrange
+        File file = temporaryFolder.newFile();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.writeBytes("this is not a task archive");
+        randomAccessFile.close();
+
+        //act
+        new TaskArchive.Reader(file);
+    }
+}
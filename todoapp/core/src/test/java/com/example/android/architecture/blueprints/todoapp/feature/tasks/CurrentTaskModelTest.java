@@ -0,0 +1,282 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The TaskListModel and DraftAutosaver are mocked here, DraftAutosaverTest covers the drafts
+ * themselves
+ */
+public class CurrentTaskModelTest {
+
+    private static Logger logger = new SystemLogger();
+
+    private static final long TASK_ID = 5;
+
+    @Mock
+    private TaskListModel mockTaskListModel;
+    @Mock
+    private DraftAutosaver mockDraftAutosaver;
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+    @Mock
+    private Observer mockObserver;
+
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1000L);
+    }
+
+
+    @Test
+    public void initialConditions() throws Exception {
+
+        //arrange
+        CurrentTaskModel currentTaskModel = createModel();
+
+        //act
+
+        //assert
+        Assert.assertEquals(false, currentTaskModel.itemLoaded());
+        Assert.assertEquals(false, currentTaskModel.isLoading());
+        Assert.assertEquals(false, currentTaskModel.hasUnsavedChanges());
+        Assert.assertEquals("", currentTaskModel.getTitle());
+    }
+
+
+    @Test
+    public void whenTitleTyped_draftIsSavedAndObserversNotified() throws Exception {
+
+        //arrange
+        CurrentTaskModel currentTaskModel = createModel();
+        currentTaskModel.createNewEmptyTask();
+        currentTaskModel.addObserver(mockObserver);
+
+
+        //act
+        currentTaskModel.setTitle("b");
+        currentTaskModel.setTitle("bu");
+
+
+        //assert
+        Assert.assertEquals("bu", currentTaskModel.getTitle());
+        Assert.assertEquals(true, currentTaskModel.hasUnsavedChanges());
+        verify(mockDraftAutosaver, times(2)).saveLater(any(TaskItem.class));
+        verify(mockObserver, atLeastOnce()).somethingChanged();
+    }
+
+
+    @Test
+    public void whenNoItemLoaded_editsAreIgnored() throws Exception {
+
+        //arrange
+        CurrentTaskModel currentTaskModel = createModel();
+
+
+        //act
+        currentTaskModel.setTitle("title");
+        currentTaskModel.setDescription("description");
+
+
+        //assert
+        Assert.assertEquals("", currentTaskModel.getTitle());
+        Assert.assertEquals("", currentTaskModel.getDescription());
+        verify(mockDraftAutosaver, never()).saveLater(any(TaskItem.class));
+    }
+
+
+    @Test
+    public void whenNewTaskCreated_oldNewTaskDraftIsDiscarded() throws Exception {
+
+        //arrange
+        CurrentTaskModel currentTaskModel = createModel();
+
+
+        //act
+        currentTaskModel.createNewEmptyTask();
+
+
+        //assert
+        verify(mockDraftAutosaver, times(1)).discard(TaskDraftEntity.NEW_TASK_ID);
+        Assert.assertEquals(true, currentTaskModel.itemLoaded());
+        Assert.assertEquals(false, currentTaskModel.hasUnsavedChanges());
+    }
+
+
+    @Test
+    public void whenDraftOfNewTaskRestored_itsTextIsBack() throws Exception {
+
+        //arrange
+        draftIs(new TaskDraftEntity(TaskDraftEntity.NEW_TASK_ID, "title", null, 500, 900));
+        CurrentTaskModel currentTaskModel = createModel();
+
+
+        //act
+        currentTaskModel.restoreLatestDraft();
+
+
+        //assert
+        Assert.assertEquals(false, currentTaskModel.isLoading());
+        Assert.assertEquals("title", currentTaskModel.getTitle());
+        Assert.assertEquals("", currentTaskModel.getDescription());
+        Assert.assertEquals(true, currentTaskModel.hasUnsavedChanges());
+        verify(mockTaskListModel, never()).getItemById(anyLong(), any(), any());
+    }
+
+
+    @Test
+    public void whenDraftOfExistingTaskRestored_itIsAppliedToTheStoredTask() throws Exception {
+
+        //arrange
+        draftIs(new TaskDraftEntity(TASK_ID, "edited title", "edited description", 500, 900));
+        storedTaskIs(createStoredTask(TASK_ID, "title", "description"));
+        CurrentTaskModel currentTaskModel = createModel();
+
+
+        //act
+        currentTaskModel.restoreLatestDraft();
+
+
+        //assert
+        Assert.assertEquals("edited title", currentTaskModel.getTitle());
+        Assert.assertEquals("edited description", currentTaskModel.getDescription());
+        Assert.assertEquals(true, currentTaskModel.hasUnsavedChanges());
+        verify(mockTaskListModel, times(1)).getItemById(eq(TASK_ID), any(), any());
+    }
+
+
+    @Test
+    public void whenThereIsNoDraft_nothingIsLoaded() throws Exception {
+
+        //arrange
+        draftIs(null);
+        CurrentTaskModel currentTaskModel = createModel();
+
+
+        //act
+        currentTaskModel.restoreLatestDraft();
+
+
+        //assert
+        Assert.assertEquals(false, currentTaskModel.isLoading());
+        Assert.assertEquals(false, currentTaskModel.itemLoaded());
+    }
+
+
+    @Test
+    public void whenSaved_draftIsDiscardedAndTaskUpdated() throws Exception {
+
+        //arrange
+        TaskItem storedTask = createStoredTask(TASK_ID, "title", "description");
+        when(mockTaskListModel.getCachedItemById(TASK_ID)).thenReturn(storedTask);
+        CurrentTaskModel currentTaskModel = createModel();
+        currentTaskModel.loadTask(TASK_ID);
+        currentTaskModel.setTitle("edited title");
+
+
+        //act
+        currentTaskModel.saveChanges();
+
+
+        //assert
+        verify(mockDraftAutosaver, times(1)).discard(TASK_ID);
+        verify(mockTaskListModel, times(1)).update(storedTask);
+    }
+
+
+    @Test
+    public void whenDeleted_draftIsDiscardedAndTaskRemoved() throws Exception {
+
+        //arrange
+        TaskItem storedTask = createStoredTask(TASK_ID, "title", "description");
+        when(mockTaskListModel.getCachedItemById(TASK_ID)).thenReturn(storedTask);
+        CurrentTaskModel currentTaskModel = createModel();
+        currentTaskModel.loadTask(TASK_ID);
+
+
+        //act
+        currentTaskModel.deleteCurrentTaskFromDb();
+
+
+        //assert
+        verify(mockDraftAutosaver, times(1)).discard(TASK_ID);
+        verify(mockTaskListModel, times(1)).remove(storedTask);
+        Assert.assertEquals(false, currentTaskModel.itemLoaded());
+    }
+
+
+    @Test
+    public void whenPaused_pendingDraftIsFlushed() throws Exception {
+
+        //arrange
+        CurrentTaskModel currentTaskModel = createModel();
+        currentTaskModel.createNewEmptyTask();
+        currentTaskModel.setTitle("title");
+
+
+        //act
+        currentTaskModel.flushDraft();
+
+
+        //assert
+        verify(mockDraftAutosaver, times(1)).flush();
+    }
+
+
+    private CurrentTaskModel createModel() {
+        return new CurrentTaskModel(
+                mockTaskListModel,
+                mockDraftAutosaver,
+                mockSystemTimeWrapper,
+                logger,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS));
+    }
+
+    private void draftIs(TaskDraftEntity draft) {
+        doAnswer(invocation -> {
+            //noinspection unchecked
+            ((SuccessCallbackWithPayload<TaskDraftEntity>) invocation.getArguments()[0]).success(draft);
+            return null;
+        }).when(mockDraftAutosaver).loadLatestDraft(any());
+    }
+
+    private void storedTaskIs(TaskItem taskItem) {
+        doAnswer(invocation -> {
+            //noinspection unchecked
+            ((SuccessCallbackWithPayload<TaskItem>) invocation.getArguments()[1]).success(taskItem);
+            return null;
+        }).when(mockTaskListModel).getItemById(eq(taskItem.getEntityId()), any(), any());
+    }
+
+    private static TaskItem createStoredTask(long id, String title, String description) {
+        TaskItemEntity taskItemEntity = new TaskItemEntity(500, title, description);
+        taskItemEntity.setId(id);
+        return new TaskItem(taskItemEntity);
+    }
+}
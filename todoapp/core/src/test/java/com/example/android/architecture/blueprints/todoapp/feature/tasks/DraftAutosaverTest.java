@@ -0,0 +1,182 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftEntity;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskDraftStore;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The ASYNCHRONOUS tests run on the autosaver's own background thread, so they use
+ * Mockito's timeout() to wait for it rather than sleeping
+ */
+public class DraftAutosaverTest {
+
+    private static Logger logger = new SystemLogger();
+
+    private static final long SHORT_INTERVAL_MS = 50;
+    private static final long LONG_INTERVAL_MS = 60 * 1000;
+    private static final long WAIT_MS = 2000;
+
+    @Mock
+    private TaskDraftStore mockTaskDraftStore;
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+    @Mock
+    private SuccessCallbackWithPayload<TaskDraftEntity> mockSuccessCallback;
+
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(1000L);
+    }
+
+
+    @Test
+    public void whenSavedOnEveryKeystroke_onlyTheLatestDraftIsWritten() throws Exception {
+
+        //arrange
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.ASYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.ASYNCHRONOUS, SHORT_INTERVAL_MS);
+        TaskItem taskItem = new TaskItem(500, "", "");
+        ArgumentCaptor<TaskDraftEntity> written = ArgumentCaptor.forClass(TaskDraftEntity.class);
+
+
+        //act
+        for (int ii = 1; ii <= 100; ii++) {
+            taskItem.setTitle("draft " + ii);
+            draftAutosaver.saveLater(taskItem);
+        }
+
+
+        //assert
+        verify(mockTaskDraftStore, timeout(WAIT_MS).times(1)).saveDraft(written.capture());
+        Assert.assertEquals("draft 100", written.getValue().getTitle());
+        Assert.assertEquals(500, written.getValue().getCreationTimestamp());
+        Assert.assertEquals(TaskDraftEntity.NEW_TASK_ID, written.getValue().getTaskId());
+    }
+
+
+    @Test
+    public void whenFlushed_pendingDraftIsWrittenWithoutWaitingForTheInterval() throws Exception {
+
+        //arrange
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.ASYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.ASYNCHRONOUS, LONG_INTERVAL_MS);
+        TaskItem taskItem = new TaskItem(500, "", "");
+        taskItem.setTitle("draft");
+
+
+        //act
+        draftAutosaver.saveLater(taskItem);
+        draftAutosaver.flush();
+
+
+        //assert
+        verify(mockTaskDraftStore, timeout(WAIT_MS).times(1)).saveDraft(any(TaskDraftEntity.class));
+    }
+
+
+    @Test
+    public void whenDiscarded_pendingDraftIsNeverWrittenAndStoredOneIsDeleted() throws Exception {
+
+        //arrange
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.ASYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.ASYNCHRONOUS, LONG_INTERVAL_MS);
+        TaskItem taskItem = new TaskItem(500, "", "");
+        taskItem.setTitle("draft");
+
+
+        //act
+        draftAutosaver.saveLater(taskItem);
+        draftAutosaver.discard(TaskDraftEntity.NEW_TASK_ID);
+        draftAutosaver.flush();
+
+
+        //assert
+        verify(mockTaskDraftStore, timeout(WAIT_MS).times(1)).deleteDraft(TaskDraftEntity.NEW_TASK_ID);
+        verify(mockTaskDraftStore, never()).saveDraft(any(TaskDraftEntity.class));
+    }
+
+
+    @Test
+    public void whenDiscardingAnotherTask_pendingDraftIsKept() throws Exception {
+
+        //arrange
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.ASYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.ASYNCHRONOUS, LONG_INTERVAL_MS);
+        TaskItem taskItem = new TaskItem(500, "", "");
+        taskItem.setTitle("draft");
+
+
+        //act
+        draftAutosaver.saveLater(taskItem);
+        draftAutosaver.discard(5);
+        draftAutosaver.flush();
+
+
+        //assert
+        verify(mockTaskDraftStore, timeout(WAIT_MS).times(1)).saveDraft(any(TaskDraftEntity.class));
+        verify(mockTaskDraftStore, times(1)).deleteDraft(5);
+    }
+
+
+    @Test
+    public void whenSynchronous_draftIsWrittenStraightAway() throws Exception {
+
+        //arrange
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.SYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.SYNCHRONOUS, LONG_INTERVAL_MS);
+        TaskItem taskItem = new TaskItem(500, "", "");
+        taskItem.setTitle("draft");
+
+
+        //act
+        draftAutosaver.saveLater(taskItem);
+
+
+        //assert
+        verify(mockTaskDraftStore, times(1)).saveDraft(any(TaskDraftEntity.class));
+    }
+
+
+    @Test
+    public void whenLoadingLatestDraft_storedDraftIsReturned() throws Exception {
+
+        //arrange
+        TaskDraftEntity storedDraft = new TaskDraftEntity(5, "title", "description", 500, 900);
+        when(mockTaskDraftStore.getLatestDraft()).thenReturn(storedDraft);
+        DraftAutosaver draftAutosaver = new DraftAutosaver(mockTaskDraftStore, scheduler(WorkMode.SYNCHRONOUS), mockSystemTimeWrapper, logger, WorkMode.SYNCHRONOUS, LONG_INTERVAL_MS);
+
+
+        //act
+        draftAutosaver.loadLatestDraft(mockSuccessCallback);
+
+
+        //assert
+        verify(mockSuccessCallback, times(1)).success(storedDraft);
+        verify(mockTaskDraftStore, never()).deleteDraft(anyLong());
+    }
+
+
+    private static ModelScheduler scheduler(WorkMode workMode) {
+        return new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, new MetricsRegistry(), workMode);
+    }
+}
@@ -1,24 +1,27 @@
 package com.example.android.architecture.blueprints.todoapp.feature.tasks;
 
-import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemService;
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemSource;
+import com.example.android.architecture.blueprints.todoapp.callbacks.FailureCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallback;
+import com.example.android.architecture.blueprints.todoapp.callbacks.SuccessCallbackWithPayload;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
 import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.observer.Observer;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
-import co.early.fore.core.WorkMode;
-import co.early.fore.core.callbacks.FailureCallbackWithPayload;
-import co.early.fore.core.callbacks.SuccessCallback;
-import co.early.fore.core.logging.Logger;
-import co.early.fore.core.logging.SystemLogger;
-import co.early.fore.core.observer.Observer;
-import co.early.fore.core.time.SystemTimeWrapper;
-import co.early.fore.net.retrofit2.CallProcessorRetrofit2;
-
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.atLeastOnce;
@@ -30,15 +33,16 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
  * Tests for this model cover a few areas:
  * <p>
  * 1) Construction: we check that the model is constructed in the correct state
- * 2) Receiving data: we check that the model behaves appropriately when receiving various success and fail responses from the CallProcessor
+ * 2) Receiving data: we check that the model behaves appropriately when receiving various success and fail responses from the TaskItemSource
  * 3) Observers and State: we check that the model updates its observers correctly and presents it's current state accurately
  *
  */
 public class TaskFetcherUnitTest {
 
-    public static final String LOG_TAG = TaskFetcherIntegrationTest.class.getSimpleName();
+    public static final String LOG_TAG = TaskFetcherUnitTest.class.getSimpleName();
 
     private static Logger logger = new SystemLogger();
+    private static MetricsRegistry metrics = new MetricsRegistry();
 
 
     @Mock
@@ -50,9 +54,7 @@ public class TaskFetcherUnitTest {
     @Mock
     private SystemTimeWrapper mockSystemTimeWrapper;
     @Mock
-    private CallProcessorRetrofit2<UserMessage> mockCallProcessor;
-    @Mock
-    private TaskItemService mockTaskItemService;
+    private TaskItemSource mockTaskItemSource;
     @Mock
     private Observer mockObserver;
 
@@ -69,10 +71,11 @@ public class TaskFetcherUnitTest {
         //arrange
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                mockTaskItemService,
-                mockCallProcessor,
+                mockTaskItemSource,
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
         //act
@@ -86,14 +89,15 @@ public class TaskFetcherUnitTest {
     public void fetchTasks_MockSuccess() throws Exception {
 
         //arrange
-        new StateBuilder(mockCallProcessor)
+        new StateBuilder(mockTaskItemSource)
                 .getTasksSuccess(StateBuilder.TASK_POJOS);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                mockTaskItemService,
-                mockCallProcessor,
+                mockTaskItemSource,
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
@@ -104,23 +108,56 @@ public class TaskFetcherUnitTest {
         //assert
         verify(mockSuccessCallback, times(1)).success();
         verify(mockFailureCallbackWithPayload, never()).fail(any());
-        verify(mockTaskListModel, Mockito.times(1)).addManyFilterOutDuplicates(argThat(new StateBuilder.MatchesTasksFromServer(logger, LOG_TAG)));
+        verify(mockTaskListModel, Mockito.times(1)).addManyFilterOutDuplicates(argThat(new StateBuilder.MatchesTasksFromServer(logger, LOG_TAG)), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
 
+    @Test
+    public void fetchTasks_ingestIsTimedUntilRowsAreInTheDb() throws Exception {
+
+        //arrange
+        new StateBuilder(mockTaskItemSource)
+                .getTasksSuccess(StateBuilder.TASK_POJOS);
+        MetricsRegistry ingestMetrics = new MetricsRegistry();
+        TaskFetcher fetcher = new TaskFetcher(
+                mockTaskListModel,
+                mockTaskItemSource,
+                mockSystemTimeWrapper,
+                logger,
+                ingestMetrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
+                WorkMode.SYNCHRONOUS);
+        ArgumentCaptor<SuccessCallbackWithPayload> rowsInserted = ArgumentCaptor.forClass(SuccessCallbackWithPayload.class);
+
+
+        //act
+        fetcher.fetchTaskItems(mockSuccessCallback, mockFailureCallbackWithPayload);
+        verify(mockTaskListModel).addManyFilterOutDuplicates(any(), rowsInserted.capture());
+        long timedBeforeInsert = ingestMetrics.timer(TaskFetcher.METRIC_INGEST).getCount();
+        //noinspection unchecked
+        rowsInserted.getValue().success(StateBuilder.TASK_POJOS.size());
+
+
+        //assert
+        Assert.assertEquals(0, timedBeforeInsert);
+        Assert.assertEquals(1, ingestMetrics.timer(TaskFetcher.METRIC_INGEST).getCount());
+    }
+
+
     @Test
     public void fetchTasks_MockFailure() throws Exception {
 
         //arrange
-        new StateBuilder(mockCallProcessor)
+        new StateBuilder(mockTaskItemSource)
                 .getTasksFail(UserMessage.ERROR_MISC);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                mockTaskItemService,
-                mockCallProcessor,
+                mockTaskItemSource,
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
@@ -131,7 +168,7 @@ public class TaskFetcherUnitTest {
         //assert
         verify(mockSuccessCallback, never()).success();
         verify(mockFailureCallbackWithPayload, times(1)).fail(UserMessage.ERROR_MISC);
-        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any());
+        verify(mockTaskListModel, never()).addManyFilterOutDuplicates(any(), any());
         Assert.assertEquals(false, fetcher.isBusy());
     }
 
@@ -156,14 +193,15 @@ public class TaskFetcherUnitTest {
     public void observersNotifiedAtLeastOnce() throws Exception {
 
         //arrange
-        new StateBuilder(mockCallProcessor)
+        new StateBuilder(mockTaskItemSource)
                 .getTasksFail(UserMessage.ERROR_MISC);
         TaskFetcher fetcher = new TaskFetcher(
                 mockTaskListModel,
-                mockTaskItemService,
-                mockCallProcessor,
+                mockTaskItemSource,
                 mockSystemTimeWrapper,
                 logger,
+                metrics,
+                new FrameBatcher(new ExecutorUiThread(), WorkMode.SYNCHRONOUS),
                 WorkMode.SYNCHRONOUS);
 
 
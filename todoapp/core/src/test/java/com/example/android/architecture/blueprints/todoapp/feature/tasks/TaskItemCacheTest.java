@@ -0,0 +1,111 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain unit tests for the LRU cache used by TaskListModel.getItemById()
+ */
+public class TaskItemCacheTest {
+
+    @Test
+    public void whenItemPut_itemIsReturnedAsACopy() throws Exception {
+
+        //arrange
+        TaskItemCache cache = new TaskItemCache(10);
+        TaskItemEntity entity = createEntity(1, "buy rice");
+
+        //act
+        cache.put(entity);
+        TaskItem cached = cache.get(1);
+        cached.setTitle("changed");
+
+        //assert
+        Assert.assertEquals("buy rice", cache.get(1).getTitle());
+        Assert.assertNotSame(entity, cache.get(1).getEntity());
+    }
+
+    @Test
+    public void whenFull_leastRecentlyUsedItemIsEvicted() throws Exception {
+
+        //arrange
+        TaskItemCache cache = new TaskItemCache(2);
+        cache.put(createEntity(1, "one"));
+        cache.put(createEntity(2, "two"));
+
+        //act
+        cache.get(1);
+        cache.put(createEntity(3, "three"));
+
+        //assert
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.get(1));
+        Assert.assertNull(cache.get(2));
+        Assert.assertNotNull(cache.get(3));
+    }
+
+    @Test
+    public void whenFilled_onlyTheTopOfTheListIsCached() throws Exception {
+
+        //arrange
+        TaskItemCache cache = new TaskItemCache(2);
+
+        //act
+        cache.fill(createList(5), cache.getGeneration());
+
+        //assert
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.get(1));
+        Assert.assertNotNull(cache.get(2));
+        Assert.assertNull(cache.get(3));
+    }
+
+    @Test
+    public void whenInvalidatedDuringQuery_staleResultsAreIgnored() throws Exception {
+
+        //arrange
+        TaskItemCache cache = new TaskItemCache(10);
+        long generationAtQueryTime = cache.getGeneration();
+
+        //act
+        cache.invalidate(1);
+        cache.fill(createList(3), generationAtQueryTime);
+
+        //assert
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenInvalidated_itemIsRemoved() throws Exception {
+
+        //arrange
+        TaskItemCache cache = new TaskItemCache(10);
+        cache.fill(createList(3), cache.getGeneration());
+
+        //act
+        cache.invalidate(2);
+
+        //assert
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    private List<TaskItem> createList(int size) {
+        List<TaskItem> taskItems = new ArrayList<>();
+        for (int ii = 1; ii <= size; ii++) {
+            taskItems.add(new TaskItem(createEntity(ii, "task " + ii)));
+        }
+        return taskItems;
+    }
+
+    private TaskItemEntity createEntity(long id, String title) {
+        TaskItemEntity entity = new TaskItemEntity(id, title, "");
+        entity.setId(id);
+        return entity;
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.android.architecture.blueprints.todoapp.feature.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.db.tasks.InMemoryTaskStore;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity;
+import com.example.android.architecture.blueprints.todoapp.db.tasks.TaskStore;
+import com.example.android.architecture.blueprints.todoapp.diff.DiffSpec;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiff;
+import com.example.android.architecture.blueprints.todoapp.diff.ListDiffer;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.message.UserMessage;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.android.architecture.blueprints.todoapp.observer.CountDownLatchWrapper.runInBatch;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * The model on a plain JVM, over the InMemoryTaskStore. Everything is SYNCHRONOUS here, the
+ * Room backed tests in the app cover the model on a real (Robolectric) sqlite db
+ */
+public class TaskListModelTest {
+
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+    @Mock
+    private ListDiffer<TaskItem> mockDiffer;
+
+    private WorkMode workMode = WorkMode.SYNCHRONOUS;
+    private Logger logger = new SystemLogger();
+    private MetricsRegistry metrics = new MetricsRegistry();
+    private ModelScheduler scheduler = new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, metrics, workMode);
+    private FrameBatcher frameBatcher = new FrameBatcher(new ExecutorUiThread(), workMode);
+
+    private InMemoryTaskStore taskStore;
+
+    private static final TaskItem TASK_ITEM_0 = new TaskItem(0, "buy rice", "");
+    private static final TaskItem TASK_ITEM_1 = new TaskItem(1, "get hair cut", "");
+    private static final TaskItem TASK_ITEM_2 = new TaskItem(2, "invest in bitcoin", "");
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        taskStore = new InMemoryTaskStore();
+    }
+
+    @Test
+    public void whenInitialised_withNoData_stateIsCorrect() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+
+        //act
+
+        //assert
+        Assert.assertEquals(0, taskListModel.size());
+        Assert.assertEquals(0, taskListModel.getAllTasksCount());
+    }
+
+    @Test
+    public void whenRunningOnInMemoryStore_todoItemsAreCorrect() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+
+        //act
+        runInBatch(3, taskListModel, () -> {
+            taskListModel.add(TASK_ITEM_0);
+            taskListModel.add(TASK_ITEM_1);
+            taskListModel.add(TASK_ITEM_2);
+        });
+        runInBatch(1, taskListModel, () -> {
+            taskListModel.remove(taskListModel.get(1));
+        });
+
+        //assert
+        Assert.assertEquals(2, taskListModel.size());
+        Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(0, taskListModel.get(1).getCreationTimestamp());
+        Assert.assertEquals(2, taskStore.getRowCount());
+        Assert.assertEquals(1, taskStore.getDeletedIdsSince(-1).size());
+    }
+
+    @Test
+    public void whenFirstLoaded_tombstonesFromEarlierSessionsArePurged() throws Exception {
+
+        //arrange
+        taskStore.insertTaskItem(TASK_ITEM_0.getEntity());
+        taskStore.insertTaskItem(TASK_ITEM_1.getEntity());
+        taskStore.softDeleteTaskItem(taskStore.getMaxId(), 0);
+        when(mockSystemTimeWrapper.currentTimeMillis()).thenReturn(TaskCompactor.DEFAULT_TOMBSTONE_RETENTION_MS + 1);
+        TaskListModel taskListModel = createModel();
+
+        //act
+        taskListModel.fetchLatestFromDb();
+
+        //assert
+        Assert.assertEquals(1, taskListModel.size());
+        Assert.assertEquals(0, taskStore.getDeletedIdsSince(-1).size());
+    }
+
+    @Test
+    public void whenListChanges_latestDiffComesFromTheDiffer() throws Exception {
+
+        //arrange
+        ListDiff diff = mock(ListDiff.class);
+        when(mockDiffer.calculateDiff(any(), any())).thenReturn(diff);
+        TaskListModel taskListModel = createModel();
+        taskListModel.getAndClearLatestDiffSpec(50);
+
+        //act
+        taskListModel.add(TASK_ITEM_0);
+
+        //assert
+        Assert.assertEquals(1, taskListModel.size());
+        Assert.assertSame(diff, taskListModel.getAndClearLatestDiffSpec(50).diff);
+        Assert.assertNull(taskListModel.getAndClearLatestDiffSpec(50).diff);
+    }
+
+    @Test
+    public void whenSeveralSnapshotsPublishedBetweenSyncs_fullRedrawIsAskedFor() throws Exception {
+
+        //arrange
+        ListDiff diff = mock(ListDiff.class);
+        when(mockDiffer.calculateDiff(any(), any())).thenReturn(diff);
+        TaskListModel taskListModel = createModel();
+        taskListModel.getAndClearLatestDiffSpec(50);
+        taskListModel.add(TASK_ITEM_0);
+        taskListModel.getAndClearLatestDiffSpec(50);
+        long syncedVersion = taskListModel.getSnapshot().getVersion();
+
+        //act
+        taskListModel.add(TASK_ITEM_1);
+        taskListModel.add(TASK_ITEM_2);
+        DiffSpec behind = taskListModel.getAndClearLatestDiffSpec(50);
+        taskListModel.add(new TaskItem(3, "walk dog", ""));
+        DiffSpec upToDate = taskListModel.getAndClearLatestDiffSpec(50);
+
+        //assert
+        Assert.assertTrue(taskListModel.getSnapshot().getVersion() >= syncedVersion + 3);
+        Assert.assertNull(behind.diff);
+        Assert.assertSame(diff, upToDate.diff);
+        Assert.assertEquals(4, taskListModel.size());
+    }
+
+    @Test
+    public void whenFilterSet_onlyMatchingItemsAreVisible() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        taskListModel.add(TASK_ITEM_0);
+        taskListModel.add(TASK_ITEM_1);
+        taskListModel.setCompleted(true, 0);
+
+        //act
+        taskListModel.setFilter(Filter.ACTIVE);
+
+        //assert
+        Assert.assertEquals(1, taskListModel.size());
+        Assert.assertEquals(0, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(2, taskListModel.getAllTasksCount());
+        Assert.assertEquals(1, taskListModel.getCompletedTasksCount());
+    }
+
+    @Test
+    public void whenItemIsNotInMemory_itIsFetchedFromTheStore() throws Exception {
+
+        //arrange
+        TaskListModel taskListModel = createModel();
+        long id = taskStore.insertTaskItem(new TaskItem(5, "walk dog", "").getEntity());
+        AtomicReference<TaskItem> found = new AtomicReference<>();
+        AtomicReference<UserMessage> failure = new AtomicReference<>();
+
+        //act
+        taskListModel.getItemById(id, found::set, failure::set);
+
+        //assert
+        Assert.assertNull(failure.get());
+        Assert.assertEquals("walk dog", found.get().getTitle());
+    }
+
+    @Test
+    public void whenClearAndAddCommitTogether_theAddedItemIsVisible() throws Exception {
+
+        //arrange
+        List<Runnable> heldCommits = new ArrayList<>();
+        TaskListModel taskListModel = createModel(taskStore, holdCommits(heldCommits));
+        taskListModel.add(TASK_ITEM_0);
+        taskListModel.add(TASK_ITEM_1);
+        runAll(heldCommits);
+
+        //act
+        taskListModel.clear();
+        taskListModel.add(TASK_ITEM_2);
+        runAll(heldCommits);
+
+        //assert
+        Assert.assertEquals(1, taskListModel.size());
+        Assert.assertEquals(2, taskListModel.get(0).getCreationTimestamp());
+        Assert.assertEquals(1, taskListModel.getAllTasksCount());
+    }
+
+    @Test
+    public void whenClearFails_itemsComeBackAndFailureIsReported() throws Exception {
+
+        //arrange
+        InMemoryTaskStore failingStore = spy(taskStore);
+        doThrow(new IllegalStateException("disk full")).when(failingStore).clear(anyLong());
+        TaskListModel taskListModel = createModel(failingStore, scheduler);
+        taskListModel.add(TASK_ITEM_0);
+        taskListModel.add(TASK_ITEM_1);
+        List<UserMessage> failures = new ArrayList<>();
+
+        //act
+        taskListModel.clear(failures::add);
+
+        //assert
+        Assert.assertEquals(2, taskListModel.size());
+        Assert.assertEquals(Collections.singletonList(UserMessage.ERROR_NOT_SAVED), failures);
+    }
+
+    @Test
+    public void whenSetCompletedFailsToSave_itemFlipsBackAndFailureIsReported() throws Exception {
+
+        //arrange
+        InMemoryTaskStore failingStore = spy(taskStore);
+        doThrow(new IllegalStateException("disk full")).when(failingStore).updateTaskItem(any(TaskItemEntity.class));
+        TaskListModel taskListModel = createModel(failingStore, scheduler);
+        taskListModel.add(TASK_ITEM_0);
+        List<UserMessage> failures = new ArrayList<>();
+
+        //act
+        taskListModel.setCompleted(true, 0, failures::add);
+
+        //assert
+        Assert.assertEquals(false, taskListModel.get(0).isCompleted());
+        Assert.assertEquals(Collections.singletonList(UserMessage.ERROR_NOT_SAVED), failures);
+    }
+
+    @Test
+    public void whenSetCompletedUpdatesNoRows_itemFlipsBackAndFailureIsReported() throws Exception {
+
+        //arrange
+        InMemoryTaskStore failingStore = spy(taskStore);
+        doReturn(0).when(failingStore).updateTaskItem(any(TaskItemEntity.class));
+        TaskListModel taskListModel = createModel(failingStore, scheduler);
+        taskListModel.add(TASK_ITEM_0);
+        List<UserMessage> failures = new ArrayList<>();
+
+        //act
+        taskListModel.setCompleted(true, 0, failures::add);
+
+        //assert
+        Assert.assertEquals(false, taskListModel.get(0).isCompleted());
+        Assert.assertEquals(0, taskListModel.getCompletedTasksCount());
+        Assert.assertEquals(Collections.singletonList(UserMessage.ERROR_NOT_SAVED), failures);
+    }
+
+    private TaskListModel createModel() {
+        return createModel(taskStore, scheduler);
+    }
+
+    private TaskListModel createModel(TaskStore taskStore, ModelScheduler scheduler) {
+        return new TaskListModel(taskStore, logger, metrics, scheduler, mockSystemTimeWrapper, frameBatcher, mockDiffer, workMode);
+    }
+
+    /**
+     * The group commit writer's drains are held on to instead of run, so that several writes can
+     * be lined up for the same commit. Everything else runs as usual
+     */
+    private ModelScheduler holdCommits(List<Runnable> heldCommits) {
+        ModelScheduler holdingScheduler = spy(scheduler);
+        doAnswer(invocation -> heldCommits.add((Runnable) invocation.getArguments()[1]))
+                .when(holdingScheduler).execute(eq(ModelScheduler.Lane.INTERACTIVE), any(Runnable.class));
+        return holdingScheduler;
+    }
+
+    private static void runAll(List<Runnable> runnables) {
+        while (!runnables.isEmpty()) {
+            runnables.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.android.architecture.blueprints.todoapp.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records what reaches the wrapped logger as "level/message"
+ */
+public class LevelLoggerTest {
+
+    private static final String TAG = "tag";
+
+    @Test
+    public void whenArgumentsMatchPlaceholders_eachIsFilledInOrder() throws Exception {
+
+        //arrange
+        String pattern = "a:{} b:{} c:{}";
+
+        //act
+        String message = LevelLogger.format(pattern, 1, "two", 3L);
+
+        //assert
+        Assert.assertEquals("a:1 b:two c:3", message);
+    }
+
+    @Test
+    public void whenFewerArgumentsThanPlaceholders_restAreLeftAsTheyAre() throws Exception {
+
+        //arrange
+        String pattern = "a:{} b:{} c:{}";
+
+        //act
+        String message = LevelLogger.format(pattern, 1);
+
+        //assert
+        Assert.assertEquals("a:1 b:{} c:{}", message);
+    }
+
+    @Test
+    public void whenMoreArgumentsThanPlaceholders_restAreIgnored() throws Exception {
+
+        //arrange
+        String pattern = "a:{} end";
+
+        //act
+        String message = LevelLogger.format(pattern, 1, 2, 3);
+
+        //assert
+        Assert.assertEquals("a:1 end", message);
+    }
+
+    @Test
+    public void whenArgumentIsNull_itComesOutAsNull() throws Exception {
+
+        //arrange
+        String pattern = "{}:{}";
+
+        //act
+        String message = LevelLogger.format(pattern, null, "b");
+
+        //assert
+        Assert.assertEquals("null:b", message);
+    }
+
+    @Test
+    public void whenNoPlaceholders_patternIsUnchanged() throws Exception {
+
+        //arrange
+        String pattern = "no placeholders {";
+
+        //act
+        String message = LevelLogger.format(pattern, 1);
+
+        //assert
+        Assert.assertEquals("no placeholders {", message);
+    }
+
+    @Test
+    public void whenBelowMinLevel_nothingReachesTheLogger() throws Exception {
+
+        //arrange
+        RecordingLogger recordingLogger = new RecordingLogger();
+        LevelLogger logger = new LevelLogger(recordingLogger, LevelLogger.Level.WARN);
+
+        //act
+        logger.v(TAG, "v:{}", 1);
+        logger.d(TAG, "d:{} {}", 1, 2);
+        logger.i(TAG, "i:{} {} {}", 1, 2, 3);
+        logger.w(TAG, "w:{} {} {}", 1, 2, 3);
+        logger.e(TAG, "e:{}", (Object) null);
+
+        //assert
+        Assert.assertEquals(2, recordingLogger.lines.size());
+        Assert.assertEquals("w/w:1 2 3", recordingLogger.lines.get(0));
+        Assert.assertEquals("e/e:null", recordingLogger.lines.get(1));
+    }
+
+    @Test
+    public void whenDebugBuild_everythingIsLogged() throws Exception {
+
+        //arrange
+        LevelLogger debug = LevelLogger.forBuild(new RecordingLogger(), true);
+        LevelLogger release = LevelLogger.forBuild(new RecordingLogger(), false);
+
+        //act
+        LevelLogger.Level debugLevel = debug.getMinLevel();
+        LevelLogger.Level releaseLevel = release.getMinLevel();
+
+        //assert
+        Assert.assertEquals(LevelLogger.Level.VERBOSE, debugLevel);
+        Assert.assertEquals(LevelLogger.Level.WARN, releaseLevel);
+    }
+
+    private static class RecordingLogger implements Logger {
+
+        final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void e(String tag, String message) {
+            lines.add("e/" + message);
+        }
+
+        @Override
+        public void w(String tag, String message) {
+            lines.add("w/" + message);
+        }
+
+        @Override
+        public void i(String tag, String message) {
+            lines.add("i/" + message);
+        }
+
+        @Override
+        public void d(String tag, String message) {
+            lines.add("d/" + message);
+        }
+
+        @Override
+        public void v(String tag, String message) {
+            lines.add("v/" + message);
+        }
+
+        @Override
+        public void e(String tag, String message, Throwable throwable) {
+            e(tag, message);
+        }
+
+        @Override
+        public void w(String tag, String message, Throwable throwable) {
+            w(tag, message);
+        }
+
+        @Override
+        public void i(String tag, String message, Throwable throwable) {
+            i(tag, message);
+        }
+
+        @Override
+        public void d(String tag, String message, Throwable throwable) {
+            d(tag, message);
+        }
+
+        @Override
+        public void v(String tag, String message, Throwable throwable) {
+            v(tag, message);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.android.architecture.blueprints.todoapp.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void whenValueIsSmall_itGetsABucketOfItsOwn() throws Exception {
+
+        //arrange
+
+        //act
+        int[] indexes = new int[16];
+        for (int ii = 0; ii < 16; ii++) {
+            indexes[ii] = Histogram.bucketIndex(ii);
+        }
+
+        //assert
+        for (int ii = 0; ii < 16; ii++) {
+            Assert.assertEquals(ii, indexes[ii]);
+            Assert.assertEquals(ii, Histogram.bucketMidpoint(indexes[ii]));
+        }
+    }
+
+    @Test
+    public void whenValueIsLarge_bucketMidpointIsWithinOneSixteenth() throws Exception {
+
+        //arrange
+        long[] values = {16, 17, 31, 32, 100, 1000, 12345, 1L << 20, (1L << 20) + 1, 999_999_999L, 1L << 40, Long.MAX_VALUE};
+
+        //act
+        int previousIndex = -1;
+        for (long value : values) {
+            int index = Histogram.bucketIndex(value);
+            long midpoint = Histogram.bucketMidpoint(index);
+
+            //assert
+            Assert.assertTrue("value:" + value, index >= previousIndex);
+            Assert.assertTrue("value:" + value + " midpoint:" + midpoint,
+                    Math.abs((double) midpoint - (double) value) <= value / 16D);
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void whenValuesCrossAPowerOfTwo_bucketsAreContiguous() throws Exception {
+
+        //arrange
+
+        //act
+        int below = Histogram.bucketIndex(1023);
+        int at = Histogram.bucketIndex(1024);
+
+        //assert
+        Assert.assertEquals(below + 1, at);
+        Assert.assertEquals(Histogram.bucketIndex(1024 + 127), at);
+        Assert.assertEquals(at + 1, Histogram.bucketIndex(1024 + 128));
+    }
+
+    @Test
+    public void whenEmpty_everythingIsZero() throws Exception {
+
+        //arrange
+        Histogram histogram = new Histogram();
+
+        //act
+
+        //assert
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMean());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void whenUniformValuesRecorded_percentilesAreClose() throws Exception {
+
+        //arrange
+        Histogram histogram = new Histogram();
+
+        //act
+        for (int ii = 1; ii <= 1000; ii++) {
+            histogram.record(ii);
+        }
+
+        //assert
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500, histogram.getMean());
+        Assert.assertEquals(1000, histogram.getMax());
+        assertWithin(500, histogram.getPercentile(50), 0.125);
+        assertWithin(950, histogram.getPercentile(95), 0.125);
+        assertWithin(990, histogram.getPercentile(99), 0.125);
+        Assert.assertEquals(1, histogram.getPercentile(0));
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void whenOneOutlier_highPercentilesAreCappedAtMax() throws Exception {
+
+        //arrange
+        Histogram histogram = new Histogram();
+
+        //act
+        for (int ii = 0; ii < 99; ii++) {
+            histogram.record(10);
+        }
+        histogram.record(1000);
+
+        //assert
+        Assert.assertEquals(10, histogram.getPercentile(50));
+        Assert.assertEquals(10, histogram.getPercentile(99));
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+        Assert.assertTrue(histogram.getPercentile(100) <= histogram.getMax());
+    }
+
+    @Test
+    public void whenNegativeValueRecorded_itCountsAsZero() throws Exception {
+
+        //arrange
+        Histogram histogram = new Histogram();
+
+        //act
+        histogram.record(-5);
+
+        //assert
+        Assert.assertEquals(1, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void whenReset_everythingIsZeroAgain() throws Exception {
+
+        //arrange
+        Histogram histogram = new Histogram();
+        histogram.record(42);
+
+        //act
+        histogram.reset();
+
+        //assert
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual, double fraction) {
+        Assert.assertTrue("expected:" + expected + " actual:" + actual,
+                Math.abs(actual - expected) <= expected * fraction);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.android.architecture.blueprints.todoapp.metrics;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class MetricsRegistryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void whenTimed_durationIsRecordedInMicroseconds() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(true);
+
+        //act
+        long start = metrics.start();
+        Thread.sleep(5);
+        metrics.stop("work", start);
+
+        //assert
+        Histogram timer = metrics.timer("work");
+        Assert.assertEquals(1, timer.getCount());
+        Assert.assertTrue("max:" + timer.getMax(), timer.getMax() >= 5000);
+    }
+
+    @Test
+    public void whenDisabled_nothingIsRecorded() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(false);
+
+        //act
+        long start = metrics.start();
+        metrics.stop("work", start);
+        metrics.recordValue("rows", 10);
+        metrics.increment("depth");
+
+        //assert
+        Assert.assertEquals(0, start);
+        Assert.assertEquals(0, metrics.timer("work").getCount());
+        Assert.assertEquals(0, metrics.values("rows").getCount());
+        Assert.assertEquals(0, metrics.gauge("depth").get());
+    }
+
+    @Test
+    public void whenStartedWhileDisabled_stopRecordsNothing() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(false);
+        long start = metrics.start();
+
+        //act
+        metrics.setEnabled(true);
+        metrics.stop("work", start);
+
+        //assert
+        Assert.assertEquals(0, metrics.timer("work").getCount());
+    }
+
+    @Test
+    public void whenGaugeGoesUpAndDown_maxIsKeptUntilReset() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(true);
+
+        //act
+        metrics.increment("depth");
+        metrics.increment("depth");
+        metrics.increment("depth");
+        metrics.decrement("depth");
+        metrics.decrement("depth");
+        int maxBeforeReset = metrics.gauge("depth").getMax();
+        metrics.reset();
+
+        //assert
+        Assert.assertEquals(1, metrics.gauge("depth").get());
+        Assert.assertEquals(3, maxBeforeReset);
+        Assert.assertEquals(1, metrics.gauge("depth").getMax());
+    }
+
+    @Test
+    public void whenReported_oneSortedLinePerMetric() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.recordValue("rows.b", 10);
+        metrics.recordValue("rows.a", 20);
+        metrics.increment("depth");
+
+        //act
+        String[] lines = metrics.report().split("\n");
+
+        //assert
+        Assert.assertEquals(3, lines.length);
+        Assert.assertEquals("value rows.a count:1 mean:20 p50:20 p95:20 p99:20 max:20", lines[0]);
+        Assert.assertEquals("value rows.b count:1 mean:10 p50:10 p95:10 p99:10 max:10", lines[1]);
+        Assert.assertEquals("gauge depth current:1 max:1", lines[2]);
+    }
+
+    @Test
+    public void whenExported_fileHoldsTheReport() throws Exception {
+
+        //arrange
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.recordValue("rows", 7);
+        File file = new File(temporaryFolder.getRoot(), "metrics.txt");
+
+        //act
+        metrics.exportTo(file);
+
+        //assert
+        Assert.assertEquals(metrics.report(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+}
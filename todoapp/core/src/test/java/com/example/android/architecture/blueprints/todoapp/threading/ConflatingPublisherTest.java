@@ -0,0 +1,213 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Uses an executor which only runs work when we tell it to, so that we can act as a slow
+ * subscriber
+ */
+public class ConflatingPublisherTest {
+
+    @Test
+    public void whenSubscriberKeepsUp_everyValueIsDelivered() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        List<String> received = new ArrayList<>();
+        List<Boolean> missed = new ArrayList<>();
+        publisher.subscribe(Runnable::run, (value, missedUpdates) -> {
+            received.add(value);
+            missed.add(missedUpdates);
+        });
+
+        //act
+        publisher.publish("a");
+        publisher.publish("b");
+
+        //assert
+        Assert.assertEquals(2, received.size());
+        Assert.assertEquals("a", received.get(0));
+        Assert.assertEquals("b", received.get(1));
+        Assert.assertEquals(false, missed.get(0));
+        Assert.assertEquals(false, missed.get(1));
+    }
+
+    @Test
+    public void whenSubscriberIsSlow_onlyLatestValueIsDelivered() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        ManualExecutor executor = new ManualExecutor();
+        List<String> received = new ArrayList<>();
+        List<Boolean> missed = new ArrayList<>();
+        publisher.subscribe(executor, (value, missedUpdates) -> {
+            received.add(value);
+            missed.add(missedUpdates);
+        });
+
+        //act
+        publisher.publish("a");
+        publisher.publish("b");
+        publisher.publish("c");
+        executor.runAll();
+
+        //assert
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("c", received.get(0));
+        Assert.assertEquals(true, missed.get(0));
+    }
+
+    @Test
+    public void whenSubscribingLate_latestValueIsDeliveredStraightAway() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        publisher.publish("a");
+        publisher.publish("b");
+        List<String> received = new ArrayList<>();
+        List<Boolean> missed = new ArrayList<>();
+
+        //act
+        publisher.subscribe(Runnable::run, (value, missedUpdates) -> {
+            received.add(value);
+            missed.add(missedUpdates);
+        });
+
+        //assert
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("b", received.get(0));
+        Assert.assertEquals(true, missed.get(0));
+    }
+
+    @Test
+    public void whenCancelled_nothingMoreIsDelivered() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        ManualExecutor executor = new ManualExecutor();
+        List<String> received = new ArrayList<>();
+        ConflatingPublisher.Subscription subscription = publisher.subscribe(executor, (value, missedUpdates) -> received.add(value));
+
+        //act
+        publisher.publish("a");
+        subscription.cancel();
+        publisher.publish("b");
+        executor.runAll();
+
+        //assert
+        Assert.assertEquals(0, received.size());
+        Assert.assertEquals(false, publisher.hasSubscribers());
+    }
+
+    @Test
+    public void whenPublishedDuringDelivery_noSecondDrainIsScheduled() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        ManualExecutor executor = new ManualExecutor();
+        List<String> received = new ArrayList<>();
+        publisher.subscribe(executor, (value, missedUpdates) -> {
+            received.add(value);
+            if (value.equals("a")) {
+                publisher.publish("b");
+            }
+        });
+
+        //act
+        publisher.publish("a");
+        executor.runAll();
+
+        //assert
+        Assert.assertEquals(2, received.size());
+        Assert.assertEquals("b", received.get(1));
+        Assert.assertEquals(1, executor.executed);
+    }
+
+    @Test
+    public void whenDrainIsDropped_nextPublishStillDelivers() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        ManualExecutor executor = new ManualExecutor();
+        List<String> received = new ArrayList<>();
+        List<Boolean> missed = new ArrayList<>();
+        publisher.subscribe(executor, (value, missedUpdates) -> {
+            received.add(value);
+            missed.add(missedUpdates);
+        });
+        executor.dropNext = true;
+
+        //act
+        publisher.publish("a");
+        publisher.publish("b");
+        executor.runAll();
+
+        //assert
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("b", received.get(0));
+        Assert.assertEquals(true, missed.get(0));
+    }
+
+    @Test
+    public void whenExecutorThrows_nextPublishStillDelivers() throws Exception {
+
+        //arrange
+        ConflatingPublisher<String> publisher = new ConflatingPublisher<>();
+        ManualExecutor executor = new ManualExecutor();
+        List<String> received = new ArrayList<>();
+        publisher.subscribe(executor, (value, missedUpdates) -> received.add(value));
+        executor.rejectNext = true;
+        try {
+            publisher.publish("a");
+            Assert.fail("expected the executor's exception");
+        } catch (RejectedExecutionException e) {
+            //expected
+        }
+
+        //act
+        publisher.publish("b");
+        executor.runAll();
+
+        //assert
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("b", received.get(0));
+    }
+
+    /**
+     * Can also drop work the way a full DERIVED lane does, or reject it outright
+     */
+    private static class ManualExecutor implements Executor {
+
+        private final List<Runnable> queue = new ArrayList<>();
+        private int executed = 0;
+        private boolean dropNext = false;
+        private boolean rejectNext = false;
+
+        @Override
+        public void execute(Runnable runnable) {
+            if (rejectNext) {
+                rejectNext = false;
+                throw new RejectedExecutionException("full");
+            }
+            if (dropNext) {
+                dropNext = false;
+                ((DroppableRunnable) runnable).onDropped();
+                return;
+            }
+            executed++;
+            queue.add(runnable);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+}
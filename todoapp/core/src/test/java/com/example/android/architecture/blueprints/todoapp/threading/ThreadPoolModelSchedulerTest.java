@@ -0,0 +1,139 @@
+package com.example.android.architecture.blueprints.todoapp.threading;
+
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Each lane here has one thread and room for one waiting task, so the third submission
+ * always finds the lane full
+ */
+public class ThreadPoolModelSchedulerTest {
+
+    private static Logger logger = new SystemLogger();
+
+    private static final ModelScheduler.LaneConfig TINY_LANE = new ModelScheduler.LaneConfig(1, 1);
+
+    private MetricsRegistry metrics;
+    private ModelScheduler modelScheduler;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws Exception {
+        metrics = new MetricsRegistry();
+        modelScheduler = new ThreadPoolModelScheduler(TINY_LANE, TINY_LANE, TINY_LANE, new ExecutorUiThread(), logger, metrics, WorkMode.ASYNCHRONOUS);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+    }
+
+    @Test
+    public void whenInteractiveLaneIsFull_workRunsOnTheCallersThread() throws Exception {
+        assertFullLaneRunsOnCaller(ModelScheduler.Lane.INTERACTIVE);
+    }
+
+    @Test
+    public void whenBulkLaneIsFull_workRunsOnTheCallersThread() throws Exception {
+        assertFullLaneRunsOnCaller(ModelScheduler.Lane.BULK);
+    }
+
+    @Test
+    public void whenRefreshLaneIsFull_oldestWaitingWorkIsDropped() throws Exception {
+
+        //arrange
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch latestRan = new CountDownLatch(1);
+        fill(ModelScheduler.Lane.REFRESH, ran);
+
+        //act
+        modelScheduler.execute(ModelScheduler.Lane.REFRESH, latestRan::countDown);
+        release.countDown();
+
+        //assert
+        Assert.assertTrue(latestRan.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(0, ran.get());
+        Assert.assertEquals(1, metrics.values(ModelScheduler.METRIC_DISCARDED_PREFIX + ModelScheduler.Lane.REFRESH).getCount());
+    }
+
+    @Test
+    public void whenWorkIsDone_itsResultIsDeliveredOnTheUiThread() throws Exception {
+
+        //arrange
+        ExecutorUiThread uiThread = new ExecutorUiThread();
+        ModelScheduler scheduler = new ThreadPoolModelScheduler(uiThread, logger, metrics, WorkMode.ASYNCHRONOUS);
+        AtomicReference<String> delivered = new AtomicReference<>();
+        AtomicReference<Boolean> deliveredOnUiThread = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        //act
+        scheduler.execute(ModelScheduler.Lane.INTERACTIVE, () -> "result", result -> {
+            delivered.set(result);
+            deliveredOnUiThread.set(uiThread.isCurrentThread());
+            done.countDown();
+        });
+
+        //assert
+        Assert.assertTrue(done.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals("result", delivered.get());
+        Assert.assertEquals(true, deliveredOnUiThread.get());
+    }
+
+    private void assertFullLaneRunsOnCaller(ModelScheduler.Lane lane) throws Exception {
+
+        //arrange
+        AtomicInteger ran = new AtomicInteger();
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        fill(lane, ran);
+
+        //act
+        modelScheduler.execute(lane, () -> ranOn.set(Thread.currentThread()));
+
+        //assert
+        Assert.assertEquals(Thread.currentThread(), ranOn.get());
+        Assert.assertEquals(1, metrics.values(ModelScheduler.METRIC_CALLER_RAN_PREFIX + lane).getCount());
+        release.countDown();
+        waitForLaneToDrain(lane);
+        Assert.assertEquals(1, ran.get());
+    }
+
+    /**
+     * Blocks the lane's only thread and fills its queue, the queued task increments ran
+     */
+    private void fill(ModelScheduler.Lane lane, AtomicInteger ran) throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        modelScheduler.execute(lane, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assert.assertTrue(running.await(2, TimeUnit.SECONDS));
+        modelScheduler.execute(lane, ran::incrementAndGet);
+    }
+
+    private void waitForLaneToDrain(ModelScheduler.Lane lane) throws Exception {
+        //until the queued task has been picked up, the marker would find the lane full and run here
+        long giveUpAt = System.currentTimeMillis() + 2000;
+        while (modelScheduler.getQueueSize(lane) > 0 && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(1);
+        }
+        CountDownLatch drained = new CountDownLatch(1);
+        modelScheduler.execute(lane, drained::countDown);
+        Assert.assertTrue(drained.await(2, TimeUnit.SECONDS));
+    }
+}
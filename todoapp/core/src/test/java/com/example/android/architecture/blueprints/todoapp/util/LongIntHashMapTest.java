@@ -0,0 +1,62 @@
+package com.example.android.architecture.blueprints.todoapp.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void whenFilledPastItsExpectedSize_everyKeyIsStillFound() throws Exception {
+
+        //arrange
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        //act
+        for (int ii = 0; ii < 10_000; ii++) {
+            map.put(ii * 3L + 1, ii);
+        }
+
+        //assert
+        Assert.assertEquals(10_000, map.size());
+        for (int ii = 0; ii < 10_000; ii++) {
+            Assert.assertEquals(ii, map.get(ii * 3L + 1));
+        }
+        Assert.assertEquals(LongIntHashMap.NO_VALUE, map.get(0));
+        Assert.assertEquals(LongIntHashMap.NO_VALUE, map.get(-1));
+        Assert.assertEquals(false, map.containsKey(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void whenKeyIsPutTwice_valueIsReplaced() throws Exception {
+
+        //arrange
+        LongIntHashMap map = new LongIntHashMap(0);
+        map.put(Long.MIN_VALUE, 7);
+
+        //act
+        int previous = map.put(Long.MIN_VALUE, 8);
+
+        //assert
+        Assert.assertEquals(7, previous);
+        Assert.assertEquals(8, map.get(Long.MIN_VALUE));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void whenValueIsNegative_exceptionIsThrown() throws Exception {
+
+        //arrange
+        LongIntHashMap map = new LongIntHashMap(1);
+
+        //act
+        try {
+            map.put(1, -1);
+            Assert.fail("expected put() to throw");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        //assert
+        Assert.assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,693 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import android.support.annotation.Nullable;
+
+import com.example.android.architecture.blueprints.todoapp.logging.LevelLogger;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.util.Affirm;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_COMPLETED;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_CREATE_TIMESTAMP;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DELETED;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DELETED_TIMESTAMP;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_DESCRIPTION;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_ID;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.COLUMN_TITLE;
+import static com.example.android.architecture.blueprints.todoapp.db.tasks.TaskItemEntity.TABLE_NAME;
+
+/**
+ * The sqlite {@link TaskStore} without Android: the same schema as TaskItemEntity, the same
+ * queries as TaskItemDao and the same insert and update statements that Room generates, run
+ * over JDBC with xerial's sqlite-jdbc. For load tests and benchmarks on a plain JVM against a
+ * real sqlite file at production row counts, which Robolectric's shadowed sqlite can't stand in
+ * for.
+ * <p>
+ * A new file is created at TaskItemDatabase's schema version (with incremental vacuum on, as
+ * IncrementalVacuumOpenHelperFactory does), an existing one must already be at that version,
+ * there are no migrations here. The {@link StorageProfile} is applied each time the file is
+ * opened, in the same order as StorageProfileOpenHelperFactory.
+ * <p>
+ * One connection, opened the first time the store is used. Every call holds the store's lock
+ * for its duration (sqlite only has one writer anyway). Transactions nest the way they do in
+ * {@link InMemoryTaskStore}, and change listeners are called once the outermost transaction
+ * that changed something has committed, on the thread that committed it. SQLExceptions come
+ * out as IllegalStateExceptions, after the transaction has been rolled back.
+ */
+public class JdbcTaskStore implements TaskStore {
+
+    public static final String LOG_TAG = JdbcTaskStore.class.getSimpleName();
+
+    //TaskItemDatabase.VERSION
+    static final int SCHEMA_VERSION = 4;
+
+    private static final int VACUUM_PAGES = 128;
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    //every query for the app's data has this in its WHERE clause, as in TaskItemDao
+    private static final String LIVE = COLUMN_DELETED + " = 0";
+
+    //as Room creates them for TaskItemEntity at SCHEMA_VERSION
+    private static final String[] CREATE_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` ("
+                    + "`" + COLUMN_ID + "` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`" + COLUMN_CREATE_TIMESTAMP + "` INTEGER NOT NULL, "
+                    + "`" + COLUMN_TITLE + "` TEXT COLLATE NOCASE, "
+                    + "`" + COLUMN_DESCRIPTION + "` TEXT, "
+                    + "`" + COLUMN_COMPLETED + "` INTEGER NOT NULL, "
+                    + "`" + COLUMN_DELETED + "` INTEGER NOT NULL, "
+                    + "`" + COLUMN_DELETED_TIMESTAMP + "` INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS `index_" + TABLE_NAME + "_" + COLUMN_CREATE_TIMESTAMP + "` "
+                    + "ON `" + TABLE_NAME + "` (`" + COLUMN_CREATE_TIMESTAMP + "`)",
+            "CREATE INDEX IF NOT EXISTS `index_" + TABLE_NAME + "_" + COLUMN_COMPLETED + "_" + COLUMN_CREATE_TIMESTAMP + "` "
+                    + "ON `" + TABLE_NAME + "` (`" + COLUMN_COMPLETED + "`, `" + COLUMN_CREATE_TIMESTAMP + "`)",
+            "CREATE INDEX IF NOT EXISTS `index_" + TABLE_NAME + "_" + COLUMN_TITLE + "` "
+                    + "ON `" + TABLE_NAME + "` (`" + COLUMN_TITLE + "`)"
+    };
+
+    //Room's @Insert and @Update for TaskItemEntity, an id of 0 means generate one
+    static final String INSERT_SQL = "INSERT OR ABORT INTO `" + TABLE_NAME + "` (`" + COLUMN_ID + "`, `"
+            + COLUMN_CREATE_TIMESTAMP + "`, `" + COLUMN_TITLE + "`, `" + COLUMN_DESCRIPTION + "`, `" + COLUMN_COMPLETED + "`, `"
+            + COLUMN_DELETED + "`, `" + COLUMN_DELETED_TIMESTAMP + "`) VALUES (nullif(?, 0), ?, ?, ?, ?, ?, ?)";
+
+    //TaskItemDao's queries, with ? for the named parameters
+    static final String IMPORT_SQL = "INSERT INTO `" + TABLE_NAME + "` (`"
+            + COLUMN_CREATE_TIMESTAMP + "`, `" + COLUMN_TITLE + "`, `" + COLUMN_DESCRIPTION + "`, `" + COLUMN_COMPLETED + "`, `"
+            + COLUMN_DELETED + "`, `" + COLUMN_DELETED_TIMESTAMP + "`) "
+            + "VALUES (?, ?, ?, ?, 0, 0)";
+    static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET " + COLUMN_CREATE_TIMESTAMP + " = ?, " + COLUMN_TITLE + " = ?, "
+            + COLUMN_DESCRIPTION + " = ?, " + COLUMN_COMPLETED + " = ? WHERE " + COLUMN_ID + " = ? AND " + LIVE;
+    static final String NEWEST_FIRST_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE
+            + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT ? OFFSET ?";
+    static final String OLDEST_FIRST_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE
+            + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + ", " + COLUMN_ID + " LIMIT ? OFFSET ?";
+    static final String BY_TITLE_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + LIVE
+            + " ORDER BY " + COLUMN_TITLE + ", " + COLUMN_ID + " LIMIT ? OFFSET ?";
+    static final String BY_COMPLETED_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = ? AND " + LIVE
+            + " ORDER BY " + COLUMN_CREATE_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT ? OFFSET ?";
+    static final String ROW_COUNT_SQL = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE " + LIVE;
+    static final String DONE_ROW_COUNT_SQL = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE " + COLUMN_COMPLETED + " = 1 AND " + LIVE;
+    static final String BY_ID_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " = ? AND " + LIVE;
+    static final String EXPORT_SQL = "SELECT * FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " > ? AND " + LIVE
+            + " ORDER BY " + COLUMN_ID + " LIMIT ?";
+    static final String SOFT_DELETE_SQL = "UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = ?"
+            + " WHERE " + COLUMN_ID + " = ? AND " + LIVE;
+    static final String CLEAR_SQL = "UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = ?"
+            + " WHERE " + LIVE;
+    static final String CLEAR_COMPLETED_SQL = "UPDATE " + TABLE_NAME + " SET " + COLUMN_DELETED + " = 1, " + COLUMN_DELETED_TIMESTAMP + " = ?"
+            + " WHERE " + COLUMN_COMPLETED + " = 1 AND " + LIVE;
+    static final String DELETED_IDS_SQL = "SELECT " + COLUMN_ID + " FROM " + TABLE_NAME
+            + " WHERE " + COLUMN_DELETED + " = 1 AND " + COLUMN_DELETED_TIMESTAMP + " > ?";
+    static final String MAX_ID_SQL = "SELECT IFNULL(MAX(" + COLUMN_ID + "), 0) FROM " + TABLE_NAME;
+    static final String PURGE_SQL = "DELETE FROM " + TABLE_NAME + " WHERE " + COLUMN_ID + " > ? AND " + COLUMN_ID + " <= ?"
+            + " AND " + COLUMN_DELETED + " = 1 AND " + COLUMN_DELETED_TIMESTAMP + " <= ?";
+
+    private final File file;
+    private final StorageProfile storageProfile;
+    private final LevelLogger logger;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    //everything below is guarded by this
+
+    private Connection connection;
+    private boolean closed = false;
+    //compiled once, kept for as long as the connection is open
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    private int transactionDepth = 0;
+    //set if a nested transaction failed, the outermost one then can't commit
+    private boolean rollbackOnly = false;
+    //rows inserted, changed or deleted in the open transaction
+    private int changedRows = 0;
+
+    public JdbcTaskStore(File file, StorageProfile storageProfile, Logger logger) {
+        this.file = Affirm.notNull(file);
+        this.storageProfile = Affirm.notNull(storageProfile);
+        this.logger = LevelLogger.wrap(logger);
+    }
+
+    @Override
+    public void addChangeListener(ChangeListener changeListener) {
+        changeListeners.add(Affirm.notNull(changeListener));
+    }
+
+    @Override
+    public void runInTransaction(Runnable work) {
+        Affirm.notNull(work);
+        write(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+
+    //reads
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems() {
+        return getAllTaskItems(-1, 0);
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst() {
+        return getAllTaskItemsOldestFirst(-1, 0);
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle() {
+        return getAllTaskItemsByTitle(-1, 0);
+    }
+
+    /**
+     * Two range scans of the (completed, create_timestamp) index, as in TaskItemDao
+     */
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsActiveFirst() {
+        return read(() -> {
+            List<TaskItemEntity> taskItemEntities = queryRows(BY_COMPLETED_SQL, 0, -1, 0);
+            taskItemEntities.addAll(queryRows(BY_COMPLETED_SQL, 1, -1, 0));
+            return taskItemEntities;
+        });
+    }
+
+    //a LIMIT of -1 is no limit in sqlite
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItems(int limit, int offset) {
+        return read(() -> queryRows(NEWEST_FIRST_SQL, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsOldestFirst(int limit, int offset) {
+        return read(() -> queryRows(OLDEST_FIRST_SQL, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getAllTaskItemsByTitle(int limit, int offset) {
+        return read(() -> queryRows(BY_TITLE_SQL, limit, offset));
+    }
+
+    @Override
+    public List<TaskItemEntity> getTaskItems(boolean completed, int limit, int offset) {
+        return read(() -> queryRows(BY_COMPLETED_SQL, completed ? 1 : 0, limit, offset));
+    }
+
+    @Override
+    public int getRowCount() {
+        return read(() -> (int) queryLong(ROW_COUNT_SQL));
+    }
+
+    @Override
+    public int getDoneRowCount() {
+        return read(() -> (int) queryLong(DONE_ROW_COUNT_SQL));
+    }
+
+    @Nullable
+    @Override
+    public TaskItemEntity getTaskItem(long entityId) {
+        return read(() -> {
+            List<TaskItemEntity> taskItemEntities = queryRows(BY_ID_SQL, entityId);
+            return taskItemEntities.isEmpty() ? null : taskItemEntities.get(0);
+        });
+    }
+
+    @Override
+    public synchronized int writeTaskItems(long afterId, int limit, TaskArchive.Writer writer) throws IOException {
+        Affirm.notNull(writer);
+        try {
+            PreparedStatement statement = bind(statement(EXPORT_SQL), afterId, limit);
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                Columns columns = null;
+                int rows = 0;
+                while (resultSet.next()) {
+                    if (columns == null) {
+                        columns = new Columns(resultSet);
+                    }
+                    writer.write(resultSet.getLong(columns.id),
+                            resultSet.getLong(columns.createTimestamp),
+                            resultSet.getString(columns.title),
+                            resultSet.getString(columns.description),
+                            resultSet.getInt(columns.completed) != 0);
+                    rows++;
+                }
+                return rows;
+            } finally {
+                resultSet.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("export query failed", e);
+        }
+    }
+
+
+    //writes
+
+    @Override
+    public long insertTaskItem(TaskItemEntity taskItemEntity) {
+        Affirm.notNull(taskItemEntity);
+        return write(() -> {
+            update(bindEntity(statement(INSERT_SQL), taskItemEntity));
+            return queryLong("SELECT last_insert_rowid()");
+        });
+    }
+
+    @Override
+    public void insertManyTaskItems(List<TaskItemEntity> taskItemEntities) {
+        Affirm.notNull(taskItemEntities);
+        write(() -> {
+            PreparedStatement statement = statement(INSERT_SQL);
+            for (TaskItemEntity taskItemEntity : taskItemEntities) {
+                bindEntity(statement, taskItemEntity).addBatch();
+            }
+            executeBatch(statement);
+            return null;
+        });
+    }
+
+    /**
+     * See TaskItemDao.importTaskItems(), one transaction and one batch per call
+     */
+    @Override
+    public int importTaskItems(Iterator<TaskItemEntity> taskItemEntities, int maxRows) {
+
+        Affirm.notNull(taskItemEntities);
+
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows must be at least 1, not:" + maxRows);
+        }
+
+        if (!taskItemEntities.hasNext()) {
+            return 0;
+        }
+
+        return write(() -> {
+            PreparedStatement statement = statement(IMPORT_SQL);
+            int rows = 0;
+            while (rows < maxRows && taskItemEntities.hasNext()) {
+                TaskItemEntity taskItemEntity = taskItemEntities.next();
+                bind(statement, taskItemEntity.getCreationTimestamp(), taskItemEntity.getTitle(),
+                        taskItemEntity.getDescription(), taskItemEntity.isCompleted() ? 1 : 0).addBatch();
+                rows++;
+            }
+            executeBatch(statement);
+            return rows;
+        });
+    }
+
+    @Override
+    public int updateTaskItem(TaskItemEntity taskItemEntity) {
+        Affirm.notNull(taskItemEntity);
+        return write(() -> {
+            return update(bind(statement(UPDATE_SQL),
+                    taskItemEntity.getCreationTimestamp(),
+                    taskItemEntity.getTitle(),
+                    taskItemEntity.getDescription(),
+                    taskItemEntity.isCompleted() ? 1 : 0,
+                    taskItemEntity.getId()));
+        });
+    }
+
+    @Override
+    public int softDeleteTaskItem(long entityId, long deletedTimestamp) {
+        return write(() -> update(bind(statement(SOFT_DELETE_SQL), deletedTimestamp, entityId)));
+    }
+
+    @Override
+    public int clear(long deletedTimestamp) {
+        return write(() -> update(bind(statement(CLEAR_SQL), deletedTimestamp)));
+    }
+
+    @Override
+    public int clearCompleted(long deletedTimestamp) {
+        return write(() -> update(bind(statement(CLEAR_COMPLETED_SQL), deletedTimestamp)));
+    }
+
+
+    //sync and compaction
+
+    @Override
+    public List<Long> getDeletedIdsSince(long since) {
+        return read(() -> {
+            ResultSet resultSet = bind(statement(DELETED_IDS_SQL), since).executeQuery();
+            try {
+                List<Long> ids = new ArrayList<>();
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+                return ids;
+            } finally {
+                resultSet.close();
+            }
+        });
+    }
+
+    @Override
+    public long getMaxId() {
+        return read(() -> queryLong(MAX_ID_SQL));
+    }
+
+    @Override
+    public int purgeTombstones(long fromIdExclusive, long toIdInclusive, long deletedBefore) {
+        return write(() -> update(bind(statement(PURGE_SQL), fromIdExclusive, toIdInclusive, deletedBefore)));
+    }
+
+    /**
+     * A few pages of incremental vacuum per call, as RoomTaskStore does. A file that was
+     * created without incremental vacuum is left as it is
+     */
+    @Override
+    public long reclaimSpaceStep() {
+        return read(() -> {
+            long freePages = queryLong("PRAGMA freelist_count");
+            if (freePages == 0 || queryLong("PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                return 0L;
+            }
+            //the pragma returns a row per page, stepping through them is what does the work
+            Statement statement = connection.createStatement();
+            try {
+                statement.execute("PRAGMA incremental_vacuum(" + VACUUM_PAGES + ")");
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    while (resultSet.next()) {
+                        //nothing to read
+                    }
+                }
+            } finally {
+                statement.close();
+            }
+            return Math.min(freePages, VACUUM_PAGES);
+        });
+    }
+
+    /**
+     * The store can't be used again once it's closed
+     */
+    public synchronized void close() {
+        closed = true;
+        if (connection == null) {
+            return;
+        }
+        try {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            connection.close();
+        } catch (SQLException e) {
+            logger.w(LOG_TAG, "close failed", e);
+        } finally {
+            statements.clear();
+            connection = null;
+        }
+    }
+
+
+    //everything from here on is called with the store locked
+
+    private void open() throws SQLException {
+
+        if (closed) {
+            throw new IllegalStateException("store is closed: " + file);
+        }
+        if (connection != null) {
+            return;
+        }
+
+        boolean created = !file.exists();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+        try {
+            configure(created);
+            int version = (int) queryLong("PRAGMA user_version");
+            if (version == 0) {
+                createSchema();
+            } else if (version != SCHEMA_VERSION) {
+                throw new IllegalStateException("schema version:" + version + " needs to be " + SCHEMA_VERSION
+                        + ", migrate it with the app first: " + file);
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            connection = null;
+            throw e;
+        }
+
+        logger.i(LOG_TAG, "opened " + file + " profile:" + storageProfile);
+    }
+
+    private void configure(boolean created) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            if (created) {
+                //both only work before the first table is created, and page_size only if it
+                //goes first (anything that touches the file settles the page size)
+                statement.execute("PRAGMA page_size = " + storageProfile.pageSizeBytes);
+                statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            }
+            statement.execute("PRAGMA journal_mode = " + storageProfile.journalMode);
+            statement.execute("PRAGMA synchronous = " + storageProfile.synchronous);
+            //negative means KiB rather than pages
+            statement.execute("PRAGMA cache_size = -" + storageProfile.cacheSizeKb);
+            statement.execute("PRAGMA mmap_size = " + storageProfile.mmapSizeBytes);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void createSchema() throws SQLException {
+        connection.setAutoCommit(false);
+        Statement statement = connection.createStatement();
+        try {
+            for (String sql : CREATE_SCHEMA) {
+                statement.execute(sql);
+            }
+            statement.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            statement.close();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private static PreparedStatement bind(PreparedStatement statement, Object... args) throws SQLException {
+        statement.clearParameters();
+        for (int ii = 0; ii < args.length; ii++) {
+            Object arg = args[ii];
+            if (arg == null) {
+                statement.setNull(ii + 1, Types.VARCHAR);
+            } else if (arg instanceof String) {
+                statement.setString(ii + 1, (String) arg);
+            } else {
+                statement.setLong(ii + 1, ((Number) arg).longValue());
+            }
+        }
+        return statement;
+    }
+
+    //the seven parameters of INSERT_SQL
+    private static PreparedStatement bindEntity(PreparedStatement statement, TaskItemEntity taskItemEntity) throws SQLException {
+        return bind(statement,
+                taskItemEntity.getId(),
+                taskItemEntity.getCreationTimestamp(),
+                taskItemEntity.getTitle(),
+                taskItemEntity.getDescription(),
+                taskItemEntity.isCompleted() ? 1 : 0,
+                taskItemEntity.isDeleted() ? 1 : 0,
+                taskItemEntity.getDeletedTimestamp());
+    }
+
+    private int update(PreparedStatement statement) throws SQLException {
+        int rows = statement.executeUpdate();
+        changedRows += rows;
+        return rows;
+    }
+
+    private void executeBatch(PreparedStatement statement) throws SQLException {
+        for (int rows : statement.executeBatch()) {
+            //SUCCESS_NO_INFO and friends are negative
+            changedRows += Math.max(rows, 1);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        ResultSet resultSet = statement(sql).executeQuery();
+        try {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    private List<TaskItemEntity> queryRows(String sql, Object... args) throws SQLException {
+        ResultSet resultSet = bind(statement(sql), args).executeQuery();
+        try {
+            Columns columns = null;
+            List<TaskItemEntity> taskItemEntities = new ArrayList<>();
+            while (resultSet.next()) {
+                if (columns == null) {
+                    columns = new Columns(resultSet);
+                }
+                TaskItemEntity taskItemEntity = new TaskItemEntity();
+                taskItemEntity.setId(resultSet.getLong(columns.id));
+                taskItemEntity.setCreationTimestamp(resultSet.getLong(columns.createTimestamp));
+                taskItemEntity.setTitle(resultSet.getString(columns.title));
+                taskItemEntity.setDescription(resultSet.getString(columns.description));
+                taskItemEntity.setCompleted(resultSet.getInt(columns.completed) != 0);
+                taskItemEntity.setDeleted(resultSet.getInt(columns.deleted) != 0);
+                taskItemEntity.setDeletedTimestamp(resultSet.getLong(columns.deletedTimestamp));
+                taskItemEntities.add(taskItemEntity);
+            }
+            return taskItemEntities;
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    //looked up on the first row, sqlite-jdbc closes a result set with no rows straight away
+    private static class Columns {
+
+        final int id;
+        final int createTimestamp;
+        final int title;
+        final int description;
+        final int completed;
+        final int deleted;
+        final int deletedTimestamp;
+
+        Columns(ResultSet resultSet) throws SQLException {
+            id = resultSet.findColumn(COLUMN_ID);
+            createTimestamp = resultSet.findColumn(COLUMN_CREATE_TIMESTAMP);
+            title = resultSet.findColumn(COLUMN_TITLE);
+            description = resultSet.findColumn(COLUMN_DESCRIPTION);
+            completed = resultSet.findColumn(COLUMN_COMPLETED);
+            deleted = resultSet.findColumn(COLUMN_DELETED);
+            deletedTimestamp = resultSet.findColumn(COLUMN_DELETED_TIMESTAMP);
+        }
+    }
+
+
+    //transactions
+
+    private interface Op<T> {
+        T run() throws SQLException;
+    }
+
+    private synchronized <T> T read(Op<T> op) {
+        try {
+            open();
+            return op.run();
+        } catch (SQLException e) {
+            throw new IllegalStateException("query failed", e);
+        }
+    }
+
+    private <T> T write(Op<T> op) {
+
+        T result;
+        boolean changed;
+
+        synchronized (this) {
+            try {
+                open();
+                if (transactionDepth == 0) {
+                    connection.setAutoCommit(false);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("couldn't start a transaction", e);
+            }
+            transactionDepth++;
+            boolean succeeded = false;
+            try {
+                result = op.run();
+                succeeded = true;
+            } catch (SQLException e) {
+                throw new IllegalStateException("write failed", e);
+            } finally {
+                changed = endTransaction(succeeded);
+            }
+        }
+
+        //outside the lock, and only once the outermost transaction has committed
+        if (changed) {
+            for (ChangeListener changeListener : changeListeners) {
+                changeListener.onChanged();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return true if the outermost transaction committed a change
+     */
+    private boolean endTransaction(boolean succeeded) {
+
+        transactionDepth--;
+        if (!succeeded) {
+            rollbackOnly = true;
+        }
+        if (transactionDepth > 0) {
+            return false;
+        }
+
+        try {
+            if (rollbackOnly) {
+                rollback();
+                if (succeeded) {
+                    //the failure was caught further in, but it still can't be committed
+                    throw new IllegalStateException("transaction rolled back, a nested write failed");
+                }
+                return false;
+            }
+
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                rollback();
+                throw new IllegalStateException("commit failed", e);
+            }
+            return changedRows > 0;
+        } finally {
+            changedRows = 0;
+            rollbackOnly = false;
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.w(LOG_TAG, "couldn't leave the transaction", e);
+            }
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.w(LOG_TAG, "rollback failed", e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.api.tasks.TaskItemPojo;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskFetcher;
+import com.example.android.architecture.blueprints.todoapp.feature.tasks.TaskListModel;
+import com.example.android.architecture.blueprints.todoapp.logging.Logger;
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+import com.example.android.architecture.blueprints.todoapp.metrics.MetricsRegistry;
+import com.example.android.architecture.blueprints.todoapp.threading.ExecutorUiThread;
+import com.example.android.architecture.blueprints.todoapp.threading.FrameBatcher;
+import com.example.android.architecture.blueprints.todoapp.threading.ModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.ThreadPoolModelScheduler;
+import com.example.android.architecture.blueprints.todoapp.threading.WorkMode;
+import com.example.android.architecture.blueprints.todoapp.time.SystemTimeWrapper;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StorageProfileBenchmark off device: the same import, single row updates, full reads and
+ * lookups by id for each StorageProfile, on a sqlite file of 100k rows, plus how long it takes
+ * to reopen it. Then the same for the models on top of the store: TaskListModel's refresh and
+ * TaskFetcher's duplicate filtering, with the network swapped for a stub TaskItemSource. There's
+ * no target, the numbers are for comparing runs on the same machine (CI) and they say nothing
+ * about a phone's flash.
+ */
+public class JdbcTaskStoreBenchmark {
+
+    private static final String LOG_TAG = JdbcTaskStoreBenchmark.class.getSimpleName();
+    private static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 2000;
+    private static final int UPDATES = 1000;
+    private static final int FULL_READS = 3;
+    private static final int LOOKUPS = 5000;
+    private static final int REFRESHES = 5;
+    //half of them are already in the db
+    private static final int FETCHED = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Logger logger = new SystemLogger();
+
+    @Test
+    public void oneHundredThousandRows() throws Exception {
+        for (StorageProfile profile : StorageProfile.values()) {
+            run(profile, new File(temporaryFolder.getRoot(), profile + ".db"));
+        }
+    }
+
+    /**
+     * SYNCHRONOUS, so each call has finished (refresh included) by the time it returns
+     */
+    @Test
+    public void modelsOnOneHundredThousandRows() throws Exception {
+
+        //arrange
+        WorkMode workMode = WorkMode.SYNCHRONOUS;
+        MetricsRegistry metrics = new MetricsRegistry();
+        ModelScheduler scheduler = new ThreadPoolModelScheduler(new ExecutorUiThread(), logger, metrics, workMode);
+        FrameBatcher frameBatcher = new FrameBatcher(new ExecutorUiThread(), workMode);
+        SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+        JdbcTaskStore taskStore = new JdbcTaskStore(new File(temporaryFolder.getRoot(), "models.db"),
+                StorageProfile.BALANCED, logger);
+        AtomicInteger fetchesSucceeded = new AtomicInteger();
+
+        try {
+            Iterator<TaskItemEntity> source = generate(ROWS);
+            while (source.hasNext()) {
+                taskStore.importTaskItems(source, CHUNK_SIZE);
+            }
+            //no DiffUtil off device, a null diff means a full redraw
+            TaskListModel taskListModel = new TaskListModel(taskStore, logger, metrics, scheduler, systemTimeWrapper,
+                    frameBatcher, (oldList, newList) -> null, workMode);
+            TaskFetcher taskFetcher = new TaskFetcher(taskListModel,
+                    (fetchWorkMode, successCallback, failureCallback) -> successCallback.success(generatePojos(FETCHED)),
+                    systemTimeWrapper, logger, metrics, frameBatcher, workMode);
+
+            //act
+            long start = System.nanoTime();
+            taskListModel.fetchLatestFromDb();
+            long firstLoadMs = msSince(start);
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < REFRESHES; ii++) {
+                taskListModel.fetchLatestFromDb();
+            }
+            long refreshesMs = msSince(start);
+
+            start = System.nanoTime();
+            taskFetcher.fetchTaskItems(fetchesSucceeded::incrementAndGet, failureMessage -> Assert.fail("fetch failed:" + failureMessage));
+            long fetchMs = msSince(start);
+
+            logger.i(LOG_TAG, "models on " + ROWS + " rows, first load:" + firstLoadMs
+                    + "ms, refresh:" + (refreshesMs / REFRESHES)
+                    + "ms, fetch of " + FETCHED + " with duplicates filtered out (and the refresh after):" + fetchMs + "ms");
+            logger.i(LOG_TAG, metrics.report());
+
+            //assert
+            Assert.assertEquals(1, fetchesSucceeded.get());
+            Assert.assertFalse(taskFetcher.isBusy());
+            Assert.assertEquals(ROWS + FETCHED / 2, taskStore.getRowCount());
+            Assert.assertEquals(ROWS + FETCHED / 2, taskListModel.getAllTasksCount());
+            Assert.assertEquals(FETCHED / 2, metrics.values(TaskListModel.METRIC_ROWS_INSERTED).getMax());
+        } finally {
+            taskStore.close();
+        }
+    }
+
+    private void run(StorageProfile profile, File file) {
+
+        JdbcTaskStore taskStore = new JdbcTaskStore(file, profile, logger);
+        List<TaskItemEntity> all;
+        int read = 0;
+        int found = 0;
+
+        try {
+            long start = System.nanoTime();
+            Iterator<TaskItemEntity> source = generate(ROWS);
+            while (source.hasNext()) {
+                taskStore.importTaskItems(source, CHUNK_SIZE);
+            }
+            long importMs = msSince(start);
+
+            all = taskStore.getAllTaskItemsOldestFirst();
+            start = System.nanoTime();
+            for (int ii = 0; ii < UPDATES; ii++) {
+                TaskItemEntity taskItemEntity = all.get(ii % all.size());
+                taskItemEntity.setCompleted(!taskItemEntity.isCompleted());
+                taskStore.updateTaskItem(taskItemEntity);
+            }
+            long updatesMs = msSince(start);
+
+            start = System.nanoTime();
+            for (int ii = 0; ii < FULL_READS; ii++) {
+                read += taskStore.getAllTaskItems().size();
+            }
+            long fullReadsMs = msSince(start);
+
+            Random random = new Random(ROWS);
+            start = System.nanoTime();
+            for (int ii = 0; ii < LOOKUPS; ii++) {
+                if (taskStore.getTaskItem(all.get(random.nextInt(all.size())).getId()) != null) {
+                    found++;
+                }
+            }
+            long lookupsMs = msSince(start);
+
+            logger.i(LOG_TAG, profile + " " + ROWS + " rows, import:" + perSecond(ROWS, importMs)
+                    + " rows/s, single row updates:" + perSecond(UPDATES, updatesMs)
+                    + "/s, full reads:" + perSecond(read, fullReadsMs)
+                    + " rows/s, lookups by id:" + perSecond(LOOKUPS, lookupsMs) + "/s");
+        } finally {
+            taskStore.close();
+        }
+
+        long start = System.nanoTime();
+        JdbcTaskStore reopened = new JdbcTaskStore(file, profile, logger);
+        try {
+            int rows = reopened.getRowCount();
+            logger.i(LOG_TAG, profile + " reopen and count:" + msSince(start) + "ms, file bytes:" + file.length());
+            Assert.assertEquals(ROWS, rows);
+        } finally {
+            reopened.close();
+        }
+
+        Assert.assertEquals(ROWS, all.size());
+        Assert.assertEquals(ROWS * FULL_READS, read);
+        Assert.assertEquals(LOOKUPS, found);
+    }
+
+    private static long msSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static long perSecond(int count, long ms) {
+        return count * 1000L / Math.max(1, ms);
+    }
+
+    private static Iterator<TaskItemEntity> generate(int rows) {
+        List<TaskItemEntity> taskItemEntities = new ArrayList<>(rows);
+        for (int ii = 0; ii < rows; ii++) {
+            TaskItemEntity taskItemEntity = new TaskItemEntity(ii, "task " + ii, "description " + ii);
+            taskItemEntity.setCompleted(ii % 3 == 0);
+            taskItemEntities.add(taskItemEntity);
+        }
+        return taskItemEntities.iterator();
+    }
+
+    /**
+     * Every other one has the title of a row made by generate()
+     */
+    private static List<TaskItemPojo> generatePojos(int count) {
+        List<TaskItemPojo> taskItemPojos = new ArrayList<>(count);
+        for (int ii = 0; ii < count; ii++) {
+            String title = ii % 2 == 0 ? "task " + ii : "fetched task " + ii;
+            taskItemPojos.add(new TaskItemPojo(title, "description " + ii, false));
+        }
+        return taskItemPojos;
+    }
+}
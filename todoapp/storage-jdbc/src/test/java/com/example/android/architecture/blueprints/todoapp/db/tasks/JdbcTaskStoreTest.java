@@ -0,0 +1,193 @@
+package com.example.android.architecture.blueprints.todoapp.db.tasks;
+
+import com.example.android.architecture.blueprints.todoapp.logging.SystemLogger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plain unit tests against a real sqlite file. The orders are checked against
+ * InMemoryTaskStore, which is what the app's unit tests run on
+ */
+public class JdbcTaskStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+    private JdbcTaskStore taskStore;
+
+    @Before
+    public void setup() {
+        file = new File(temporaryFolder.getRoot(), "tasks.db");
+        taskStore = new JdbcTaskStore(file, StorageProfile.BALANCED, new SystemLogger());
+    }
+
+    @After
+    public void tearDown() {
+        taskStore.close();
+    }
+
+    @Test
+    public void whenReadInEachOrder_rowsMatchTheInMemoryStore() throws Exception {
+
+        //arrange
+        InMemoryTaskStore inMemoryTaskStore = new InMemoryTaskStore();
+        List<TaskItemEntity> taskItemEntities = new ArrayList<>();
+        String[] titles = {"buy rice", "Buy Milk", null, "\u00e4pfel", "get hair cut", "BUY RICE", "walk dog"};
+        for (int ii = 0; ii < titles.length; ii++) {
+            //some timestamps tie, so the id has to break them
+            TaskItemEntity taskItemEntity = new TaskItemEntity(1000 * (ii / 2), titles[ii], "description " + ii);
+            taskItemEntity.setCompleted(ii % 3 == 0);
+            taskItemEntities.add(taskItemEntity);
+        }
+
+        //act
+        taskStore.insertManyTaskItems(taskItemEntities);
+        inMemoryTaskStore.insertManyTaskItems(taskItemEntities);
+        taskStore.softDeleteTaskItem(2, 5000);
+        inMemoryTaskStore.softDeleteTaskItem(2, 5000);
+
+        //assert
+        assertSameRows(inMemoryTaskStore.getAllTaskItems(), taskStore.getAllTaskItems());
+        assertSameRows(inMemoryTaskStore.getAllTaskItemsOldestFirst(), taskStore.getAllTaskItemsOldestFirst());
+        assertSameRows(inMemoryTaskStore.getAllTaskItemsByTitle(), taskStore.getAllTaskItemsByTitle());
+        assertSameRows(inMemoryTaskStore.getAllTaskItemsActiveFirst(), taskStore.getAllTaskItemsActiveFirst());
+        assertSameRows(inMemoryTaskStore.getAllTaskItems(2, 3), taskStore.getAllTaskItems(2, 3));
+        assertSameRows(inMemoryTaskStore.getTaskItems(true, 10, 0), taskStore.getTaskItems(true, 10, 0));
+        Assert.assertEquals(inMemoryTaskStore.getRowCount(), taskStore.getRowCount());
+        Assert.assertEquals(inMemoryTaskStore.getDoneRowCount(), taskStore.getDoneRowCount());
+    }
+
+    @Test
+    public void whenReopened_rowsAreThereAndIdsAreNotReused() throws Exception {
+
+        //arrange
+        long riceId = taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        long hairId = taskStore.insertTaskItem(new TaskItemEntity(2000, "get hair cut", "gr\u00f6\u00dfer"));
+        TaskItemEntity rice = taskStore.getTaskItem(riceId);
+        rice.setCompleted(true);
+        taskStore.updateTaskItem(rice);
+        taskStore.softDeleteTaskItem(hairId, 3000);
+        taskStore.purgeTombstones(0, hairId, 3000);
+        taskStore.close();
+
+        //act
+        taskStore = new JdbcTaskStore(file, StorageProfile.DURABLE, new SystemLogger());
+        long nextId = taskStore.insertTaskItem(new TaskItemEntity(4000, "walk dog", null));
+
+        //assert
+        Assert.assertEquals(2, taskStore.getRowCount());
+        Assert.assertEquals(true, taskStore.getTaskItem(riceId).isCompleted());
+        Assert.assertNull(taskStore.getTaskItem(hairId));
+        Assert.assertEquals(3, nextId);
+    }
+
+    @Test
+    public void whenSoftDeletedThenUpdated_rowStaysDeleted() throws Exception {
+
+        //arrange
+        InMemoryTaskStore inMemoryTaskStore = new InMemoryTaskStore();
+        long riceId = taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        long milkId = taskStore.insertTaskItem(new TaskItemEntity(2000, "buy milk", null));
+        inMemoryTaskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+        inMemoryTaskStore.insertTaskItem(new TaskItemEntity(2000, "buy milk", null));
+        //read before the deletes, as a late update from the UI would have been
+        TaskItemEntity rice = taskStore.getTaskItem(riceId);
+        TaskItemEntity milk = taskStore.getTaskItem(milkId);
+        rice.setTitle("buy brown rice");
+        milk.setCompleted(true);
+        taskStore.softDeleteTaskItem(riceId, 3000);
+        inMemoryTaskStore.softDeleteTaskItem(riceId, 3000);
+        taskStore.clear(4000);
+        inMemoryTaskStore.clear(4000);
+
+        //act
+        int jdbcRows = taskStore.updateTaskItem(rice) + taskStore.updateTaskItem(milk);
+        int inMemoryRows = inMemoryTaskStore.updateTaskItem(rice) + inMemoryTaskStore.updateTaskItem(milk);
+
+        //assert
+        Assert.assertEquals(0, jdbcRows);
+        Assert.assertEquals(0, inMemoryRows);
+        Assert.assertNull(taskStore.getTaskItem(riceId));
+        Assert.assertNull(taskStore.getTaskItem(milkId));
+        Assert.assertEquals(0, taskStore.getRowCount());
+        Assert.assertNull(inMemoryTaskStore.getTaskItem(riceId));
+        Assert.assertEquals(0, inMemoryTaskStore.getRowCount());
+        //the tombstones keep their timestamps so the compactor still purges them on time
+        Assert.assertEquals(1, taskStore.purgeTombstones(0, taskStore.getMaxId(), 3500));
+        Assert.assertEquals(1, inMemoryTaskStore.purgeTombstones(0, inMemoryTaskStore.getMaxId(), 3500));
+    }
+
+    @Test
+    public void whenTransactionFails_nothingIsWrittenOrNotified() throws Exception {
+
+        //arrange
+        AtomicInteger changes = new AtomicInteger();
+        taskStore.addChangeListener(changes::incrementAndGet);
+
+        //act
+        try {
+            taskStore.runInTransaction(() -> {
+                taskStore.insertTaskItem(new TaskItemEntity(1000, "buy rice", null));
+                throw new IllegalStateException("fail on purpose");
+            });
+            Assert.fail("expected the transaction to throw");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        taskStore.runInTransaction(() -> {
+            taskStore.insertTaskItem(new TaskItemEntity(2000, "get hair cut", null));
+            taskStore.insertTaskItem(new TaskItemEntity(3000, "walk dog", null));
+        });
+
+        //assert
+        Assert.assertEquals(1, changes.get());
+        Assert.assertEquals(2, taskStore.getRowCount());
+    }
+
+    @Test
+    public void whenTombstonesArePurged_spaceIsReclaimed() throws Exception {
+
+        //arrange
+        List<TaskItemEntity> taskItemEntities = new ArrayList<>();
+        for (int ii = 0; ii < 5000; ii++) {
+            taskItemEntities.add(new TaskItemEntity(ii, "task " + ii, "a description that takes up some room " + ii));
+        }
+        taskStore.insertManyTaskItems(taskItemEntities);
+        taskStore.clear(1000);
+        taskStore.purgeTombstones(0, taskStore.getMaxId(), 1000);
+
+        //act
+        long reclaimed = 0;
+        long pages;
+        while ((pages = taskStore.reclaimSpaceStep()) > 0) {
+            reclaimed += pages;
+        }
+
+        //assert
+        Assert.assertTrue("pages reclaimed:" + reclaimed, reclaimed > 0);
+        Assert.assertEquals(0, taskStore.getRowCount());
+    }
+
+    private static void assertSameRows(List<TaskItemEntity> expected, List<TaskItemEntity> actual) {
+        Assert.assertEquals(ids(expected), ids(actual));
+    }
+
+    private static List<Long> ids(List<TaskItemEntity> taskItemEntities) {
+        List<Long> ids = new ArrayList<>();
+        for (TaskItemEntity taskItemEntity : taskItemEntities) {
+            ids.add(taskItemEntity.getId());
+        }
+        return ids;
+    }
+}